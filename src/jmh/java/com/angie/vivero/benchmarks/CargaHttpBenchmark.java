@@ -0,0 +1,144 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.ViveroApplication;
+import com.angie.vivero.dto.ParametrosGeneracion;
+import com.angie.vivero.services.GeneradorDatosService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga HTTP concurrente sobre los endpoints de lectura y escritura de labores, con la
+ * aplicación atendiendo en hilos de plataforma (pool de Tomcat) o en hilos virtuales con el
+ * límite de concurrencia por tamaño del pool de conexiones.
+ *
+ * Cada hilo de JMH es un cliente que envía una solicitud y espera la respuesta; con más
+ * clientes que hilos de Tomcat, el modo plataforma encola las conexiones en el servidor.
+ * El modo virtual requiere JDK 21 o superior. Las respuestas que no son 2xx se cuentan
+ * en la métrica auxiliar "rechazadas".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class CargaHttpBenchmark {
+
+    private static final int LABORES = 50_000;
+    private static final int LABORES_POR_LOTE = 5;
+
+    @Param({"plataforma", "virtual"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private String base;
+    private long[] viveroIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Respuestas {
+        public long rechazadas;
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        boolean virtual = "virtual".equals(modo);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("El modo virtual requiere JDK 21 o superior; se ejecuta con "
+                    + Runtime.version());
+        }
+        contexto = new SpringApplicationBuilder(ViveroApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:carga;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "management.server.port=-1",
+                        "spring.main.banner-mode=off",
+                        "spring.jpa.show-sql=false",
+                        "vivero.pruebas.medicion-sql=false",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "logging.level.root=WARN")
+                .run();
+        int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        base = "http://localhost:" + puerto;
+
+        ParametrosGeneracion parametros = new ParametrosGeneracion(LABORES / 100, 4, 3, LABORES, 15, 0.5,
+                ContextoBenchmark.FECHA_INICIAL, ContextoBenchmark.DIAS, 0.8, 42L,
+                Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())), 1000);
+        contexto.getBean(GeneradorDatosService.class).generar(parametros, true);
+        viveroIds = contexto.getBean(JdbcTemplate.class).queryForList("select id from viveros", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int leerLaboresPorVivero(Respuestas respuestas) throws IOException, InterruptedException {
+        HttpRequest solicitud = HttpRequest.newBuilder(
+                        URI.create(base + "/api/labores/vivero/" + ContextoBenchmark.cualquiera(viveroIds)))
+                .GET()
+                .build();
+        return enviar(solicitud, respuestas);
+    }
+
+    @Benchmark
+    public int registrarLote(Respuestas respuestas) throws IOException, InterruptedException {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        StringBuilder cuerpo = new StringBuilder("[");
+        for (int i = 0; i < LABORES_POR_LOTE; i++) {
+            LocalDate fecha = ContextoBenchmark.FECHA_INICIAL.plusDays(aleatorio.nextInt(ContextoBenchmark.DIAS));
+            cuerpo.append(i == 0 ? "" : ",")
+                    .append("{\"fecha\":\"").append(fecha)
+                    .append("\",\"descripcion\":\"Riego por goteo de carga\",\"viveroId\":")
+                    .append(ContextoBenchmark.cualquiera(viveroIds)).append('}');
+        }
+        HttpRequest solicitud = HttpRequest.newBuilder(URI.create(base + "/api/labores/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo.append(']').toString()))
+                .build();
+        return enviar(solicitud, respuestas);
+    }
+
+    private int enviar(HttpRequest solicitud, Respuestas respuestas) throws IOException, InterruptedException {
+        int estado = cliente.send(solicitud, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (estado / 100 != 2) {
+            respuestas.rechazadas++;
+        }
+        return estado;
+    }
+}
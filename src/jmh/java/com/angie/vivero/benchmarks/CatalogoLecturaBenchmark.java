@@ -0,0 +1,58 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.repositories.LaborRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primera página de labores con producto de un vivero sobre las dos disposiciones del
+ * catálogo: la jerarquía JOINED (une las tablas de subtipo) y el modelo de lectura
+ * productos_control_lectura (una sola tabla).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogoLecturaBenchmark {
+
+    private static final Limit PAGINA = Limit.of(50);
+
+    // Cursor anterior a cualquier labor, igual al de la primera página del servicio
+    private static final LocalDate DESDE = LocalDate.of(1000, 1, 1);
+
+    private LaborRepository laborRepository;
+
+    @Setup(Level.Trial)
+    public void iniciar(ContextoBenchmark contexto) {
+        laborRepository = contexto.contexto.getBean(LaborRepository.class);
+    }
+
+    @Benchmark
+    public List<LaborConProductoDTO> paginaConProductoJoined(ContextoBenchmark contexto) {
+        return laborRepository.buscarPaginaConProductoPorViveroDesde(
+                ContextoBenchmark.cualquiera(contexto.viveroIds), DESDE, 0L, PAGINA);
+    }
+
+    @Benchmark
+    public List<LaborConProductoDTO> paginaConProductoModeloLectura(ContextoBenchmark contexto) {
+        return laborRepository.buscarPaginaConProductoLecturaPorViveroDesde(
+                ContextoBenchmark.cualquiera(contexto.viveroIds), DESDE, 0L, PAGINA);
+    }
+}
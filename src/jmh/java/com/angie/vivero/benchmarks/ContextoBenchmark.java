@@ -0,0 +1,111 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.ViveroApplication;
+import com.angie.vivero.dto.ParametrosGeneracion;
+import com.angie.vivero.dto.ResultadoGeneracion;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.services.GeneradorDatosService;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductorService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aplicación levantada sin servidor web sobre una base H2 en memoria, con un conjunto
+ * de datos sintéticos de GeneradorDatosService.
+ *
+ * El tamaño se fija con el parámetro tamano (cantidad de labores): por cada 100 labores
+ * hay un productor con entre una y cuatro fincas de hasta tres viveros, las labores se
+ * concentran en unos pocos viveros y productos, y las fechas se reparten en los dos años
+ * que empiezan en FECHA_INICIAL. La semilla es fija, así que dos ejecuciones con el mismo
+ * tamaño miden los mismos datos. Sin -p tamano=... se usan 10.000 labores; los tamaños
+ * grandes se piden solo para los benchmarks que los necesitan, por ejemplo
+ * -p tamano=1000000,10000000 con IndicesLaboresBenchmark. El de 10 millones necesita
+ * unos 4 GB de heap.
+ */
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+    static final LocalDate FECHA_INICIAL = LocalDate.of(2024, 1, 1);
+    static final int DIAS = 730;
+
+    private static final int LABORES_POR_PRODUCTOR = 100;
+
+    @Param({"10000"})
+    public int tamano;
+
+    ConfigurableApplicationContext contexto;
+    LaborService laborService;
+    ProductorService productorService;
+
+    long[] viveroIds;
+    long[] productorIds;
+    long[] productoIds;
+
+    private final AtomicLong secuenciaDocumentos = new AtomicLong(9_000_000_000L);
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(ViveroApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "spring.jpa.show-sql=false",
+                        "vivero.pruebas.medicion-sql=false",
+                        "vivero.catalogo.modelo-lectura.habilitado=true",
+                        "logging.level.root=WARN")
+                .run();
+        laborService = contexto.getBean(LaborService.class);
+        productorService = contexto.getBean(ProductorService.class);
+        generarDatos();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    private void generarDatos() {
+        ParametrosGeneracion parametros = new ParametrosGeneracion(Math.max(1, tamano / LABORES_POR_PRODUCTOR),
+                4, 3, tamano, 15, 0.5, FECHA_INICIAL, DIAS, 0.8, 42L,
+                Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())), 1000);
+        ResultadoGeneracion resultado = contexto.getBean(GeneradorDatosService.class).generar(parametros, true);
+        productoIds = resultado.productoIds().stream().mapToLong(Long::longValue).toArray();
+
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        productorIds = jdbcTemplate.queryForList("select id from productores", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        viveroIds = jdbcTemplate.queryForList("select id from viveros", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+    }
+
+    ProductorModel nuevoProductor() {
+        String documento = String.valueOf(secuenciaDocumentos.incrementAndGet());
+        return new ProductorModel(documento, "Productor", documento, "3000000000", documento + "@vivero.co");
+    }
+
+    static List<FincaModel> nuevasFincas(ProductorModel productor) {
+        return List.of(new FincaModel("CAT-" + productor.getDocumento() + "-A", "Rionegro", null),
+                new FincaModel("CAT-" + productor.getDocumento() + "-B", "Marinilla", null));
+    }
+
+    static long cualquiera(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
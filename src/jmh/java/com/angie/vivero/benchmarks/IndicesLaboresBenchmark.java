@@ -0,0 +1,79 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.repositories.LaborRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas derivadas de LaborRepository con y sin los índices de labores de la migración V3.
+ *
+ * Con indices=sin se eliminan idx_labores_vivero_fecha, idx_labores_producto_fecha e
+ * idx_labores_fecha después de generar los datos. Quedan los índices de las claves foráneas
+ * y idx_labores_vivero_version, como en una base migrada solo hasta la versión 2 y las
+ * posteriores a la 3. La consulta por fechas pide un solo día para que el resultado no crezca
+ * tanto con el tamaño que tape el costo de encontrar las filas.
+ *
+ * La diferencia aparece con tablas grandes: se ejecuta con
+ * -Djmh.args="IndicesLaboresBenchmark -p tamano=10000,1000000,10000000".
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndicesLaboresBenchmark {
+
+    private static final List<String> INDICES_V3 =
+            List.of("idx_labores_vivero_fecha", "idx_labores_producto_fecha", "idx_labores_fecha");
+
+    @Param({"con", "sin"})
+    public String indices;
+
+    private LaborRepository laborRepository;
+
+    @Setup(Level.Trial)
+    public void iniciar(ContextoBenchmark contexto) {
+        laborRepository = contexto.contexto.getBean(LaborRepository.class);
+        JdbcTemplate jdbcTemplate = contexto.contexto.getBean(JdbcTemplate.class);
+        if (indices.equals("sin")) {
+            INDICES_V3.forEach(indice -> jdbcTemplate.execute("DROP INDEX " + indice));
+        }
+        // Estadísticas recientes en las dos variantes, para que el plan dependa solo de los índices
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Benchmark
+    public List<LaborModel> findByViveroId(ContextoBenchmark contexto) {
+        return laborRepository.findByViveroId(ContextoBenchmark.cualquiera(contexto.viveroIds));
+    }
+
+    @Benchmark
+    public List<LaborModel> findByFechaBetween() {
+        LocalDate dia = ContextoBenchmark.FECHA_INICIAL.plusDays(
+                ThreadLocalRandom.current().nextInt(ContextoBenchmark.DIAS));
+        return laborRepository.findByFechaBetween(dia, dia);
+    }
+
+    @Benchmark
+    public List<LaborModel> findByProductoControlId(ContextoBenchmark contexto) {
+        return laborRepository.findByProductoControlId(ContextoBenchmark.cualquiera(contexto.productoIds));
+    }
+}
@@ -0,0 +1,84 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.dto.LaborLoteItem;
+import com.angie.vivero.dto.ResultadoItemLote;
+import com.angie.vivero.models.LaborModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro y consultas de labores sobre el conjunto de datos de ContextoBenchmark.
+ *
+ * Cada consulta elige al azar el vivero o la ventana de fechas, así que se mide el costo
+ * promedio sobre todo el conjunto y no el de una fila que ya quedó en caché.
+ *
+ * registrarEnLote y registrarUnaPorUna ingresan cada uno LABORES_POR_LOTE labores por operación,
+ * con vivero y producto al azar: el primero como un bloque de POST /api/labores/batch
+ * (registrarLaboresEnLote) y el segundo con una transacción por labor, como el registro
+ * individual (registrarLaborConProducto). La razón entre sus throughput es la ganancia de la
+ * carga masiva.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LaborBenchmark {
+
+    private static final int DIAS_CONSULTA = 30;
+
+    private static final int LABORES_POR_LOTE = 100;
+
+    @Benchmark
+    public LaborModel registrarLaborConProducto(ContextoBenchmark contexto) {
+        LaborModel labor = new LaborModel();
+        labor.setFecha(ContextoBenchmark.FECHA_INICIAL.plusDays(ThreadLocalRandom.current().nextInt(ContextoBenchmark.DIAS)));
+        labor.setDescripcion("Aplicación de control fitosanitario");
+        return contexto.laborService.registrarLaborConProducto(labor,
+                ContextoBenchmark.cualquiera(contexto.viveroIds), ContextoBenchmark.cualquiera(contexto.productoIds));
+    }
+
+    @Benchmark
+    public List<ResultadoItemLote> registrarEnLote(ContextoBenchmark contexto) {
+        List<LaborLoteItem> items = new ArrayList<>(LABORES_POR_LOTE);
+        for (int i = 0; i < LABORES_POR_LOTE; i++) {
+            items.add(new LaborLoteItem(
+                    ContextoBenchmark.FECHA_INICIAL.plusDays(ThreadLocalRandom.current().nextInt(ContextoBenchmark.DIAS)),
+                    "Aplicación de control fitosanitario", ContextoBenchmark.cualquiera(contexto.viveroIds),
+                    ContextoBenchmark.cualquiera(contexto.productoIds)));
+        }
+        return contexto.laborService.registrarLaboresEnLote(items, 0);
+    }
+
+    @Benchmark
+    public List<LaborModel> registrarUnaPorUna(ContextoBenchmark contexto) {
+        List<LaborModel> registradas = new ArrayList<>(LABORES_POR_LOTE);
+        for (int i = 0; i < LABORES_POR_LOTE; i++) {
+            registradas.add(registrarLaborConProducto(contexto));
+        }
+        return registradas;
+    }
+
+    @Benchmark
+    public List<LaborModel> obtenerLaboresPorRangoFechas(ContextoBenchmark contexto) {
+        LocalDate inicio = ContextoBenchmark.FECHA_INICIAL.plusDays(
+                ThreadLocalRandom.current().nextInt(ContextoBenchmark.DIAS - DIAS_CONSULTA));
+        return contexto.laborService.obtenerLaboresPorRangoFechas(inicio, inicio.plusDays(DIAS_CONSULTA - 1));
+    }
+
+    @Benchmark
+    public List<LaborModel> obtenerLaboresPorVivero(ContextoBenchmark contexto) {
+        return contexto.laborService.obtenerLaboresPorVivero(ContextoBenchmark.cualquiera(contexto.viveroIds));
+    }
+}
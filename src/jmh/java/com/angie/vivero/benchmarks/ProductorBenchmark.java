@@ -0,0 +1,61 @@
+package com.angie.vivero.benchmarks;
+
+import com.angie.vivero.dto.ProductorConFincasDTO;
+import com.angie.vivero.models.ProductorModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro y consulta de productores con sus fincas.
+ *
+ * obtenerProductorConFincas devuelve la entidad con las fincas perezosas, así que se mide
+ * dentro de una transacción recorriendo las fincas, como lo haría quien la usa; la vista
+ * de lectura obtenerProductorConFincasDTO se mide al lado para comparar.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductorBenchmark {
+
+    private TransactionTemplate transaccion;
+
+    @Setup(Level.Trial)
+    public void iniciar(ContextoBenchmark contexto) {
+        transaccion = contexto.contexto.getBean(TransactionTemplate.class);
+    }
+
+    @Benchmark
+    public ProductorModel registrarProductorConFincas(ContextoBenchmark contexto) {
+        ProductorModel productor = contexto.nuevoProductor();
+        return contexto.productorService.registrarProductorConFincas(productor, ContextoBenchmark.nuevasFincas(productor));
+    }
+
+    @Benchmark
+    public int obtenerProductorConFincas(ContextoBenchmark contexto) {
+        long id = ContextoBenchmark.cualquiera(contexto.productorIds);
+        return transaccion.execute(estado -> contexto.productorService.obtenerProductorConFincas(id)
+                .map(productor -> productor.getFincas().size())
+                .orElse(0));
+    }
+
+    @Benchmark
+    public Optional<ProductorConFincasDTO> obtenerProductorConFincasDTO(ContextoBenchmark contexto) {
+        return contexto.productorService.obtenerProductorConFincasDTO(ContextoBenchmark.cualquiera(contexto.productorIds));
+    }
+}
@@ -0,0 +1,34 @@
+package com.angie.vivero.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Cachés en memoria del catálogo de productos de control.
+ * 
+ * El interceptor de caché se ubica por fuera del transaccional, así que un acierto
+ * no abre transacción ni pide conexión. Las invalidaciones hechas dentro de una
+ * transacción se aplican al confirmarla, para no volver a cachear datos sin confirmar.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String PRODUCTOS_POR_ID = "productosControlPorId";
+    public static final String PRODUCTOS_POR_REGISTRO = "productosControlPorRegistro";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${vivero.cache.catalogo.spec:maximumSize=1000,expireAfterWrite=10m,recordStats}") String especificacion) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(PRODUCTOS_POR_ID, PRODUCTOS_POR_REGISTRO);
+        caffeine.setCacheSpecification(especificacion);
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
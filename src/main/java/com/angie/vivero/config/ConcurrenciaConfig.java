@@ -0,0 +1,43 @@
+package com.angie.vivero.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Límite de solicitudes /api concurrentes (ver LimiteConcurrenciaFilter), solo con hilos
+ * virtuales: con hilos de plataforma el pool de hilos de Tomcat ya limita la concurrencia.
+ *
+ * Las exportaciones tienen vivero.concurrencia.maximo-exportaciones permisos propios (por
+ * defecto la cuarta parte del pool, al menos uno). Si no se fija
+ * vivero.concurrencia.maximo-solicitudes, las demás solicitudes reciben las conexiones
+ * restantes menos una. La conexión sobrante es la que piden, mientras conservan la suya,
+ * la reserva de un bloque de IDs (GeneradorIdsPorBloques trabaja en una transacción aparte) y
+ * los oyentes AFTER_COMMIT con REQUIRES_NEW; sin ella, con el pool lleno, esas solicitudes
+ * se bloquean entre sí hasta que Hikari agota su tiempo de espera.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vivero.concurrencia.limite.habilitado", havingValue = "true", matchIfMissing = true)
+public class ConcurrenciaConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public FilterRegistrationBean<LimiteConcurrenciaFilter> limiteConcurrenciaFilter(
+            @Value("${vivero.concurrencia.maximo-solicitudes:0}") int maximoSolicitudes,
+            @Value("${vivero.concurrencia.maximo-exportaciones:0}") int maximoExportaciones,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanoPool,
+            @Value("${vivero.concurrencia.espera-maxima:2s}") Duration esperaMaxima,
+            MeterRegistry registro) {
+        int exportaciones = maximoExportaciones > 0 ? maximoExportaciones : Math.max(1, tamanoPool / 4);
+        int permisos = maximoSolicitudes > 0 ? maximoSolicitudes : Math.max(1, tamanoPool - exportaciones - 1);
+        FilterRegistrationBean<LimiteConcurrenciaFilter> registroFiltro = new FilterRegistrationBean<>(
+                new LimiteConcurrenciaFilter(permisos, exportaciones, esperaMaxima, registro));
+        registroFiltro.addUrlPatterns("/api/*");
+        return registroFiltro;
+    }
+}
@@ -0,0 +1,68 @@
+package com.angie.vivero.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard al que van las conexiones que se piden en este hilo.
+ *
+ * PoolsShards lo lee cuando se pide la conexión física, que con LazyConnectionDataSourceProxy
+ * llega en la primera sentencia de la transacción. Sin shard fijado se usa el del directorio,
+ * que guarda también las tablas globales.
+ */
+public final class ContextoShard {
+
+    /**
+     * Shard del directorio y de las tablas globales (secuencias de IDs, catálogo maestro,
+     * importaciones y usuarios).
+     */
+    public static final int DIRECTORIO = 0;
+
+    private static final ThreadLocal<Integer> fijado = new ThreadLocal<>();
+
+    private ContextoShard() {
+    }
+
+    /**
+     * @return Shard fijado en este hilo, o null si no hay ninguno
+     */
+    public static Integer fijado() {
+        return fijado.get();
+    }
+
+    /**
+     * @return Shard al que van las conexiones de este hilo
+     */
+    public static int actual() {
+        Integer shard = fijado.get();
+        return shard != null ? shard : DIRECTORIO;
+    }
+
+    public static void fijar(int shard) {
+        fijado.set(shard);
+    }
+
+    public static void limpiar() {
+        fijado.remove();
+    }
+
+    /**
+     * Ejecuta un trabajo con las conexiones en un shard y después restaura el shard anterior.
+     *
+     * @param shard Shard del trabajo
+     * @param trabajo Trabajo que pide sus conexiones en ese shard
+     * @return Resultado del trabajo
+     */
+    public static <T> T ejecutarEn(int shard, Supplier<T> trabajo) {
+        Integer anterior = fijado.get();
+        fijado.set(shard);
+        try {
+            return trabajo.get();
+        } finally {
+            if (anterior != null) {
+                fijado.set(anterior);
+            } else {
+                fijado.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.dto.DistribucionShardDTO;
+import com.angie.vivero.dto.TrasladoProductorDTO;
+import com.angie.vivero.services.RebalanceoShards;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.List;
+
+/**
+ * Endpoint de administración /actuator/shards, en el puerto de management:
+ * GET devuelve la distribución, POST rebalancea y POST /actuator/shards/{productorId}
+ * con {"destino": n} traslada un productor.
+ */
+@Endpoint(id = "shards")
+public class EndpointShards {
+
+    private final RebalanceoShards rebalanceoShards;
+
+    public EndpointShards(RebalanceoShards rebalanceoShards) {
+        this.rebalanceoShards = rebalanceoShards;
+    }
+
+    @ReadOperation
+    public List<DistribucionShardDTO> distribucion() {
+        return rebalanceoShards.distribucion();
+    }
+
+    @WriteOperation
+    public List<TrasladoProductorDTO> rebalancear() {
+        return rebalanceoShards.rebalancear();
+    }
+
+    @WriteOperation
+    public TrasladoProductorDTO trasladar(@Selector Long productorId, int destino) {
+        try {
+            return rebalanceoShards.trasladar(productorId, destino);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.angie.vivero.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools del primario y de las réplicas. lectura() es el DataSource de las transacciones de
+ * solo lectura: reparte las conexiones entre las réplicas cuyo retraso no supera el máximo,
+ * y si ninguna cumple las pide al primario.
+ *
+ * El retraso se mide con un latido: cada intervalo se escribe la hora actual (UTC) en la
+ * tabla latido_replicacion del primario y se lee la de cada réplica; la diferencia es el
+ * retraso, que incluye hasta un intervalo de latido. Una réplica que no responde queda
+ * fuera hasta el siguiente latido.
+ *
+ * Cada hilo conserva la réplica elegida hasta el siguiente latido. Así las transacciones de
+ * una misma solicitud (por ejemplo, el sello del ETag y los datos) leen de la misma réplica,
+ * que solo avanza: los datos nunca son más viejos que el sello que se envió con ellos.
+ */
+public class EnrutadorReplicas implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrutadorReplicas.class);
+
+    private static final String LEER_LATIDO = "SELECT instante FROM latido_replicacion WHERE id = 1";
+    private static final String ACTUALIZAR_LATIDO = "UPDATE latido_replicacion SET instante = ? WHERE id = 1";
+    private static final String INSERTAR_LATIDO = "INSERT INTO latido_replicacion (id, instante) VALUES (1, ?)";
+
+    private final HikariDataSource primario;
+    private final JdbcTemplate jdbcPrimario;
+    private final DataSource lectura = new DataSourceLectura();
+    private final List<Replica> replicas;
+    private final Duration retrasoMaximo;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private final ThreadLocal<Afinidad> afinidad = new ThreadLocal<>();
+    private volatile long ronda;
+
+    /**
+     * @param primario Pool del primario, al que se recurre sin réplicas disponibles
+     * @param replicas Pools de las réplicas, de solo lectura
+     * @param retrasoMaximo Retraso desde el que una réplica deja de recibir lecturas
+     * @param registro Registro de métricas para el retraso de cada réplica
+     */
+    public EnrutadorReplicas(HikariDataSource primario, List<HikariDataSource> replicas, Duration retrasoMaximo,
+                             MeterRegistry registro) {
+        this.primario = primario;
+        this.jdbcPrimario = new JdbcTemplate(primario);
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.retrasoMaximo = retrasoMaximo;
+        for (Replica replica : this.replicas) {
+            Gauge.builder("vivero.replicas.retraso", replica, r -> r.retrasoSegundos)
+                    .description("Retraso de la réplica medido con el último latido; NaN si no respondió")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.nombre)
+                    .register(registro);
+            Gauge.builder("vivero.replicas.disponible", replica, r -> r.disponible ? 1 : 0)
+                    .description("1 si la réplica recibe lecturas, 0 si se lee del primario en su lugar")
+                    .tag("replica", replica.nombre)
+                    .register(registro);
+        }
+    }
+
+    /**
+     * @return Pool del primario, para las transacciones de lectura y escritura
+     */
+    public DataSource primario() {
+        return primario;
+    }
+
+    /**
+     * @return DataSource de las transacciones de solo lectura
+     */
+    public DataSource lectura() {
+        return lectura;
+    }
+
+    private DataSource elegir() {
+        long rondaActual = ronda;
+        Afinidad anterior = afinidad.get();
+        if (anterior != null && anterior.ronda() == rondaActual && anterior.replica().disponible) {
+            return anterior.replica().dataSource;
+        }
+        List<Replica> disponibles = replicas.stream().filter(r -> r.disponible).toList();
+        if (disponibles.isEmpty()) {
+            afinidad.remove();
+            return primario;
+        }
+        Replica elegida = disponibles.get(Math.floorMod(siguiente.getAndIncrement(), disponibles.size()));
+        afinidad.set(new Afinidad(elegida, rondaActual));
+        return elegida.dataSource;
+    }
+
+    /**
+     * Escribe el latido en el primario y mide el retraso de cada réplica. La primera medición
+     * llega un intervalo después del arranque; hasta entonces las lecturas van al primario.
+     */
+    @Scheduled(initialDelayString = "${vivero.replicas.intervalo-latido:1s}",
+            fixedDelayString = "${vivero.replicas.intervalo-latido:1s}")
+    public void verificar() {
+        LocalDateTime ahora = LocalDateTime.now(ZoneOffset.UTC);
+        try {
+            if (jdbcPrimario.update(ACTUALIZAR_LATIDO, ahora) == 0) {
+                jdbcPrimario.update(INSERTAR_LATIDO, ahora);
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudo escribir el latido de replicación en el primario: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            boolean disponibleAntes = replica.disponible;
+            try {
+                LocalDateTime latido = replica.jdbc.queryForObject(LEER_LATIDO, LocalDateTime.class);
+                Duration retraso = Duration.between(latido, ahora);
+                replica.retrasoSegundos = retraso.toMillis() / 1000.0;
+                replica.disponible = retraso.compareTo(retrasoMaximo) <= 0;
+            } catch (DataAccessException e) {
+                replica.retrasoSegundos = Double.NaN;
+                replica.disponible = false;
+            }
+            if (disponibleAntes != replica.disponible) {
+                log.info("Réplica {} {} (retraso {} s)", replica.nombre,
+                        replica.disponible ? "disponible" : "fuera de servicio", replica.retrasoSegundos);
+            }
+        }
+        ronda++;
+    }
+
+    /**
+     * @return Nombres de los pools de las réplicas que reciben lecturas
+     */
+    public List<String> replicasDisponibles() {
+        return replicas.stream().filter(r -> r.disponible).map(r -> r.nombre).toList();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(r -> r.dataSource.close());
+        primario.close();
+    }
+
+    private final class DataSourceLectura extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return elegir().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return elegir().getConnection(username, password);
+        }
+    }
+
+    private record Afinidad(Replica replica, long ronda) {
+    }
+
+    private static final class Replica {
+        private final String nombre;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private volatile boolean disponible;
+        private volatile double retrasoSegundos = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.nombre = dataSource.getPoolName();
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.jdbc.setQueryTimeout(1);
+        }
+    }
+}
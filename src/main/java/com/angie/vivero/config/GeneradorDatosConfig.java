@@ -0,0 +1,57 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.dto.ParametrosGeneracion;
+import com.angie.vivero.dto.ResultadoGeneracion;
+import com.angie.vivero.services.GeneradorDatosService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.time.LocalDate;
+
+/**
+ * Generación de datos sintéticos desde la línea de comandos.
+ * Solo se ejecuta con el perfil "generador": genera los datos según las propiedades
+ * vivero.generador.* y termina la aplicación (ver EJECUCION.md).
+ */
+@Configuration
+@Profile("generador")
+public class GeneradorDatosConfig {
+
+    @Bean
+    CommandLineRunner generarDatos(GeneradorDatosService generadorDatosService, Environment entorno,
+                                   ConfigurableApplicationContext contexto) {
+        return args -> {
+            ParametrosGeneracion defecto = ParametrosGeneracion.de(1, 0);
+            ParametrosGeneracion parametros = new ParametrosGeneracion(
+                    entorno.getProperty("vivero.generador.productores", Integer.class, 1000),
+                    entorno.getProperty("vivero.generador.maximo-fincas-por-productor", Integer.class,
+                            defecto.maximoFincasPorProductor()),
+                    entorno.getProperty("vivero.generador.maximo-viveros-por-finca", Integer.class,
+                            defecto.maximoViverosPorFinca()),
+                    entorno.getProperty("vivero.generador.labores", Long.class, 100_000L),
+                    entorno.getProperty("vivero.generador.productos", Integer.class, defecto.productos()),
+                    entorno.getProperty("vivero.generador.proporcion-con-producto", Double.class,
+                            defecto.proporcionConProducto()),
+                    entorno.getProperty("vivero.generador.fecha-inicio", LocalDate.class, defecto.fechaInicio()),
+                    entorno.getProperty("vivero.generador.dias", Integer.class, defecto.dias()),
+                    entorno.getProperty("vivero.generador.sesgo", Double.class, defecto.sesgo()),
+                    entorno.getProperty("vivero.generador.semilla", Long.class, defecto.semilla()),
+                    entorno.getProperty("vivero.generador.hilos", Integer.class, defecto.hilos()),
+                    entorno.getProperty("vivero.generador.filas-por-insert", Integer.class, defecto.filasPorInsert()));
+
+            System.out.println("=== Generando datos sintéticos: " + parametros + " ===");
+            // Los índices en memoria se arman al arrancar la aplicación que usará los datos
+            ResultadoGeneracion resultado = generadorDatosService.generar(parametros, false);
+            System.out.println("=== Datos generados en " + resultado.milisegundos() + " ms: "
+                    + resultado.productores() + " productores, " + resultado.fincas() + " fincas, "
+                    + resultado.viveros() + " viveros, " + resultado.labores() + " labores ===");
+
+            System.exit(SpringApplication.exit(contexto));
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package com.angie.vivero.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita las solicitudes que se atienden a la vez, de acuerdo con el tamaño del pool de conexiones.
+ *
+ * Con hilos virtuales Tomcat ya no limita la concurrencia con su pool de hilos, y miles de
+ * solicitudes terminarían esperando una conexión dentro de Hikari hasta agotar su tiempo.
+ * Aquí esperan en orden de llegada un permiso durante esperaMaxima; si no lo obtienen se
+ * responde 503 con Retry-After, para que el cliente reintente en vez de acumular esperas.
+ *
+ * Una solicitud asíncrona (exportaciones por streaming) conserva su conexión hasta terminar
+ * de escribir la respuesta, así que conserva también el permiso: se libera al completarse,
+ * fallar o vencer la solicitud, no al terminar el despacho inicial.
+ *
+ * Las exportaciones (rutas que terminan en /exportar) toman sus permisos de un grupo propio:
+ * duran lo que tarde el cliente en leer la respuesta, y con un solo grupo unas pocas
+ * exportaciones lentas dejarían sin permisos a las consultas cortas.
+ */
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    private static final String SUFIJO_EXPORTACION = "/exportar";
+
+    private final Semaphore permisos;
+    private final Semaphore permisosExportacion;
+    private final long esperaMaximaNanos;
+    private final Counter rechazadas;
+    private final Counter rechazadasExportacion;
+
+    public LimiteConcurrenciaFilter(int maximoSolicitudes, int maximoExportaciones, Duration esperaMaxima,
+                                    MeterRegistry registro) {
+        if (maximoSolicitudes < 1 || maximoExportaciones < 1) {
+            throw new IllegalArgumentException("El máximo de solicitudes concurrentes debe ser al menos 1");
+        }
+        this.permisos = new Semaphore(maximoSolicitudes, true);
+        this.permisosExportacion = new Semaphore(maximoExportaciones, true);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.rechazadas = registrarMetricas("general", permisos, maximoSolicitudes, registro);
+        this.rechazadasExportacion = registrarMetricas("exportacion", permisosExportacion, maximoExportaciones, registro);
+    }
+
+    private static Counter registrarMetricas(String grupo, Semaphore permisos, int maximo, MeterRegistry registro) {
+        Gauge.builder("vivero.solicitudes.en.curso", permisos, p -> maximo - p.availablePermits())
+                .description("Solicitudes /api atendidas en este momento")
+                .tag("grupo", grupo)
+                .register(registro);
+        Gauge.builder("vivero.solicitudes.en.espera", permisos, Semaphore::getQueueLength)
+                .description("Solicitudes /api esperando un permiso")
+                .tag("grupo", grupo)
+                .register(registro);
+        return Counter.builder("vivero.solicitudes.rechazadas")
+                .description("Solicitudes /api rechazadas con 503 por superar el límite de concurrencia")
+                .tag("grupo", grupo)
+                .register(registro);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean exportacion = request.getRequestURI().endsWith(SUFIJO_EXPORTACION);
+        Semaphore grupo = exportacion ? permisosExportacion : permisos;
+        boolean obtenido;
+        try {
+            obtenido = grupo.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        }
+        if (!obtenido) {
+            (exportacion ? rechazadasExportacion : rechazadas).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, reintente en un momento");
+            return;
+        }
+        boolean asincrona = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarPermiso(grupo));
+                asincrona = true;
+            }
+        } finally {
+            if (!asincrona) {
+                grupo.release();
+            }
+        }
+    }
+
+    /**
+     * Libera el permiso de una solicitud asíncrona una sola vez: tras un error o un vencimiento
+     * el contenedor también notifica la finalización.
+     */
+    private static class LiberarPermiso implements AsyncListener {
+
+        private final Semaphore permisos;
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        LiberarPermiso(Semaphore permisos) {
+            this.permisos = permisos;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+            // Un nuevo ciclo asíncrono de la misma solicitud: el listener debe seguir registrado
+            evento.getAsyncContext().addListener(this);
+        }
+
+        private void liberar() {
+            if (liberado.compareAndSet(false, true)) {
+                permisos.release();
+            }
+        }
+    }
+}
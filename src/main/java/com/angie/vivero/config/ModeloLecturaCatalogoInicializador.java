@@ -0,0 +1,37 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.services.DirectorioShards;
+import com.angie.vivero.services.ProductoControlService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruye el modelo de lectura del catálogo cuando la aplicación termina de arrancar,
+ * después de cualquier carga inicial de datos, para empezar siempre sincronizado.
+ * Con shards lo reconstruye en cada uno.
+ */
+@Component
+@ConditionalOnProperty(name = "vivero.catalogo.modelo-lectura.habilitado", havingValue = "true")
+public class ModeloLecturaCatalogoInicializador {
+
+    private static final Logger log = LoggerFactory.getLogger(ModeloLecturaCatalogoInicializador.class);
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        int[] reconstruidos = {0};
+        directorioShards.enCadaShard(() -> reconstruidos[0] = productoControlService.reconstruirModeloLectura());
+        int productos = reconstruidos[0];
+        log.info("Modelo de lectura del catálogo reconstruido con {} productos", productos);
+    }
+}
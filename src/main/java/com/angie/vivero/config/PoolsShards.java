@@ -0,0 +1,89 @@
+package com.angie.vivero.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Pools de conexiones de los shards. El shard 0 es la base de spring.datasource, que guarda
+ * sus propios productores, el directorio y las tablas globales; los demás son los de
+ * vivero.shards.urls, en ese orden.
+ *
+ * enrutado() es el DataSource de la aplicación: entrega conexiones del shard de ContextoShard.
+ * jdbc() y transaccion() acceden a un shard en particular sin pasar por JPA, para el directorio,
+ * los traslados y la réplica del catálogo.
+ */
+public class PoolsShards implements DisposableBean {
+
+    private final List<HikariDataSource> pools;
+    private final List<JdbcTemplate> jdbc;
+    private final List<TransactionTemplate> transacciones;
+    private final DataSource enrutado = new DataSourceShards();
+
+    /**
+     * @param pools Pool de cada shard; el primero es el del directorio
+     */
+    public PoolsShards(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+        this.jdbc = this.pools.stream().map(JdbcTemplate::new).toList();
+        this.transacciones = this.pools.stream()
+                .map(pool -> new TransactionTemplate(new DataSourceTransactionManager(pool)))
+                .toList();
+    }
+
+    public int cantidad() {
+        return pools.size();
+    }
+
+    /**
+     * @return DataSource que pide cada conexión al shard fijado en el hilo
+     */
+    public DataSource enrutado() {
+        return enrutado;
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return jdbc.get(shard);
+    }
+
+    /**
+     * @return Plantilla de transacciones JDBC locales a un shard
+     */
+    public TransactionTemplate transaccion(int shard) {
+        return transacciones.get(shard);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private DataSource pool() {
+        int shard = ContextoShard.actual();
+        if (shard < 0 || shard >= pools.size()) {
+            throw new IllegalStateException("No existe el shard " + shard);
+        }
+        return pools.get(shard);
+    }
+
+    private final class DataSourceShards extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return pool().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return pool().getConnection(username, password);
+        }
+    }
+}
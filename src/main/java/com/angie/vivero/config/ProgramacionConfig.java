@@ -0,0 +1,12 @@
+package com.angie.vivero.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (reconciliaciones periódicas).
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
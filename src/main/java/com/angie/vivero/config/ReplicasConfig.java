@@ -0,0 +1,73 @@
+package com.angie.vivero.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de lectura (vivero.replicas.habilitado=true).
+ *
+ * El DataSource de la aplicación es un LazyConnectionDataSourceProxy sobre el pool del
+ * primario: la conexión física se pide en la primera sentencia, cuando ya se sabe si la
+ * transacción es de solo lectura. Las de @Transactional(readOnly = true) la piden a
+ * EnrutadorReplicas y las demás, al primario. Spring aplica además a esas sesiones de
+ * Hibernate el modo de solo lectura (sin copias para el dirty checking) y FlushMode.MANUAL.
+ *
+ * Es el único bean DataSource, como el que reemplaza: los pools del primario y de las
+ * réplicas pertenecen a EnrutadorReplicas. Las lecturas que deben ver lo que se acaba de
+ * confirmar, como los oyentes AFTER_COMMIT, usan una transacción de lectura y escritura para
+ * quedarse en el primario.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vivero.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    @Bean
+    public EnrutadorReplicas enrutadorReplicas(
+            DataSourceProperties propiedades,
+            Environment entorno,
+            @Value("${vivero.replicas.urls}") List<String> urls,
+            @Value("${vivero.replicas.usuario:${spring.datasource.username:}}") String usuario,
+            @Value("${vivero.replicas.clave:${spring.datasource.password:}}") String clave,
+            @Value("${vivero.replicas.maximo-conexiones:${spring.datasource.hikari.maximum-pool-size:10}}") int maximoConexiones,
+            @Value("${vivero.replicas.retraso-maximo:2s}") Duration retrasoMaximo,
+            MeterRegistry registro) {
+        HikariDataSource primario = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(entorno).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(usuario);
+            replica.setPassword(clave);
+            replica.setMaximumPoolSize(maximoConexiones);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+            replicas.add(replica);
+        }
+        return new EnrutadorReplicas(primario, replicas, retrasoMaximo, registro);
+    }
+
+    @Bean
+    public DataSource dataSource(EnrutadorReplicas enrutadorReplicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(enrutadorReplicas.primario());
+        dataSource.setReadOnlyDataSource(enrutadorReplicas.lectura());
+        return dataSource;
+    }
+}
@@ -0,0 +1,92 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.services.RebalanceoShards;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shards por productor (vivero.shards.habilitado=true).
+ *
+ * Cada productor vive con sus fincas, viveros, labores y costos acumulados en uno de los
+ * shards; DirectorioShards sabe en cuál. El DataSource de la aplicación es un
+ * LazyConnectionDataSourceProxy sobre PoolsShards: la conexión física se pide en la primera
+ * sentencia, así que un método @Transactional puede fijar el shard al comenzar, después de
+ * abierta la transacción. Sin shard fijado las conexiones van al shard 0.
+ *
+ * Flyway crea el esquema completo en cada shard. El de spring.datasource lo migra Spring Boot;
+ * los de vivero.shards.urls, esta configuración al crear sus pools. No se combina con las
+ * réplicas de lectura: las dos reemplazan el mismo DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vivero.shards.habilitado", havingValue = "true")
+public class ShardsConfig {
+
+    @Bean
+    public PoolsShards poolsShards(
+            DataSourceProperties propiedades,
+            Environment entorno,
+            @Value("${vivero.shards.urls}") List<String> urls,
+            @Value("${vivero.shards.usuario:${spring.datasource.username:}}") String usuario,
+            @Value("${vivero.shards.clave:${spring.datasource.password:}}") String clave,
+            @Value("${vivero.shards.maximo-conexiones:${spring.datasource.hikari.maximum-pool-size:10}}") int maximoConexiones,
+            MeterRegistry registro) {
+        Binder binder = Binder.get(entorno);
+        FlywayProperties flyway = binder.bind("spring.flyway", FlywayProperties.class).orElseGet(FlywayProperties::new);
+        if (!flyway.isEnabled()) {
+            throw new IllegalStateException("vivero.shards.habilitado requiere spring.flyway.enabled=true: "
+                    + "Flyway crea el esquema de cada shard");
+        }
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        HikariDataSource directorio = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(directorio));
+        directorio.setPoolName("shard-0");
+        directorio.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+        pools.add(directorio);
+
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(urls.get(i).trim());
+            shard.setUsername(usuario);
+            shard.setPassword(clave);
+            shard.setMaximumPoolSize(maximoConexiones);
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+            Flyway.configure()
+                    .dataSource(shard)
+                    .locations(flyway.getLocations().toArray(String[]::new))
+                    .baselineOnMigrate(flyway.isBaselineOnMigrate())
+                    .baselineVersion(flyway.getBaselineVersion())
+                    .load()
+                    .migrate();
+            pools.add(shard);
+        }
+        return new PoolsShards(pools);
+    }
+
+    @Bean
+    public DataSource dataSource(PoolsShards poolsShards) {
+        return new LazyConnectionDataSourceProxy(poolsShards.enrutado());
+    }
+
+    @Bean
+    public EndpointShards endpointShards(RebalanceoShards rebalanceoShards) {
+        return new EndpointShards(rebalanceoShards);
+    }
+}
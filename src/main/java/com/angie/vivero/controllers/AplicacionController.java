@@ -0,0 +1,69 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.AplicacionProgramadaDTO;
+import com.angie.vivero.services.AgendaAplicacionesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controlador REST para la agenda de aplicaciones de productos de control.
+ * 
+ * Las consultas se responden desde la agenda en memoria, sin recorrer las labores.
+ * Todas aceptan una fecha de referencia opcional; por defecto se usa la fecha actual.
+ */
+@RestController
+@RequestMapping("/api/aplicaciones")
+@CrossOrigin(origins = "*")
+public class AplicacionController {
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    /**
+     * Obtiene las aplicaciones vencidas en todos los viveros.
+     * GET /api/aplicaciones/vencidas?fecha={fecha}
+     */
+    @GetMapping("/vencidas")
+    public ResponseEntity<List<AplicacionProgramadaDTO>> obtenerVencidas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(agendaAplicacionesService.obtenerVencidas(fechaDeReferencia(fecha)));
+    }
+
+    /**
+     * Obtiene las aplicaciones que corresponden al día.
+     * GET /api/aplicaciones/hoy?fecha={fecha}
+     */
+    @GetMapping("/hoy")
+    public ResponseEntity<List<AplicacionProgramadaDTO>> obtenerDelDia(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(agendaAplicacionesService.obtenerDelDia(fechaDeReferencia(fecha)));
+    }
+
+    /**
+     * Obtiene las aplicaciones de los próximos días.
+     * GET /api/aplicaciones/proximas?dias={dias}&fecha={fecha}
+     * 
+     * @param dias Cantidad de días hacia adelante (7 por defecto)
+     * @return Aplicaciones en orden de fecha, o 400 si dias es negativo
+     */
+    @GetMapping("/proximas")
+    public ResponseEntity<List<AplicacionProgramadaDTO>> obtenerProximas(
+            @RequestParam(defaultValue = "7") int dias,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        try {
+            return ResponseEntity.ok(agendaAplicacionesService.obtenerProximas(fechaDeReferencia(fecha), dias));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static LocalDate fechaDeReferencia(LocalDate fecha) {
+        return fecha != null ? fecha : LocalDate.now();
+    }
+}
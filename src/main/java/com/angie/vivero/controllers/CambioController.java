@@ -0,0 +1,50 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.PaginaCambiosDTO;
+import com.angie.vivero.services.CambiosDescartadosException;
+import com.angie.vivero.services.CambiosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST del flujo de cambios de productores, fincas y labores.
+ */
+@RestController
+@RequestMapping("/api/cambios")
+@CrossOrigin(origins = "*")
+public class CambioController {
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    /**
+     * Obtiene los cambios posteriores a una posición, en orden. El consumidor guarda el cursor
+     * de la respuesta y lo envía como desde en la consulta siguiente.
+     * 
+     * Si la retención ya eliminó eventos posteriores a desde, responde 410 con una página vacía
+     * cuyo cursor es la posición desde la que se conservan: el consumidor vuelve a leer todas las
+     * entidades y después sigue el flujo desde ese cursor.
+     * 
+     * GET /api/cambios?desde={posicion}&tamano={tamano}
+     * 
+     * @param desde Última posición ya procesada; 0 o ausente para empezar desde el comienzo
+     * @param tamano Cantidad de cambios por página (opcional)
+     * @return Página de cambios, 400 si la posición o el tamaño no son válidos, o 410 si hay que resincronizar
+     */
+    @GetMapping
+    public ResponseEntity<PaginaCambiosDTO> obtenerCambios(
+            @RequestParam(defaultValue = "0") long desde,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            return new ResponseEntity<>(cambiosService.obtenerCambios(desde, tamano), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (CambiosDescartadosException e) {
+            return new ResponseEntity<>(new PaginaCambiosDTO(List.of(), e.getPosicionRetenida(), true), HttpStatus.GONE);
+        }
+    }
+}
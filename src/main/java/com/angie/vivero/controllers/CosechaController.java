@@ -0,0 +1,48 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.ConsultaElegibilidadCosecha;
+import com.angie.vivero.dto.ElegibilidadCosechaDTO;
+import com.angie.vivero.services.IndiceCarenciaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para consultar si los viveros pueden cosecharse.
+ * 
+ * Las consultas se responden desde el índice en memoria de periodos de carencia,
+ * sin recorrer las labores.
+ */
+@RestController
+@RequestMapping("/api/cosecha")
+@CrossOrigin(origins = "*")
+public class CosechaController {
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Value("${vivero.cosecha.maximo-viveros:10000}")
+    private int maximoViveros;
+
+    /**
+     * Indica para cada vivero si puede cosecharse en una fecha.
+     * POST /api/cosecha/elegibilidad
+     * 
+     * @param consulta Fecha y IDs de los viveros
+     * @return Un resultado por vivero en el orden recibido, o 400 si falta la fecha,
+     *         no hay viveros o se supera el máximo por consulta
+     */
+    @PostMapping("/elegibilidad")
+    public ResponseEntity<List<ElegibilidadCosechaDTO>> consultarElegibilidad(
+            @RequestBody ConsultaElegibilidadCosecha consulta) {
+        if (consulta.fecha() == null || consulta.viveroIds() == null || consulta.viveroIds().isEmpty()
+                || consulta.viveroIds().size() > maximoViveros || consulta.viveroIds().contains(null)) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(indiceCarenciaService.consultarElegibilidad(consulta.fecha(), consulta.viveroIds()));
+    }
+}
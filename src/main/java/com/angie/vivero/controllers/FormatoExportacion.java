@@ -0,0 +1,97 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.LaborDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Formatos admitidos por la exportación de labores. Cada uno sabe escribir
+ * su encabezado y una labor por línea, para que la respuesta se genere fila a fila.
+ */
+enum FormatoExportacion {
+
+    NDJSON(LaborController.APPLICATION_NDJSON, "ndjson") {
+        @Override
+        void escribirEncabezado(Writer escritor) {
+            // NDJSON no lleva encabezado
+        }
+
+        @Override
+        void escribirLabor(Writer escritor, LaborDTO labor, ObjectMapper objectMapper) throws IOException {
+            escritor.write(objectMapper.writeValueAsString(labor));
+            escritor.write('\n');
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        void escribirEncabezado(Writer escritor) throws IOException {
+            escritor.write("id,fecha,descripcion,viveroId,productoControlId\r\n");
+        }
+
+        @Override
+        void escribirLabor(Writer escritor, LaborDTO labor, ObjectMapper objectMapper) throws IOException {
+            escritor.write(String.valueOf(labor.id()));
+            escritor.write(',');
+            escritor.write(String.valueOf(labor.fecha()));
+            escritor.write(',');
+            escritor.write(campoCsv(labor.descripcion()));
+            escritor.write(',');
+            escritor.write(labor.viveroId() != null ? labor.viveroId().toString() : "");
+            escritor.write(',');
+            escritor.write(labor.productoControlId() != null ? labor.productoControlId().toString() : "");
+            escritor.write("\r\n");
+        }
+    };
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    String tipoContenido() {
+        return tipoContenido;
+    }
+
+    String extension() {
+        return extension;
+    }
+
+    abstract void escribirEncabezado(Writer escritor) throws IOException;
+
+    abstract void escribirLabor(Writer escritor, LaborDTO labor, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * Interpreta el parámetro de formato sin distinguir mayúsculas.
+     *
+     * @throws IllegalArgumentException si el formato no está soportado
+     */
+    static FormatoExportacion desde(String formato) {
+        try {
+            return valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato);
+        }
+    }
+
+    /**
+     * Escapa un campo según RFC 4180: se encierra entre comillas si contiene
+     * separadores, comillas o saltos de línea, duplicando las comillas internas.
+     */
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
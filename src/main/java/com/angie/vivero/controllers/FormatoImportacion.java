@@ -0,0 +1,124 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.FilaImportacionProductor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formatos admitidos por la importación de productores. Cada uno interpreta una línea
+ * del archivo, para que el archivo se lea de a una línea sin cargarlo completo.
+ */
+enum FormatoImportacion {
+
+    /**
+     * Un productor por línea, con sus fincas en el arreglo "fincas".
+     */
+    NDJSON {
+        @Override
+        FilaImportacionProductor leer(long linea, String texto, ObjectMapper objectMapper) {
+            try {
+                return objectMapper.readValue(texto, FilaImportacionProductor.class).enLinea(linea);
+            } catch (JsonProcessingException e) {
+                return FilaImportacionProductor.malformada(linea, "JSON mal formado");
+            }
+        }
+    },
+
+    /**
+     * Una finca por fila: documento,nombre,apellido,telefono,correo,numeroCatastro,municipio.
+     * Las filas consecutivas con el mismo documento son un solo productor; un productor
+     * sin fincas deja vacías las dos últimas columnas. La primera línea es el encabezado.
+     */
+    CSV {
+        @Override
+        FilaImportacionProductor leer(long linea, String texto, ObjectMapper objectMapper) {
+            List<String> campos = camposCsv(texto);
+            if (campos == null || campos.size() != COLUMNAS_CSV) {
+                return FilaImportacionProductor.malformada(linea,
+                        "Se esperaban " + COLUMNAS_CSV + " columnas separadas por comas");
+            }
+            List<FilaImportacionProductor.Finca> fincas = campos.get(5).isEmpty() && campos.get(6).isEmpty()
+                    ? List.of()
+                    : List.of(new FilaImportacionProductor.Finca(campos.get(5), campos.get(6)));
+            return new FilaImportacionProductor(linea, campos.get(0), campos.get(1), campos.get(2),
+                    campos.get(3), campos.get(4), fincas, null);
+        }
+
+        @Override
+        boolean tieneEncabezado() {
+            return true;
+        }
+
+        @Override
+        boolean agrupaFilas() {
+            return true;
+        }
+    };
+
+    private static final int COLUMNAS_CSV = 7;
+
+    abstract FilaImportacionProductor leer(long linea, String texto, ObjectMapper objectMapper);
+
+    boolean tieneEncabezado() {
+        return false;
+    }
+
+    /**
+     * Indica si varias filas consecutivas con el mismo documento forman un productor.
+     */
+    boolean agrupaFilas() {
+        return false;
+    }
+
+    /**
+     * Interpreta el parámetro de formato sin distinguir mayúsculas.
+     *
+     * @throws IllegalArgumentException si el formato no está soportado
+     */
+    static FormatoImportacion desde(String formato) {
+        try {
+            return valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de importación no soportado: " + formato);
+        }
+    }
+
+    /**
+     * Separa una línea CSV según RFC 4180 (campos entre comillas con comillas duplicadas).
+     * Devuelve null si una comilla queda sin cerrar.
+     */
+    private static List<String> camposCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            return null;
+        }
+        campos.add(campo.toString().trim());
+        return campos;
+    }
+}
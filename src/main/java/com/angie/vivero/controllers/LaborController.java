@@ -1,16 +1,49 @@
 package com.angie.vivero.controllers;
 
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.LaborLoteItem;
+import com.angie.vivero.dto.PaginaBusquedaDTO;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ResultadoItemLote;
+import com.angie.vivero.dto.ResultadoLoteDTO;
+import com.angie.vivero.dto.SelloVersion;
 import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.services.BusquedaLaboresService;
+import com.angie.vivero.services.DirectorioShards;
+import com.angie.vivero.services.LaborArchivadaException;
 import com.angie.vivero.services.LaborService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST para la gestión de labores en viveros.
@@ -23,9 +56,34 @@ import java.util.List;
 @RequestMapping("/api/labores")
 public class LaborController {
 
+    /**
+     * Tipo de contenido de una carga en formato JSON delimitado por líneas.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     @Autowired
     private LaborService laborService;
 
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vivero.lote.maximo-items:10000}")
+    private int maximoItemsLote;
+
+    @Value("${vivero.lote.tamano-bloque:1000}")
+    private int tamanoBloqueLote;
+
+    /**
+     * Cada cuántas filas se vacía el búfer de la exportación hacia el cliente.
+     */
+    private static final int FILAS_POR_ENVIO = 500;
+
     /**
      * Registra una nueva labor en un vivero.
      * 
@@ -36,12 +94,12 @@ public class LaborController {
      * @return La labor registrada
      */
     @PostMapping
-    public ResponseEntity<LaborModel> registrarLabor(
+    public ResponseEntity<LaborDTO> registrarLabor(
             @Valid @RequestBody LaborModel labor,
             @RequestParam Long viveroId) {
         try {
             LaborModel laborGuardada = laborService.registrarLabor(labor, viveroId);
-            return new ResponseEntity<>(laborGuardada, HttpStatus.CREATED);
+            return new ResponseEntity<>(LaborDTO.desde(laborGuardada), HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
@@ -58,61 +116,318 @@ public class LaborController {
      * @return La labor registrada
      */
     @PostMapping("/con-producto")
-    public ResponseEntity<LaborModel> registrarLaborConProducto(
+    public ResponseEntity<LaborDTO> registrarLaborConProducto(
             @Valid @RequestBody LaborModel labor,
             @RequestParam Long viveroId,
             @RequestParam(required = false) Long productoControlId) {
         try {
             LaborModel laborGuardada = laborService.registrarLaborConProducto(labor, viveroId, productoControlId);
-            return new ResponseEntity<>(laborGuardada, HttpStatus.CREATED);
+            return new ResponseEntity<>(LaborDTO.desde(laborGuardada), HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
     }
 
     /**
-     * Obtiene todas las labores de un vivero.
+     * Registra un conjunto de labores enviado como arreglo JSON.
      * 
-     * GET /api/labores/vivero/{viveroId}
+     * POST /api/labores/batch
+     * 
+     * @param items Labores a registrar
+     * @return Resultado de cada elemento, o 400 si la carga supera el máximo permitido
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDTO> registrarLaboresEnLote(@RequestBody List<LaborLoteItem> items) {
+        if (items.size() > maximoItemsLote) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<ResultadoItemLote> resultados = registrarBloque(items, 0);
+        return new ResponseEntity<>(ResultadoLoteDTO.desde(resultados), HttpStatus.OK);
+    }
+
+    /**
+     * Registra un conjunto de labores enviado como NDJSON (una labor por línea).
+     * 
+     * El cuerpo se lee por bloques de líneas y cada bloque se registra en su propia
+     * transacción, de modo que la carga no necesita caber completa en memoria.
+     * 
+     * POST /api/labores/batch (Content-Type: application/x-ndjson)
+     * 
+     * @param request Petición cuyo cuerpo contiene las labores
+     * @return Resultado de cada línea no vacía
+     */
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<ResultadoLoteDTO> registrarLaboresEnLoteNdjson(HttpServletRequest request) throws IOException {
+        List<ResultadoItemLote> resultados = new ArrayList<>();
+        List<LaborLoteItem> bloque = new ArrayList<>(tamanoBloqueLote);
+        int indiceBloque = 0;
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                bloque.add(leerItemNdjson(linea));
+                if (bloque.size() == tamanoBloqueLote) {
+                    resultados.addAll(registrarBloque(bloque, indiceBloque));
+                    indiceBloque += bloque.size();
+                    bloque.clear();
+                }
+            }
+        }
+        if (!bloque.isEmpty()) {
+            resultados.addAll(registrarBloque(bloque, indiceBloque));
+        }
+        return new ResponseEntity<>(ResultadoLoteDTO.desde(resultados), HttpStatus.OK);
+    }
+
+    /**
+     * Registra un bloque de la carga. Con shards lo reparte según el shard del vivero de cada
+     * elemento y registra cada parte en su shard, en su propia transacción, devolviendo los
+     * resultados en las posiciones originales.
+     */
+    private List<ResultadoItemLote> registrarBloque(List<LaborLoteItem> items, int indiceInicial) {
+        if (!directorioShards.habilitado()) {
+            return laborService.registrarLaboresEnLote(items, indiceInicial);
+        }
+        Map<Integer, List<Integer>> posicionesPorShard = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            LaborLoteItem item = items.get(i);
+            int shard = directorioShards.shardParaEscribirEnVivero(item != null ? item.viveroId() : null);
+            posicionesPorShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+        }
+        ResultadoItemLote[] resultados = new ResultadoItemLote[items.size()];
+        posicionesPorShard.forEach((shard, posiciones) -> {
+            List<LaborLoteItem> parte = posiciones.stream().map(items::get).toList();
+            for (ResultadoItemLote resultado : directorioShards.ejecutarEnShard(shard,
+                    () -> laborService.registrarLaboresEnLote(parte, 0))) {
+                int posicion = posiciones.get(resultado.indice());
+                resultados[posicion] = new ResultadoItemLote(indiceInicial + posicion, resultado.id(), resultado.error());
+            }
+        });
+        return List.of(resultados);
+    }
+
+    /**
+     * Convierte una línea NDJSON en un elemento de la carga; una línea mal formada
+     * se devuelve como null para que el servicio la rechace en su posición.
+     */
+    private LaborLoteItem leerItemNdjson(String linea) {
+        try {
+            return objectMapper.readValue(linea, LaborLoteItem.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Obtiene las labores de un vivero, paginadas por cursor.
+     * 
+     * GET /api/labores/vivero/{viveroId}?cursor={cursor}&tamano={tamano}
+     * 
+     * Todas las páginas de un vivero comparten el ETag de sus labores: cambia con cualquier
+     * labor registrada, actualizada o eliminada en el vivero. Si el If-None-Match coincide
+     * responde 304 (NOT MODIFIED) sin leer la página.
      * 
      * @param viveroId ID del vivero
-     * @return Lista de labores del vivero
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param tamano Cantidad de labores por página (opcional)
+     * @param webRequest Petición, para comparar el ETag
+     * @return Página de labores del vivero
      */
     @GetMapping("/vivero/{viveroId}")
-    public ResponseEntity<List<LaborModel>> obtenerLaboresPorVivero(@PathVariable Long viveroId) {
-        List<LaborModel> labores = laborService.obtenerLaboresPorVivero(viveroId);
-        return new ResponseEntity<>(labores, HttpStatus.OK);
+    public ResponseEntity<PaginaCursor<LaborDTO>> obtenerLaboresPorVivero(
+            @PathVariable Long viveroId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(laborService.obtenerSelloLaboresPorVivero(viveroId).etag())) {
+            return null;
+        }
+        try {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorVivero(viveroId, cursor, tamano);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Obtiene las labores de un vivero que usaron un producto de control,
+     * con los datos del producto, paginadas por cursor.
+     * 
+     * GET /api/labores/vivero/{viveroId}/con-producto?cursor={cursor}&tamano={tamano}
+     * 
+     * @param viveroId ID del vivero
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de labores con su producto
+     */
+    @GetMapping("/vivero/{viveroId}/con-producto")
+    public ResponseEntity<PaginaCursor<LaborConProductoDTO>> obtenerLaboresConProductoPorVivero(
+            @PathVariable Long viveroId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaCursor<LaborConProductoDTO> pagina = laborService.obtenerPaginaLaboresConProductoPorVivero(
+                    viveroId, cursor, tamano);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
-     * Obtiene labores por rango de fechas.
+     * Obtiene labores por rango de fechas, paginadas por cursor.
      * 
-     * GET /api/labores/rango?fechaInicio={fechaInicio}&fechaFin={fechaFin}
+     * GET /api/labores/rango?fechaInicio={fechaInicio}&fechaFin={fechaFin}&cursor={cursor}&tamano={tamano}
      * 
      * @param fechaInicio Fecha de inicio
      * @param fechaFin Fecha de fin
-     * @return Lista de labores en el rango
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de labores en el rango
      */
     @GetMapping("/rango")
-    public ResponseEntity<List<LaborModel>> obtenerLaboresPorRango(
+    public ResponseEntity<PaginaCursor<LaborDTO>> obtenerLaboresPorRango(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-        List<LaborModel> labores = laborService.obtenerLaboresPorRangoFechas(fechaInicio, fechaFin);
-        return new ResponseEntity<>(labores, HttpStatus.OK);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorRangoFechas(
+                    fechaInicio, fechaFin, cursor, tamano);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
-     * Obtiene labores que utilizaron un producto de control.
+     * Exporta las labores de un rango de fechas en NDJSON o CSV.
      * 
-     * GET /api/labores/producto/{productoControlId}
+     * La respuesta se escribe a medida que se leen las filas de la base de datos,
+     * así que no se arma la lista completa en memoria y el encabezado sale de inmediato.
+     * 
+     * GET /api/labores/exportar?fechaInicio={fechaInicio}&fechaFin={fechaFin}&formato={ndjson|csv}&gzip={true|false}
+     * 
+     * @param fechaInicio Fecha de inicio
+     * @param fechaFin Fecha de fin
+     * @param formato Formato de salida (ndjson por defecto)
+     * @param gzip Si se comprime la respuesta con gzip
+     * @return Cuerpo que escribe las labores en el orden de fecha e ID
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarLabores(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        FormatoExportacion formatoExportacion;
+        try {
+            formatoExportacion = FormatoExportacion.desde(formato);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        StreamingResponseBody cuerpo = salida -> {
+            GZIPOutputStream comprimida = gzip ? new GZIPOutputStream(salida, 8192, true) : null;
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(
+                    comprimida != null ? comprimida : salida, StandardCharsets.UTF_8));
+            formatoExportacion.escribirEncabezado(escritor);
+            escritor.flush();
+
+            int[] pendientes = {0};
+            try {
+                laborService.recorrerLaboresPorRangoFechas(fechaInicio, fechaFin, labor -> {
+                    try {
+                        formatoExportacion.escribirLabor(escritor, labor, objectMapper);
+                        if (++pendientes[0] == FILAS_POR_ENVIO) {
+                            escritor.flush();
+                            pendientes[0] = 0;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            escritor.flush();
+            if (comprimida != null) {
+                comprimida.finish();
+            }
+        };
+
+        String archivo = "labores_" + fechaInicio + "_" + fechaFin + "." + formatoExportacion.extension()
+                + (gzip ? ".gz" : "");
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExportacion.tipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"");
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * Busca labores por el texto de su descripción, ordenadas por relevancia.
+     * 
+     * La búsqueda ignora mayúsculas, tildes y plurales, y se resuelve con el índice
+     * en memoria; solo las labores de la página devuelta se leen de la base de datos.
+     * 
+     * GET /api/labores/buscar?q={texto}&viveroId={viveroId}&fechaInicio={fechaInicio}&fechaFin={fechaFin}&pagina={pagina}&tamano={tamano}
+     * 
+     * @param q Texto a buscar
+     * @param viveroId Solo labores de este vivero (opcional)
+     * @param fechaInicio Solo labores desde esta fecha (opcional)
+     * @param fechaFin Solo labores hasta esta fecha (opcional)
+     * @param pagina Número de página, desde 0
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de resultados, o 400 si la consulta, el rango o la paginación son inválidos
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<PaginaBusquedaDTO> buscarLabores(
+            @RequestParam String q,
+            @RequestParam(required = false) Long viveroId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(busquedaLaboresService.buscar(q, viveroId, fechaInicio, fechaFin, pagina, tamano));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Obtiene labores que utilizaron un producto de control, paginadas por cursor.
+     * 
+     * GET /api/labores/producto/{productoControlId}?cursor={cursor}&tamano={tamano}
      * 
      * @param productoControlId ID del producto de control
-     * @return Lista de labores
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de labores
      */
     @GetMapping("/producto/{productoControlId}")
-    public ResponseEntity<List<LaborModel>> obtenerLaboresPorProducto(@PathVariable Long productoControlId) {
-        List<LaborModel> labores = laborService.obtenerLaboresPorProductoControl(productoControlId);
-        return new ResponseEntity<>(labores, HttpStatus.OK);
+    public ResponseEntity<PaginaCursor<LaborDTO>> obtenerLaboresPorProducto(
+            @PathVariable Long productoControlId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorProductoControl(
+                    productoControlId, cursor, tamano);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
@@ -120,27 +435,45 @@ public class LaborController {
      * 
      * GET /api/labores/{id}
      * 
+     * Si el If-None-Match coincide con la versión de la labor responde 304 (NOT MODIFIED).
+     * 
      * @param id ID de la labor
+     * @param webRequest Petición, para comparar el ETag
      * @return La labor encontrada
      */
     @GetMapping("/{id}")
-    public ResponseEntity<LaborModel> obtenerLaborPorId(@PathVariable Long id) {
-        return laborService.obtenerLaborPorId(id)
+    public ResponseEntity<LaborDTO> obtenerLaborPorId(@PathVariable Long id, WebRequest webRequest) {
+        Optional<SelloVersion> sello = laborService.obtenerSelloLabor(id);
+        if (sello.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (webRequest.checkNotModified(sello.get().etag())) {
+            return null;
+        }
+        return laborService.obtenerLaborDTOPorId(id)
                 .map(labor -> new ResponseEntity<>(labor, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     /**
-     * Obtiene todas las labores.
+     * Obtiene todas las labores, paginadas por cursor.
      * 
-     * GET /api/labores
+     * GET /api/labores?cursor={cursor}&tamano={tamano}
      * 
-     * @return Lista de todas las labores
+     * @param cursor Cursor de la página anterior (opcional)
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de labores
      */
     @GetMapping
-    public ResponseEntity<List<LaborModel>> obtenerTodasLasLabores() {
-        List<LaborModel> labores = laborService.obtenerTodasLasLabores();
-        return new ResponseEntity<>(labores, HttpStatus.OK);
+    public ResponseEntity<PaginaCursor<LaborDTO>> obtenerTodasLasLabores(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLabores(cursor, tamano);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
@@ -148,19 +481,33 @@ public class LaborController {
      * 
      * PUT /api/labores/{id}
      * 
+     * Con If-Match (el ETag de GET /api/labores/{id}) solo se actualiza si la labor no cambió
+     * desde esa lectura; si cambió responde 412 (PRECONDITION FAILED) y el cliente vuelve a
+     * leerla. Sin If-Match, una escritura concurrente confirmada entre la lectura y el commit
+     * responde 409 (CONFLICT). La respuesta trae el ETag de la nueva versión. Una labor
+     * archivada es de solo lectura: también responde 409.
+     * 
      * @param id ID de la labor
+     * @param ifMatch ETag de la versión que el cliente modificó (opcional)
      * @param labor Datos actualizados
      * @return La labor actualizada
      */
     @PutMapping("/{id}")
-    public ResponseEntity<LaborModel> actualizarLabor(
+    public ResponseEntity<LaborDTO> actualizarLabor(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody LaborModel labor) {
         try {
-            LaborModel laborActualizada = laborService.actualizarLabor(id, labor);
-            return new ResponseEntity<>(laborActualizada, HttpStatus.OK);
+            LaborModel laborActualizada = laborService.actualizarLabor(id, labor, SelloVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(SelloVersion.deEntidad(laborActualizada.getVersion()).etag())
+                    .body(LaborDTO.desde(laborActualizada));
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (LaborArchivadaException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
         }
     }
 
@@ -169,6 +516,8 @@ public class LaborController {
      * 
      * DELETE /api/labores/{id}
      * 
+     * Una labor archivada es de solo lectura y responde 409 (CONFLICT).
+     * 
      * @param id ID de la labor
      * @return Respuesta sin contenido
      */
@@ -179,6 +528,8 @@ public class LaborController {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (LaborArchivadaException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         }
     }
 }
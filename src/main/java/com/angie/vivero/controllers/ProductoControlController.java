@@ -0,0 +1,165 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.EstadisticasCacheDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.ProductoControlFertilizanteModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductoControlModel;
+import com.angie.vivero.models.ProductoControlPlagaModel;
+import com.angie.vivero.services.ProductoControlService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para el catálogo de productos de control.
+ */
+@RestController
+@RequestMapping("/api/productos-control")
+@CrossOrigin(origins = "*")
+public class ProductoControlController {
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    /**
+     * Obtiene todos los productos de control.
+     * GET /api/productos-control
+     * 
+     * @return Lista de productos
+     */
+    @GetMapping
+    public ResponseEntity<List<ProductoControlDTO>> obtenerTodosLosProductos() {
+        return ResponseEntity.ok(productoControlService.obtenerTodosLosProductos());
+    }
+
+    /**
+     * Busca un producto de control por su ID.
+     * GET /api/productos-control/{id}
+     * 
+     * @param id ID del producto
+     * @return El producto o 404 si no existe
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductoControlDTO> obtenerProductoPorId(@PathVariable Long id) {
+        return productoControlService.obtenerProductoPorId(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Busca un producto de control por su registro ICA.
+     * GET /api/productos-control/registro/{registroICA}
+     * 
+     * @param registroICA Registro ICA del producto
+     * @return El producto o 404 si no existe
+     */
+    @GetMapping("/registro/{registroICA}")
+    public ResponseEntity<ProductoControlDTO> obtenerProductoPorRegistroICA(@PathVariable String registroICA) {
+        return productoControlService.obtenerProductoPorRegistroICA(registroICA)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Registra un producto de control contra hongos.
+     * POST /api/productos-control/hongo
+     */
+    @PostMapping("/hongo")
+    public ResponseEntity<ProductoControlDTO> registrarHongo(@Valid @RequestBody ProductoControlHongoModel producto) {
+        return new ResponseEntity<>(productoControlService.registrarProducto(producto), HttpStatus.CREATED);
+    }
+
+    /**
+     * Registra un producto de control contra plagas.
+     * POST /api/productos-control/plaga
+     */
+    @PostMapping("/plaga")
+    public ResponseEntity<ProductoControlDTO> registrarPlaga(@Valid @RequestBody ProductoControlPlagaModel producto) {
+        return new ResponseEntity<>(productoControlService.registrarProducto(producto), HttpStatus.CREATED);
+    }
+
+    /**
+     * Registra un fertilizante.
+     * POST /api/productos-control/fertilizante
+     */
+    @PostMapping("/fertilizante")
+    public ResponseEntity<ProductoControlDTO> registrarFertilizante(
+            @Valid @RequestBody ProductoControlFertilizanteModel producto) {
+        return new ResponseEntity<>(productoControlService.registrarProducto(producto), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza un producto de control contra hongos.
+     * PUT /api/productos-control/hongo/{id}
+     */
+    @PutMapping("/hongo/{id}")
+    public ResponseEntity<?> actualizarHongo(@PathVariable Long id,
+                                             @Valid @RequestBody ProductoControlHongoModel producto) {
+        return actualizar(id, producto);
+    }
+
+    /**
+     * Actualiza un producto de control contra plagas.
+     * PUT /api/productos-control/plaga/{id}
+     */
+    @PutMapping("/plaga/{id}")
+    public ResponseEntity<?> actualizarPlaga(@PathVariable Long id,
+                                             @Valid @RequestBody ProductoControlPlagaModel producto) {
+        return actualizar(id, producto);
+    }
+
+    /**
+     * Actualiza un fertilizante.
+     * PUT /api/productos-control/fertilizante/{id}
+     */
+    @PutMapping("/fertilizante/{id}")
+    public ResponseEntity<?> actualizarFertilizante(@PathVariable Long id,
+                                                    @Valid @RequestBody ProductoControlFertilizanteModel producto) {
+        return actualizar(id, producto);
+    }
+
+    /**
+     * Elimina un producto de control.
+     * DELETE /api/productos-control/{id}
+     * 
+     * @param id ID del producto
+     * @return 204 o 404 si no existe
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarProducto(@PathVariable Long id) {
+        try {
+            productoControlService.eliminarProducto(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Obtiene los aciertos y fallos de la caché del catálogo.
+     * GET /api/productos-control/cache/estadisticas
+     * 
+     * @return Estadísticas por caché
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<List<EstadisticasCacheDTO>> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(productoControlService.obtenerEstadisticasCache());
+    }
+
+    private ResponseEntity<?> actualizar(Long id, ProductoControlModel producto) {
+        try {
+            return ResponseEntity.ok(productoControlService.actualizarProducto(id, producto));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+}
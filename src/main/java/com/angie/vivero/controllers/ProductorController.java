@@ -1,17 +1,41 @@
 package com.angie.vivero.controllers;
 
+import com.angie.vivero.dto.EstadoImportacionDTO;
+import com.angie.vivero.dto.FilaImportacionProductor;
+import com.angie.vivero.dto.FincaDTO;
+import com.angie.vivero.dto.ProductorConFincasDTO;
+import com.angie.vivero.dto.ProductorDTO;
+import com.angie.vivero.dto.SelloVersion;
+import com.angie.vivero.models.EstadoImportacion;
 import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.ImportacionModel;
 import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.services.ImportacionProductoresService;
+import com.angie.vivero.services.PlanLecturaProductor;
 import com.angie.vivero.services.ProductorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Controlador REST para gestionar operaciones de Productores.
@@ -25,6 +49,18 @@ public class ProductorController {
     @Autowired
     private ProductorService productorService;
 
+    @Autowired
+    private ImportacionProductoresService importacionProductoresService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vivero.importacion.tamano-bloque:1000}")
+    private int tamanoBloqueImportacion;
+
+    @Value("${vivero.importacion.maximo-errores:1000}")
+    private int maximoErroresImportacion;
+
     /**
      * Registra un nuevo productor sin fincas.
      * POST /api/productores
@@ -36,7 +72,7 @@ public class ProductorController {
     public ResponseEntity<?> registrarProductor(@Valid @RequestBody ProductorModel productor) {
         try {
             ProductorModel productorGuardado = productorService.registrarProductor(productor);
-            return ResponseEntity.status(HttpStatus.CREATED).body(productorGuardado);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ProductorDTO.desde(productorGuardado));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -62,7 +98,7 @@ public class ProductorController {
             productor.setCorreo(request.getCorreo());
             
             ProductorModel productorGuardado = productorService.registrarProductorConFincas(productor, request.getFincas());
-            return ResponseEntity.status(HttpStatus.CREATED).body(productorGuardado);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ProductorConFincasDTO.desde(productorGuardado));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -74,24 +110,56 @@ public class ProductorController {
      * Obtiene todos los productores registrados.
      * GET /api/productores
      * 
+     * Si el If-None-Match coincide con el ETag del listado responde 304 (NOT MODIFIED)
+     * sin leer los productores.
+     * 
+     * @param webRequest Petición, para comparar el ETag
      * @return Lista de todos los productores
      */
     @GetMapping
-    public ResponseEntity<List<ProductorModel>> obtenerTodosLosProductores() {
-        List<ProductorModel> productores = productorService.obtenerTodosLosProductores();
+    public ResponseEntity<List<ProductorDTO>> obtenerTodosLosProductores(WebRequest webRequest) {
+        if (webRequest.checkNotModified(productorService.obtenerSelloProductores().etag())) {
+            return null;
+        }
+        List<ProductorDTO> productores = productorService.obtenerTodosLosProductoresDTO();
         return ResponseEntity.ok(productores);
     }
 
     /**
      * Busca un productor por su ID con todas sus fincas.
-     * GET /api/productores/{id}
+     * GET /api/productores/{id}?expand=fincas,fincas.viveros
+     * 
+     * Con expand=fincas.viveros cada finca trae también sus viveros, leídos con una sola
+     * consulta adicional sin importar cuántas fincas tenga el productor.
+     * 
+     * El ETag cambia con el productor y con cualquiera de sus fincas (y viveros, si se
+     * expanden); si el If-None-Match coincide responde 304 (NOT MODIFIED) sin leerlos.
      * 
      * @param id ID del productor
-     * @return El productor con sus fincas o 404 si no existe
+     * @param expand Niveles a incluir (opcional, por defecto solo las fincas)
+     * @param webRequest Petición, para comparar el ETag
+     * @return El productor con sus fincas, 400 si expand no es válido o 404 si no existe
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> obtenerProductorPorId(@PathVariable Long id) {
-        return productorService.obtenerProductorConFincas(id)
+    public ResponseEntity<?> obtenerProductorPorId(@PathVariable Long id,
+                                                   @RequestParam(required = false) String expand,
+                                                   WebRequest webRequest) {
+        PlanLecturaProductor plan;
+        try {
+            plan = PlanLecturaProductor.desde(expand);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        Optional<SelloVersion> sello = productorService.obtenerSelloProductorConFincas(id, plan);
+        if (sello.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(sello.get().etag())) {
+            return null;
+        }
+        return productorService.obtenerProductorConFincasDTO(id, plan)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -105,7 +173,7 @@ public class ProductorController {
      */
     @GetMapping("/documento/{documento}")
     public ResponseEntity<?> buscarPorDocumento(@PathVariable String documento) {
-        return productorService.buscarPorDocumento(documento)
+        return productorService.buscarPorDocumentoDTO(documento)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -114,19 +182,36 @@ public class ProductorController {
      * Actualiza los datos de un productor existente.
      * PUT /api/productores/{id}
      * 
+     * Con If-Match (el ETag de GET /api/productores/{id}) solo se actualiza si el productor no
+     * cambió desde esa lectura, sin contar los cambios de sus fincas; si cambió responde 412
+     * (PRECONDITION FAILED). Sin If-Match, una escritura concurrente confirmada entre la
+     * lectura y el commit responde 409 (CONFLICT). El ETag de la respuesta sirve para el
+     * siguiente If-Match.
+     * 
      * @param id ID del productor
+     * @param ifMatch ETag de la versión que el cliente modificó (opcional)
      * @param productor Datos actualizados
      * @return El productor actualizado o 404 si no existe
      */
     @PutMapping("/{id}")
-    public ResponseEntity<?> actualizarProductor(@PathVariable Long id, @Valid @RequestBody ProductorModel productor) {
+    public ResponseEntity<?> actualizarProductor(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @Valid @RequestBody ProductorModel productor) {
         try {
-            ProductorModel productorActualizado = productorService.actualizarProductor(id, productor);
-            return ResponseEntity.ok(productorActualizado);
+            ProductorModel productorActualizado = productorService.actualizarProductor(
+                    id, productor, SelloVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(SelloVersion.deEntidad(productorActualizado.getVersion()).etag())
+                    .body(ProductorDTO.desde(productorActualizado));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        } catch (OptimisticLockingFailureException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "El productor fue modificado por otra solicitud; vuelva a consultarlo");
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                    .body(error);
         }
     }
 
@@ -142,7 +227,7 @@ public class ProductorController {
     public ResponseEntity<?> agregarFinca(@PathVariable Long id, @Valid @RequestBody FincaModel finca) {
         try {
             FincaModel fincaGuardada = productorService.agregarFincaAProductor(id, finca);
-            return ResponseEntity.status(HttpStatus.CREATED).body(fincaGuardada);
+            return ResponseEntity.status(HttpStatus.CREATED).body(FincaDTO.desde(fincaGuardada));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -169,6 +254,116 @@ public class ProductorController {
         }
     }
 
+    /**
+     * Importa productores con sus fincas desde un archivo CSV o NDJSON enviado como cuerpo.
+     * POST /api/productores/importaciones?formato={csv|ndjson}&importacionId={importacionId}
+     * 
+     * El archivo se lee por líneas y se registra por bloques, cada uno en su propia transacción.
+     * Si la petición se interrumpe, volver a enviar el mismo archivo con el importacionId
+     * devuelto retoma desde la primera línea no confirmada.
+     * 
+     * @param formato Formato del archivo (ndjson por defecto)
+     * @param importacionId ID de una importación a retomar (opcional)
+     * @param request Petición cuyo cuerpo contiene el archivo
+     * @return Avance de la importación con las primeras líneas rechazadas, 400 si el formato
+     *         no es válido o no coincide con el de la importación, 404 si la importación no existe
+     */
+    @PostMapping("/importaciones")
+    public ResponseEntity<?> importarProductores(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestParam(required = false) String importacionId,
+            HttpServletRequest request) throws IOException {
+        FormatoImportacion formatoImportacion;
+        try {
+            formatoImportacion = FormatoImportacion.desde(formato);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+        String nombreFormato = formatoImportacion.name().toLowerCase(Locale.ROOT);
+
+        ImportacionModel importacion;
+        if (importacionId == null) {
+            importacion = importacionProductoresService.iniciar(nombreFormato);
+        } else {
+            Optional<ImportacionModel> existente = importacionProductoresService.buscar(importacionId);
+            if (existente.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            importacion = existente.get();
+            if (!importacion.getFormato().equals(nombreFormato)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "La importación se inició con formato " + importacion.getFormato());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+
+        if (importacion.getEstado() != EstadoImportacion.COMPLETADA) {
+            try (BufferedReader lector = new BufferedReader(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+                leerArchivoImportacion(importacion, formatoImportacion, lector);
+            }
+            importacionProductoresService.completar(importacion.getId());
+        }
+        return ResponseEntity.ok(importacionProductoresService
+                .obtenerEstado(importacion.getId(), maximoErroresImportacion).orElseThrow());
+    }
+
+    /**
+     * Consulta el avance de una importación.
+     * GET /api/productores/importaciones/{id}
+     * 
+     * @param id ID de la importación
+     * @return Avance con las primeras líneas rechazadas, o 404 si no existe
+     */
+    @GetMapping("/importaciones/{id}")
+    public ResponseEntity<EstadoImportacionDTO> obtenerImportacion(@PathVariable String id) {
+        return importacionProductoresService.obtenerEstado(id, maximoErroresImportacion)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Lee el archivo omitiendo las líneas ya confirmadas y registra los productores por bloques.
+     * Un bloque termina siempre entre dos productores, así que las filas CSV de un mismo
+     * productor nunca quedan repartidas entre dos transacciones.
+     */
+    private void leerArchivoImportacion(ImportacionModel importacion, FormatoImportacion formato,
+                                        BufferedReader lector) throws IOException {
+        long omitir = importacion.getLineasProcesadas();
+        List<FilaImportacionProductor> bloque = new ArrayList<>(tamanoBloqueImportacion);
+        FilaImportacionProductor actual = null;
+        long numeroLinea = 0;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (numeroLinea <= omitir || linea.isBlank() || (numeroLinea == 1 && formato.tieneEncabezado())) {
+                continue;
+            }
+            FilaImportacionProductor fila = formato.leer(numeroLinea, linea, objectMapper);
+            if (actual != null && formato.agrupaFilas() && actual.errorLectura() == null
+                    && fila.errorLectura() == null && Objects.equals(actual.documento(), fila.documento())) {
+                actual = actual.conFincasDe(fila);
+                continue;
+            }
+            if (actual != null) {
+                bloque.add(actual);
+                if (bloque.size() == tamanoBloqueImportacion) {
+                    importacionProductoresService.procesarBloque(importacion.getId(), bloque, numeroLinea - 1);
+                    bloque.clear();
+                }
+            }
+            actual = fila;
+        }
+        if (actual != null) {
+            bloque.add(actual);
+        }
+        if (numeroLinea > omitir) {
+            importacionProductoresService.procesarBloque(importacion.getId(), bloque, numeroLinea);
+        }
+    }
+
     /**
      * Clase interna para recibir un productor con sus fincas en una sola petición.
      */
@@ -0,0 +1,56 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.ResumenCostoDTO;
+import com.angie.vivero.models.AmbitoCosto;
+import com.angie.vivero.services.ResumenCostosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Controlador REST para reportes agregados.
+ */
+@RestController
+@RequestMapping("/api/reportes")
+@CrossOrigin(origins = "*")
+public class ReporteController {
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    /**
+     * Obtiene el costo mensual en productos de control de un vivero, finca o productor.
+     * Se responde desde los acumulados, con una fila por mes.
+     * 
+     * GET /api/reportes/costos?ambito={vivero|finca|productor}&id={id}&desde={AAAA-MM}&hasta={AAAA-MM}
+     * 
+     * @param ambito Nivel de agregación
+     * @param id ID del vivero, finca o productor
+     * @param desde Primer mes (opcional)
+     * @param hasta Último mes (opcional)
+     * @return Costos por mes, o 400 si el ámbito o el rango no son válidos
+     */
+    @GetMapping("/costos")
+    public ResponseEntity<List<ResumenCostoDTO>> obtenerCostos(
+            @RequestParam String ambito,
+            @RequestParam Long id,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta) {
+        AmbitoCosto ambitoCosto;
+        try {
+            ambitoCosto = AmbitoCosto.valueOf(ambito.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(resumenCostosService.obtenerCostos(ambitoCosto, id, desde, hasta));
+    }
+}
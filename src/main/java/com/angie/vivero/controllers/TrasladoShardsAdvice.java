@@ -0,0 +1,23 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.services.ProductorEnTrasladoException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Responde 503 (SERVICE UNAVAILABLE) con Retry-After a una escritura sobre un productor que
+ * se está trasladando de shard, para que el cliente la reintente al terminar el traslado.
+ */
+@RestControllerAdvice
+public class TrasladoShardsAdvice {
+
+    @ExceptionHandler(ProductorEnTrasladoException.class)
+    public ResponseEntity<Void> productorEnTraslado(ProductorEnTrasladoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
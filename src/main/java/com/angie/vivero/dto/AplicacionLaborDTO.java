@@ -0,0 +1,9 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Aplicación de un producto de control en un vivero en una fecha.
+ */
+public record AplicacionLaborDTO(Long viveroId, Long productoControlId, LocalDate fecha) {
+}
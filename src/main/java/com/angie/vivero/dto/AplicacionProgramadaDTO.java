@@ -0,0 +1,11 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Próxima aplicación de un producto de control en un vivero, calculada como
+ * la última aplicación más la frecuencia del producto.
+ */
+public record AplicacionProgramadaDTO(Long viveroId, Long productoControlId,
+                                      LocalDate ultimaAplicacion, LocalDate proximaAplicacion) {
+}
@@ -0,0 +1,24 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.OperacionCambio;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del flujo de cambios, tal como lo reciben los destinos y GET /api/cambios.
+ *
+ * @param posicion Posición consecutiva del evento; es el cursor del flujo
+ * @param id ID del evento, para descartar repetidos si un destino lo recibe dos veces
+ * @param entidad Entidad escrita
+ * @param entidadId ID de la entidad escrita
+ * @param version Versión de la entidad después de la escritura; un consumidor descarta los eventos
+ *                de una entidad con versión menor o igual a la última que aplicó
+ * @param operacion Escritura realizada
+ * @param registrado Momento de la escritura
+ * @param datos Vista de lectura de la entidad (LaborDTO, FincaDTO o ProductorDTO), en JSON
+ */
+public record CambioDTO(Long posicion, Long id, EntidadCambio entidad, Long entidadId, Long version,
+                        OperacionCambio operacion, LocalDateTime registrado, @JsonRawValue String datos) {
+}
@@ -0,0 +1,13 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consulta de elegibilidad de cosecha para varios viveros en una fecha.
+ * 
+ * @param fecha Fecha en la que se quiere cosechar
+ * @param viveroIds IDs de los viveros a consultar
+ */
+public record ConsultaElegibilidadCosecha(LocalDate fecha, List<Long> viveroIds) {
+}
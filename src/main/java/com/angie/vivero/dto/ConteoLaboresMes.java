@@ -0,0 +1,8 @@
+package com.angie.vivero.dto;
+
+/**
+ * Cantidad de labores de un vivero en un mes, con su finca y productor.
+ */
+public record ConteoLaboresMes(Long viveroId, Long fincaId, Long productorId,
+                               Integer anio, Integer mes, Long cantidad) {
+}
@@ -0,0 +1,7 @@
+package com.angie.vivero.dto;
+
+/**
+ * Cantidad de productores y de labores que guarda un shard.
+ */
+public record DistribucionShardDTO(int shard, long productores, long labores) {
+}
@@ -0,0 +1,14 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Indica si un vivero puede cosecharse en una fecha según los periodos de carencia
+ * de los productos aplicados.
+ * 
+ * @param viveroId ID del vivero
+ * @param elegible true si ningún periodo de carencia cubre la fecha consultada
+ * @param fechaCosechaPermitida Primera fecha, desde la consultada, en la que se puede cosechar
+ */
+public record ElegibilidadCosechaDTO(Long viveroId, boolean elegible, LocalDate fechaCosechaPermitida) {
+}
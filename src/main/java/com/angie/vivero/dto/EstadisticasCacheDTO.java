@@ -0,0 +1,8 @@
+package com.angie.vivero.dto;
+
+/**
+ * Contadores de uso de una caché en memoria desde que arrancó la aplicación.
+ */
+public record EstadisticasCacheDTO(String nombre, long tamanoEstimado, long aciertos, long fallos,
+                                   double tasaAciertos, long desalojos) {
+}
@@ -0,0 +1,26 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.EstadoImportacion;
+
+import java.util.List;
+
+/**
+ * Avance de una importación masiva de productores.
+ * 
+ * @param id ID de la importación, para consultarla o retomarla
+ * @param formato Formato del archivo (csv o ndjson)
+ * @param estado EN_CURSO mientras falten bloques, COMPLETADA al terminar el archivo
+ * @param lineasProcesadas Última línea del archivo cuyo resultado quedó confirmado
+ * @param registrados Productores registrados
+ * @param rechazados Productores rechazados
+ * @param errores Primeras líneas rechazadas, en orden de línea
+ */
+public record EstadoImportacionDTO(String id, String formato, EstadoImportacion estado, long lineasProcesadas,
+                                   long registrados, long rechazados, List<ErrorImportacionDTO> errores) {
+
+    /**
+     * Línea rechazada de una importación.
+     */
+    public record ErrorImportacionDTO(long linea, String mensaje) {
+    }
+}
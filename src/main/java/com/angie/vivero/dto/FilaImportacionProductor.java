@@ -0,0 +1,47 @@
+package com.angie.vivero.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Productor leído de un archivo de importación, con sus fincas.
+ * 
+ * @param linea Línea del archivo donde empieza el productor (la primera es 1)
+ * @param documento Documento del productor
+ * @param nombre Nombre
+ * @param apellido Apellido
+ * @param telefono Teléfono
+ * @param correo Correo electrónico
+ * @param fincas Fincas del productor; puede estar vacía
+ * @param errorLectura Motivo por el que la línea no se pudo interpretar, null si se leyó bien
+ */
+public record FilaImportacionProductor(long linea, String documento, String nombre, String apellido,
+                                       String telefono, String correo, List<Finca> fincas, String errorLectura) {
+
+    /**
+     * Finca de un productor importado.
+     */
+    public record Finca(String numeroCatastro, String municipio) {
+    }
+
+    public static FilaImportacionProductor malformada(long linea, String error) {
+        return new FilaImportacionProductor(linea, null, null, null, null, null, List.of(), error);
+    }
+
+    /**
+     * Copia la fila con la línea indicada; las fincas null se tratan como lista vacía.
+     */
+    public FilaImportacionProductor enLinea(long linea) {
+        return new FilaImportacionProductor(linea, documento, nombre, apellido, telefono, correo,
+                fincas != null ? fincas : List.of(), errorLectura);
+    }
+
+    /**
+     * Agrega las fincas de otra fila del mismo productor (filas CSV consecutivas).
+     */
+    public FilaImportacionProductor conFincasDe(FilaImportacionProductor otra) {
+        List<Finca> todas = new ArrayList<>(fincas);
+        todas.addAll(otra.fincas());
+        return new FilaImportacionProductor(linea, documento, nombre, apellido, telefono, correo, todas, errorLectura);
+    }
+}
@@ -0,0 +1,10 @@
+package com.angie.vivero.dto;
+
+/**
+ * Fila plana del LEFT JOIN entre un productor y sus fincas.
+ * Los campos de la finca son null cuando el productor no tiene fincas.
+ */
+public record FilaProductorFinca(Long productorId, String documento, String nombre, String apellido,
+                                 String telefono, String correo,
+                                 Long fincaId, String numeroCatastro, String municipio) {
+}
@@ -0,0 +1,33 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.FincaModel;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Vista de lectura de una finca, con el productor referenciado solo por su ID.
+ * Los viveros solo se incluyen (y se serializan) cuando la lectura los expande.
+ */
+public record FincaDTO(Long id, String numeroCatastro, String municipio, Long productorId,
+                       @JsonInclude(JsonInclude.Include.NON_NULL) List<ViveroDTO> viveros) {
+
+    public FincaDTO(Long id, String numeroCatastro, String municipio, Long productorId) {
+        this(id, numeroCatastro, municipio, productorId, null);
+    }
+
+    public static FincaDTO desde(FincaModel finca) {
+        return new FincaDTO(
+                finca.getId(),
+                finca.getNumeroCatastro(),
+                finca.getMunicipio(),
+                finca.getProductor() != null ? finca.getProductor().getId() : null);
+    }
+
+    /**
+     * La misma finca con sus viveros.
+     */
+    public FincaDTO conViveros(List<ViveroDTO> viveros) {
+        return new FincaDTO(id, numeroCatastro, municipio, productorId, viveros);
+    }
+}
@@ -0,0 +1,7 @@
+package com.angie.vivero.dto;
+
+/**
+ * Finca y productor a los que pertenece un vivero.
+ */
+public record JerarquiaVivero(Long viveroId, Long fincaId, Long productorId) {
+}
@@ -0,0 +1,12 @@
+package com.angie.vivero.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Vista de lectura de una labor junto con los datos del producto de control aplicado.
+ */
+public record LaborConProductoDTO(Long id, LocalDate fecha, String descripcion, Long viveroId,
+                                  Long productoControlId, String tipoProducto, String registroICA,
+                                  String nombreProducto, BigDecimal valorProducto) {
+}
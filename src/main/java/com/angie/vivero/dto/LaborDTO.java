@@ -0,0 +1,27 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.LaborModel;
+
+import java.time.LocalDate;
+
+/**
+ * Vista de lectura de una labor.
+ * 
+ * Expone el vivero y el producto de control solo por su ID, de modo que
+ * nunca se serializan asociaciones perezosas de la entidad.
+ */
+public record LaborDTO(Long id, LocalDate fecha, String descripcion, Long viveroId, Long productoControlId) {
+
+    /**
+     * Construye la vista a partir de una labor ya cargada.
+     * Leer el ID de un proxy perezoso no lo inicializa.
+     */
+    public static LaborDTO desde(LaborModel labor) {
+        return new LaborDTO(
+                labor.getId(),
+                labor.getFecha(),
+                labor.getDescripcion(),
+                labor.getVivero() != null ? labor.getVivero().getId() : null,
+                labor.getProductoControl() != null ? labor.getProductoControl().getId() : null);
+    }
+}
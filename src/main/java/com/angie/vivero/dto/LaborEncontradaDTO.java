@@ -0,0 +1,10 @@
+package com.angie.vivero.dto;
+
+/**
+ * Labor encontrada por la búsqueda de texto.
+ * 
+ * @param labor Vista de lectura de la labor
+ * @param puntaje Relevancia de la labor para la consulta (BM25); mayor es más relevante
+ */
+public record LaborEncontradaDTO(LaborDTO labor, double puntaje) {
+}
@@ -0,0 +1,14 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Elemento de una carga masiva de labores.
+ * 
+ * @param fecha Fecha de la labor
+ * @param descripcion Descripción de la labor
+ * @param viveroId ID del vivero donde se realizó
+ * @param productoControlId ID del producto de control utilizado (opcional)
+ */
+public record LaborLoteItem(LocalDate fecha, String descripcion, Long viveroId, Long productoControlId) {
+}
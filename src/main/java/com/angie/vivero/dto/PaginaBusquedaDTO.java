@@ -0,0 +1,14 @@
+package com.angie.vivero.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de la búsqueda de texto sobre labores, ordenados por relevancia.
+ *
+ * @param contenido Labores de la página
+ * @param total Cantidad de labores que coinciden con la consulta y los filtros
+ * @param pagina Número de página, desde 0
+ * @param tamano Tamaño de página usado
+ */
+public record PaginaBusquedaDTO(List<LaborEncontradaDTO> contenido, long total, int pagina, int tamano) {
+}
@@ -0,0 +1,14 @@
+package com.angie.vivero.dto;
+
+import java.util.List;
+
+/**
+ * Página del flujo de cambios.
+ *
+ * @param cambios Eventos de la página, en orden de posición
+ * @param cursor Posición desde la que se pide la página siguiente; se conserva aunque no haya
+ *               más eventos, para volver a consultar después
+ * @param hayMas Indica si ya hay más eventos después de esta página
+ */
+public record PaginaCambiosDTO(List<CambioDTO> cambios, long cursor, boolean hayMas) {
+}
@@ -0,0 +1,13 @@
+package com.angie.vivero.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por cursor (keyset).
+ *
+ * @param contenido Elementos de la página
+ * @param siguienteCursor Cursor opaco para pedir la página siguiente, null si no hay más
+ * @param hayMas Indica si existen más elementos después de esta página
+ */
+public record PaginaCursor<T>(List<T> contenido, String siguienteCursor, boolean hayMas) {
+}
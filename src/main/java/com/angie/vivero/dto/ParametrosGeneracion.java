@@ -0,0 +1,56 @@
+package com.angie.vivero.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Parámetros del generador de datos sintéticos (ver GeneradorDatosService).
+ *
+ * @param productores Cantidad de productores
+ * @param maximoFincasPorProductor Máximo de fincas de un productor; la mayoría tiene una o dos
+ * @param maximoViverosPorFinca Máximo de viveros de una finca; la mayoría tiene uno o dos
+ * @param labores Cantidad de labores
+ * @param productos Cantidad de productos de control del catálogo generado
+ * @param proporcionConProducto Fracción de las labores que aplican un producto, entre 0 y 1
+ * @param fechaInicio Fecha de la labor más antigua posible
+ * @param dias Cantidad de días, desde fechaInicio, en que se reparten las labores
+ * @param sesgo Exponente de la distribución de Zipf con que se eligen viveros y productos
+ *              para cada labor; 0 reparte por igual y valores mayores concentran más
+ * @param semilla Semilla de los números aleatorios; con la misma semilla se generan los mismos datos
+ * @param hilos Cantidad de hilos que insertan en paralelo
+ * @param filasPorInsert Filas por sentencia INSERT de varias filas
+ */
+public record ParametrosGeneracion(int productores, int maximoFincasPorProductor, int maximoViverosPorFinca,
+                                   long labores, int productos, double proporcionConProducto,
+                                   LocalDate fechaInicio, int dias, double sesgo, long semilla,
+                                   int hilos, int filasPorInsert) {
+
+    public ParametrosGeneracion {
+        if (productores < 1 || maximoFincasPorProductor < 1 || maximoViverosPorFinca < 1) {
+            throw new IllegalArgumentException("Debe generarse al menos un productor con una finca y un vivero");
+        }
+        if (labores < 0 || productos < 0 || dias < 1 || hilos < 1 || filasPorInsert < 1) {
+            throw new IllegalArgumentException("Las cantidades del generador no pueden ser negativas");
+        }
+        if (proporcionConProducto < 0 || proporcionConProducto > 1 || (proporcionConProducto > 0 && productos == 0)) {
+            throw new IllegalArgumentException("La proporción de labores con producto debe estar entre 0 y 1 "
+                    + "y requiere al menos un producto");
+        }
+        if (sesgo < 0) {
+            throw new IllegalArgumentException("El sesgo no puede ser negativo");
+        }
+        if (fechaInicio == null) {
+            throw new IllegalArgumentException("La fecha inicial es obligatoria");
+        }
+    }
+
+    /**
+     * Parámetros con los valores por defecto para una cantidad de productores y labores:
+     * hasta 4 fincas por productor y 3 viveros por finca, 30 productos aplicados en
+     * la mitad de las labores, dos años de fechas y sesgo 0.8.
+     */
+    public static ParametrosGeneracion de(int productores, long labores) {
+        return new ParametrosGeneracion(productores, 4, 3, labores, 30, 0.5,
+                LocalDate.now().minusYears(2), 730, 0.8, 42L,
+                Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())), 1000);
+    }
+}
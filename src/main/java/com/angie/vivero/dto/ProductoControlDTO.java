@@ -0,0 +1,51 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.ProductoControlFertilizanteModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductoControlModel;
+import com.angie.vivero.models.ProductoControlPlagaModel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Vista de lectura inmutable de un producto de control, con los campos
+ * del subtipo que correspondan. Es la forma en que el catálogo se guarda en caché.
+ */
+public record ProductoControlDTO(Long id, String tipo, String registroICA, String nombreProducto,
+                                 Integer frecuenciaAplicacion, BigDecimal valor,
+                                 Integer periodoCarencia, String nombreHongo,
+                                 LocalDate fechaUltimaAplicacion) {
+
+    public static final String TIPO_HONGO = "HONGO";
+    public static final String TIPO_PLAGA = "PLAGA";
+    public static final String TIPO_FERTILIZANTE = "FERTILIZANTE";
+
+    public static ProductoControlDTO desde(ProductoControlModel producto) {
+        String tipo = null;
+        Integer periodoCarencia = null;
+        String nombreHongo = null;
+        LocalDate fechaUltimaAplicacion = null;
+        if (producto instanceof ProductoControlHongoModel hongo) {
+            tipo = TIPO_HONGO;
+            periodoCarencia = hongo.getPeriodoCarencia();
+            nombreHongo = hongo.getNombreHongo();
+        } else if (producto instanceof ProductoControlPlagaModel plaga) {
+            tipo = TIPO_PLAGA;
+            periodoCarencia = plaga.getPeriodoCarencia();
+        } else if (producto instanceof ProductoControlFertilizanteModel fertilizante) {
+            tipo = TIPO_FERTILIZANTE;
+            fechaUltimaAplicacion = fertilizante.getFechaUltimaAplicacion();
+        }
+        return new ProductoControlDTO(
+                producto.getId(),
+                tipo,
+                producto.getRegistroICA(),
+                producto.getNombreProducto(),
+                producto.getFrecuenciaAplicacion(),
+                producto.getValor(),
+                periodoCarencia,
+                nombreHongo,
+                fechaUltimaAplicacion);
+    }
+}
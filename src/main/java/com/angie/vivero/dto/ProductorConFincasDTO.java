@@ -0,0 +1,71 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.ProductorModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Vista de lectura de un productor junto con sus fincas.
+ */
+public record ProductorConFincasDTO(Long id, String documento, String nombre, String apellido,
+                                    String telefono, String correo, List<FincaDTO> fincas) {
+
+    /**
+     * Construye la vista a partir de un productor cuyas fincas ya están cargadas en memoria.
+     */
+    public static ProductorConFincasDTO desde(ProductorModel productor) {
+        List<FincaDTO> fincas = productor.getFincas().stream().map(FincaDTO::desde).toList();
+        return new ProductorConFincasDTO(
+                productor.getId(),
+                productor.getDocumento(),
+                productor.getNombre(),
+                productor.getApellido(),
+                productor.getTelefono(),
+                productor.getCorreo(),
+                fincas);
+    }
+
+    /**
+     * Arma la vista a partir de las filas de un LEFT JOIN productor-fincas.
+     * 
+     * @param filas Filas del mismo productor; vacía si el productor no existe
+     * @return Optional con el productor y sus fincas
+     */
+    public static Optional<ProductorConFincasDTO> desdeFilas(List<FilaProductorFinca> filas) {
+        if (filas.isEmpty()) {
+            return Optional.empty();
+        }
+        FilaProductorFinca primera = filas.get(0);
+        List<FincaDTO> fincas = new ArrayList<>();
+        for (FilaProductorFinca fila : filas) {
+            if (fila.fincaId() != null) {
+                fincas.add(new FincaDTO(fila.fincaId(), fila.numeroCatastro(), fila.municipio(), primera.productorId()));
+            }
+        }
+        return Optional.of(new ProductorConFincasDTO(
+                primera.productorId(),
+                primera.documento(),
+                primera.nombre(),
+                primera.apellido(),
+                primera.telefono(),
+                primera.correo(),
+                fincas));
+    }
+
+    /**
+     * El mismo productor con los viveros repartidos entre sus fincas.
+     * 
+     * @param viveros Viveros de todas las fincas del productor
+     */
+    public ProductorConFincasDTO conViveros(List<ViveroDTO> viveros) {
+        Map<Long, List<ViveroDTO>> porFinca = viveros.stream().collect(Collectors.groupingBy(ViveroDTO::fincaId));
+        List<FincaDTO> fincasConViveros = fincas.stream()
+                .map(finca -> finca.conViveros(porFinca.getOrDefault(finca.id(), List.of())))
+                .toList();
+        return new ProductorConFincasDTO(id, documento, nombre, apellido, telefono, correo, fincasConViveros);
+    }
+}
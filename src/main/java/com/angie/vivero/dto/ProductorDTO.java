@@ -0,0 +1,20 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.ProductorModel;
+
+/**
+ * Vista de lectura de un productor sin sus fincas.
+ */
+public record ProductorDTO(Long id, String documento, String nombre, String apellido,
+                           String telefono, String correo) {
+
+    public static ProductorDTO desde(ProductorModel productor) {
+        return new ProductorDTO(
+                productor.getId(),
+                productor.getDocumento(),
+                productor.getNombre(),
+                productor.getApellido(),
+                productor.getTelefono(),
+                productor.getCorreo());
+    }
+}
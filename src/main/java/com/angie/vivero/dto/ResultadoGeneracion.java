@@ -0,0 +1,17 @@
+package com.angie.vivero.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una generación de datos sintéticos.
+ *
+ * @param productores Productores insertados
+ * @param fincas Fincas insertadas
+ * @param viveros Viveros insertados
+ * @param labores Labores insertadas
+ * @param productoIds IDs de los productos de control que usan las labores generadas
+ * @param milisegundos Duración total, incluida la reconciliación de costos
+ */
+public record ResultadoGeneracion(long productores, long fincas, long viveros, long labores,
+                                  List<Long> productoIds, long milisegundos) {
+}
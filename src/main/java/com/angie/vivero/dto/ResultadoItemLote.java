@@ -0,0 +1,23 @@
+package com.angie.vivero.dto;
+
+/**
+ * Resultado del registro de un elemento dentro de una carga masiva.
+ * 
+ * @param indice Posición del elemento en la carga (0 para el primero)
+ * @param id ID de la labor creada, null si no se registró
+ * @param error Motivo del rechazo, null si se registró
+ */
+public record ResultadoItemLote(int indice, Long id, String error) {
+
+    public static ResultadoItemLote registrado(int indice, Long id) {
+        return new ResultadoItemLote(indice, id, null);
+    }
+
+    public static ResultadoItemLote rechazado(int indice, String error) {
+        return new ResultadoItemLote(indice, null, error);
+    }
+
+    public boolean registrado() {
+        return id != null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.angie.vivero.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una carga masiva con el resultado de cada elemento.
+ */
+public record ResultadoLoteDTO(int registrados, int rechazados, List<ResultadoItemLote> resultados) {
+
+    public static ResultadoLoteDTO desde(List<ResultadoItemLote> resultados) {
+        int registrados = (int) resultados.stream().filter(ResultadoItemLote::registrado).count();
+        return new ResultadoLoteDTO(registrados, resultados.size() - registrados, resultados);
+    }
+}
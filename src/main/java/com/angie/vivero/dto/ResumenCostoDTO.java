@@ -0,0 +1,17 @@
+package com.angie.vivero.dto;
+
+import com.angie.vivero.models.AmbitoCosto;
+
+import java.math.BigDecimal;
+
+/**
+ * Costo acumulado de un vivero, finca o productor en un mes.
+ */
+public record ResumenCostoDTO(AmbitoCosto ambito, Long ambitoId, int anio, int mes,
+                              long cantidadLabores, BigDecimal totalValor) {
+
+    public ResumenCostoDTO(AmbitoCosto ambito, Long ambitoId, Integer periodo,
+                           Long cantidadLabores, BigDecimal totalValor) {
+        this(ambito, ambitoId, periodo / 100, periodo % 100, cantidadLabores, totalValor);
+    }
+}
@@ -0,0 +1,57 @@
+package com.angie.vivero.dto;
+
+/**
+ * Sello de versión de una lectura, del que se deriva su ETag.
+ *
+ * Para una entidad, version es su columna de versión; para una colección, cantidad,
+ * sumaIds y sumaVersiones resumen sus filas. Actualizar una fila suma uno a las versiones,
+ * y registrar o eliminar filas cambia la suma de IDs (los IDs nunca se reutilizan), así
+ * que cualquier escritura que llegue a la respuesta cambia el sello.
+ */
+public record SelloVersion(Long version, Long cantidad, Long sumaIds, Long sumaVersiones) {
+
+    /**
+     * Versión que se usa cuando un If-Match no es un ETag de esta clase: no coincide con ninguna.
+     */
+    public static final long VERSION_INVALIDA = -1L;
+
+    /**
+     * Sello de una sola entidad, sin colección.
+     */
+    public static SelloVersion deEntidad(Long version) {
+        return new SelloVersion(version, 0L, 0L, 0L);
+    }
+
+    /**
+     * ETag fuerte: la misma versión produce siempre los mismos bytes, y así sirve también
+     * en If-Match, que solo admite la comparación fuerte.
+     */
+    public String etag() {
+        return "\"" + version + "-" + cantidad + "-" + sumaIds + "-" + sumaVersiones + "\"";
+    }
+
+    /**
+     * Versión de la entidad que espera un If-Match. En el ETag de una entidad con su colección
+     * solo cuenta la versión de la entidad: los cambios de la colección no chocan con los de
+     * sus propios campos.
+     * 
+     * @param ifMatch Valor del encabezado If-Match, o null si no llegó
+     * @return null si no exige versión (sin encabezado o "*"), VERSION_INVALIDA si no es un
+     *         ETag fuerte de esta clase, o la versión esperada
+     */
+    public static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        int guion = valor.indexOf('-');
+        if (valor.length() < 2 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"' || guion < 0) {
+            return VERSION_INVALIDA;
+        }
+        try {
+            return Long.parseLong(valor.substring(1, guion));
+        } catch (NumberFormatException e) {
+            return VERSION_INVALIDA;
+        }
+    }
+}
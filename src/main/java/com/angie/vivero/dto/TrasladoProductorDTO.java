@@ -0,0 +1,7 @@
+package com.angie.vivero.dto;
+
+/**
+ * Traslado de un productor con todo su subárbol de un shard a otro.
+ */
+public record TrasladoProductorDTO(Long productorId, int origen, int destino, long labores) {
+}
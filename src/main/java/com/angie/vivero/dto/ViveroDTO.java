@@ -0,0 +1,7 @@
+package com.angie.vivero.dto;
+
+/**
+ * Vista de lectura de un vivero, con la finca referenciada solo por su ID.
+ */
+public record ViveroDTO(Long id, String codigo, String tipoCultivo, Long fincaId) {
+}
@@ -0,0 +1,10 @@
+package com.angie.vivero.models;
+
+/**
+ * Nivel al que se agregan los costos de las labores.
+ */
+public enum AmbitoCosto {
+    VIVERO,
+    FINCA,
+    PRODUCTOR
+}
@@ -0,0 +1,105 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de la bandeja de cambios: una escritura de un productor, una finca o una labor,
+ * guardado en la misma transacción que la escritura.
+ *
+ * La posición queda en null hasta que RelevoCambios numera el evento ya confirmado; así
+ * el orden de las posiciones es el de confirmación y un consumidor que avanza por posición
+ * no se salta eventos de transacciones más lentas. Los datos son la vista de lectura de la
+ * entidad en JSON, y la versión es la de la entidad (@Version) después de la escritura.
+ */
+@Entity
+@Table(name = "cambios", indexes = {
+        @Index(name = "idx_cambios_publicado", columnList = "publicado, posicion")
+})
+public class CambioModel {
+    @Id
+    @IdPorBloques
+    private Long id;
+
+    @Column(unique = true)
+    private Long posicion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EntidadCambio entidad;
+
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OperacionCambio operacion;
+
+    private Long version;
+
+    @Column(nullable = false, length = 4000)
+    private String datos;
+
+    @Column(nullable = false)
+    private LocalDateTime registrado;
+
+    private LocalDateTime publicado;
+
+    public CambioModel() {
+    }
+
+    public CambioModel(EntidadCambio entidad, Long entidadId, Long version, OperacionCambio operacion, String datos,
+                       LocalDateTime registrado) {
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+        this.version = version;
+        this.operacion = operacion;
+        this.datos = datos;
+        this.registrado = registrado;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPosicion() {
+        return posicion;
+    }
+
+    public void setPosicion(Long posicion) {
+        this.posicion = posicion;
+    }
+
+    public EntidadCambio getEntidad() {
+        return entidad;
+    }
+
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public OperacionCambio getOperacion() {
+        return operacion;
+    }
+
+    public String getDatos() {
+        return datos;
+    }
+
+    public LocalDateTime getRegistrado() {
+        return registrado;
+    }
+
+    public LocalDateTime getPublicado() {
+        return publicado;
+    }
+
+    public void setPublicado(LocalDateTime publicado) {
+        this.publicado = publicado;
+    }
+}
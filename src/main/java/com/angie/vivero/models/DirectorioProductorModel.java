@@ -0,0 +1,45 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Entrada del directorio de shards: el shard donde está un productor con todo su subárbol.
+ *
+ * DirectorioShards la lee y la escribe por JDBC en el shard 0, fuera de la transacción de la
+ * operación que enruta; la entidad solo define la tabla.
+ */
+@Entity
+@Table(name = "directorio_productores")
+public class DirectorioProductorModel {
+    @Id
+    private String documento;
+
+    @Column(name = "productor_id", unique = true)
+    private Long productorId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoDirectorio estado;
+
+    public DirectorioProductorModel() {
+    }
+
+    public String getDocumento() {
+        return documento;
+    }
+
+    public Long getProductorId() {
+        return productorId;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public EstadoDirectorio getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,10 @@
+package com.angie.vivero.models;
+
+/**
+ * Entidad a la que se refiere un evento de la bandeja de cambios.
+ */
+public enum EntidadCambio {
+    PRODUCTOR,
+    FINCA,
+    LABOR
+}
@@ -0,0 +1,20 @@
+package com.angie.vivero.models;
+
+/**
+ * Estado de un productor en el directorio de shards.
+ */
+public enum EstadoDirectorio {
+    /**
+     * El documento está reservado y el registro del productor todavía no se confirmó.
+     */
+    RESERVADO,
+    /**
+     * El productor está en su shard y admite lecturas y escrituras.
+     */
+    ACTIVO,
+    /**
+     * El productor se está copiando a otro shard: se lee del de origen y las escrituras
+     * se rechazan hasta que termine el traslado.
+     */
+    TRASLADANDO
+}
@@ -0,0 +1,15 @@
+package com.angie.vivero.models;
+
+/**
+ * Estado de una importación masiva de productores.
+ */
+public enum EstadoImportacion {
+    /**
+     * Hay bloques pendientes; la importación puede retomarse desde la última línea confirmada.
+     */
+    EN_CURSO,
+    /**
+     * Se leyó el archivo completo.
+     */
+    COMPLETADA
+}
@@ -0,0 +1,16 @@
+package com.angie.vivero.models;
+
+/**
+ * Estado de un mes en el catálogo de particiones de labores.
+ */
+public enum EstadoParticion {
+    /**
+     * Las labores del mes están en la tabla labores.
+     */
+    ACTIVA,
+    /**
+     * Las labores del mes están en labores_archivo, o se están moviendo allí: las consultas
+     * que llegan a este mes leen las dos tablas.
+     */
+    ARCHIVADA
+}
@@ -3,15 +3,18 @@ package com.angie.vivero.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "fincas")
+@Table(name = "fincas", indexes = {
+        @Index(name = "idx_fincas_productor", columnList = "productor_id")
+})
 public class FincaModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques
     private Long id;
     
     @NotBlank(message = "El número de catastro es obligatorio")
@@ -27,6 +30,11 @@ public class FincaModel {
     @JoinColumn(name = "productor_id", nullable = false)
     private ProductorModel productor;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "finca", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ViveroModel> viveros = new ArrayList<>();
 
@@ -47,6 +55,14 @@ public class FincaModel {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNumeroCatastro() {
         return numeroCatastro;
     }
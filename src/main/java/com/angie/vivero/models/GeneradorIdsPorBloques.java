@@ -0,0 +1,58 @@
+package com.angie.vivero.models;
+
+import com.angie.vivero.config.ContextoShard;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generador de IDs por bloques respaldado por la tabla {@code secuencias},
+ * que funciona igual en MySQL y en H2.
+ * 
+ * Cada tabla raíz tiene su propia fila (columna {@code entidad}) cuyo
+ * {@code ultimo_valor} es el último ID ya reservado. Reservar un bloque es una
+ * actualización atómica en una transacción aparte, así que varias instancias de
+ * la aplicación pueden compartir la misma base de datos sin entregar IDs repetidos.
+ * 
+ * El tamaño del bloque se configura con {@code spring.jpa.properties.vivero.ids.tamano_bloque}.
+ * Con shards los bloques se reservan siempre en el shard del directorio, así que los IDs
+ * son únicos entre todos los shards y un productor se traslada sin renumerar sus filas.
+ */
+public class GeneradorIdsPorBloques extends TableGenerator {
+
+    public static final String TABLA = "secuencias";
+    public static final String COLUMNA_ENTIDAD = "entidad";
+    public static final String COLUMNA_VALOR = "ultimo_valor";
+    public static final String TAMANO_BLOQUE = "vivero.ids.tamano_bloque";
+    public static final int TAMANO_BLOQUE_DEFECTO = 50;
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry registro) throws MappingException {
+        Object tamanoBloque = registro.requireService(ConfigurationService.class).getSettings().get(TAMANO_BLOQUE);
+
+        parametros.setProperty(TABLE_PARAM, TABLA);
+        parametros.setProperty(SEGMENT_COLUMN_PARAM, COLUMNA_ENTIDAD);
+        parametros.setProperty(VALUE_COLUMN_PARAM, COLUMNA_VALOR);
+        // Una fila por tabla raíz: las subclases JOINED comparten la fila de su raíz
+        parametros.setProperty(SEGMENT_VALUE_PARAM, parametros.getProperty(PersistentIdentifierGenerator.TABLE));
+        parametros.setProperty(INITIAL_PARAM, "1");
+        parametros.setProperty(INCREMENT_PARAM,
+                tamanoBloque != null ? tamanoBloque.toString() : String.valueOf(TAMANO_BLOQUE_DEFECTO));
+        // pooled-lo: cada bloque empieza justo después del último valor reservado
+        parametros.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, parametros, registro);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor sesion, Object entidad) {
+        return ContextoShard.ejecutarEn(ContextoShard.DIRECTORIO, () -> super.generate(sesion, entidad));
+    }
+}
@@ -0,0 +1,24 @@
+package com.angie.vivero.models;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marca un ID que se asigna por bloques reservados en la tabla {@code secuencias}.
+ * 
+ * A diferencia de IDENTITY, el ID se conoce antes del INSERT, lo que permite
+ * a Hibernate agrupar las inserciones en lotes JDBC.
+ * 
+ * @see GeneradorIdsPorBloques
+ */
+@IdGeneratorType(GeneradorIdsPorBloques.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface IdPorBloques {
+}
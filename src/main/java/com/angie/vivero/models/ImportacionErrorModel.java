@@ -0,0 +1,50 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Línea rechazada de una importación masiva de productores, con el motivo.
+ */
+@Entity
+@Table(name = "importacion_errores", indexes = {
+        @Index(name = "idx_importacion_errores_importacion", columnList = "importacion_id, linea")
+})
+public class ImportacionErrorModel {
+    @Id
+    @IdPorBloques
+    private Long id;
+
+    @Column(name = "importacion_id", nullable = false, length = 36)
+    private String importacionId;
+
+    @Column(nullable = false)
+    private Long linea;
+
+    @Column(nullable = false, length = 500)
+    private String mensaje;
+
+    public ImportacionErrorModel() {
+    }
+
+    public ImportacionErrorModel(String importacionId, Long linea, String mensaje) {
+        this.importacionId = importacionId;
+        this.linea = linea;
+        this.mensaje = mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getImportacionId() {
+        return importacionId;
+    }
+
+    public Long getLinea() {
+        return linea;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+}
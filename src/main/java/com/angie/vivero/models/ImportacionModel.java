@@ -0,0 +1,96 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avance de una importación masiva de productores con sus fincas.
+ * 
+ * Cada bloque del archivo se confirma junto con el avance, así que lineasProcesadas es
+ * siempre la última línea cuyo resultado quedó guardado y una importación interrumpida
+ * se retoma a partir de ella.
+ */
+@Entity
+@Table(name = "importaciones")
+public class ImportacionModel {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 10)
+    private String formato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoImportacion estado;
+
+    @Column(nullable = false)
+    private Long lineasProcesadas;
+
+    @Column(nullable = false)
+    private Long registrados;
+
+    @Column(nullable = false)
+    private Long rechazados;
+
+    @Column(nullable = false)
+    private LocalDateTime creada;
+
+    @Column(nullable = false)
+    private LocalDateTime actualizada;
+
+    public ImportacionModel() {
+    }
+
+    public ImportacionModel(String id, String formato, LocalDateTime creada) {
+        this.id = id;
+        this.formato = formato;
+        this.estado = EstadoImportacion.EN_CURSO;
+        this.lineasProcesadas = 0L;
+        this.registrados = 0L;
+        this.rechazados = 0L;
+        this.creada = creada;
+        this.actualizada = creada;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    public EstadoImportacion getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoImportacion estado) {
+        this.estado = estado;
+    }
+
+    public Long getLineasProcesadas() {
+        return lineasProcesadas;
+    }
+
+    public Long getRegistrados() {
+        return registrados;
+    }
+
+    public Long getRechazados() {
+        return rechazados;
+    }
+
+    public LocalDateTime getCreada() {
+        return creada;
+    }
+
+    public LocalDateTime getActualizada() {
+        return actualizada;
+    }
+
+    public void setActualizada(LocalDateTime actualizada) {
+        this.actualizada = actualizada;
+    }
+}
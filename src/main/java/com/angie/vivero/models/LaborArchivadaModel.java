@@ -0,0 +1,90 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Labor anterior al horizonte de archivo, movida de labores a labores_archivo por
+ * ArchivoLabores con el mismo ID. Es de solo lectura: se consulta junto con las labores
+ * activas cuando el rango pedido lo necesita, y no se modifica ni se elimina por la API.
+ * 
+ * Las asociaciones no tienen claves foráneas, para que un vivero o un producto puedan
+ * eliminarse aunque tengan historia archivada.
+ */
+@Entity
+@Table(name = "labores_archivo", indexes = {
+        @Index(name = "idx_labores_archivo_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_labores_archivo_vivero_fecha", columnList = "vivero_id, fecha, id"),
+        @Index(name = "idx_labores_archivo_producto_fecha", columnList = "producto_control_id, fecha, id")
+})
+@Immutable
+public class LaborArchivadaModel {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private String descripcion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "vivero_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private ViveroModel vivero;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_control_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private ProductoControlModel productoControl;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivada;
+
+    public LaborArchivadaModel() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public ViveroModel getVivero() {
+        return vivero;
+    }
+
+    public ProductoControlModel getProductoControl() {
+        return productoControl;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getArchivada() {
+        return archivada;
+    }
+
+    /**
+     * La labor como LaborModel, fuera del contexto de persistencia, para los listados que
+     * devuelven entidades. Guardarla la volvería a insertar en labores.
+     */
+    public LaborModel comoLabor() {
+        LaborModel labor = new LaborModel(fecha, descripcion, vivero);
+        labor.setId(id);
+        labor.setVersion(version);
+        labor.setProductoControl(productoControl);
+        return labor;
+    }
+}
@@ -3,14 +3,20 @@ package com.angie.vivero.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "labores")
+@Table(name = "labores", indexes = {
+        @Index(name = "idx_labores_vivero_fecha", columnList = "vivero_id, fecha, id, producto_control_id, descripcion"),
+        @Index(name = "idx_labores_producto_fecha", columnList = "producto_control_id, fecha, id"),
+        @Index(name = "idx_labores_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_labores_vivero_version", columnList = "vivero_id, version")
+})
 public class LaborModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques
     private Long id;
     
     @NotNull(message = "La fecha de la labor es obligatoria")
@@ -30,6 +36,11 @@ public class LaborModel {
     @JoinColumn(name = "producto_control_id")
     private ProductoControlModel productoControl;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public LaborModel() {
     }
 
@@ -47,6 +58,14 @@ public class LaborModel {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDate getFecha() {
         return fecha;
     }
@@ -0,0 +1,34 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latido de replicación: una sola fila con la hora (UTC) en que se escribió por última vez
+ * en el primario.
+ * 
+ * EnrutadorReplicas la escribe y la lee por JDBC en cada base por separado, porque el
+ * retraso de una réplica es la diferencia entre su copia y la hora actual; la entidad solo
+ * define la tabla.
+ */
+@Entity
+@Table(name = "latido_replicacion")
+public class LatidoReplicacionModel {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime instante;
+
+    public LatidoReplicacionModel() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDateTime getInstante() {
+        return instante;
+    }
+}
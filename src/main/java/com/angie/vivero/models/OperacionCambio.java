@@ -0,0 +1,14 @@
+package com.angie.vivero.models;
+
+/**
+ * Escritura que registra un evento de la bandeja de cambios.
+ */
+public enum OperacionCambio {
+    REGISTRO,
+    ACTUALIZACION,
+    /**
+     * Los datos del evento son los de la entidad antes de eliminarla. Eliminar un productor
+     * es un solo evento: sus fincas, viveros y labores se eliminan con él.
+     */
+    ELIMINACION
+}
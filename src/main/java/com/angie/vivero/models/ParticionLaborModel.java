@@ -0,0 +1,56 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Mes del catálogo de particiones de labores, identificado por su primer día.
+ * 
+ * En MySQL cada mes activo es además una partición nativa de la tabla labores; en las
+ * demás bases (H2) el catálogo emula las particiones: fija los mismos meses y la misma
+ * frontera con el archivo, y las consultas por rango usan el índice por fecha.
+ */
+@Entity
+@Table(name = "particiones_labores")
+public class ParticionLaborModel {
+    @Id
+    private LocalDate mes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoParticion estado;
+
+    @Column(nullable = false)
+    private LocalDateTime actualizada;
+
+    public ParticionLaborModel() {
+    }
+
+    public ParticionLaborModel(LocalDate mes, EstadoParticion estado, LocalDateTime actualizada) {
+        this.mes = mes;
+        this.estado = estado;
+        this.actualizada = actualizada;
+    }
+
+    public LocalDate getMes() {
+        return mes;
+    }
+
+    public EstadoParticion getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoParticion estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getActualizada() {
+        return actualizada;
+    }
+
+    public void setActualizada(LocalDateTime actualizada) {
+        this.actualizada = actualizada;
+    }
+}
@@ -0,0 +1,133 @@
+package com.angie.vivero.models;
+
+import com.angie.vivero.dto.ProductoControlDTO;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Copia desnormalizada del catálogo de productos de control en una sola tabla,
+ * con el subtipo como discriminador y las columnas de todos los subtipos.
+ * 
+ * Es un modelo de lectura: la fuente de verdad siguen siendo las tablas JOINED
+ * de ProductoControlModel y esta tabla se mantiene desde ProductoControlService.
+ */
+@Entity
+@Table(name = "productos_control_lectura", indexes = {
+        @Index(name = "idx_productos_control_lectura_registro", columnList = "registroica")
+})
+public class ProductoControlLecturaModel {
+    @Id
+    private Long id; // Mismo ID del producto en productos_control
+
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    @Column(nullable = false)
+    private String registroICA;
+
+    @Column(nullable = false)
+    private String nombreProducto;
+
+    @Column(nullable = false)
+    private Integer frecuenciaAplicacion;
+
+    @Column(nullable = false)
+    private BigDecimal valor;
+
+    private Integer periodoCarencia;
+
+    private String nombreHongo;
+
+    private LocalDate fechaUltimaAplicacion;
+
+    public ProductoControlLecturaModel() {
+    }
+
+    public static ProductoControlLecturaModel desde(ProductoControlDTO producto) {
+        ProductoControlLecturaModel lectura = new ProductoControlLecturaModel();
+        lectura.setId(producto.id());
+        lectura.setTipo(producto.tipo());
+        lectura.setRegistroICA(producto.registroICA());
+        lectura.setNombreProducto(producto.nombreProducto());
+        lectura.setFrecuenciaAplicacion(producto.frecuenciaAplicacion());
+        lectura.setValor(producto.valor());
+        lectura.setPeriodoCarencia(producto.periodoCarencia());
+        lectura.setNombreHongo(producto.nombreHongo());
+        lectura.setFechaUltimaAplicacion(producto.fechaUltimaAplicacion());
+        return lectura;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public String getRegistroICA() {
+        return registroICA;
+    }
+
+    public void setRegistroICA(String registroICA) {
+        this.registroICA = registroICA;
+    }
+
+    public String getNombreProducto() {
+        return nombreProducto;
+    }
+
+    public void setNombreProducto(String nombreProducto) {
+        this.nombreProducto = nombreProducto;
+    }
+
+    public Integer getFrecuenciaAplicacion() {
+        return frecuenciaAplicacion;
+    }
+
+    public void setFrecuenciaAplicacion(Integer frecuenciaAplicacion) {
+        this.frecuenciaAplicacion = frecuenciaAplicacion;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+
+    public Integer getPeriodoCarencia() {
+        return periodoCarencia;
+    }
+
+    public void setPeriodoCarencia(Integer periodoCarencia) {
+        this.periodoCarencia = periodoCarencia;
+    }
+
+    public String getNombreHongo() {
+        return nombreHongo;
+    }
+
+    public void setNombreHongo(String nombreHongo) {
+        this.nombreHongo = nombreHongo;
+    }
+
+    public LocalDate getFechaUltimaAplicacion() {
+        return fechaUltimaAplicacion;
+    }
+
+    public void setFechaUltimaAplicacion(LocalDate fechaUltimaAplicacion) {
+        this.fechaUltimaAplicacion = fechaUltimaAplicacion;
+    }
+}
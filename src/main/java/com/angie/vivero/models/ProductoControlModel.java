@@ -11,7 +11,7 @@ import java.math.BigDecimal;
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class ProductoControlModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques
     private Long id;
     
     @NotBlank(message = "El registro ICA es obligatorio")
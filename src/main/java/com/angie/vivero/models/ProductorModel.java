@@ -3,6 +3,7 @@ package com.angie.vivero.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,7 +12,7 @@ import java.util.List;
 @Table(name = "productores")
 public class ProductorModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques
     private Long id;
     
     @NotBlank(message = "El documento es obligatorio")
@@ -34,6 +35,11 @@ public class ProductorModel {
     @Column(nullable = false)
     private String correo;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "productor", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FincaModel> fincas = new ArrayList<>();
 
@@ -56,6 +62,14 @@ public class ProductorModel {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getDocumento() {
         return documento;
     }
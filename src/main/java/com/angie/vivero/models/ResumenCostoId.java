@@ -0,0 +1,61 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Clave de un acumulado de costos: ámbito, ID del vivero, finca o productor,
+ * y periodo en formato AAAAMM.
+ */
+@Embeddable
+public class ResumenCostoId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AmbitoCosto ambito;
+
+    @Column(nullable = false)
+    private Long ambitoId;
+
+    @Column(nullable = false)
+    private Integer periodo;
+
+    public ResumenCostoId() {
+    }
+
+    public ResumenCostoId(AmbitoCosto ambito, Long ambitoId, Integer periodo) {
+        this.ambito = ambito;
+        this.ambitoId = ambitoId;
+        this.periodo = periodo;
+    }
+
+    public AmbitoCosto getAmbito() {
+        return ambito;
+    }
+
+    public Long getAmbitoId() {
+        return ambitoId;
+    }
+
+    public Integer getPeriodo() {
+        return periodo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResumenCostoId otro)) {
+            return false;
+        }
+        return ambito == otro.ambito && Objects.equals(ambitoId, otro.ambitoId) && Objects.equals(periodo, otro.periodo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ambito, ambitoId, periodo);
+    }
+}
@@ -0,0 +1,39 @@
+package com.angie.vivero.models;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Acumulado de labores y costo de productos de control por ámbito y mes.
+ * 
+ * Las filas se mantienen con sumas atómicas desde ResumenCostosService; la entidad
+ * solo se usa para leerlas.
+ */
+@Entity
+@Table(name = "resumen_costos")
+public class ResumenCostoModel {
+    @EmbeddedId
+    private ResumenCostoId id;
+
+    @Column(nullable = false)
+    private Long cantidadLabores;
+
+    @Column(nullable = false)
+    private BigDecimal totalValor;
+
+    public ResumenCostoModel() {
+    }
+
+    public ResumenCostoId getId() {
+        return id;
+    }
+
+    public Long getCantidadLabores() {
+        return cantidadLabores;
+    }
+
+    public BigDecimal getTotalValor() {
+        return totalValor;
+    }
+}
@@ -3,16 +3,20 @@ package com.angie.vivero.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "viveros")
+@Table(name = "viveros", indexes = {
+        @Index(name = "idx_viveros_tipo_cultivo", columnList = "tipo_cultivo"),
+        @Index(name = "idx_viveros_finca", columnList = "finca_id")
+})
 public class ViveroModel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdPorBloques
     private Long id;
 
     @NotBlank(message = "El código es obligatorio")
@@ -28,6 +32,11 @@ public class ViveroModel {
     @JoinColumn(name = "finca_id", nullable = false)
     private FincaModel finca;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "vivero", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<LaborModel> labores = new ArrayList<>();
 
@@ -48,6 +57,14 @@ public class ViveroModel {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCodigo() {
         return codigo;
     }
@@ -0,0 +1,66 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.models.CambioModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CambioRepository extends JpaRepository<CambioModel, Long> {
+
+    String SELECT_CAMBIO_DTO = "select new com.angie.vivero.dto.CambioDTO(" +
+            "c.posicion, c.id, c.entidad, c.entidadId, c.version, c.operacion, c.registrado, c.datos) from CambioModel c ";
+
+    // Flujo de cambios: los eventos ya numerados después de una posición, en orden
+
+    @Query(SELECT_CAMBIO_DTO + "where c.posicion > :desde order by c.posicion")
+    List<CambioDTO> buscarDesde(@Param("desde") Long desde, Limit limit);
+
+    // Relevo: eventos confirmados sin numerar y eventos numerados sin publicar. El orden por ID
+    // no es el de confirmación (cada instancia reserva bloques de IDs): RelevoCambios numera los
+    // eventos de una misma entidad por versión.
+
+    @Query("select c from CambioModel c where c.posicion is null order by c.id")
+    List<CambioModel> buscarSinNumerar(Limit limit);
+
+    @Query(SELECT_CAMBIO_DTO + "where c.posicion is not null and c.publicado is null order by c.posicion")
+    List<CambioDTO> buscarSinPublicar(Limit limit);
+
+    @Modifying
+    @Query("update CambioModel c set c.publicado = :publicado where c.id in :ids")
+    int marcarPublicados(@Param("ids") Collection<Long> ids, @Param("publicado") LocalDateTime publicado);
+
+    @Modifying
+    @Query("delete from CambioModel c where c.publicado < :limite")
+    int eliminarPublicadosAntesDe(@Param("limite") LocalDateTime limite);
+
+    // Contador de posiciones en la tabla de secuencias. Bloquear su fila serializa la numeración
+    // entre instancias, así que las posiciones crecen en el mismo orden en que se confirman.
+
+    @Query(value = "SELECT ultimo_valor FROM secuencias WHERE entidad = 'posiciones_cambios' FOR UPDATE",
+           nativeQuery = true)
+    Optional<Long> bloquearUltimaPosicion();
+
+    @Query(value = "SELECT ultimo_valor FROM secuencias WHERE entidad = 'posiciones_cambios'",
+           nativeQuery = true)
+    Optional<Long> buscarUltimaPosicion();
+
+    @Modifying
+    @Query(value = "INSERT INTO secuencias (entidad, ultimo_valor) VALUES ('posiciones_cambios', 0)",
+           nativeQuery = true)
+    void crearContadorPosiciones();
+
+    @Modifying
+    @Query(value = "UPDATE secuencias SET ultimo_valor = :posicion WHERE entidad = 'posiciones_cambios'",
+           nativeQuery = true)
+    void guardarUltimaPosicion(@Param("posicion") long posicion);
+}
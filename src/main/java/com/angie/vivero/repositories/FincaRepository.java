@@ -2,13 +2,20 @@ package com.angie.vivero.repositories;
 
 import com.angie.vivero.models.FincaModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface FincaRepository extends JpaRepository<FincaModel, Long> {
     Optional<FincaModel> findByNumeroCatastro(String numeroCatastro);
     List<FincaModel> findByProductorId(Long productorId);
+
+    @Query("select f.numeroCatastro from FincaModel f where f.numeroCatastro in :numerosCatastro")
+    Set<String> buscarNumerosCatastroExistentes(@Param("numerosCatastro") Collection<String> numerosCatastro);
 }
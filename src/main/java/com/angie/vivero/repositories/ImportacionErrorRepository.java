@@ -0,0 +1,19 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.dto.EstadoImportacionDTO.ErrorImportacionDTO;
+import com.angie.vivero.models.ImportacionErrorModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportacionErrorRepository extends JpaRepository<ImportacionErrorModel, Long> {
+
+    @Query("select new com.angie.vivero.dto.EstadoImportacionDTO$ErrorImportacionDTO(e.linea, e.mensaje) " +
+           "from ImportacionErrorModel e where e.importacionId = :importacionId order by e.linea")
+    List<ErrorImportacionDTO> buscarPorImportacion(@Param("importacionId") String importacionId, Limit limit);
+}
@@ -0,0 +1,30 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.models.ImportacionModel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ImportacionRepository extends JpaRepository<ImportacionModel, String> {
+
+    // Bloquea la fila hasta confirmar el bloque: dos envíos del mismo archivo no procesan las mismas líneas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from ImportacionModel i where i.id = :id")
+    Optional<ImportacionModel> buscarParaActualizar(@Param("id") String id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ImportacionModel i set i.lineasProcesadas = :linea, " +
+           "i.registrados = i.registrados + :registrados, i.rechazados = i.rechazados + :rechazados, " +
+           "i.actualizada = :ahora where i.id = :id")
+    int registrarAvance(@Param("id") String id, @Param("linea") long linea,
+                        @Param("registrados") long registrados, @Param("rechazados") long rechazados,
+                        @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,149 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.ConteoLaboresMes;
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.SelloVersion;
+import com.angie.vivero.models.LaborArchivadaModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Labores archivadas. Las lecturas repiten las de LaborRepository sobre labores_archivo, con
+ * las mismas proyecciones y el mismo orden, para mezclarlas con las activas.
+ */
+@Repository
+public interface LaborArchivadaRepository extends JpaRepository<LaborArchivadaModel, Long> {
+    List<LaborArchivadaModel> findByViveroId(Long viveroId);
+    List<LaborArchivadaModel> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
+    List<LaborArchivadaModel> findByProductoControlId(Long productoControlId);
+    boolean existsByProductoControlId(Long productoControlId);
+
+    String SELECT_LABOR_DTO = "select new com.angie.vivero.dto.LaborDTO(" +
+            "l.id, l.fecha, l.descripcion, l.vivero.id, l.productoControl.id) from LaborArchivadaModel l ";
+
+    @Query(SELECT_LABOR_DTO + "where l.id = :id")
+    Optional<LaborDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @Query(SELECT_LABOR_DTO + "where l.id in :ids")
+    List<LaborDTO> buscarDTOPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_LABOR_DTO + "where l.vivero.finca.productor.id = :productorId")
+    List<LaborDTO> buscarDTOPorProductor(@Param("productorId") Long productorId);
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(l.version, 0L, 0L, 0L) " +
+           "from LaborArchivadaModel l where l.id = :id")
+    Optional<SelloVersion> buscarSelloPorId(@Param("id") Long id);
+
+    // Páginas por cursor, posteriores a (fecha, id)
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.fecha > :fecha or (l.fecha = :fecha and l.id > :id) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaDesde(@Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorViveroDesde(@Param("viveroId") Long viveroId,
+                                              @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.fecha between :fechaInicio and :fechaFin " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorRangoDesde(@Param("fechaInicio") LocalDate fechaInicio,
+                                             @Param("fechaFin") LocalDate fechaFin,
+                                             @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.productoControl.id = :productoControlId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorProductoDesde(@Param("productoControlId") Long productoControlId,
+                                                @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query("select new com.angie.vivero.dto.LaborConProductoDTO(" +
+           "l.id, l.fecha, l.descripcion, l.vivero.id, p.id, " +
+           "case type(p) when ProductoControlHongoModel then 'HONGO' " +
+           "when ProductoControlPlagaModel then 'PLAGA' else 'FERTILIZANTE' end, " +
+           "p.registroICA, p.nombreProducto, p.valor) " +
+           "from LaborArchivadaModel l join l.productoControl p " +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborConProductoDTO> buscarPaginaConProductoPorViveroDesde(@Param("viveroId") Long viveroId,
+                                                                    @Param("fecha") LocalDate fecha,
+                                                                    @Param("id") Long id, Limit limit);
+
+    @Query("select new com.angie.vivero.dto.LaborConProductoDTO(" +
+           "l.id, l.fecha, l.descripcion, l.vivero.id, p.id, p.tipo, p.registroICA, p.nombreProducto, p.valor) " +
+           "from LaborArchivadaModel l join ProductoControlLecturaModel p on p.id = l.productoControl.id " +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborConProductoDTO> buscarPaginaConProductoLecturaPorViveroDesde(@Param("viveroId") Long viveroId,
+                                                                           @Param("fecha") LocalDate fecha,
+                                                                           @Param("id") Long id, Limit limit);
+
+    @Query("select new com.angie.vivero.dto.ConteoLaboresMes(" +
+           "v.id, f.id, f.productor.id, year(l.fecha), month(l.fecha), count(l)) " +
+           "from LaborArchivadaModel l join l.vivero v join v.finca f " +
+           "where l.productoControl.id = :productoControlId " +
+           "group by v.id, f.id, f.productor.id, year(l.fecha), month(l.fecha)")
+    List<ConteoLaboresMes> contarPorViveroYMesConProducto(@Param("productoControlId") Long productoControlId);
+
+    // Última aplicación archivada de cada producto en cada vivero, para la agenda de aplicaciones
+
+    @Query("select new com.angie.vivero.dto.AplicacionLaborDTO(l.vivero.id, l.productoControl.id, max(l.fecha)) " +
+           "from LaborArchivadaModel l where l.productoControl is not null " +
+           "group by l.vivero.id, l.productoControl.id")
+    List<AplicacionLaborDTO> buscarUltimasAplicaciones();
+
+    @Query("select max(l.fecha) from LaborArchivadaModel l " +
+           "where l.vivero.id = :viveroId and l.productoControl.id = :productoControlId")
+    Optional<LocalDate> buscarUltimaAplicacion(@Param("viveroId") Long viveroId,
+                                               @Param("productoControlId") Long productoControlId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = LaborRepository.FETCH_SIZE_CURSOR))
+    @Query(SELECT_LABOR_DTO + "order by l.id")
+    Stream<LaborDTO> streamTodas();
+
+    // Escrituras nativas: la entidad es inmutable y Hibernate advierte ante DML sobre ella
+
+    @Modifying
+    @Query(value = "delete from labores_archivo where vivero_id in (select v.id from viveros v " +
+            "join fincas f on f.id = v.finca_id where f.productor_id = :productorId)", nativeQuery = true)
+    int eliminarPorProductor(@Param("productorId") Long productorId);
+
+    // Archivado: mueve labores activas por bloques de IDs, en la transacción de cada bloque
+
+    @Query(value = "select id from labores where fecha < :frontera order by fecha, id limit :limite", nativeQuery = true)
+    List<Long> buscarIdsActivasAntesDe(@Param("frontera") LocalDate frontera, @Param("limite") int limite);
+
+    @Modifying
+    @Query(value = "insert into labores_archivo (id, fecha, descripcion, vivero_id, producto_control_id, version, archivada) " +
+            "select id, fecha, descripcion, vivero_id, producto_control_id, version, :archivada " +
+            "from labores where id in :ids", nativeQuery = true)
+    int copiarDesdeActivas(@Param("ids") Collection<Long> ids, @Param("archivada") LocalDateTime archivada);
+
+    @Modifying
+    @Query(value = "delete from labores where id in :ids", nativeQuery = true)
+    int eliminarActivas(@Param("ids") Collection<Long> ids);
+}
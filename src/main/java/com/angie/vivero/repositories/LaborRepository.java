@@ -1,11 +1,25 @@
 package com.angie.vivero.repositories;
 
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.ConteoLaboresMes;
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.SelloVersion;
 import com.angie.vivero.models.LaborModel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LaborRepository extends JpaRepository<LaborModel, Long> {
@@ -13,4 +27,145 @@ public interface LaborRepository extends JpaRepository<LaborModel, Long> {
     List<LaborModel> findByFecha(LocalDate fecha);
     List<LaborModel> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
     List<LaborModel> findByProductoControlId(Long productoControlId);
+    boolean existsByProductoControlId(Long productoControlId);
+
+    // Proyecciones de lectura: una sola consulta, sin cargar entidades ni asociaciones perezosas
+
+    String SELECT_LABOR_DTO = "select new com.angie.vivero.dto.LaborDTO(" +
+            "l.id, l.fecha, l.descripcion, l.vivero.id, l.productoControl.id) from LaborModel l ";
+
+    @Query(SELECT_LABOR_DTO + "where l.id = :id")
+    Optional<LaborDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @Query(SELECT_LABOR_DTO + "where l.id in :ids")
+    List<LaborDTO> buscarDTOPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_LABOR_DTO + "where l.vivero.finca.productor.id = :productorId")
+    List<LaborDTO> buscarDTOPorProductor(@Param("productorId") Long productorId);
+
+    // Sellos de versión para los ETag. El de un vivero se resuelve solo con idx_labores_vivero_version:
+    // en InnoDB cada entrada de un índice secundario ya incluye el ID.
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(l.version, 0L, 0L, 0L) " +
+           "from LaborModel l where l.id = :id")
+    Optional<SelloVersion> buscarSelloPorId(@Param("id") Long id);
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(" +
+           "0L, count(l), coalesce(sum(l.id), 0L), coalesce(sum(l.version), 0L)) " +
+           "from LaborModel l where l.vivero.id = :viveroId")
+    SelloVersion selloPorVivero(@Param("viveroId") Long viveroId);
+
+    // Consultas paginadas por cursor: buscan las labores posteriores a (fecha, id) en ese mismo orden
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.fecha > :fecha or (l.fecha = :fecha and l.id > :id) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaDesde(@Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorViveroDesde(@Param("viveroId") Long viveroId,
+                                              @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.fecha between :fechaInicio and :fechaFin " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorRangoDesde(@Param("fechaInicio") LocalDate fechaInicio,
+                                             @Param("fechaFin") LocalDate fechaFin,
+                                             @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_LABOR_DTO +
+           "where l.productoControl.id = :productoControlId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborDTO> buscarPaginaPorProductoDesde(@Param("productoControlId") Long productoControlId,
+                                                @Param("fecha") LocalDate fecha, @Param("id") Long id, Limit limit);
+
+    // Labores de un vivero con su producto de control, paginadas por cursor, en dos variantes:
+    // sobre la jerarquía JOINED (une las tablas de subtipo para conocer el tipo) o sobre
+    // el modelo de lectura productos_control_lectura (una sola tabla).
+
+    @Query("select new com.angie.vivero.dto.LaborConProductoDTO(" +
+           "l.id, l.fecha, l.descripcion, l.vivero.id, p.id, " +
+           "case type(p) when ProductoControlHongoModel then 'HONGO' " +
+           "when ProductoControlPlagaModel then 'PLAGA' else 'FERTILIZANTE' end, " +
+           "p.registroICA, p.nombreProducto, p.valor) " +
+           "from LaborModel l join l.productoControl p " +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborConProductoDTO> buscarPaginaConProductoPorViveroDesde(@Param("viveroId") Long viveroId,
+                                                                    @Param("fecha") LocalDate fecha,
+                                                                    @Param("id") Long id, Limit limit);
+
+    @Query("select new com.angie.vivero.dto.LaborConProductoDTO(" +
+           "l.id, l.fecha, l.descripcion, l.vivero.id, p.id, p.tipo, p.registroICA, p.nombreProducto, p.valor) " +
+           "from LaborModel l join ProductoControlLecturaModel p on p.id = l.productoControl.id " +
+           "where l.vivero.id = :viveroId " +
+           "and (l.fecha > :fecha or (l.fecha = :fecha and l.id > :id)) " +
+           "order by l.fecha, l.id")
+    List<LaborConProductoDTO> buscarPaginaConProductoLecturaPorViveroDesde(@Param("viveroId") Long viveroId,
+                                                                           @Param("fecha") LocalDate fecha,
+                                                                           @Param("id") Long id, Limit limit);
+
+    // Labores que usan un producto, agrupadas por vivero y mes, para ajustar los costos acumulados
+
+    @Query("select new com.angie.vivero.dto.ConteoLaboresMes(" +
+           "v.id, f.id, f.productor.id, year(l.fecha), month(l.fecha), count(l)) " +
+           "from LaborModel l join l.vivero v join v.finca f " +
+           "where l.productoControl.id = :productoControlId " +
+           "group by v.id, f.id, f.productor.id, year(l.fecha), month(l.fecha)")
+    List<ConteoLaboresMes> contarPorViveroYMesConProducto(@Param("productoControlId") Long productoControlId);
+
+    // Última aplicación de cada producto en cada vivero, para la agenda de aplicaciones
+
+    @Query("select new com.angie.vivero.dto.AplicacionLaborDTO(l.vivero.id, l.productoControl.id, max(l.fecha)) " +
+           "from LaborModel l where l.productoControl is not null " +
+           "group by l.vivero.id, l.productoControl.id")
+    List<AplicacionLaborDTO> buscarUltimasAplicaciones();
+
+    @Query("select max(l.fecha) from LaborModel l " +
+           "where l.vivero.id = :viveroId and l.productoControl.id = :productoControlId")
+    Optional<LocalDate> buscarUltimaAplicacion(@Param("viveroId") Long viveroId,
+                                               @Param("productoControlId") Long productoControlId);
+
+    @Query("select new com.angie.vivero.dto.AplicacionLaborDTO(l.vivero.id, l.productoControl.id, max(l.fecha)) " +
+           "from LaborModel l where l.productoControl.id = :productoControlId " +
+           "group by l.vivero.id, l.productoControl.id")
+    List<AplicacionLaborDTO> buscarUltimasAplicacionesDeProducto(@Param("productoControlId") Long productoControlId);
+
+    // Fecha de la labor activa más antigua, para el archivo (ArchivoLabores); usa idx_labores_fecha
+
+    @Query("select min(l.fecha) from LaborModel l")
+    Optional<LocalDate> buscarFechaMinima();
+
+    // Lecturas con cursor de solo avance: las filas se traen de a FETCH_SIZE_CURSOR.
+    // En MySQL requieren useCursorFetch=true en la URL; deben consumirse dentro de una transacción.
+
+    String FETCH_SIZE_CURSOR = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_CURSOR))
+    @Query(SELECT_LABOR_DTO +
+           "where l.fecha between :fechaInicio and :fechaFin " +
+           "order by l.fecha, l.id")
+    Stream<LaborDTO> streamPorRangoFechas(@Param("fechaInicio") LocalDate fechaInicio,
+                                          @Param("fechaFin") LocalDate fechaFin);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_CURSOR))
+    @Query(SELECT_LABOR_DTO + "order by l.id")
+    Stream<LaborDTO> streamTodas();
+
+    // Aplicaciones de productos (sin repetir vivero, producto y fecha) para el índice de periodos de carencia
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_CURSOR))
+    @Query("select distinct new com.angie.vivero.dto.AplicacionLaborDTO(l.vivero.id, l.productoControl.id, l.fecha) " +
+           "from LaborModel l where l.productoControl is not null")
+    Stream<AplicacionLaborDTO> streamAplicaciones();
+
+    @Query("select distinct new com.angie.vivero.dto.AplicacionLaborDTO(l.vivero.id, l.productoControl.id, l.fecha) " +
+           "from LaborModel l where l.vivero.id = :viveroId and l.productoControl is not null")
+    List<AplicacionLaborDTO> buscarAplicacionesPorVivero(@Param("viveroId") Long viveroId);
 }
@@ -0,0 +1,20 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.models.EstadoParticion;
+import com.angie.vivero.models.ParticionLaborModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ParticionLaborRepository extends JpaRepository<ParticionLaborModel, LocalDate> {
+    List<ParticionLaborModel> findAllByOrderByMes();
+
+    @Query("select max(p.mes) from ParticionLaborModel p where p.estado = :estado")
+    Optional<LocalDate> buscarUltimoMes(@Param("estado") EstadoParticion estado);
+}
@@ -2,8 +2,22 @@ package com.angie.vivero.repositories;
 
 import com.angie.vivero.models.ProductoControlFertilizanteModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+
 @Repository
 public interface ProductoControlFertilizanteRepository extends JpaRepository<ProductoControlFertilizanteModel, Long> {
+
+    /**
+     * Adelanta la fecha de última aplicación solo si la nueva es posterior,
+     * en una sentencia sobre la tabla del subtipo.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update productos_control_fertilizante set fecha_ultima_aplicacion = :fecha " +
+            "where id = :id and fecha_ultima_aplicacion < :fecha", nativeQuery = true)
+    int avanzarFechaUltimaAplicacion(@Param("id") Long id, @Param("fecha") LocalDate fecha);
 }
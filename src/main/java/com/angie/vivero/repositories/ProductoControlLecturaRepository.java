@@ -0,0 +1,56 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.ProductoControlLecturaModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductoControlLecturaRepository extends JpaRepository<ProductoControlLecturaModel, Long> {
+
+    // Lecturas del catálogo sobre una sola tabla, sin uniones con las tablas de subtipo
+
+    String SELECT_PRODUCTO_DTO = "select new com.angie.vivero.dto.ProductoControlDTO(" +
+            "p.id, p.tipo, p.registroICA, p.nombreProducto, p.frecuenciaAplicacion, p.valor, " +
+            "p.periodoCarencia, p.nombreHongo, p.fechaUltimaAplicacion) from ProductoControlLecturaModel p ";
+
+    @Query(SELECT_PRODUCTO_DTO + "where p.id = :id")
+    Optional<ProductoControlDTO> buscarDTOPorId(@Param("id") Long id);
+
+    @Query(SELECT_PRODUCTO_DTO + "where p.registroICA = :registroICA")
+    Optional<ProductoControlDTO> buscarDTOPorRegistroICA(@Param("registroICA") String registroICA);
+
+    @Query(SELECT_PRODUCTO_DTO + "order by p.id")
+    List<ProductoControlDTO> listarDTO();
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update productos_control_lectura set fecha_ultima_aplicacion = :fecha " +
+            "where id = :id and fecha_ultima_aplicacion < :fecha", nativeQuery = true)
+    int avanzarFechaUltimaAplicacion(@Param("id") Long id, @Param("fecha") LocalDate fecha);
+
+    // Reconstrucción completa desde las tablas JOINED, en dos sentencias dentro de la misma transacción
+
+    @Modifying
+    @Query(value = "delete from productos_control_lectura", nativeQuery = true)
+    int vaciar();
+
+    @Modifying
+    @Query(value = "insert into productos_control_lectura (id, tipo, registroica, nombre_producto, " +
+            "frecuencia_aplicacion, valor, periodo_carencia, nombre_hongo, fecha_ultima_aplicacion) " +
+            "select p.id, " +
+            "case when h.id is not null then 'HONGO' when pl.id is not null then 'PLAGA' else 'FERTILIZANTE' end, " +
+            "p.registroica, p.nombre_producto, p.frecuencia_aplicacion, p.valor, " +
+            "coalesce(h.periodo_carencia, pl.periodo_carencia), h.nombre_hongo, f.fecha_ultima_aplicacion " +
+            "from productos_control p " +
+            "left join productos_control_hongo h on h.id = p.id " +
+            "left join productos_control_plaga pl on pl.id = p.id " +
+            "left join productos_control_fertilizante f on f.id = p.id", nativeQuery = true)
+    int poblarDesdeCatalogo();
+}
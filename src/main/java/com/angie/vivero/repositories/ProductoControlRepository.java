@@ -1,12 +1,30 @@
 package com.angie.vivero.repositories;
 
 import com.angie.vivero.models.ProductoControlModel;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductoControlRepository extends JpaRepository<ProductoControlModel, Long> {
     Optional<ProductoControlModel> findByRegistroICA(String registroICA);
+
+    // Bloqueos de la fila raíz del producto en el shard de la transacción. La baja toma el exclusivo
+    // y cada alta de labores con el producto el compartido: las altas no se esperan entre sí, pero
+    // una baja espera a las altas en curso y las altas que llegan después esperan a la baja.
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id from ProductoControlModel p where p.id = :id")
+    Optional<Long> bloquearParaEliminar(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select p.id from ProductoControlModel p where p.id in :ids")
+    List<Long> bloquearParaUsar(@Param("ids") Collection<Long> ids);
 }
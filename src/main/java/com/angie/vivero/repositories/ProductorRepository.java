@@ -1,12 +1,63 @@
 package com.angie.vivero.repositories;
 
+import com.angie.vivero.dto.FilaProductorFinca;
+import com.angie.vivero.dto.ProductorDTO;
+import com.angie.vivero.dto.SelloVersion;
 import com.angie.vivero.models.ProductorModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ProductorRepository extends JpaRepository<ProductorModel, Long> {
     Optional<ProductorModel> findByDocumento(String documento);
+
+    @Query("select p.documento from ProductorModel p where p.documento in :documentos")
+    Set<String> buscarDocumentosExistentes(@Param("documentos") Collection<String> documentos);
+
+    // Proyecciones de lectura: una sola consulta, sin cargar entidades ni asociaciones perezosas
+
+    String SELECT_FILA_PRODUCTOR_FINCA = "select new com.angie.vivero.dto.FilaProductorFinca(" +
+            "p.id, p.documento, p.nombre, p.apellido, p.telefono, p.correo, " +
+            "f.id, f.numeroCatastro, f.municipio) " +
+            "from ProductorModel p left join p.fincas f ";
+
+    @Query("select new com.angie.vivero.dto.ProductorDTO(" +
+           "p.id, p.documento, p.nombre, p.apellido, p.telefono, p.correo) " +
+           "from ProductorModel p order by p.id")
+    List<ProductorDTO> listarDTO();
+
+    @Query(SELECT_FILA_PRODUCTOR_FINCA + "where p.id = :id order by f.id")
+    List<FilaProductorFinca> buscarFilasConFincasPorId(@Param("id") Long id);
+
+    @Query(SELECT_FILA_PRODUCTOR_FINCA + "where p.documento = :documento order by f.id")
+    List<FilaProductorFinca> buscarFilasConFincasPorDocumento(@Param("documento") String documento);
+
+    // Sellos de versión para los ETag: solo agregados, sin leer las columnas de la respuesta
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(" +
+           "0L, count(p), coalesce(sum(p.id), 0L), coalesce(sum(p.version), 0L)) " +
+           "from ProductorModel p")
+    SelloVersion selloListado();
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(" +
+           "p.version, count(f), coalesce(sum(f.id), 0L), coalesce(sum(f.version), 0L)) " +
+           "from ProductorModel p left join p.fincas f where p.id = :id group by p.version")
+    Optional<SelloVersion> buscarSelloConFincasPorId(@Param("id") Long id);
+
+    // Con los viveros expandidos, el sello suma también los de todas sus fincas
+    String VIVEROS_DEL_PRODUCTOR = "from ViveroModel v where v.finca.productor.id = :id)";
+
+    @Query("select new com.angie.vivero.dto.SelloVersion(p.version, " +
+           "count(f) + (select count(v) " + VIVEROS_DEL_PRODUCTOR + ", " +
+           "coalesce(sum(f.id), 0L) + (select coalesce(sum(v.id), 0L) " + VIVEROS_DEL_PRODUCTOR + ", " +
+           "coalesce(sum(f.version), 0L) + (select coalesce(sum(v.version), 0L) " + VIVEROS_DEL_PRODUCTOR + ") " +
+           "from ProductorModel p left join p.fincas f where p.id = :id group by p.version")
+    Optional<SelloVersion> buscarSelloConFincasYViverosPorId(@Param("id") Long id);
 }
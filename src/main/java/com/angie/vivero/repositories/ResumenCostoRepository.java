@@ -0,0 +1,70 @@
+package com.angie.vivero.repositories;
+
+import com.angie.vivero.dto.ResumenCostoDTO;
+import com.angie.vivero.models.AmbitoCosto;
+import com.angie.vivero.models.ResumenCostoId;
+import com.angie.vivero.models.ResumenCostoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ResumenCostoRepository extends JpaRepository<ResumenCostoModel, ResumenCostoId> {
+
+    /**
+     * Suma una diferencia a un acumulado en una sola sentencia atómica, creándolo si no existe.
+     */
+    @Modifying
+    @Query(value = "insert into resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor) " +
+            "values (:ambito, :ambitoId, :periodo, :cantidad, :total) " +
+            "on duplicate key update cantidad_labores = cantidad_labores + :cantidad, " +
+            "total_valor = total_valor + :total", nativeQuery = true)
+    int acumular(@Param("ambito") String ambito, @Param("ambitoId") Long ambitoId, @Param("periodo") int periodo,
+                 @Param("cantidad") long cantidad, @Param("total") BigDecimal total);
+
+    @Query("select new com.angie.vivero.dto.ResumenCostoDTO(" +
+           "r.id.ambito, r.id.ambitoId, r.id.periodo, r.cantidadLabores, r.totalValor) " +
+           "from ResumenCostoModel r " +
+           "where r.id.ambito = :ambito and r.id.ambitoId = :ambitoId " +
+           "and r.id.periodo between :desde and :hasta and r.cantidadLabores > 0 " +
+           "order by r.id.periodo")
+    List<ResumenCostoDTO> buscarPorAmbito(@Param("ambito") AmbitoCosto ambito, @Param("ambitoId") Long ambitoId,
+                                          @Param("desde") int desde, @Param("hasta") int hasta);
+
+    // Reconciliación: recalcula todos los acumulados desde las labores, activas y archivadas
+
+    String LABORES_Y_ARCHIVO = "(select vivero_id, fecha, producto_control_id from labores " +
+            "union all select vivero_id, fecha, producto_control_id from labores_archivo) l ";
+
+    @Modifying
+    @Query(value = "delete from resumen_costos", nativeQuery = true)
+    int vaciar();
+
+    @Modifying
+    @Query(value = "insert into resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor) " +
+            "select 'VIVERO', l.vivero_id, year(l.fecha) * 100 + month(l.fecha), count(*), coalesce(sum(p.valor), 0) " +
+            "from " + LABORES_Y_ARCHIVO + "left join productos_control p on p.id = l.producto_control_id " +
+            "group by l.vivero_id, year(l.fecha) * 100 + month(l.fecha)", nativeQuery = true)
+    int recalcularPorVivero();
+
+    @Modifying
+    @Query(value = "insert into resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor) " +
+            "select 'FINCA', v.finca_id, year(l.fecha) * 100 + month(l.fecha), count(*), coalesce(sum(p.valor), 0) " +
+            "from " + LABORES_Y_ARCHIVO + "join viveros v on v.id = l.vivero_id " +
+            "left join productos_control p on p.id = l.producto_control_id " +
+            "group by v.finca_id, year(l.fecha) * 100 + month(l.fecha)", nativeQuery = true)
+    int recalcularPorFinca();
+
+    @Modifying
+    @Query(value = "insert into resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor) " +
+            "select 'PRODUCTOR', f.productor_id, year(l.fecha) * 100 + month(l.fecha), count(*), coalesce(sum(p.valor), 0) " +
+            "from " + LABORES_Y_ARCHIVO + "join viveros v on v.id = l.vivero_id join fincas f on f.id = v.finca_id " +
+            "left join productos_control p on p.id = l.producto_control_id " +
+            "group by f.productor_id, year(l.fecha) * 100 + month(l.fecha)", nativeQuery = true)
+    int recalcularPorProductor();
+}
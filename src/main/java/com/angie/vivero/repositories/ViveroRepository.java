@@ -1,13 +1,30 @@
 package com.angie.vivero.repositories;
 
+import com.angie.vivero.dto.JerarquiaVivero;
+import com.angie.vivero.dto.ViveroDTO;
 import com.angie.vivero.models.ViveroModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface ViveroRepository extends JpaRepository<ViveroModel, Long> {
     List<ViveroModel> findByFincaId(Long fincaId);
     List<ViveroModel> findByTipoCultivo(String tipoCultivo);
+
+    @Query("select v.id from ViveroModel v where v.id in :ids")
+    Set<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.angie.vivero.dto.JerarquiaVivero(v.id, f.id, f.productor.id) " +
+           "from ViveroModel v join v.finca f where v.id in :ids")
+    List<JerarquiaVivero> buscarJerarquias(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.angie.vivero.dto.ViveroDTO(v.id, v.codigo, v.tipoCultivo, v.finca.id) " +
+           "from ViveroModel v where v.finca.productor.id = :productorId order by v.id")
+    List<ViveroDTO> listarDTOPorProductor(@Param("productorId") Long productorId);
 }
@@ -0,0 +1,337 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.AplicacionProgramadaDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import com.angie.vivero.repositories.LaborRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Agenda en memoria de la próxima aplicación de cada producto de control en cada vivero.
+ *
+ * Por cada par (vivero, producto) se guarda la última aplicación según el historial de
+ * labores y la próxima, que es esa fecha más la frecuencia del producto. Las entradas se
+ * indexan por fecha de próxima aplicación en un TreeMap, así que las consultas de vencidas,
+ * de hoy y de los próximos N días recorren solo las entradas que devuelven.
+ *
+ * La agenda se construye una vez al arrancar y luego se actualiza con cada cambio de
+ * labores confirmado, sin volver a recorrer la tabla de labores. Mientras haya meses
+ * archivados, la última aplicación de un par también se busca en labores_archivo: un par
+ * cuya última aplicación se archivó sigue en la agenda, normalmente como vencido.
+ */
+@Service
+public class AgendaAplicacionesService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgendaAplicacionesService.class);
+
+    private record Clave(Long viveroId, Long productoControlId) {
+    }
+
+    private record Entrada(Clave clave, LocalDate ultimaAplicacion, LocalDate proximaAplicacion) {
+
+        AplicacionProgramadaDTO aDTO() {
+            return new AplicacionProgramadaDTO(clave.viveroId(), clave.productoControlId(),
+                    ultimaAplicacion, proximaAplicacion);
+        }
+    }
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private final Map<Clave, Entrada> entradas = new HashMap<>();
+
+    private final TreeMap<LocalDate, Set<Clave>> porProximaAplicacion = new TreeMap<>();
+
+    private final Map<Long, Set<Clave>> porProducto = new HashMap<>();
+
+    /**
+     * Construye la agenda desde el historial de labores al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<AplicacionLaborDTO> ultimas = directorioShards.reunirListas(laborRepository::buscarUltimasAplicaciones);
+        if (particionesLabores.incluyeArchivo(null)) {
+            ultimas = masRecientes(ultimas,
+                    directorioShards.reunirListas(laborArchivadaRepository::buscarUltimasAplicaciones));
+        }
+        Function<Long, Integer> frecuencias = resolverFrecuencias(ultimas);
+        bloqueo.writeLock().lock();
+        try {
+            entradas.clear();
+            porProximaAplicacion.clear();
+            porProducto.clear();
+            ultimas.forEach(a -> indexar(a, frecuencias));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        log.info("Agenda de aplicaciones construida con {} pares vivero-producto", ultimas.size());
+    }
+
+    /**
+     * Actualiza la agenda cuando se confirma un cambio de labores.
+     *
+     * Un registro solo puede adelantar la última aplicación, así que se aplica directamente.
+     * Una actualización o eliminación puede retrasarla, y entonces se vuelve a leer la
+     * última aplicación del par afectado, en una transacción propia porque la del
+     * cambio ya se confirmó. No es de solo lectura para que lea del primario: una réplica
+     * puede no tener todavía el cambio.
+     *
+     * Las frecuencias y la lectura de la base se resuelven antes del bloqueo. Como la lectura
+     * no está protegida por él, el par solo se reemplaza si su entrada sigue con la fecha que
+     * tenía antes de leer, o si lo leído no es anterior a ella: un registro confirmado mientras
+     * tanto no se pisa con una fecha vieja.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT,
+            condition = "!#evento.aplicaciones().isEmpty()")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alCambiarLabores(LaborCambiadaEvent evento) {
+        if (evento.tipo() == LaborCambiadaEvent.TipoCambio.REGISTRO) {
+            Function<Long, Integer> frecuencias = resolverFrecuencias(evento.aplicaciones());
+            bloqueo.writeLock().lock();
+            try {
+                evento.aplicaciones().forEach(a -> registrarAplicacion(a, frecuencias));
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+            return;
+        }
+
+        Set<Clave> afectadas = new LinkedHashSet<>();
+        evento.aplicaciones().forEach(a -> afectadas.add(new Clave(a.viveroId(), a.productoControlId())));
+        for (Clave clave : afectadas) {
+            LocalDate observada = ultimaIndexada(clave);
+            LocalDate ultima = buscarUltimaAplicacion(clave);
+            Integer frecuencia = ultima != null ? frecuencia(clave.productoControlId()) : null;
+            bloqueo.writeLock().lock();
+            try {
+                LocalDate indexada = entradas.containsKey(clave) ? entradas.get(clave).ultimaAplicacion() : null;
+                if (!Objects.equals(indexada, observada) && indexada != null
+                        && (ultima == null || indexada.isAfter(ultima))) {
+                    // Otro cambio indexó una aplicación más reciente mientras se leía la base
+                    continue;
+                }
+                quitar(clave);
+                if (ultima != null && frecuencia != null) {
+                    agregar(new Entrada(clave, ultima, ultima.plusDays(frecuencia)));
+                }
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Recalcula la próxima aplicación de todos los pares de un producto cuando cambia su frecuencia.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alCambiarFrecuencia(ProductoControlActualizadoEvent evento) {
+        if (!evento.cambioFrecuencia()) {
+            return;
+        }
+        int frecuencia = evento.actual().frecuenciaAplicacion();
+        bloqueo.writeLock().lock();
+        try {
+            Set<Clave> claves = porProducto.get(evento.productoControlId());
+            if (claves == null) {
+                return;
+            }
+            for (Clave clave : new ArrayList<>(claves)) {
+                Entrada entrada = entradas.get(clave);
+                quitar(clave);
+                agregar(new Entrada(clave, entrada.ultimaAplicacion(),
+                        entrada.ultimaAplicacion().plusDays(frecuencia)));
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las aplicaciones cuya fecha ya pasó, de la más atrasada a la más reciente.
+     *
+     * @param hoy Fecha de referencia
+     * @return Aplicaciones vencidas
+     */
+    public List<AplicacionProgramadaDTO> obtenerVencidas(LocalDate hoy) {
+        return consultar(agenda -> agenda.headMap(hoy, false));
+    }
+
+    /**
+     * Obtiene las aplicaciones que corresponden a una fecha.
+     *
+     * @param hoy Fecha de referencia
+     * @return Aplicaciones del día
+     */
+    public List<AplicacionProgramadaDTO> obtenerDelDia(LocalDate hoy) {
+        return consultar(agenda -> agenda.subMap(hoy, true, hoy, true));
+    }
+
+    /**
+     * Obtiene las aplicaciones de los próximos días, incluyendo la fecha de referencia.
+     *
+     * @param hoy Fecha de referencia
+     * @param dias Cantidad de días hacia adelante
+     * @return Aplicaciones entre hoy y hoy + dias, en orden de fecha
+     * @throws IllegalArgumentException si dias es negativo
+     */
+    public List<AplicacionProgramadaDTO> obtenerProximas(LocalDate hoy, int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("La cantidad de días no puede ser negativa");
+        }
+        return consultar(agenda -> agenda.subMap(hoy, true, hoy.plusDays(dias), true));
+    }
+
+    private List<AplicacionProgramadaDTO> consultar(
+            Function<NavigableMap<LocalDate, Set<Clave>>, NavigableMap<LocalDate, Set<Clave>>> rango) {
+        bloqueo.readLock().lock();
+        try {
+            List<AplicacionProgramadaDTO> resultado = new ArrayList<>();
+            for (Collection<Clave> claves : rango.apply(porProximaAplicacion).values()) {
+                for (Clave clave : claves) {
+                    resultado.add(entradas.get(clave).aDTO());
+                }
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private LocalDate ultimaIndexada(Clave clave) {
+        bloqueo.readLock().lock();
+        try {
+            Entrada entrada = entradas.get(clave);
+            return entrada != null ? entrada.ultimaAplicacion() : null;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Frecuencias de los productos de un conjunto de aplicaciones, leídas antes de tomar el
+     * bloqueo: un fallo de la caché consulta la base.
+     */
+    private Function<Long, Integer> resolverFrecuencias(Collection<AplicacionLaborDTO> aplicaciones) {
+        Map<Long, Integer> frecuencias = new HashMap<>();
+        aplicaciones.forEach(a -> frecuencias.computeIfAbsent(a.productoControlId(), this::frecuencia));
+        return frecuencias::get;
+    }
+
+    private Integer frecuencia(Long productoControlId) {
+        return productoControlService.obtenerProductoPorId(productoControlId)
+                .map(ProductoControlDTO::frecuenciaAplicacion)
+                .orElse(null);
+    }
+
+    /**
+     * Última aplicación de un par entre las labores activas y, si hay meses archivados, las archivadas.
+     */
+    private LocalDate buscarUltimaAplicacion(Clave clave) {
+        LocalDate ultima = laborRepository.buscarUltimaAplicacion(clave.viveroId(), clave.productoControlId())
+                .orElse(null);
+        if (particionesLabores.incluyeArchivo(null)) {
+            LocalDate archivada = laborArchivadaRepository
+                    .buscarUltimaAplicacion(clave.viveroId(), clave.productoControlId())
+                    .orElse(null);
+            if (ultima == null || (archivada != null && archivada.isAfter(ultima))) {
+                ultima = archivada;
+            }
+        }
+        return ultima;
+    }
+
+    /**
+     * Une las últimas aplicaciones activas y archivadas, conservando la más reciente de cada par.
+     */
+    private static List<AplicacionLaborDTO> masRecientes(List<AplicacionLaborDTO> activas,
+                                                         List<AplicacionLaborDTO> archivadas) {
+        Map<Clave, AplicacionLaborDTO> porPar = new HashMap<>();
+        for (AplicacionLaborDTO aplicacion : archivadas) {
+            porPar.put(new Clave(aplicacion.viveroId(), aplicacion.productoControlId()), aplicacion);
+        }
+        for (AplicacionLaborDTO aplicacion : activas) {
+            porPar.merge(new Clave(aplicacion.viveroId(), aplicacion.productoControlId()), aplicacion,
+                    (archivada, activa) -> activa.fecha().isBefore(archivada.fecha()) ? archivada : activa);
+        }
+        return new ArrayList<>(porPar.values());
+    }
+
+    private void registrarAplicacion(AplicacionLaborDTO aplicacion, Function<Long, Integer> frecuencias) {
+        Entrada actual = entradas.get(new Clave(aplicacion.viveroId(), aplicacion.productoControlId()));
+        if (actual != null && !aplicacion.fecha().isAfter(actual.ultimaAplicacion())) {
+            return;
+        }
+        indexar(aplicacion, frecuencias);
+    }
+
+    private void indexar(AplicacionLaborDTO aplicacion, Function<Long, Integer> frecuencias) {
+        Integer frecuencia = frecuencias.apply(aplicacion.productoControlId());
+        if (frecuencia == null) {
+            return;
+        }
+        Clave clave = new Clave(aplicacion.viveroId(), aplicacion.productoControlId());
+        quitar(clave);
+        agregar(new Entrada(clave, aplicacion.fecha(), aplicacion.fecha().plusDays(frecuencia)));
+    }
+
+    private void agregar(Entrada entrada) {
+        entradas.put(entrada.clave(), entrada);
+        porProximaAplicacion.computeIfAbsent(entrada.proximaAplicacion(), f -> new LinkedHashSet<>()).add(entrada.clave());
+        porProducto.computeIfAbsent(entrada.clave().productoControlId(), p -> new LinkedHashSet<>()).add(entrada.clave());
+    }
+
+    private void quitar(Clave clave) {
+        Entrada anterior = entradas.remove(clave);
+        if (anterior == null) {
+            return;
+        }
+        Set<Clave> delDia = porProximaAplicacion.get(anterior.proximaAplicacion());
+        delDia.remove(clave);
+        if (delDia.isEmpty()) {
+            porProximaAplicacion.remove(anterior.proximaAplicacion());
+        }
+        Set<Clave> delProducto = porProducto.get(clave.productoControlId());
+        delProducto.remove(clave);
+        if (delProducto.isEmpty()) {
+            porProducto.remove(clave.productoControlId());
+        }
+    }
+}
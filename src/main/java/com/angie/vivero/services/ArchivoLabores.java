@@ -0,0 +1,132 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Archivo de las labores antiguas: mueve a labores_archivo las labores de los meses anteriores
+ * a vivero.labores.archivo.horizonte-meses, para que labores solo guarde los meses recientes.
+ *
+ * Primero marca los meses como archivados en el catálogo de ParticionesLabores y espera
+ * vivero.labores.archivo.espera, para que todas las instancias lean el archivo en esos meses
+ * antes de que sus labores dejen la tabla. Después las mueve en bloques, cada uno en su propia
+ * transacción: una consulta nunca deja de ver una labor, a lo sumo la ve en las dos tablas, y
+ * LaborService descarta la repetida. También mueve las labores registradas con fecha anterior a
+ * la frontera después de archivado su mes. En modo nativo, al final une las particiones vacías.
+ *
+ * Mover una labor no cambia los costos acumulados (las reconciliaciones leen las dos tablas)
+ * ni se publica como cambio: la labor sigue existiendo, de solo lectura.
+ */
+@Service
+public class ArchivoLabores {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoLabores.class);
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vivero.labores.archivo.horizonte-meses:24}")
+    private int horizonteMeses;
+
+    @Value("${vivero.labores.archivo.espera:1m}")
+    private Duration espera;
+
+    @Value("${vivero.labores.archivo.tamano-lote:1000}")
+    private int tamanoLote;
+
+    /**
+     * Ciclo programado del archivo. Un error se registra y el ciclo siguiente retoma lo pendiente.
+     */
+    @Scheduled(cron = "${vivero.labores.archivo.cron:0 0 4 * * *}")
+    public void archivarProgramado() {
+        try {
+            particionesLabores.prepararMeses();
+            archivar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron archivar las labores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archiva las labores anteriores al horizonte en todos los shards.
+     *
+     * @return Cantidad de labores movidas al archivo
+     */
+    public long archivar() {
+        LocalDate limite = YearMonth.now().minusMonths(horizonteMeses).atDay(1);
+        particionesLabores.actualizarFrontera();
+        Optional<LocalDate> minima = particionesLabores.fechaMinimaActiva();
+        if (minima.isPresent() && minima.get().isBefore(limite) && particionesLabores.frontera().isBefore(limite)) {
+            particionesLabores.archivarMeses(minima.get(), limite);
+            // Las demás instancias releen la frontera antes de que las labores dejen la tabla
+            esperar();
+        }
+
+        LocalDate frontera = particionesLabores.frontera();
+        if (!frontera.isAfter(LocalDate.MIN) || frontera.equals(LocalDate.MAX)) {
+            return 0;
+        }
+        long movidas = 0;
+        for (int shard = 0; shard < directorioShards.cantidadShards(); shard++) {
+            movidas += directorioShards.ejecutarEnShard(shard, () -> moverAntesDe(frontera));
+        }
+        particionesLabores.fusionarArchivadas();
+        if (movidas > 0) {
+            log.info("{} labores anteriores a {} movidas al archivo", movidas, frontera);
+        }
+        return movidas;
+    }
+
+    /**
+     * Mueve al archivo las labores del shard en curso anteriores a la frontera, por bloques.
+     */
+    private long moverAntesDe(LocalDate frontera) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        long movidas = 0;
+        int bloque;
+        do {
+            bloque = transaccion.execute(estado -> {
+                List<Long> ids = laborArchivadaRepository.buscarIdsActivasAntesDe(frontera, tamanoLote);
+                if (!ids.isEmpty()) {
+                    laborArchivadaRepository.copiarDesdeActivas(ids, LocalDateTime.now());
+                    laborArchivadaRepository.eliminarActivas(ids);
+                }
+                return ids.size();
+            });
+            movidas += bloque;
+        } while (bloque == tamanoLote);
+        return movidas;
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(espera.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archivo de labores interrumpido", e);
+        }
+    }
+}
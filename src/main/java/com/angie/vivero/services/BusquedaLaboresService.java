@@ -0,0 +1,378 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.LaborEncontradaDTO;
+import com.angie.vivero.dto.PaginaBusquedaDTO;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import com.angie.vivero.repositories.LaborRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de texto sobre las descripciones de las labores con un índice invertido en memoria.
+ *
+ * Por cada término (ver TokenizadorEspanol) se guarda la lista comprimida de labores que lo
+ * contienen, y por cada labor su fecha, vivero y términos, de modo que la consulta, los filtros
+ * y el ordenamiento por relevancia (BM25) se resuelven sin la base de datos. Solo las labores
+ * de la página pedida se leen después con una consulta por IDs.
+ *
+ * El índice se construye al arrancar y luego se actualiza con cada cambio de labores confirmado.
+ */
+@Service
+public class BusquedaLaboresService {
+
+    private static final Logger log = LoggerFactory.getLogger(BusquedaLaboresService.class);
+
+    // Parámetros habituales de BM25: saturación de la frecuencia y normalización por longitud
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private record Documento(LocalDate fecha, Long viveroId, int longitud, String[] terminos) {
+    }
+
+    private record Coincidencia(long laborId, double puntaje) {
+    }
+
+    // Mayor puntaje primero; a igual puntaje, la labor más reciente
+    private static final Comparator<Coincidencia> POR_RELEVANCIA = Comparator
+            .comparingDouble(Coincidencia::puntaje).reversed()
+            .thenComparing(Comparator.comparingLong(Coincidencia::laborId).reversed());
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Value("${vivero.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${vivero.paginacion.tamano-maximo:500}")
+    private int tamanoPaginaMaximo;
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private final Map<String, ListaPostings> postings = new HashMap<>();
+
+    private final Map<Long, Documento> documentos = new HashMap<>();
+
+    private long sumaLongitudes;
+
+    /**
+     * Construye el índice recorriendo todas las labores al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        bloqueo.writeLock().lock();
+        try {
+            postings.clear();
+            documentos.clear();
+            sumaLongitudes = 0;
+            // Cada lectura llega en orden de ID, pero con shards y archivo son varios tramos: las
+            // listas se acumulan y se codifican al final, sin reescribirlas por cada labor anterior.
+            // Las dos lecturas de un shard comparten la instantánea de la transacción, así que una
+            // labor que se archiva a la vez no se pierde; si llega dos veces se indexa una.
+            Map<String, ListaPostings.Acumulador> acumuladores = new HashMap<>();
+            directorioShards.recorrer(() -> {
+                if (particionesLabores.incluyeArchivo(null)) {
+                    try (Stream<LaborDTO> archivadas = laborArchivadaRepository.streamTodas()) {
+                        archivadas.forEach(labor -> acumular(labor, acumuladores));
+                    }
+                }
+                try (Stream<LaborDTO> labores = laborRepository.streamTodas()) {
+                    labores.forEach(labor -> acumular(labor, acumuladores));
+                }
+            });
+            acumuladores.forEach((termino, acumulador) -> postings.put(termino, acumulador.construir()));
+            log.info("Índice de búsqueda de labores construido: {} labores, {} términos, {} bytes en listas",
+                    documentos.size(), postings.size(),
+                    postings.values().stream().mapToLong(ListaPostings::tamanoEnBytes).sum());
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza el índice cuando se confirma un cambio de labores.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alCambiarLabores(LaborCambiadaEvent evento) {
+        bloqueo.writeLock().lock();
+        try {
+            for (LaborDTO labor : evento.labores()) {
+                if (evento.tipo() == LaborCambiadaEvent.TipoCambio.ELIMINACION) {
+                    quitar(labor.id());
+                } else {
+                    indexar(labor);
+                }
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vuelve a leer un conjunto de labores y las indexa como están ahora: las que ya no
+     * existen salen del índice. SincronizacionIndices lo usa con los cambios del flujo, que
+     * pueden venir de otra instancia.
+     *
+     * @param laborIds IDs de las labores a releer
+     */
+    public void resincronizar(Collection<Long> laborIds) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(laborIds));
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, LaborDTO> actuales = directorioShards.reunirListas(() -> conArchivadas(ids))
+                .stream()
+                .collect(Collectors.toMap(LaborDTO::id, Function.identity(), (una, otra) -> una));
+        bloqueo.writeLock().lock();
+        try {
+            for (Long laborId : ids) {
+                LaborDTO labor = actuales.get(laborId);
+                if (labor != null) {
+                    indexar(labor);
+                } else {
+                    quitar(laborId);
+                }
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca labores cuya descripción contenga alguno de los términos de la consulta,
+     * ordenadas por relevancia. Las que contienen más términos, o términos menos
+     * frecuentes, quedan primero.
+     *
+     * @param consulta Texto a buscar
+     * @param viveroId Solo labores de este vivero (opcional)
+     * @param fechaInicio Solo labores desde esta fecha (opcional)
+     * @param fechaFin Solo labores hasta esta fecha (opcional)
+     * @param pagina Número de página, desde 0
+     * @param tamano Cantidad de labores por página (opcional)
+     * @return Página de resultados
+     * @throws IllegalArgumentException si la consulta no tiene términos buscables,
+     *         el rango de fechas es inválido o la paginación es inválida
+     */
+    public PaginaBusquedaDTO buscar(String consulta, Long viveroId, LocalDate fechaInicio, LocalDate fechaFin,
+                                    int pagina, Integer tamano) {
+        Set<String> terminos = new LinkedHashSet<>(TokenizadorEspanol.tokenizar(consulta));
+        if (terminos.isEmpty()) {
+            throw new IllegalArgumentException("La consulta no contiene términos para buscar");
+        }
+        if (fechaInicio != null && fechaFin != null && fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        if (pagina < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo");
+        }
+        int tamanoPagina = resolverTamanoPagina(tamano);
+
+        List<Coincidencia> seleccionadas;
+        int total;
+        bloqueo.readLock().lock();
+        try {
+            Map<Long, double[]> puntajes = puntuar(terminos, viveroId, fechaInicio, fechaFin);
+            total = puntajes.size();
+            seleccionadas = mejores(puntajes, ((long) pagina + 1) * tamanoPagina);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+
+        int desde = (int) Math.min((long) pagina * tamanoPagina, seleccionadas.size());
+        List<Coincidencia> deLaPagina = seleccionadas.subList(desde, seleccionadas.size());
+        if (deLaPagina.isEmpty()) {
+            return new PaginaBusquedaDTO(List.of(), total, pagina, tamanoPagina);
+        }
+        List<Long> laborIds = deLaPagina.stream().map(Coincidencia::laborId).toList();
+        Map<Long, LaborDTO> labores = directorioShards.reunirListas(() -> conArchivadas(laborIds))
+                .stream()
+                .collect(Collectors.toMap(LaborDTO::id, Function.identity(), (una, otra) -> una));
+        List<LaborEncontradaDTO> contenido = new ArrayList<>(deLaPagina.size());
+        for (Coincidencia coincidencia : deLaPagina) {
+            // Una labor eliminada después de puntuar ya no aparece al leerla
+            LaborDTO labor = labores.get(coincidencia.laborId());
+            if (labor != null) {
+                contenido.add(new LaborEncontradaDTO(labor, coincidencia.puntaje()));
+            }
+        }
+        return new PaginaBusquedaDTO(contenido, total, pagina, tamanoPagina);
+    }
+
+    /**
+     * Lee las labores por IDs y busca en el archivo las que no están en labores.
+     */
+    private List<LaborDTO> conArchivadas(List<Long> laborIds) {
+        List<LaborDTO> labores = laborRepository.buscarDTOPorIds(laborIds);
+        if (labores.size() == laborIds.size() || !particionesLabores.incluyeArchivo(null)) {
+            return labores;
+        }
+        Set<Long> encontradas = labores.stream().map(LaborDTO::id).collect(Collectors.toSet());
+        List<Long> faltantes = laborIds.stream().filter(id -> !encontradas.contains(id)).toList();
+        List<LaborDTO> resultado = new ArrayList<>(labores);
+        resultado.addAll(laborArchivadaRepository.buscarDTOPorIds(faltantes));
+        return resultado;
+    }
+
+    private Map<Long, double[]> puntuar(Set<String> terminos, Long viveroId, LocalDate fechaInicio, LocalDate fechaFin) {
+        Map<Long, double[]> puntajes = new HashMap<>();
+        int cantidadDocumentos = documentos.size();
+        double longitudPromedio = cantidadDocumentos == 0 ? 1 : (double) sumaLongitudes / cantidadDocumentos;
+        for (String termino : terminos) {
+            ListaPostings lista = postings.get(termino);
+            if (lista == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (cantidadDocumentos - lista.cantidad() + 0.5) / (lista.cantidad() + 0.5));
+            lista.recorrer((laborId, frecuencia) -> {
+                Documento documento = documentos.get(laborId);
+                if ((viveroId != null && !viveroId.equals(documento.viveroId()))
+                        || (fechaInicio != null && documento.fecha().isBefore(fechaInicio))
+                        || (fechaFin != null && documento.fecha().isAfter(fechaFin))) {
+                    return;
+                }
+                double normalizacion = K1 * (1 - B + B * documento.longitud() / longitudPromedio);
+                puntajes.computeIfAbsent(laborId, id -> new double[1])[0] +=
+                        idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion);
+            });
+        }
+        return puntajes;
+    }
+
+    /**
+     * Selecciona las coincidencias más relevantes con un montículo acotado, sin ordenar todas.
+     */
+    private static List<Coincidencia> mejores(Map<Long, double[]> puntajes, long limite) {
+        PriorityQueue<Coincidencia> monticulo = new PriorityQueue<>(POR_RELEVANCIA.reversed());
+        puntajes.forEach((laborId, puntaje) -> {
+            monticulo.add(new Coincidencia(laborId, puntaje[0]));
+            if (monticulo.size() > limite) {
+                monticulo.poll();
+            }
+        });
+        List<Coincidencia> resultado = new ArrayList<>(monticulo);
+        resultado.sort(POR_RELEVANCIA);
+        return resultado;
+    }
+
+    private void indexar(LaborDTO labor) {
+        Map<String, Integer> frecuencias = contarTerminos(labor.descripcion());
+        Documento actual = documentos.get(labor.id());
+        if (actual != null && mismosTerminos(labor.id(), actual, frecuencias)) {
+            // La fecha y el vivero no están en las listas: basta con reemplazar el documento
+            documentos.put(labor.id(), new Documento(labor.fecha(), labor.viveroId(), actual.longitud(),
+                    actual.terminos()));
+            return;
+        }
+        quitar(labor.id());
+        agregarDocumento(labor, frecuencias);
+        frecuencias.forEach((termino, frecuencia) ->
+                postings.computeIfAbsent(termino, t -> new ListaPostings()).agregar(labor.id(), frecuencia));
+    }
+
+    private void acumular(LaborDTO labor, Map<String, ListaPostings.Acumulador> acumuladores) {
+        if (documentos.containsKey(labor.id())) {
+            return;
+        }
+        Map<String, Integer> frecuencias = contarTerminos(labor.descripcion());
+        agregarDocumento(labor, frecuencias);
+        frecuencias.forEach((termino, frecuencia) ->
+                acumuladores.computeIfAbsent(termino, t -> new ListaPostings.Acumulador()).agregar(labor.id(), frecuencia));
+    }
+
+    /**
+     * Frecuencia de cada término de una descripción.
+     */
+    private static Map<String, Integer> contarTerminos(String descripcion) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        TokenizadorEspanol.tokenizar(descripcion).forEach(termino -> frecuencias.merge(termino, 1, Integer::sum));
+        return frecuencias;
+    }
+
+    /**
+     * Indica si una labor ya indexada tiene exactamente los mismos términos con las mismas
+     * frecuencias, como al volver a aplicar un cambio o al cambiar solo la fecha o el vivero.
+     */
+    private boolean mismosTerminos(Long laborId, Documento actual, Map<String, Integer> frecuencias) {
+        if (actual.terminos().length != frecuencias.size()) {
+            return false;
+        }
+        for (String termino : actual.terminos()) {
+            Integer frecuencia = frecuencias.get(termino);
+            if (frecuencia == null || postings.get(termino).frecuencia(laborId) != frecuencia) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra el documento de una labor con las frecuencias de sus términos.
+     */
+    private void agregarDocumento(LaborDTO labor, Map<String, Integer> frecuencias) {
+        if (frecuencias.isEmpty()) {
+            return;
+        }
+        int longitud = frecuencias.values().stream().mapToInt(Integer::intValue).sum();
+        documentos.put(labor.id(), new Documento(labor.fecha(), labor.viveroId(), longitud,
+                frecuencias.keySet().toArray(String[]::new)));
+        sumaLongitudes += longitud;
+    }
+
+    private void quitar(Long laborId) {
+        Documento documento = documentos.remove(laborId);
+        if (documento == null) {
+            return;
+        }
+        for (String termino : documento.terminos()) {
+            ListaPostings lista = postings.get(termino);
+            lista.quitar(laborId);
+            if (lista.cantidad() == 0) {
+                postings.remove(termino);
+            }
+        }
+        sumaLongitudes -= documento.longitud();
+    }
+
+    private int resolverTamanoPagina(Integer tamano) {
+        if (tamano == null) {
+            return tamanoPaginaDefecto;
+        }
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        return Math.min(tamano, tamanoPaginaMaximo);
+    }
+}
@@ -0,0 +1,24 @@
+package com.angie.vivero.services;
+
+/**
+ * Se pide el flujo de cambios desde una posición cuyos eventos siguientes ya se eliminaron por
+ * la retención. Continuar desde allí saltaría esos eventos: el consumidor debe volver a leer
+ * todas las entidades y seguir el flujo desde la posición que informa la excepción.
+ */
+public class CambiosDescartadosException extends IllegalStateException {
+
+    private final long posicionRetenida;
+
+    public CambiosDescartadosException(long desde, long posicionRetenida) {
+        super("Los cambios posteriores a la posición " + desde + " ya no se conservan; el flujo sigue desde "
+                + posicionRetenida);
+        this.posicionRetenida = posicionRetenida;
+    }
+
+    /**
+     * @return Posición desde la que se puede seguir el flujo después de la resincronización completa
+     */
+    public long getPosicionRetenida() {
+        return posicionRetenida;
+    }
+}
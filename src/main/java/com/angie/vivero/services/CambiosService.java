@@ -0,0 +1,111 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.dto.PaginaCambiosDTO;
+import com.angie.vivero.models.CambioModel;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.OperacionCambio;
+import com.angie.vivero.repositories.CambioRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bandeja de salida de cambios (tabla cambios) y flujo de cambios para los sistemas externos.
+ *
+ * LaborService y ProductorService registran un evento por cada escritura dentro de su propia
+ * transacción: el evento existe si y solo si la escritura se confirmó. RelevoCambios los numera
+ * y los publica en el destino configurado; GET /api/cambios?desde={posicion} entrega el mismo
+ * flujo a quien prefiera consultarlo, de modo que un consumidor procesa solo lo nuevo en lugar
+ * de volver a leer todas las labores.
+ */
+@Service
+@Transactional
+public class CambiosService {
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vivero.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${vivero.paginacion.tamano-maximo:500}")
+    private int tamanoPaginaMaximo;
+
+    /**
+     * Agrega un evento a la bandeja en la transacción de la escritura que lo produjo.
+     * Con shards queda en el shard de esa transacción, de donde RelevoCambios lo reúne.
+     *
+     * @param entidad Entidad escrita
+     * @param entidadId ID de la entidad
+     * @param version Versión de la entidad (@Version) después de la escritura; en una eliminación,
+     *                la que tenía: el evento lleva la siguiente, posterior a todas sus escrituras
+     * @param operacion Escritura realizada
+     * @param datos Vista de lectura de la entidad después de la escritura (antes, si es una eliminación)
+     * @throws org.springframework.transaction.IllegalTransactionStateException si no hay una transacción en curso
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(EntidadCambio entidad, Long entidadId, Long version, OperacionCambio operacion, Object datos) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio de " + entidad + " " + entidadId, e);
+        }
+        Long versionEvento = operacion == OperacionCambio.ELIMINACION && version != null ? version + 1 : version;
+        cambioRepository.save(new CambioModel(entidad, entidadId, versionEvento, operacion, json, LocalDateTime.now()));
+    }
+
+    /**
+     * Obtiene los eventos posteriores a una posición, en orden. Solo incluye los ya numerados
+     * por RelevoCambios, así que una posición nunca queda atrás de un evento que aparece después.
+     *
+     * Las posiciones son consecutivas y la retención elimina siempre las más antiguas: si el
+     * primer evento no sigue a desde, los intermedios ya se eliminaron. Solo entonces se consulta
+     * el contador, para el caso en que no quede ningún evento.
+     *
+     * @param desde Última posición ya procesada por el consumidor; 0 para empezar desde el comienzo
+     * @param tamano Cantidad de eventos por página (opcional)
+     * @return Página de eventos con el cursor para pedir la siguiente
+     * @throws IllegalArgumentException si la posición es negativa o el tamaño no es positivo
+     * @throws CambiosDescartadosException si la retención ya eliminó eventos posteriores a desde;
+     *                                     el consumidor debe resincronizarse por completo
+     */
+    @Transactional(readOnly = true)
+    public PaginaCambiosDTO obtenerCambios(long desde, Integer tamano) {
+        if (desde < 0) {
+            throw new IllegalArgumentException("La posición no puede ser negativa");
+        }
+        if (tamano != null && tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        int limite = tamano == null ? tamanoPaginaDefecto : Math.min(tamano, tamanoPaginaMaximo);
+        List<CambioDTO> cambios = cambioRepository.buscarDesde(desde, Limit.of(limite + 1));
+        if (!cambios.isEmpty() && cambios.get(0).posicion() > desde + 1) {
+            throw new CambiosDescartadosException(desde, cambios.get(0).posicion() - 1);
+        }
+        if (cambios.isEmpty()) {
+            long ultima = cambioRepository.buscarUltimaPosicion().orElse(0L);
+            if (desde < ultima) {
+                throw new CambiosDescartadosException(desde, ultima);
+            }
+        }
+        boolean hayMas = cambios.size() > limite;
+        if (hayMas) {
+            cambios = cambios.subList(0, limite);
+        }
+        long cursor = cambios.isEmpty() ? desde : cambios.get(cambios.size() - 1).posicion();
+        return new PaginaCambiosDTO(cambios, cursor, hayMas);
+    }
+}
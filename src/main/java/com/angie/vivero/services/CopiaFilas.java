@@ -0,0 +1,99 @@
+package com.angie.vivero.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Copia filas entre shards por JDBC con las columnas que devuelve SELECT *, así que sirve
+ * para cualquier tabla sin repetir su lista de columnas. La usan los traslados de productores,
+ * la réplica del catálogo y el relevo de cambios.
+ */
+final class CopiaFilas {
+
+    private static final int FILAS_POR_LOTE = 500;
+
+    private CopiaFilas() {
+    }
+
+    /**
+     * Copia en el destino las filas del origen que cumplen una condición, en lotes JDBC y
+     * sin cargar la tabla completa en memoria.
+     *
+     * @return Cantidad de filas copiadas
+     */
+    static long copiar(JdbcTemplate origen, JdbcTemplate destino, String tabla, String condicion, Object... argumentos) {
+        List<Object[]> lote = new ArrayList<>(FILAS_POR_LOTE);
+        String[] insercion = new String[1];
+        long[] copiadas = {0};
+        origen.query("SELECT * FROM " + tabla + " WHERE " + condicion, fila -> {
+            ResultSetMetaData metadatos = fila.getMetaData();
+            if (insercion[0] == null) {
+                List<String> columnas = new ArrayList<>();
+                for (int i = 1; i <= metadatos.getColumnCount(); i++) {
+                    columnas.add(metadatos.getColumnLabel(i));
+                }
+                insercion[0] = insertar(tabla, columnas);
+            }
+            Object[] valores = new Object[metadatos.getColumnCount()];
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] = fila.getObject(i + 1);
+            }
+            lote.add(valores);
+            copiadas[0]++;
+            if (lote.size() == FILAS_POR_LOTE) {
+                destino.batchUpdate(insercion[0], lote);
+                lote.clear();
+            }
+        }, argumentos);
+        if (!lote.isEmpty()) {
+            destino.batchUpdate(insercion[0], lote);
+        }
+        return copiadas[0];
+    }
+
+    /**
+     * Escribe una fila en el destino con la misma clave "id": la actualiza si existe y si no
+     * la inserta.
+     */
+    static void reemplazar(JdbcTemplate destino, String tabla, Map<String, Object> fila) {
+        List<String> columnas = new ArrayList<>(fila.keySet());
+        List<String> noClave = columnas.stream().filter(columna -> !columna.equalsIgnoreCase("id")).toList();
+        List<Object> valores = new ArrayList<>();
+        noClave.forEach(columna -> valores.add(fila.get(columna)));
+        valores.add(fila.get("id"));
+        int actualizadas = noClave.isEmpty()
+                ? destino.queryForObject("SELECT COUNT(*) FROM " + tabla + " WHERE id = ?", Integer.class, fila.get("id"))
+                : destino.update("UPDATE " + tabla + " SET "
+                        + noClave.stream().map(columna -> columna + " = ?").collect(Collectors.joining(", "))
+                        + " WHERE id = ?", valores.toArray());
+        if (actualizadas == 0) {
+            destino.update(insertar(tabla, columnas), columnas.stream().map(fila::get).toArray());
+        }
+    }
+
+    /**
+     * Inserta una fila en el destino solo si no hay otra con la misma clave "id", para que
+     * repetir una copia interrumpida no pise lo que el destino ya cambió.
+     *
+     * @return true si la insertó
+     */
+    static boolean insertarSiFalta(JdbcTemplate destino, String tabla, Map<String, Object> fila) {
+        if (destino.queryForObject("SELECT COUNT(*) FROM " + tabla + " WHERE id = ?", Integer.class, fila.get("id")) > 0) {
+            return false;
+        }
+        List<String> columnas = new ArrayList<>(fila.keySet());
+        destino.update(insertar(tabla, columnas), columnas.stream().map(fila::get).toArray());
+        return true;
+    }
+
+    private static String insertar(String tabla, List<String> columnas) {
+        return "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnas.size(), "?")) + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package com.angie.vivero.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de una labor dentro del orden (fecha, id) usado por la paginación por cursor.
+ * 
+ * El cursor se entrega al cliente como un texto opaco en Base64 URL-safe; el cliente
+ * solo debe devolverlo tal cual para pedir la página siguiente.
+ */
+record CursorLabor(LocalDate fecha, Long id) {
+
+    /**
+     * Cursor anterior a cualquier labor: la fecha mínima admitida por el tipo DATE de MySQL.
+     */
+    static final CursorLabor INICIAL = new CursorLabor(LocalDate.of(1000, 1, 1), 0L);
+
+    String codificar() {
+        String texto = fecha + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     * 
+     * @param cursor Cursor opaco, o null para empezar desde el inicio
+     * @return La posición representada por el cursor
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    static CursorLabor decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return INICIAL;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(':');
+            return new CursorLabor(LocalDate.parse(texto.substring(0, separador)),
+                    Long.valueOf(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor);
+        }
+    }
+}
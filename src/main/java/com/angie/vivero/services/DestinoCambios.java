@@ -0,0 +1,23 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.CambioDTO;
+
+import java.util.List;
+
+/**
+ * Destino al que RelevoCambios publica los eventos de la bandeja, elegido con
+ * vivero.cambios.destino. Sin destino los eventos solo se ofrecen en GET /api/cambios.
+ *
+ * La entrega es al menos una vez: si publicar() falla el lote entero se reintenta en el
+ * siguiente ciclo, así que el destino puede recibir un evento repetido y lo reconoce por su ID.
+ */
+public interface DestinoCambios {
+
+    /**
+     * Publica un lote de eventos, en orden de posición.
+     *
+     * @param cambios Eventos a publicar
+     * @throws RuntimeException si el lote no se pudo entregar
+     */
+    void publicar(List<CambioDTO> cambios);
+}
@@ -0,0 +1,55 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino de cambios en un archivo local: agrega cada evento como una línea JSON (NDJSON)
+ * al final de vivero.cambios.archivo. Un proceso externo puede seguir el archivo como seguiría
+ * un tópico; también sirve para probar la integración sin un servicio real.
+ */
+@Component
+@ConditionalOnProperty(name = "vivero.cambios.destino", havingValue = "archivo")
+public class DestinoCambiosArchivo implements DestinoCambios {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vivero.cambios.archivo:cambios.ndjson}")
+    private Path archivo;
+
+    @Override
+    public synchronized void publicar(List<CambioDTO> cambios) {
+        try {
+            Path carpeta = archivo.toAbsolutePath().getParent();
+            if (carpeta != null) {
+                Files.createDirectories(carpeta);
+            }
+            try (BufferedWriter escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (CambioDTO cambio : cambios) {
+                    escritor.write(objectMapper.writeValueAsString(cambio));
+                    escritor.newLine();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar un cambio", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + archivo, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.CambioDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+/**
+ * Destino de cambios por HTTP: envía cada lote como un arreglo JSON con POST a
+ * vivero.cambios.url. Una respuesta que no es 2xx hace fallar el lote, que se reintenta.
+ */
+@Component
+@ConditionalOnProperty(name = "vivero.cambios.destino", havingValue = "http")
+public class DestinoCambiosHttp implements DestinoCambios {
+
+    private final RestClient cliente;
+
+    public DestinoCambiosHttp(RestClient.Builder builder, @Value("${vivero.cambios.url}") String url) {
+        this.cliente = builder.baseUrl(url).build();
+    }
+
+    @Override
+    public void publicar(List<CambioDTO> cambios) {
+        cliente.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cambios)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,757 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.config.ContextoShard;
+import com.angie.vivero.config.PoolsShards;
+import com.angie.vivero.models.EstadoDirectorio;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Directorio de shards: en qué base está cada productor con su subárbol (fincas, viveros,
+ * labores y costos acumulados), y enrutamiento de las transacciones a esa base.
+ *
+ * Con vivero.shards.habilitado=false hay una sola base: los métodos usarShardDe...() no hacen
+ * nada y reunir() ejecuta la consulta una vez, en la transacción en curso.
+ *
+ * Con shards, la tabla directorio_productores del shard 0 guarda el shard de cada productor
+ * registrado por ProductorService, y directorio_catastros los números de catastro de sus fincas,
+ * que así son únicos entre shards. Un productor que no figura está en el shard 0, como los que
+ * ya existían al habilitarlos, los importados y los del generador. Los métodos usarShardDe...()
+ * se llaman al comienzo de un método @Transactional, antes de su primera sentencia: fijan el
+ * shard hasta que termina la transacción, y como la conexión física se pide en la primera
+ * sentencia, toda la transacción queda en ese shard. Las consultas que abarcan varios
+ * productores se ejecutan en cada shard con reunir() y se mezclan en memoria.
+ *
+ * El catálogo de productos de control se escribe en el shard 0 y se copia a los demás al
+ * confirmarse, porque las labores lo referencian con una clave foránea en su propio shard.
+ */
+@Service
+public class DirectorioShards {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorioShards.class);
+
+    private static final String LEER_POR_PRODUCTOR =
+            "SELECT shard, estado FROM directorio_productores WHERE productor_id = ?";
+    private static final String LEER_POR_DOCUMENTO =
+            "SELECT shard, estado FROM directorio_productores WHERE documento = ?";
+    private static final String RESERVAR =
+            "INSERT INTO directorio_productores (documento, productor_id, shard, estado) VALUES (?, NULL, ?, 'RESERVADO')";
+    private static final String ACTIVAR =
+            "UPDATE directorio_productores SET productor_id = ?, estado = 'ACTIVO' WHERE documento = ?";
+    private static final String LIBERAR_RESERVA =
+            "DELETE FROM directorio_productores WHERE documento = ? AND productor_id IS NULL";
+    private static final String QUITAR = "DELETE FROM directorio_productores WHERE productor_id = ?";
+    private static final String RESERVAR_CATASTRO =
+            "INSERT INTO directorio_catastros (numero_catastro, documento) VALUES (?, ?)";
+    private static final String LIBERAR_CATASTRO = "DELETE FROM directorio_catastros WHERE numero_catastro = ?";
+    private static final String QUITAR_CATASTROS = "DELETE FROM directorio_catastros WHERE documento IN "
+            + "(SELECT documento FROM directorio_productores WHERE productor_id = ?)";
+
+    private static final String PRODUCTOR_DE_VIVERO =
+            "SELECT f.productor_id FROM viveros v JOIN fincas f ON f.id = v.finca_id WHERE v.id = ?";
+    private static final String PRODUCTOR_DE_FINCA = "SELECT productor_id FROM fincas WHERE id = ?";
+    // Una labor archivada sigue en el shard de su productor, en labores_archivo
+    private static final String PRODUCTOR_DE_LABOR = "SELECT f.productor_id FROM "
+            + "(SELECT vivero_id FROM labores WHERE id = ? UNION ALL SELECT vivero_id FROM labores_archivo WHERE id = ?) l "
+            + "JOIN viveros v ON v.id = l.vivero_id JOIN fincas f ON f.id = v.finca_id";
+
+    /**
+     * Tablas del catálogo en orden de sus claves foráneas: la raíz JOINED antes que sus subtipos.
+     */
+    private static final String BLOQUEAR_PRODUCTO = "SELECT id FROM productos_control WHERE id = ? FOR UPDATE";
+    private static final String PRODUCTO_EN_USO = "SELECT 1 FROM labores WHERE producto_control_id = ? "
+            + "UNION ALL SELECT 1 FROM labores_archivo WHERE producto_control_id = ? LIMIT 1";
+    private static final List<String> TABLAS_CATALOGO = List.of(
+            "productos_control", "productos_control_hongo", "productos_control_plaga",
+            "productos_control_fertilizante", "productos_control_lectura");
+
+    /**
+     * Shard y estado de un productor en el directorio.
+     */
+    record Ubicacion(int shard, EstadoDirectorio estado) {
+
+        static final Ubicacion SIN_ENTRADA = new Ubicacion(ContextoShard.DIRECTORIO, EstadoDirectorio.ACTIVO);
+    }
+
+    @Autowired(required = false)
+    private PoolsShards pools;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Cache<Long, Ubicacion> ubicaciones;
+
+    // Un vivero, una finca o una labor no cambian de productor: se guardan sin vencimiento
+    private final Cache<Long, Long> productorPorVivero;
+    private final Cache<Long, Long> productorPorFinca;
+    private final Cache<Long, Long> productorPorLabor;
+
+    public DirectorioShards(@Value("${vivero.shards.espera-traslado:2s}") Duration esperaTraslado,
+                            @Value("${vivero.shards.cache.maximo:100000}") long maximoCache) {
+        // Las lecturas pueden seguir en el shard de origen hasta una espera después de un traslado
+        this.ubicaciones = Caffeine.newBuilder().maximumSize(maximoCache).expireAfterWrite(esperaTraslado).build();
+        this.productorPorVivero = Caffeine.newBuilder().maximumSize(maximoCache).build();
+        this.productorPorFinca = Caffeine.newBuilder().maximumSize(maximoCache).build();
+        this.productorPorLabor = Caffeine.newBuilder().maximumSize(maximoCache).build();
+    }
+
+    public boolean habilitado() {
+        return pools != null;
+    }
+
+    /**
+     * @return Cantidad de shards; 1 si no están habilitados
+     */
+    public int cantidadShards() {
+        return habilitado() ? pools.cantidad() : 1;
+    }
+
+    /**
+     * Fija la transacción en curso en el shard de un productor. Una transacción de escritura
+     * lee el directorio sin caché y se rechaza si el productor se está trasladando.
+     *
+     * @param productorId ID del productor
+     * @throws ProductorEnTrasladoException si es una escritura y el productor se está trasladando
+     */
+    public void usarShardDeProductor(Long productorId) {
+        if (habilitado() && productorId != null) {
+            usar(shardDeProductor(productorId, !TransactionSynchronizationManager.isCurrentTransactionReadOnly()));
+        }
+    }
+
+    /**
+     * Fija la transacción en curso, de solo lectura, en el shard del productor con un documento.
+     *
+     * @param documento Documento del productor
+     */
+    public void usarShardDeDocumento(String documento) {
+        if (habilitado() && documento != null) {
+            Ubicacion ubicacion = leerUbicacion(LEER_POR_DOCUMENTO, documento);
+            usar(ubicacion != null ? ubicacion.shard() : ContextoShard.DIRECTORIO);
+        }
+    }
+
+    /**
+     * Fija la transacción en curso en el shard del productor dueño de un vivero. Si el vivero
+     * no existe en ningún shard la deja en el shard 0, donde tampoco se encontrará.
+     *
+     * @param viveroId ID del vivero
+     */
+    public void usarShardDeVivero(Long viveroId) {
+        usarShardDeProductor(productorDe(productorPorVivero, PRODUCTOR_DE_VIVERO, viveroId));
+    }
+
+    /**
+     * Fija la transacción en curso en el shard del productor dueño de una finca.
+     *
+     * @param fincaId ID de la finca
+     */
+    public void usarShardDeFinca(Long fincaId) {
+        usarShardDeProductor(productorDe(productorPorFinca, PRODUCTOR_DE_FINCA, fincaId));
+    }
+
+    /**
+     * Fija la transacción en curso en el shard del productor dueño de una labor.
+     *
+     * @param laborId ID de la labor
+     */
+    public void usarShardDeLabor(Long laborId) {
+        usarShardDeProductor(productorDe(productorPorLabor, PRODUCTOR_DE_LABOR, laborId));
+    }
+
+    /**
+     * Shard en el que se escriben las labores de un vivero, para repartir una carga masiva.
+     *
+     * @param viveroId ID del vivero, o null
+     * @return Shard del productor del vivero; el 0 si el vivero no existe
+     * @throws ProductorEnTrasladoException si el productor se está trasladando
+     */
+    public int shardParaEscribirEnVivero(Long viveroId) {
+        if (!habilitado() || viveroId == null) {
+            return ContextoShard.DIRECTORIO;
+        }
+        Long productorId = productorDe(productorPorVivero, PRODUCTOR_DE_VIVERO, viveroId);
+        return productorId != null ? shardDeProductor(productorId, true) : ContextoShard.DIRECTORIO;
+    }
+
+    /**
+     * Elige el shard de un productor nuevo y reserva su documento en el directorio, que así es
+     * único entre todos los shards. Fija la transacción en curso en ese shard: si se revierte
+     * la reserva se libera, y si se confirma activarProductor() la completa con el ID.
+     *
+     * El shard sale del hash del documento; los productores que crecen más que el resto se
+     * reparten después con RebalanceoShards.
+     *
+     * @param documento Documento del productor nuevo
+     * @throws IllegalArgumentException si el documento ya está registrado en algún shard
+     */
+    public void reservarDocumento(String documento) {
+        if (!habilitado() || documento == null) {
+            return;
+        }
+        int shard = Math.floorMod(documento.hashCode(), pools.cantidad());
+        // Los productores que no figuran en el directorio están en el shard 0
+        if (shard != ContextoShard.DIRECTORIO && directorio().queryForObject(
+                "SELECT COUNT(*) FROM productores WHERE documento = ?", Integer.class, documento) > 0) {
+            throw new IllegalArgumentException("Ya existe un productor con el documento: " + documento);
+        }
+        usar(shard);
+        try {
+            directorio().update(RESERVAR, documento, shard);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Ya existe un productor con el documento: " + documento);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado != STATUS_COMMITTED) {
+                    directorio().update(LIBERAR_RESERVA, documento);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reserva en el directorio el número de catastro de una finca nueva, que así es único entre
+     * todos los shards: uk_fincas_numero_catastro solo lo es en cada uno. Se llama después de
+     * fijar la transacción en el shard del productor; si se revierte la reserva se libera, y
+     * quitarProductor() libera las de todas sus fincas.
+     *
+     * @param numeroCatastro Número de catastro de la finca nueva
+     * @param documento Documento del productor de la finca
+     * @throws IllegalArgumentException si el número ya está registrado en algún shard
+     */
+    public void reservarCatastro(String numeroCatastro, String documento) {
+        if (!habilitado() || numeroCatastro == null) {
+            return;
+        }
+        // Las fincas que no figuran en el directorio están en el shard 0
+        Integer shard = ContextoShard.fijado();
+        if (shard != null && shard != ContextoShard.DIRECTORIO && directorio().queryForObject(
+                "SELECT COUNT(*) FROM fincas WHERE numero_catastro = ?", Integer.class, numeroCatastro) > 0) {
+            throw new IllegalArgumentException("Ya existe una finca con el número de catastro: " + numeroCatastro);
+        }
+        try {
+            directorio().update(RESERVAR_CATASTRO, numeroCatastro, documento);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Ya existe una finca con el número de catastro: " + numeroCatastro);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado != STATUS_COMMITTED) {
+                    directorio().update(LIBERAR_CATASTRO, numeroCatastro);
+                }
+            }
+        });
+    }
+
+    /**
+     * Completa la reserva del documento con el ID del productor cuando se confirma su registro.
+     *
+     * @param documento Documento reservado
+     * @param productorId ID asignado al productor
+     */
+    public void activarProductor(String documento, Long productorId) {
+        if (habilitado()) {
+            alConfirmar(() -> directorio().update(ACTIVAR, productorId, documento));
+        }
+    }
+
+    /**
+     * Quita a un productor del directorio cuando se confirma su eliminación.
+     *
+     * @param productorId ID del productor eliminado
+     */
+    public void quitarProductor(Long productorId) {
+        if (habilitado()) {
+            alConfirmar(() -> {
+                directorio().update(QUITAR_CATASTROS, productorId);
+                directorio().update(QUITAR, productorId);
+                ubicaciones.invalidate(productorId);
+            });
+        }
+    }
+
+    /**
+     * Documentos que ya están en el directorio, para que una importación no los repita en el shard 0.
+     *
+     * @param documentos Documentos a verificar
+     * @return Los que están registrados o reservados
+     */
+    public Set<String> documentosRegistrados(Collection<String> documentos) {
+        if (!habilitado() || documentos.isEmpty()) {
+            return Set.of();
+        }
+        String marcadores = String.join(", ", Collections.nCopies(documentos.size(), "?"));
+        return Set.copyOf(directorio().queryForList(
+                "SELECT documento FROM directorio_productores WHERE documento IN (" + marcadores + ")",
+                String.class, documentos.toArray()));
+    }
+
+    /**
+     * Números de catastro que ya están en el directorio, para que una importación no los repita en el shard 0.
+     *
+     * @param numerosCatastro Números a verificar
+     * @return Los que están reservados por fincas de cualquier shard
+     */
+    public Set<String> catastrosRegistrados(Collection<String> numerosCatastro) {
+        if (!habilitado() || numerosCatastro.isEmpty()) {
+            return Set.of();
+        }
+        String marcadores = String.join(", ", Collections.nCopies(numerosCatastro.size(), "?"));
+        return Set.copyOf(directorio().queryForList(
+                "SELECT numero_catastro FROM directorio_catastros WHERE numero_catastro IN (" + marcadores + ")",
+                String.class, numerosCatastro.toArray()));
+    }
+
+    /**
+     * Ejecuta una consulta en cada shard, uno después de otro, en transacciones de solo lectura
+     * propias. Sin shards la ejecuta una vez en la transacción en curso.
+     *
+     * @param consulta Consulta a ejecutar
+     * @return El resultado de cada shard, en orden de shard
+     */
+    public <T> List<T> reunir(Supplier<T> consulta) {
+        if (!habilitado()) {
+            return Collections.singletonList(consulta.get());
+        }
+        TransactionTemplate plantilla = plantilla(true);
+        List<T> resultados = new ArrayList<>(pools.cantidad());
+        for (int shard = 0; shard < pools.cantidad(); shard++) {
+            resultados.add(ContextoShard.ejecutarEn(shard, () -> plantilla.execute(estado -> consulta.get())));
+        }
+        return resultados;
+    }
+
+    /**
+     * Ejecuta una consulta de listas en cada shard y concatena los resultados.
+     *
+     * @param consulta Consulta a ejecutar
+     * @return Las filas de todos los shards, en orden de shard
+     */
+    public <T> List<T> reunirListas(Supplier<List<T>> consulta) {
+        if (!habilitado()) {
+            return consulta.get();
+        }
+        return reunir(consulta).stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Ejecuta en cada shard una consulta ordenada y limitada, y mezcla los resultados en el mismo
+     * orden. Cada shard devuelve como mucho el límite, y el límite global está entre ellos, así
+     * que una página por cursor se resuelve con una consulta por shard.
+     *
+     * @param consulta Consulta ordenada por el comparador y limitada a limite filas
+     * @param orden Orden de la consulta
+     * @param limite Máximo de filas del resultado
+     * @return Las primeras filas de todos los shards en ese orden
+     */
+    public <T> List<T> reunirOrdenado(Supplier<List<T>> consulta, Comparator<? super T> orden, int limite) {
+        if (!habilitado()) {
+            return consulta.get();
+        }
+        return mezclar(reunir(consulta), orden, limite);
+    }
+
+    /**
+     * Ejecuta un trabajo de solo lectura en cada shard, en transacciones propias.
+     * Sin shards lo ejecuta una vez en la transacción en curso.
+     *
+     * @param lectura Trabajo a ejecutar
+     */
+    public void recorrer(Runnable lectura) {
+        reunir(() -> {
+            lectura.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * Ejecuta un trabajo de escritura en cada shard, en transacciones propias.
+     * Sin shards lo ejecuta una vez en la transacción en curso.
+     *
+     * @param trabajo Trabajo a ejecutar
+     */
+    public void enCadaShard(Runnable trabajo) {
+        if (!habilitado()) {
+            trabajo.run();
+            return;
+        }
+        for (int shard = 0; shard < pools.cantidad(); shard++) {
+            enShard(shard, trabajo);
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo de escritura en los shards distintos del de la transacción en curso,
+     * en transacciones propias, cuando esta se confirma. Sin shards no hace nada.
+     *
+     * @param trabajo Trabajo a ejecutar en cada uno de los demás shards
+     */
+    public void enLosDemasShardsAlConfirmar(Runnable trabajo) {
+        if (!habilitado()) {
+            return;
+        }
+        int actual = ContextoShard.actual();
+        alConfirmar(() -> {
+            for (int shard = 0; shard < pools.cantidad(); shard++) {
+                if (shard != actual) {
+                    enShard(shard, trabajo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Ejecuta un trabajo con sus conexiones en un shard. El trabajo abre sus propias transacciones.
+     *
+     * @param shard Shard del trabajo
+     * @param trabajo Trabajo a ejecutar
+     * @return Resultado del trabajo
+     */
+    public <T> T ejecutarEnShard(int shard, Supplier<T> trabajo) {
+        return habilitado() ? ContextoShard.ejecutarEn(shard, trabajo) : trabajo.get();
+    }
+
+    /**
+     * Copia a los demás shards el alta, el cambio o la baja de un producto de control cuando se
+     * confirma en el shard 0.
+     *
+     * @param productoId ID del producto
+     */
+    public void replicarProductoAlConfirmar(Long productoId) {
+        if (habilitado()) {
+            alConfirmar(() -> replicarProducto(productoId));
+        }
+    }
+
+    /**
+     * Quita un producto de control de los shards distintos del 0 antes de eliminarlo del catálogo.
+     * En cada shard, en una transacción propia, bloquea la fila del producto (las altas de labores
+     * con el producto toman un bloqueo compartido sobre la misma fila), comprueba que ninguna
+     * labor activa o archivada lo use y borra la copia. Una labor que llega después ya no
+     * encuentra el producto en su shard. Si algún shard lo usa, vuelve a copiarlo a los shards
+     * donde ya se borró; si la transacción en curso se revierte, también. Sin shards no hace nada.
+     *
+     * @param productoId ID del producto
+     * @throws DataIntegrityViolationException si alguna labor de otro shard usa el producto
+     */
+    public void quitarProductoDeLosDemasShards(Long productoId) {
+        if (!habilitado()) {
+            return;
+        }
+        try {
+            for (int shard = 1; shard < pools.cantidad(); shard++) {
+                JdbcTemplate destino = pools.jdbc(shard);
+                int actual = shard;
+                pools.transaccion(shard).executeWithoutResult(estado -> {
+                    if (destino.queryForList(BLOQUEAR_PRODUCTO, Long.class, productoId).isEmpty()) {
+                        return;
+                    }
+                    if (!destino.queryForList(PRODUCTO_EN_USO, Long.class, productoId, productoId).isEmpty()) {
+                        throw new DataIntegrityViolationException(
+                                "El producto de control " + productoId + " está en uso por labores del shard " + actual);
+                    }
+                    // Las bajas van de los subtipos a la raíz
+                    for (int i = TABLAS_CATALOGO.size() - 1; i >= 0; i--) {
+                        destino.update("DELETE FROM " + TABLAS_CATALOGO.get(i) + " WHERE id = ?", productoId);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            replicarProducto(productoId);
+            throw e;
+        }
+        alRevertir(() -> replicarProducto(productoId));
+    }
+
+    /**
+     * Adelanta en los demás shards la fecha de última aplicación de un fertilizante cuando se
+     * confirma la labor que la adelantó. La actualización solo avanza la fecha, así que dos
+     * shards que la adelantan a la vez llegan al mismo valor.
+     *
+     * @param productoId ID del fertilizante
+     * @param fecha Fecha de la aplicación
+     */
+    public void propagarFechaUltimaAplicacionAlConfirmar(Long productoId, LocalDate fecha) {
+        if (!habilitado()) {
+            return;
+        }
+        int actual = ContextoShard.actual();
+        alConfirmar(() -> {
+            for (int shard = 0; shard < pools.cantidad(); shard++) {
+                if (shard != actual) {
+                    for (String tabla : List.of("productos_control_fertilizante", "productos_control_lectura")) {
+                        pools.jdbc(shard).update("UPDATE " + tabla + " SET fecha_ultima_aplicacion = ? "
+                                + "WHERE id = ? AND fecha_ultima_aplicacion < ?", fecha, productoId, fecha);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Copia el catálogo completo del shard 0 a los demás al terminar el arranque, después de
+     * cualquier carga inicial de datos y antes de reconstruir los índices en memoria.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void sincronizarCatalogo() {
+        if (!habilitado()) {
+            return;
+        }
+        for (int shard = 1; shard < pools.cantidad(); shard++) {
+            JdbcTemplate destino = pools.jdbc(shard);
+            pools.transaccion(shard).executeWithoutResult(estado -> {
+                for (String tabla : TABLAS_CATALOGO) {
+                    directorio().queryForList("SELECT * FROM " + tabla)
+                            .forEach(fila -> CopiaFilas.reemplazar(destino, tabla, fila));
+                }
+            });
+        }
+        log.info("Catálogo de productos de control copiado a {} shards", pools.cantidad() - 1);
+    }
+
+    /**
+     * Mezcla listas ya ordenadas tomando siempre la menor cabeza, hasta el límite.
+     */
+    static <T> List<T> mezclar(List<List<T>> partes, Comparator<? super T> orden, int limite) {
+        record Cabeza<T>(T elemento, Iterator<T> resto) {
+        }
+        PriorityQueue<Cabeza<T>> cabezas = new PriorityQueue<>(partes.size() + 1,
+                (una, otra) -> orden.compare(una.elemento(), otra.elemento()));
+        for (List<T> parte : partes) {
+            Iterator<T> iterador = parte.iterator();
+            if (iterador.hasNext()) {
+                cabezas.add(new Cabeza<>(iterador.next(), iterador));
+            }
+        }
+        List<T> resultado = new ArrayList<>();
+        while (resultado.size() < limite && !cabezas.isEmpty()) {
+            Cabeza<T> menor = cabezas.poll();
+            resultado.add(menor.elemento());
+            if (menor.resto().hasNext()) {
+                cabezas.add(new Cabeza<>(menor.resto().next(), menor.resto()));
+            }
+        }
+        return resultado;
+    }
+
+    // Operaciones del directorio para RebalanceoShards
+
+    Ubicacion ubicacion(Long productorId) {
+        Ubicacion ubicacion = leerUbicacion(LEER_POR_PRODUCTOR, productorId);
+        return ubicacion != null ? ubicacion : Ubicacion.SIN_ENTRADA;
+    }
+
+    /**
+     * Marca a un productor como en traslado; desde ese momento sus escrituras se rechazan.
+     *
+     * @return false si ya se estaba trasladando
+     */
+    boolean marcarTraslado(Long productorId, String documento, int origen) {
+        int marcadas = directorio().update("UPDATE directorio_productores SET estado = 'TRASLADANDO' "
+                + "WHERE productor_id = ? AND estado = 'ACTIVO'", productorId);
+        if (marcadas == 0) {
+            try {
+                marcadas = directorio().update("INSERT INTO directorio_productores (documento, productor_id, shard, estado) "
+                        + "VALUES (?, ?, ?, 'TRASLADANDO')", documento, productorId, origen);
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+        ubicaciones.invalidate(productorId);
+        return marcadas > 0;
+    }
+
+    /**
+     * Reserva los números de catastro de un productor que deja su shard. Los de las fincas
+     * registradas con shards ya están; faltan los de las que estaban en el shard 0 sin figurar.
+     */
+    void reservarCatastrosTrasladados(String documento, List<String> numerosCatastro) {
+        for (String numeroCatastro : numerosCatastro) {
+            try {
+                directorio().update(RESERVAR_CATASTRO, numeroCatastro, documento);
+            } catch (DuplicateKeyException e) {
+                // Ya reservado al registrar la finca
+            }
+        }
+    }
+
+    void terminarTraslado(Long productorId, int shard) {
+        directorio().update("UPDATE directorio_productores SET shard = ?, estado = 'ACTIVO' WHERE productor_id = ?",
+                shard, productorId);
+        ubicaciones.invalidate(productorId);
+    }
+
+    JdbcTemplate jdbc(int shard) {
+        return pools.jdbc(shard);
+    }
+
+    TransactionTemplate transaccion(int shard) {
+        return pools.transaccion(shard);
+    }
+
+    private int shardDeProductor(Long productorId, boolean escritura) {
+        Ubicacion ubicacion = escritura ? ubicacion(productorId) : ubicaciones.get(productorId, this::ubicacion);
+        if (escritura && ubicacion.estado() == EstadoDirectorio.TRASLADANDO) {
+            throw new ProductorEnTrasladoException(productorId);
+        }
+        return ubicacion.shard();
+    }
+
+    /**
+     * Fija el shard de la transacción en curso hasta que termine. Una transacción ya fijada
+     * en otro shard no puede cambiar: sus sentencias ya usaron la conexión de ese.
+     */
+    private void usar(int shard) {
+        Integer fijado = ContextoShard.fijado();
+        if (fijado != null) {
+            if (fijado != shard) {
+                throw new IllegalStateException("La transacción ya usa el shard " + fijado
+                        + " y no puede continuar en el shard " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El shard se fija al comenzar un método @Transactional");
+        }
+        ContextoShard.fijar(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                ContextoShard.limpiar();
+            }
+        });
+    }
+
+    /**
+     * Busca en todos los shards el productor dueño de un vivero, finca o labor. Cada parámetro
+     * de la consulta recibe el mismo ID.
+     */
+    private Long productorDe(Cache<Long, Long> cache, String consulta, Long id) {
+        if (!habilitado() || id == null) {
+            return null;
+        }
+        Object[] parametros = Collections.nCopies((int) consulta.chars().filter(c -> c == '?').count(), id).toArray();
+        return cache.get(id, clave -> {
+            for (int shard = 0; shard < pools.cantidad(); shard++) {
+                List<Long> productor = pools.jdbc(shard).queryForList(consulta, Long.class, parametros);
+                if (!productor.isEmpty()) {
+                    return productor.get(0);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Ubicacion leerUbicacion(String consulta, Object clave) {
+        List<Ubicacion> filas = directorio().query(consulta, (fila, numero) ->
+                new Ubicacion(fila.getInt("shard"), EstadoDirectorio.valueOf(fila.getString("estado"))), clave);
+        return filas.isEmpty() ? null : filas.get(0);
+    }
+
+    private void replicarProducto(Long productoId) {
+        for (int shard = 1; shard < pools.cantidad(); shard++) {
+            JdbcTemplate destino = pools.jdbc(shard);
+            try {
+                pools.transaccion(shard).executeWithoutResult(estado -> {
+                    List<String> sinFila = new ArrayList<>();
+                    for (String tabla : TABLAS_CATALOGO) {
+                        List<Map<String, Object>> filas = directorio().queryForList(
+                                "SELECT * FROM " + tabla + " WHERE id = ?", productoId);
+                        if (filas.isEmpty()) {
+                            sinFila.add(0, tabla);
+                        } else {
+                            CopiaFilas.reemplazar(destino, tabla, filas.get(0));
+                        }
+                    }
+                    // Las bajas van de los subtipos a la raíz
+                    sinFila.forEach(tabla -> destino.update("DELETE FROM " + tabla + " WHERE id = ?", productoId));
+                });
+            } catch (DataAccessException e) {
+                // Por ejemplo, un producto eliminado en el shard 0 que todavía usan labores de este shard
+                log.warn("No se pudo copiar el producto de control {} al shard {}: {}", productoId, shard, e.getMessage());
+            }
+        }
+    }
+
+    private void enShard(int shard, Runnable trabajo) {
+        TransactionTemplate plantilla = plantilla(false);
+        ContextoShard.ejecutarEn(shard, () -> {
+            plantilla.executeWithoutResult(estado -> trabajo.run());
+            return null;
+        });
+    }
+
+    private TransactionTemplate plantilla(boolean soloLectura) {
+        TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+        plantilla.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        plantilla.setReadOnly(soloLectura);
+        return plantilla;
+    }
+
+    private JdbcTemplate directorio() {
+        return pools.jdbc(ContextoShard.DIRECTORIO);
+    }
+
+    private static void alRevertir(Runnable trabajo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado != STATUS_COMMITTED) {
+                    trabajo.run();
+                }
+            }
+        });
+    }
+
+    private static void alConfirmar(Runnable trabajo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            trabajo.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trabajo.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.angie.vivero.services;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de Zipf sobre los rangos 0..n-1: el rango k sale con probabilidad
+ * proporcional a 1 / (k + 1)^s. Con s = 0 todos los rangos son igual de probables.
+ *
+ * Guarda la distribución acumulada, así que cada muestra es una búsqueda binaria.
+ */
+final class DistribucionZipf {
+
+    private final double[] acumulada;
+
+    DistribucionZipf(int n, double s) {
+        acumulada = new double[n];
+        double suma = 0;
+        for (int k = 0; k < n; k++) {
+            suma += 1 / Math.pow(k + 1, s);
+            acumulada[k] = suma;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= suma;
+        }
+    }
+
+    int muestra(SplittableRandom aleatorio) {
+        int posicion = Arrays.binarySearch(acumulada, aleatorio.nextDouble());
+        return Math.min(posicion >= 0 ? posicion : -posicion - 1, acumulada.length - 1);
+    }
+}
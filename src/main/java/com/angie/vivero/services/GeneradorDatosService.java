@@ -0,0 +1,429 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ParametrosGeneracion;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.dto.ResultadoGeneracion;
+import com.angie.vivero.models.ProductoControlFertilizanteModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductoControlModel;
+import com.angie.vivero.models.ProductoControlPlagaModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Generador de datos sintéticos para pruebas de carga y de capacidad.
+ *
+ * Genera productores, sus fincas, los viveros de cada finca y las labores, con
+ * referencias siempre válidas. Las cantidades de hijos y la elección del vivero y del
+ * producto de cada labor siguen distribuciones de Zipf: la mayoría de los productores
+ * tiene una o dos fincas, y unos pocos viveros y productos concentran buena parte de
+ * las labores, como en los datos reales.
+ *
+ * Las filas se insertan directamente con JDBC, con sentencias INSERT de varias filas,
+ * en tareas paralelas de FILAS_POR_TAREA filas que confirman cada una su propia
+ * transacción. Cada tarea tiene su propia semilla, así que los datos no dependen del
+ * orden en que corren los hilos. Los IDs se reservan en la tabla secuencias igual que
+ * lo hace GeneradorIdsPorBloques, y los productos se registran con ProductoControlService
+ * para que la caché y el modelo de lectura del catálogo los incluyan.
+ *
+ * Como las labores no pasan por LaborService, al terminar se reconcilian los costos
+ * acumulados y, si se pide, se reconstruyen los índices en memoria.
+ */
+@Service
+public class GeneradorDatosService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatosService.class);
+
+    static final String PREFIJO_REGISTRO_ICA = "ICA-GEN-";
+
+    private static final int FILAS_POR_TAREA = 20_000;
+
+    // Sesgo de la cantidad de fincas por productor y de viveros por finca
+    private static final double SESGO_HIJOS = 1.5;
+
+    private static final String[] NOMBRES = {"Juan", "María", "Carlos", "Ana", "Luis", "Rosa", "Jorge", "Luz",
+            "Andrés", "Marta", "Diego", "Gloria", "Hernán", "Beatriz", "Óscar", "Sandra", "Jairo", "Claudia"};
+    private static final String[] APELLIDOS = {"Restrepo", "Gómez", "Zapata", "Pérez", "Arango", "Ramírez",
+            "Muñoz", "Vélez", "Giraldo", "Osorio", "Cardona", "Ríos", "Montoya", "Jaramillo", "Álvarez", "Ospina"};
+    private static final String[] MUNICIPIOS = {"Rionegro", "Marinilla", "Andes", "Jardín", "Fredonia", "Betania",
+            "Ciudad Bolívar", "Salgar", "Concordia", "Támesis", "Guarne", "La Ceja", "El Carmen de Viboral", "Urrao"};
+    private static final String[] CULTIVOS = {"Café", "Aguacate", "Plátano", "Cacao", "Cítricos", "Flores",
+            "Hortalizas", "Mora", "Tomate de árbol", "Lulo"};
+    private static final String[] LABORES_SIN_PRODUCTO = {"Poda de formación", "Riego por goteo",
+            "Deshierbe manual", "Trasplante de plántulas", "Monitoreo de plagas", "Limpieza de bolsas",
+            "Control de sombra", "Siembra de semilla", "Revisión de humedad del sustrato", "Selección de chapolas"};
+    private static final String[] HONGOS = {"Roya", "Mancha de hierro", "Antracnosis", "Mal rosado", "Phytophthora"};
+    private static final String[] PRODUCTOS = {"Cuprozeb", "Bioagro", "Fitokem", "Agrozol", "Tricoderma",
+            "Verdalux", "Nutrimax", "Floracel", "Plagout", "Campoverde"};
+
+    @FunctionalInterface
+    private interface GeneradorFila {
+        /**
+         * Llena los valores de la fila número indice (desde 0), en el orden de las columnas.
+         */
+        void generar(long indice, SplittableRandom aleatorio, Object[] valores);
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    /**
+     * Genera e inserta un conjunto de datos completo.
+     *
+     * @param parametros Cantidades, distribuciones y paralelismo
+     * @param reconstruirIndices Si se reconstruyen la agenda, el índice de carencias y el de
+     *                           búsqueda; no hace falta si la aplicación todavía no terminó de arrancar
+     * @return Cantidades insertadas y duración
+     * @throws IllegalStateException si falla alguna inserción; las tareas ya confirmadas no se deshacen
+     */
+    public ResultadoGeneracion generar(ParametrosGeneracion parametros, boolean reconstruirIndices) {
+        long inicio = System.nanoTime();
+        SplittableRandom aleatorio = new SplittableRandom(parametros.semilla());
+
+        List<ProductoControlDTO> productos = registrarProductos(parametros, aleatorio.split());
+        long[] productoIds = productos.stream().mapToLong(ProductoControlDTO::id).toArray();
+
+        int[] productorDeFinca = repartir(parametros.productores(), parametros.maximoFincasPorProductor(), aleatorio.split());
+        int[] fincaDeVivero = repartir(productorDeFinca.length, parametros.maximoViverosPorFinca(), aleatorio.split());
+        int viveros = fincaDeVivero.length;
+        // Los viveros más activos quedan repartidos entre todos los productores
+        int[] viveroPorRango = permutacion(viveros, aleatorio.split());
+
+        long primerProductor = reservarIds("productores", parametros.productores());
+        long primerFinca = reservarIds("fincas", productorDeFinca.length);
+        long primerVivero = reservarIds("viveros", viveros);
+        long primerLabor = reservarIds("labores", parametros.labores());
+
+        DistribucionZipf municipios = new DistribucionZipf(MUNICIPIOS.length, 1.0);
+        DistribucionZipf zipfViveros = new DistribucionZipf(viveros, parametros.sesgo());
+        DistribucionZipf zipfProductos = productoIds.length == 0 ? null
+                : new DistribucionZipf(productoIds.length, parametros.sesgo());
+
+        ExecutorService hilos = Executors.newFixedThreadPool(parametros.hilos());
+        try {
+            insertar(hilos, parametros, "productores", new String[]{"id", "documento", "nombre", "apellido", "telefono", "correo"},
+                    parametros.productores(), (i, a, fila) -> {
+                        long id = primerProductor + i;
+                        String nombre = NOMBRES[a.nextInt(NOMBRES.length)];
+                        String apellido = APELLIDOS[a.nextInt(APELLIDOS.length)];
+                        fila[0] = id;
+                        fila[1] = String.format("%012d", id);
+                        fila[2] = nombre;
+                        fila[3] = apellido;
+                        fila[4] = "3" + (100_000_000 + a.nextInt(900_000_000));
+                        fila[5] = sinTildes(nombre + "." + apellido + id) + "@correo.co";
+                    });
+            insertar(hilos, parametros, "fincas", new String[]{"id", "numero_catastro", "municipio", "productor_id"},
+                    productorDeFinca.length, (i, a, fila) -> {
+                        long id = primerFinca + i;
+                        fila[0] = id;
+                        fila[1] = "05-" + String.format("%010d", id);
+                        fila[2] = MUNICIPIOS[municipios.muestra(a)];
+                        fila[3] = primerProductor + productorDeFinca[(int) i];
+                    });
+            insertar(hilos, parametros, "viveros", new String[]{"id", "codigo", "tipo_cultivo", "finca_id"},
+                    viveros, (i, a, fila) -> {
+                        long id = primerVivero + i;
+                        fila[0] = id;
+                        fila[1] = "VIV-" + id;
+                        fila[2] = cultivo(i);
+                        fila[3] = primerFinca + fincaDeVivero[(int) i];
+                    });
+            insertar(hilos, parametros, "labores", new String[]{"id", "fecha", "descripcion", "vivero_id", "producto_control_id"},
+                    parametros.labores(), (i, a, fila) -> {
+                        int vivero = viveroPorRango[zipfViveros.muestra(a)];
+                        ProductoControlDTO producto = a.nextDouble() < parametros.proporcionConProducto()
+                                ? productos.get(zipfProductos.muestra(a)) : null;
+                        fila[0] = primerLabor + i;
+                        fila[1] = parametros.fechaInicio().plusDays(a.nextInt(parametros.dias()));
+                        fila[2] = descripcion(producto, cultivo(vivero), a);
+                        fila[3] = primerVivero + vivero;
+                        fila[4] = producto != null ? producto.id() : null;
+                    });
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        avanzarFertilizantes(productos);
+        resumenCostosService.reconciliar();
+        if (reconstruirIndices) {
+            agendaAplicacionesService.reconstruir();
+            indiceCarenciaService.reconstruir();
+            busquedaLaboresService.reconstruir();
+        }
+
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Datos generados en {} ms: {} productores, {} fincas, {} viveros, {} labores",
+                milisegundos, parametros.productores(), productorDeFinca.length, viveros, parametros.labores());
+        return new ResultadoGeneracion(parametros.productores(), productorDeFinca.length, viveros,
+                parametros.labores(), productos.stream().map(ProductoControlDTO::id).toList(), milisegundos);
+    }
+
+    /**
+     * Registra el catálogo de productos, o reutiliza los de una generación anterior con la misma semilla.
+     */
+    private List<ProductoControlDTO> registrarProductos(ParametrosGeneracion parametros, SplittableRandom aleatorio) {
+        List<ProductoControlDTO> productos = new ArrayList<>(parametros.productos());
+        for (int i = 0; i < parametros.productos(); i++) {
+            String registroICA = PREFIJO_REGISTRO_ICA + parametros.semilla() + "-" + i;
+            String nombre = PRODUCTOS[i % PRODUCTOS.length] + " " + (i / PRODUCTOS.length + 1);
+            int frecuencia = 7 + aleatorio.nextInt(39);
+            BigDecimal valor = BigDecimal.valueOf(20_000 + 1_000L * aleatorio.nextInt(131));
+            int carencia = 3 + aleatorio.nextInt(28);
+            ProductoControlModel producto = switch (i % 3) {
+                case 0 -> new ProductoControlHongoModel(registroICA, nombre, frecuencia, valor, carencia,
+                        HONGOS[aleatorio.nextInt(HONGOS.length)]);
+                case 1 -> new ProductoControlPlagaModel(registroICA, nombre, frecuencia, valor, carencia);
+                default -> new ProductoControlFertilizanteModel(registroICA, nombre, frecuencia, valor,
+                        parametros.fechaInicio());
+            };
+            productos.add(productoControlService.obtenerProductoPorRegistroICA(registroICA)
+                    .orElseGet(() -> productoControlService.registrarProducto(producto)));
+        }
+        return productos;
+    }
+
+    /**
+     * Reserva cantidad IDs consecutivos para una tabla, igual que un bloque de GeneradorIdsPorBloques.
+     *
+     * @return El primero de los IDs reservados
+     */
+    private long reservarIds(String entidad, long cantidad) {
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            long ultimo;
+            try (PreparedStatement consulta = conexion.prepareStatement(
+                    "select ultimo_valor from secuencias where entidad = ? for update")) {
+                consulta.setString(1, entidad);
+                try (ResultSet fila = consulta.executeQuery()) {
+                    ultimo = fila.next() ? fila.getLong(1) : -1;
+                }
+            }
+            if (ultimo < 0) {
+                try (PreparedStatement alta = conexion.prepareStatement(
+                        "insert into secuencias (entidad, ultimo_valor) values (?, ?)")) {
+                    alta.setString(1, entidad);
+                    alta.setLong(2, cantidad);
+                    alta.executeUpdate();
+                }
+                ultimo = 0;
+            } else {
+                try (PreparedStatement avance = conexion.prepareStatement(
+                        "update secuencias set ultimo_valor = ? where entidad = ?")) {
+                    avance.setLong(1, ultimo + cantidad);
+                    avance.setString(2, entidad);
+                    avance.executeUpdate();
+                }
+            }
+            conexion.commit();
+            return ultimo + 1;
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudieron reservar IDs para " + entidad, e);
+        }
+    }
+
+    /**
+     * Inserta cantidad filas en tareas paralelas de FILAS_POR_TAREA filas.
+     */
+    private void insertar(ExecutorService hilos, ParametrosGeneracion parametros, String tabla, String[] columnas,
+                          long cantidad, GeneradorFila generador) {
+        long inicio = System.nanoTime();
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (long desde = 0; desde < cantidad; desde += FILAS_POR_TAREA) {
+            long primera = desde;
+            long hasta = Math.min(cantidad, desde + FILAS_POR_TAREA);
+            SplittableRandom aleatorio = new SplittableRandom(parametros.semilla() * 31 + tabla.hashCode() + desde);
+            tareas.add(() -> {
+                insertarTramo(tabla, columnas, primera, hasta, parametros.filasPorInsert(), generador, aleatorio);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> tarea : hilos.invokeAll(tareas)) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación interrumpida mientras se insertaban " + tabla, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudieron insertar " + tabla, e.getCause());
+        }
+        double segundos = Math.max(1, System.nanoTime() - inicio) / 1e9;
+        log.info("{}: {} filas en {} s ({} filas/s)", tabla, cantidad,
+                String.format(Locale.ROOT, "%.1f", segundos), Math.round(cantidad / segundos));
+    }
+
+    private void insertarTramo(String tabla, String[] columnas, long desde, long hasta, int filasPorInsert,
+                               GeneradorFila generador, SplittableRandom aleatorio) throws SQLException {
+        Object[] fila = new Object[columnas.length];
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setAutoCommit(false);
+            PreparedStatement completa = conexion.prepareStatement(sentenciaInsert(tabla, columnas, filasPorInsert));
+            try {
+                long indice = desde;
+                while (indice < hasta) {
+                    int filas = (int) Math.min(filasPorInsert, hasta - indice);
+                    PreparedStatement sentencia = filas == filasPorInsert
+                            ? completa : conexion.prepareStatement(sentenciaInsert(tabla, columnas, filas));
+                    int parametro = 1;
+                    for (int f = 0; f < filas; f++, indice++) {
+                        generador.generar(indice, aleatorio, fila);
+                        for (Object valor : fila) {
+                            sentencia.setObject(parametro++, valor);
+                        }
+                    }
+                    sentencia.executeUpdate();
+                    if (sentencia != completa) {
+                        sentencia.close();
+                    }
+                }
+            } finally {
+                completa.close();
+            }
+            conexion.commit();
+        }
+    }
+
+    private static String sentenciaInsert(String tabla, String[] columnas, int filas) {
+        String valores = "(" + String.join(", ", Collections.nCopies(columnas.length, "?")) + ")";
+        StringBuilder sql = new StringBuilder("insert into ").append(tabla)
+                .append(" (").append(String.join(", ", columnas)).append(") values ");
+        for (int f = 0; f < filas; f++) {
+            sql.append(f == 0 ? "" : ", ").append(valores);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Lleva la fecha de última aplicación de los fertilizantes generados hasta su labor más reciente.
+     */
+    private void avanzarFertilizantes(List<ProductoControlDTO> productos) {
+        List<Long> fertilizantes = productos.stream()
+                .filter(producto -> ProductoControlDTO.TIPO_FERTILIZANTE.equals(producto.tipo()))
+                .map(ProductoControlDTO::id)
+                .toList();
+        if (fertilizantes.isEmpty()) {
+            return;
+        }
+        String marcadores = fertilizantes.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, LocalDate> ultimas = jdbcTemplate.query(
+                "select producto_control_id, max(fecha) from labores where producto_control_id in (" + marcadores + ") "
+                        + "group by producto_control_id",
+                resultado -> {
+                    Map<Long, LocalDate> fechas = new HashMap<>();
+                    while (resultado.next()) {
+                        fechas.put(resultado.getLong(1), resultado.getObject(2, LocalDate.class));
+                    }
+                    return fechas;
+                },
+                fertilizantes.toArray());
+        ultimas.forEach(productoControlService::avanzarFechaUltimaAplicacion);
+    }
+
+    /**
+     * Reparte hijos entre padres: cada padre tiene entre 1 y maximo hijos, con sesgo hacia pocos.
+     *
+     * @return Para cada hijo, el índice de su padre; los hijos de un mismo padre quedan contiguos
+     */
+    private static int[] repartir(int padres, int maximo, SplittableRandom aleatorio) {
+        DistribucionZipf cantidades = new DistribucionZipf(maximo, SESGO_HIJOS);
+        int[] hijosPorPadre = new int[padres];
+        long total = 0;
+        for (int p = 0; p < padres; p++) {
+            hijosPorPadre[p] = cantidades.muestra(aleatorio) + 1;
+            total += hijosPorPadre[p];
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiados registros para generar en una sola corrida: " + total);
+        }
+        int[] padreDeHijo = new int[(int) total];
+        int hijo = 0;
+        for (int p = 0; p < padres; p++) {
+            for (int h = 0; h < hijosPorPadre[p]; h++) {
+                padreDeHijo[hijo++] = p;
+            }
+        }
+        return padreDeHijo;
+    }
+
+    private static int[] permutacion(int n, SplittableRandom aleatorio) {
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++) {
+            orden[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            int temporal = orden[i];
+            orden[i] = orden[j];
+            orden[j] = temporal;
+        }
+        return orden;
+    }
+
+    private static String cultivo(long indiceVivero) {
+        return CULTIVOS[(int) Long.remainderUnsigned(indiceVivero * 0x9E3779B97F4A7C15L, CULTIVOS.length)];
+    }
+
+    private static String descripcion(ProductoControlDTO producto, String cultivo, SplittableRandom aleatorio) {
+        String enCultivo = " en " + cultivo.toLowerCase(Locale.ROOT) + ", lote " + (aleatorio.nextInt(20) + 1);
+        if (producto == null) {
+            return LABORES_SIN_PRODUCTO[aleatorio.nextInt(LABORES_SIN_PRODUCTO.length)] + enCultivo;
+        }
+        String aplicacion = switch (producto.tipo()) {
+            case ProductoControlDTO.TIPO_HONGO -> "Aplicación de fungicida ";
+            case ProductoControlDTO.TIPO_PLAGA -> "Aplicación de insecticida ";
+            default -> "Fertilización con ";
+        };
+        return aplicacion + producto.nombreProducto() + enCultivo;
+    }
+
+    private static String sinTildes(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace(' ', '.')
+                .toLowerCase(Locale.ROOT);
+    }
+}
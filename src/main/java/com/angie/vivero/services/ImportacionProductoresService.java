@@ -0,0 +1,224 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.EstadoImportacionDTO;
+import com.angie.vivero.dto.FilaImportacionProductor;
+import com.angie.vivero.models.EstadoImportacion;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.ImportacionErrorModel;
+import com.angie.vivero.models.ImportacionModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.repositories.FincaRepository;
+import com.angie.vivero.repositories.ImportacionErrorRepository;
+import com.angie.vivero.repositories.ImportacionRepository;
+import com.angie.vivero.repositories.ProductorRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para importar productores con sus fincas desde archivos grandes.
+ *
+ * El archivo se procesa por bloques y cada bloque es una transacción: la unicidad de
+ * documentos y números de catastro se verifica para todo el bloque con una consulta por
+ * campo, las filas válidas se insertan en lotes JDBC y las inválidas se guardan con su
+ * motivo. El avance de la importación se confirma con el bloque, así que volver a enviar
+ * el archivo retoma desde la primera línea no confirmada.
+ *
+ * Con shards los productores importados quedan en el shard 0, y un documento registrado
+ * en el directorio (ver DirectorioShards) también cuenta como existente.
+ */
+@Service
+@Transactional
+public class ImportacionProductoresService {
+
+    @Autowired
+    private ImportacionRepository importacionRepository;
+
+    @Autowired
+    private ImportacionErrorRepository importacionErrorRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLoteJdbc;
+
+    /**
+     * Crea una importación nueva.
+     *
+     * @param formato Formato del archivo
+     * @return La importación, sin líneas procesadas
+     */
+    public ImportacionModel iniciar(String formato) {
+        return importacionRepository.save(
+                new ImportacionModel(UUID.randomUUID().toString(), formato, LocalDateTime.now()));
+    }
+
+    /**
+     * Busca una importación existente para retomarla o consultarla. Se lee del primario,
+     * no de una réplica: retomar desde un avance atrasado repetiría líneas ya confirmadas.
+     *
+     * @param id ID de la importación
+     * @return Optional con la importación si existe
+     */
+    public Optional<ImportacionModel> buscar(String id) {
+        return importacionRepository.findById(id);
+    }
+
+    /**
+     * Registra un bloque de productores y confirma el avance de la importación hasta lineaFinal.
+     *
+     * Si el avance ya llegó a lineaFinal el bloque no se procesa, de modo que reenviar
+     * un bloque ya confirmado no registra nada dos veces.
+     *
+     * @param importacionId ID de la importación
+     * @param filas Productores del bloque, en orden de línea
+     * @param lineaFinal Última línea del archivo que cubre el bloque
+     * @throws IllegalArgumentException si la importación no existe
+     */
+    public void procesarBloque(String importacionId, List<FilaImportacionProductor> filas, long lineaFinal) {
+        ImportacionModel importacion = importacionRepository.buscarParaActualizar(importacionId)
+                .orElseThrow(() -> new IllegalArgumentException("Importación no encontrada con ID: " + importacionId));
+        if (importacion.getLineasProcesadas() >= lineaFinal) {
+            return;
+        }
+        List<FilaImportacionProductor> pendientes = filas.stream()
+                .filter(fila -> fila.linea() > importacion.getLineasProcesadas())
+                .toList();
+
+        Set<String> documentos = pendientes.stream()
+                .map(FilaImportacionProductor::documento)
+                .filter(documento -> documento != null && !documento.isBlank())
+                .collect(Collectors.toSet());
+        Set<String> numerosCatastro = pendientes.stream()
+                .flatMap(fila -> fila.fincas().stream())
+                .map(FilaImportacionProductor.Finca::numeroCatastro)
+                .filter(numero -> numero != null && !numero.isBlank())
+                .collect(Collectors.toSet());
+        // Los ya existentes y los vistos antes en el bloque se tratan igual: el segundo se rechaza
+        Set<String> documentosUsados = documentos.isEmpty()
+                ? new HashSet<>() : new HashSet<>(productorRepository.buscarDocumentosExistentes(documentos));
+        documentosUsados.addAll(directorioShards.documentosRegistrados(documentos));
+        Set<String> catastrosUsados = numerosCatastro.isEmpty()
+                ? new HashSet<>() : new HashSet<>(fincaRepository.buscarNumerosCatastroExistentes(numerosCatastro));
+        catastrosUsados.addAll(directorioShards.catastrosRegistrados(numerosCatastro));
+
+        long registrados = 0;
+        long rechazados = 0;
+        int pendientesDeVaciar = 0;
+        for (FilaImportacionProductor fila : pendientes) {
+            ProductorModel productor = fila.errorLectura() == null ? construir(fila) : null;
+            String error = fila.errorLectura() != null
+                    ? fila.errorLectura()
+                    : validar(productor, documentosUsados, catastrosUsados);
+            if (error != null) {
+                entityManager.persist(new ImportacionErrorModel(importacionId, fila.linea(), error));
+                rechazados++;
+            } else {
+                entityManager.persist(productor);
+                documentosUsados.add(productor.getDocumento());
+                productor.getFincas().forEach(finca -> catastrosUsados.add(finca.getNumeroCatastro()));
+                registrados++;
+            }
+            if (++pendientesDeVaciar == tamanoLoteJdbc) {
+                entityManager.flush();
+                entityManager.clear();
+                pendientesDeVaciar = 0;
+            }
+        }
+        importacionRepository.registrarAvance(importacionId, lineaFinal, registrados, rechazados, LocalDateTime.now());
+        entityManager.clear();
+    }
+
+    /**
+     * Marca la importación como completada.
+     *
+     * @param importacionId ID de la importación
+     * @throws IllegalArgumentException si la importación no existe
+     */
+    public void completar(String importacionId) {
+        ImportacionModel importacion = importacionRepository.findById(importacionId)
+                .orElseThrow(() -> new IllegalArgumentException("Importación no encontrada con ID: " + importacionId));
+        importacion.setEstado(EstadoImportacion.COMPLETADA);
+        importacion.setActualizada(LocalDateTime.now());
+    }
+
+    /**
+     * Obtiene el avance de una importación con sus primeras líneas rechazadas. Se lee del
+     * primario, como buscar: la respuesta de la importación informa el avance recién confirmado.
+     *
+     * @param importacionId ID de la importación
+     * @param maximoErrores Cantidad máxima de errores a devolver
+     * @return Optional con el avance si la importación existe
+     */
+    public Optional<EstadoImportacionDTO> obtenerEstado(String importacionId, int maximoErrores) {
+        return importacionRepository.findById(importacionId)
+                .map(importacion -> new EstadoImportacionDTO(
+                        importacion.getId(),
+                        importacion.getFormato(),
+                        importacion.getEstado(),
+                        importacion.getLineasProcesadas(),
+                        importacion.getRegistrados(),
+                        importacion.getRechazados(),
+                        importacionErrorRepository.buscarPorImportacion(importacionId, Limit.of(maximoErrores))));
+    }
+
+    private static ProductorModel construir(FilaImportacionProductor fila) {
+        ProductorModel productor = new ProductorModel(
+                fila.documento(), fila.nombre(), fila.apellido(), fila.telefono(), fila.correo());
+        for (FilaImportacionProductor.Finca finca : fila.fincas()) {
+            FincaModel nueva = new FincaModel();
+            nueva.setNumeroCatastro(finca.numeroCatastro());
+            nueva.setMunicipio(finca.municipio());
+            productor.addFinca(nueva);
+        }
+        return productor;
+    }
+
+    private String validar(ProductorModel productor, Set<String> documentosUsados, Set<String> catastrosUsados) {
+        Set<ConstraintViolation<ProductorModel>> violaciones = validator.validate(productor);
+        if (!violaciones.isEmpty()) {
+            return violaciones.iterator().next().getMessage();
+        }
+        if (documentosUsados.contains(productor.getDocumento())) {
+            return "Ya existe un productor con el documento: " + productor.getDocumento();
+        }
+        Set<String> catastrosDelProductor = new HashSet<>();
+        for (FincaModel finca : productor.getFincas()) {
+            Set<ConstraintViolation<FincaModel>> violacionesFinca = validator.validate(finca);
+            if (!violacionesFinca.isEmpty()) {
+                return violacionesFinca.iterator().next().getMessage();
+            }
+            if (catastrosUsados.contains(finca.getNumeroCatastro()) || !catastrosDelProductor.add(finca.getNumeroCatastro())) {
+                return "Ya existe una finca con el número de catastro: " + finca.getNumeroCatastro();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,216 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.ElegibilidadCosechaDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.repositories.LaborRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de los periodos de carencia de cada vivero.
+ *
+ * Cada aplicación de un producto con periodo de carencia (hongos y plagas) bloquea la
+ * cosecha del vivero desde la fecha de la labor hasta esa fecha más el periodo; el día en
+ * que termina ya se puede cosechar. Por vivero se guardan los intervalos [inicio, fin)
+ * fusionados en un TreeMap ordenado por inicio, así que los intervalos no se solapan y
+ * saber si una fecha está cubierta es un floorEntry: O(log n) por vivero consultado.
+ *
+ * El índice se construye al arrancar y se mantiene con los cambios de labores confirmados.
+ * Un registro solo agrega un intervalo; una actualización o eliminación puede partir un
+ * intervalo fusionado, y entonces se vuelven a leer las aplicaciones del vivero afectado.
+ */
+@Service
+public class IndiceCarenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceCarenciaService.class);
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    private Map<Long, TreeMap<LocalDate, LocalDate>> carenciasPorVivero = new HashMap<>();
+
+    /**
+     * Construye el índice desde el historial de labores al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        reconstruirTodo();
+    }
+
+    /**
+     * Actualiza el índice cuando se confirma un cambio de labores, en una transacción
+     * propia porque la del cambio ya se confirmó. No es de solo lectura para que lea del
+     * primario: una réplica puede no tener todavía el cambio.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT,
+            condition = "!#evento.aplicaciones().isEmpty()")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alCambiarLabores(LaborCambiadaEvent evento) {
+        if (evento.tipo() == LaborCambiadaEvent.TipoCambio.REGISTRO) {
+            // Los periodos se resuelven antes del bloqueo: un fallo de la caché consulta la base
+            Map<Long, Integer> periodos = new HashMap<>();
+            evento.aplicaciones().forEach(a -> periodos.computeIfAbsent(a.productoControlId(), this::periodoCarencia));
+            Function<Long, Integer> carencias = periodos::get;
+            bloqueo.writeLock().lock();
+            try {
+                evento.aplicaciones().forEach(a -> indexar(carenciasPorVivero, a, carencias));
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+            return;
+        }
+
+        Set<Long> viveros = new LinkedHashSet<>();
+        evento.aplicaciones().forEach(a -> viveros.add(a.viveroId()));
+        for (Long viveroId : viveros) {
+            Map<Long, TreeMap<LocalDate, LocalDate>> reconstruido = new HashMap<>();
+            Function<Long, Integer> carencias = this::periodoCarencia;
+            laborRepository.buscarAplicacionesPorVivero(viveroId)
+                    .forEach(a -> indexar(reconstruido, a, carencias));
+            bloqueo.writeLock().lock();
+            try {
+                carenciasPorVivero.remove(viveroId);
+                carenciasPorVivero.putAll(reconstruido);
+            } finally {
+                bloqueo.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice cuando cambia el periodo de carencia de un producto,
+     * porque todos los intervalos de sus aplicaciones cambian de largo.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void alCambiarProducto(ProductoControlActualizadoEvent evento) {
+        if (evento.cambioPeriodoCarencia()) {
+            reconstruirTodo();
+        }
+    }
+
+    /**
+     * Indica para cada vivero si puede cosecharse en una fecha.
+     *
+     * @param fecha Fecha en la que se quiere cosechar
+     * @param viveroIds IDs de los viveros, en el orden en que se devuelven
+     * @return Un resultado por vivero; los viveros sin aplicaciones son elegibles
+     */
+    public List<ElegibilidadCosechaDTO> consultarElegibilidad(LocalDate fecha, Collection<Long> viveroIds) {
+        List<ElegibilidadCosechaDTO> resultado = new ArrayList<>(viveroIds.size());
+        bloqueo.readLock().lock();
+        try {
+            for (Long viveroId : viveroIds) {
+                LocalDate fin = finDeCarencia(carenciasPorVivero.get(viveroId), fecha);
+                resultado.add(fin == null
+                        ? new ElegibilidadCosechaDTO(viveroId, true, fecha)
+                        : new ElegibilidadCosechaDTO(viveroId, false, fin));
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        return resultado;
+    }
+
+    private void reconstruirTodo() {
+        Map<Long, Integer> carencias = new HashMap<>();
+        for (ProductoControlDTO producto : productoControlService.obtenerTodosLosProductos()) {
+            if (producto.periodoCarencia() != null) {
+                carencias.put(producto.id(), producto.periodoCarencia());
+            }
+        }
+        Map<Long, TreeMap<LocalDate, LocalDate>> reconstruido = new HashMap<>();
+        directorioShards.recorrer(() -> {
+            try (Stream<AplicacionLaborDTO> aplicaciones = laborRepository.streamAplicaciones()) {
+                aplicaciones.forEach(a -> indexar(reconstruido, a, carencias::get));
+            }
+        });
+        bloqueo.writeLock().lock();
+        try {
+            carenciasPorVivero = reconstruido;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        log.info("Índice de periodos de carencia construido para {} viveros", reconstruido.size());
+    }
+
+    private Integer periodoCarencia(Long productoControlId) {
+        return productoControlService.obtenerProductoPorId(productoControlId)
+                .map(ProductoControlDTO::periodoCarencia)
+                .orElse(null);
+    }
+
+    /**
+     * Agrega el intervalo de carencia de una aplicación, fusionándolo con los intervalos
+     * del vivero que lo tocan para que sigan siendo disjuntos.
+     */
+    private static void indexar(Map<Long, TreeMap<LocalDate, LocalDate>> indice, AplicacionLaborDTO aplicacion,
+                                Function<Long, Integer> carencias) {
+        Integer dias = carencias.apply(aplicacion.productoControlId());
+        if (dias == null || dias <= 0) {
+            return;
+        }
+        TreeMap<LocalDate, LocalDate> intervalos = indice.computeIfAbsent(aplicacion.viveroId(), v -> new TreeMap<>());
+        LocalDate inicio = aplicacion.fecha();
+        LocalDate fin = inicio.plusDays(dias);
+
+        Map.Entry<LocalDate, LocalDate> anterior = intervalos.floorEntry(inicio);
+        if (anterior != null && !anterior.getValue().isBefore(inicio)) {
+            if (!anterior.getValue().isBefore(fin)) {
+                return;
+            }
+            inicio = anterior.getKey();
+        }
+        Map.Entry<LocalDate, LocalDate> siguiente = intervalos.ceilingEntry(inicio);
+        while (siguiente != null && !siguiente.getKey().isAfter(fin)) {
+            if (siguiente.getValue().isAfter(fin)) {
+                fin = siguiente.getValue();
+            }
+            intervalos.remove(siguiente.getKey());
+            siguiente = intervalos.higherEntry(siguiente.getKey());
+        }
+        intervalos.put(inicio, fin);
+    }
+
+    /**
+     * Devuelve el fin del intervalo que cubre la fecha, o null si ninguno la cubre.
+     */
+    private static LocalDate finDeCarencia(TreeMap<LocalDate, LocalDate> intervalos, LocalDate fecha) {
+        if (intervalos == null) {
+            return null;
+        }
+        Map.Entry<LocalDate, LocalDate> intervalo = intervalos.floorEntry(fecha);
+        return intervalo != null && fecha.isBefore(intervalo.getValue()) ? intervalo.getValue() : null;
+    }
+}
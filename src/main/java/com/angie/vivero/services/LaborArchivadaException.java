@@ -0,0 +1,12 @@
+package com.angie.vivero.services;
+
+/**
+ * Se rechaza una modificación de una labor archivada: el archivo es de solo lectura.
+ * La labor existe y se puede leer, así que no es un "no encontrada".
+ */
+public class LaborArchivadaException extends IllegalStateException {
+
+    public LaborArchivadaException(Long laborId) {
+        super("La labor " + laborId + " está archivada y es de solo lectura");
+    }
+}
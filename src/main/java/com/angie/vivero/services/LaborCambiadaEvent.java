@@ -0,0 +1,29 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.LaborDTO;
+
+import java.util.List;
+
+/**
+ * Evento publicado por LaborService cuando se registran, actualizan o eliminan labores.
+ * Lleva la vista de cada labor afectada; en una actualización, con los datos nuevos.
+ */
+public record LaborCambiadaEvent(TipoCambio tipo, List<LaborDTO> labores) {
+
+    public enum TipoCambio {
+        REGISTRO,
+        ACTUALIZACION,
+        ELIMINACION
+    }
+
+    /**
+     * Aplicaciones de producto de control entre las labores afectadas.
+     */
+    public List<AplicacionLaborDTO> aplicaciones() {
+        return labores.stream()
+                .filter(labor -> labor.productoControlId() != null)
+                .map(labor -> new AplicacionLaborDTO(labor.viveroId(), labor.productoControlId(), labor.fecha()))
+                .toList();
+    }
+}
@@ -1,18 +1,49 @@
 package com.angie.vivero.services;
 
+import com.angie.vivero.dto.AplicacionLaborDTO;
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.LaborLoteItem;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.dto.ResultadoItemLote;
+import com.angie.vivero.dto.SelloVersion;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.LaborArchivadaModel;
 import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.OperacionCambio;
 import com.angie.vivero.models.ProductoControlModel;
 import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
 import com.angie.vivero.repositories.LaborRepository;
 import com.angie.vivero.repositories.ProductoControlRepository;
 import com.angie.vivero.repositories.ViveroRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio para la gestión de labores en viveros.
@@ -20,20 +51,78 @@ import java.util.Optional;
  * HU-2: Como productor, quiero registrar una labor realizada en un vivero 
  * con el producto de control utilizado, para llevar trazabilidad de las 
  * actividades agrícolas.
+ * 
+ * Toda alta, cambio o baja de una labor se refleja en los costos acumulados
+ * (ResumenCostosService) dentro de la misma transacción, y se publica como
+ * LaborCambiadaEvent para los índices en memoria (agenda, carencias y búsqueda).
+ * También se agrega a la bandeja de cambios (CambiosService) para los sistemas externos.
+ * 
+ * Con shards (DirectorioShards) las operaciones de un vivero o de una labor van al shard
+ * de su productor, y las consultas por fecha o por producto se reúnen de todos los shards.
+ * 
+ * Las labores anteriores a la frontera de ParticionesLabores están en labores_archivo
+ * (ArchivoLabores). Las consultas leen también el archivo solo si su rango, o la posición del
+ * cursor, empieza antes de la frontera; primero leen labores y después el archivo, y descartan
+ * la labor que se movió entre las dos lecturas. Las labores archivadas son de solo lectura.
  */
 @Service
 @Transactional
 public class LaborService {
 
+    /**
+     * Orden de las páginas por cursor: fecha e ID.
+     */
+    private static final Comparator<LaborDTO> ORDEN_CURSOR =
+            Comparator.comparing(LaborDTO::fecha).thenComparing(LaborDTO::id);
+
     @Autowired
     private LaborRepository laborRepository;
 
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
     @Autowired
     private ViveroRepository viveroRepository;
 
     @Autowired
     private ProductoControlRepository productoControlRepository;
 
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLoteJdbc;
+
+    @Value("${vivero.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${vivero.paginacion.tamano-maximo:500}")
+    private int tamanoPaginaMaximo;
+
+    @Value("${vivero.catalogo.modelo-lectura.habilitado:false}")
+    private boolean modeloLecturaHabilitado;
+
     /**
      * Registra una nueva labor en un vivero.
      * 
@@ -46,11 +135,15 @@ public class LaborService {
      * @throws IllegalArgumentException si el vivero no existe
      */
     public LaborModel registrarLabor(LaborModel labor, Long viveroId) {
+        directorioShards.usarShardDeVivero(viveroId);
         ViveroModel vivero = viveroRepository.findById(viveroId)
                 .orElseThrow(() -> new IllegalArgumentException("Vivero no encontrado con ID: " + viveroId));
         
         labor.setVivero(vivero);
-        return laborRepository.save(labor);
+        LaborModel laborGuardada = laborRepository.save(labor);
+        resumenCostosService.registrarAlta(laborGuardada);
+        publicarCambio(LaborCambiadaEvent.TipoCambio.REGISTRO, laborGuardada);
+        return laborGuardada;
     }
 
     /**
@@ -66,18 +159,128 @@ public class LaborService {
      * @throws IllegalArgumentException si el vivero o el producto no existen
      */
     public LaborModel registrarLaborConProducto(LaborModel labor, Long viveroId, Long productoControlId) {
+        directorioShards.usarShardDeVivero(viveroId);
         ViveroModel vivero = viveroRepository.findById(viveroId)
                 .orElseThrow(() -> new IllegalArgumentException("Vivero no encontrado con ID: " + viveroId));
         
         labor.setVivero(vivero);
         
         if (productoControlId != null) {
-            ProductoControlModel producto = productoControlRepository.findById(productoControlId)
-                    .orElseThrow(() -> new IllegalArgumentException("Producto de control no encontrado con ID: " + productoControlId));
-            labor.setProductoControl(producto);
+            // La caché carga el producto con su subtipo antes de que la sesión tenga la referencia; el
+            // bloqueo compartido lo valida en el shard de la labor y frena su baja hasta el commit
+            if (productoControlService.obtenerProductoPorId(productoControlId).isEmpty()
+                    || productoControlRepository.bloquearParaUsar(List.of(productoControlId)).isEmpty()) {
+                throw new IllegalArgumentException("Producto de control no encontrado con ID: " + productoControlId);
+            }
+            labor.setProductoControl(productoControlRepository.getReferenceById(productoControlId));
         }
         
-        return laborRepository.save(labor);
+        LaborModel laborGuardada = laborRepository.save(labor);
+        resumenCostosService.registrarAlta(laborGuardada);
+        if (productoControlId != null) {
+            avanzarFechaUltimaAplicacion(productoControlId, laborGuardada.getFecha());
+        }
+        publicarCambio(LaborCambiadaEvent.TipoCambio.REGISTRO, laborGuardada);
+        return laborGuardada;
+    }
+
+    /**
+     * Registra un conjunto de labores en una sola transacción.
+     * 
+     * Los viveros referenciados se validan con una sola consulta para todo el conjunto y los
+     * productos contra la caché del catálogo y con una consulta que los bloquea en modo
+     * compartido hasta el commit, y las labores
+     * válidas se insertan en lotes JDBC, vaciando el contexto de persistencia cada vez que se
+     * completa un lote.
+     * Los elementos inválidos se informan sin impedir el registro de los demás.
+     * Con shards, todos los viveros del conjunto deben estar en el shard de la transacción:
+     * LaborController reparte las cargas por shard antes de llamarlo.
+     * 
+     * @param items Labores a registrar; un elemento null se rechaza como inválido
+     * @param indiceInicial Posición del primer elemento dentro de la carga completa
+     * @return Resultado de cada elemento, en el mismo orden recibido
+     */
+    public List<ResultadoItemLote> registrarLaboresEnLote(List<LaborLoteItem> items, int indiceInicial) {
+        Set<Long> viveroIds = items.stream().filter(Objects::nonNull)
+                .map(LaborLoteItem::viveroId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> productoIds = items.stream().filter(Objects::nonNull)
+                .map(LaborLoteItem::productoControlId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> viverosExistentes = viveroIds.isEmpty() ? new HashSet<>() : viveroRepository.buscarIdsExistentes(viveroIds);
+        Set<Long> productosExistentes = productoIds.stream()
+                .filter(id -> productoControlService.obtenerProductoPorId(id).isPresent())
+                .collect(Collectors.toSet());
+        if (!productosExistentes.isEmpty()) {
+            productosExistentes.retainAll(productoControlRepository.bloquearParaUsar(productosExistentes));
+        }
+
+        List<ResultadoItemLote> resultados = new ArrayList<>(items.size());
+        List<ResumenCostosService.Movimiento> movimientos = new ArrayList<>(items.size());
+        List<LaborDTO> registradas = new ArrayList<>();
+        int pendientesDeVaciar = 0;
+        for (int i = 0; i < items.size(); i++) {
+            int indice = indiceInicial + i;
+            LaborLoteItem item = items.get(i);
+            String error = validarItemLote(item, viverosExistentes, productosExistentes);
+            if (error != null) {
+                resultados.add(ResultadoItemLote.rechazado(indice, error));
+                continue;
+            }
+
+            LaborModel labor = new LaborModel();
+            labor.setFecha(item.fecha());
+            labor.setDescripcion(item.descripcion());
+            labor.setVivero(entityManager.getReference(ViveroModel.class, item.viveroId()));
+            if (item.productoControlId() != null) {
+                labor.setProductoControl(entityManager.getReference(ProductoControlModel.class, item.productoControlId()));
+            }
+
+            Set<ConstraintViolation<LaborModel>> violaciones = validator.validate(labor);
+            if (!violaciones.isEmpty()) {
+                resultados.add(ResultadoItemLote.rechazado(indice, violaciones.iterator().next().getMessage()));
+                continue;
+            }
+
+            entityManager.persist(labor);
+            resultados.add(ResultadoItemLote.registrado(indice, labor.getId()));
+            movimientos.add(ResumenCostosService.Movimiento.alta(labor));
+            LaborDTO registrada = LaborDTO.desde(labor);
+            registradas.add(registrada);
+            cambiosService.registrar(EntidadCambio.LABOR, registrada.id(), labor.getVersion(), OperacionCambio.REGISTRO,
+                    registrada);
+            if (++pendientesDeVaciar == tamanoLoteJdbc) {
+                entityManager.flush();
+                entityManager.clear();
+                pendientesDeVaciar = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        resumenCostosService.aplicar(movimientos);
+        LaborCambiadaEvent evento = new LaborCambiadaEvent(LaborCambiadaEvent.TipoCambio.REGISTRO, registradas);
+        evento.aplicaciones().stream()
+                .collect(Collectors.toMap(AplicacionLaborDTO::productoControlId, AplicacionLaborDTO::fecha,
+                        (una, otra) -> una.isAfter(otra) ? una : otra))
+                .forEach(this::avanzarFechaUltimaAplicacion);
+        if (!registradas.isEmpty()) {
+            eventPublisher.publishEvent(evento);
+        }
+        return resultados;
+    }
+
+    private String validarItemLote(LaborLoteItem item, Set<Long> viverosExistentes, Set<Long> productosExistentes) {
+        if (item == null) {
+            return "Elemento inválido";
+        }
+        if (item.viveroId() == null) {
+            return "El vivero es obligatorio";
+        }
+        if (!viverosExistentes.contains(item.viveroId())) {
+            return "Vivero no encontrado con ID: " + item.viveroId();
+        }
+        if (item.productoControlId() != null && !productosExistentes.contains(item.productoControlId())) {
+            return "Producto de control no encontrado con ID: " + item.productoControlId();
+        }
+        return null;
     }
 
     /**
@@ -89,8 +292,11 @@ public class LaborService {
      * @param viveroId ID del vivero
      * @return Lista de labores del vivero
      */
+    @Transactional(readOnly = true)
     public List<LaborModel> obtenerLaboresPorVivero(Long viveroId) {
-        return laborRepository.findByViveroId(viveroId);
+        directorioShards.usarShardDeVivero(viveroId);
+        return conArchivadas(laborRepository.findByViveroId(viveroId), null,
+                () -> laborArchivadaRepository.findByViveroId(viveroId));
     }
 
     /**
@@ -103,8 +309,44 @@ public class LaborService {
      * @param fechaFin Fecha de fin del rango
      * @return Lista de labores en el rango
      */
+    @Transactional(readOnly = true)
     public List<LaborModel> obtenerLaboresPorRangoFechas(LocalDate fechaInicio, LocalDate fechaFin) {
-        return laborRepository.findByFechaBetween(fechaInicio, fechaFin);
+        return directorioShards.reunirListas(() -> conArchivadas(laborRepository.findByFechaBetween(fechaInicio, fechaFin),
+                fechaInicio, () -> laborArchivadaRepository.findByFechaBetween(fechaInicio, fechaFin)));
+    }
+
+    /**
+     * Recorre las labores de un rango de fechas con un cursor de solo avance,
+     * entregándolas una por una en orden de fecha e ID.
+     * 
+     * Las filas se leen como proyecciones, que no quedan en el contexto de persistencia,
+     * así que la memoria usada no depende de cuántas labores tenga el rango. Con shards, o si
+     * el rango llega al archivo, se recorre por páginas mezcladas con el mismo orden.
+     * 
+     * @param fechaInicio Fecha de inicio del rango
+     * @param fechaFin Fecha de fin del rango
+     * @param consumidor Recibe cada labor a medida que se lee
+     */
+    @Transactional(readOnly = true)
+    public void recorrerLaboresPorRangoFechas(LocalDate fechaInicio, LocalDate fechaFin, Consumer<LaborDTO> consumidor) {
+        if (directorioShards.habilitado() || particionesLabores.incluyeArchivo(fechaInicio)) {
+            CursorLabor desde = CursorLabor.INICIAL;
+            List<LaborDTO> pagina;
+            do {
+                CursorLabor cursor = desde;
+                pagina = directorioShards.reunirOrdenado(() -> paginaPorRango(
+                        fechaInicio, fechaFin, cursor, tamanoPaginaMaximo), ORDEN_CURSOR, tamanoPaginaMaximo);
+                pagina.forEach(consumidor);
+                if (!pagina.isEmpty()) {
+                    LaborDTO ultima = pagina.get(pagina.size() - 1);
+                    desde = new CursorLabor(ultima.fecha(), ultima.id());
+                }
+            } while (pagina.size() == tamanoPaginaMaximo);
+            return;
+        }
+        try (Stream<LaborDTO> labores = laborRepository.streamPorRangoFechas(fechaInicio, fechaFin)) {
+            labores.forEach(consumidor);
+        }
     }
 
     /**
@@ -116,18 +358,60 @@ public class LaborService {
      * @param productoControlId ID del producto de control
      * @return Lista de labores que usaron el producto
      */
+    @Transactional(readOnly = true)
     public List<LaborModel> obtenerLaboresPorProductoControl(Long productoControlId) {
-        return laborRepository.findByProductoControlId(productoControlId);
+        return directorioShards.reunirListas(() -> conArchivadas(laborRepository.findByProductoControlId(productoControlId),
+                null, () -> laborArchivadaRepository.findByProductoControlId(productoControlId)));
     }
 
     /**
-     * Obtiene una labor por su ID.
+     * Obtiene una labor por su ID. Una labor archivada se entrega separada del contexto de
+     * persistencia: es de solo lectura.
      * 
      * @param id ID de la labor
      * @return Optional con la labor si existe
      */
+    @Transactional(readOnly = true)
     public Optional<LaborModel> obtenerLaborPorId(Long id) {
-        return laborRepository.findById(id);
+        directorioShards.usarShardDeLabor(id);
+        return laborRepository.findById(id)
+                .or(() -> enArchivo(() -> laborArchivadaRepository.findById(id).map(LaborArchivadaModel::comoLabor)));
+    }
+
+    /**
+     * Obtiene la vista de lectura de una labor por su ID.
+     * 
+     * @param id ID de la labor
+     * @return Optional con la labor si existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<LaborDTO> obtenerLaborDTOPorId(Long id) {
+        directorioShards.usarShardDeLabor(id);
+        return laborRepository.buscarDTOPorId(id).or(() -> enArchivo(() -> laborArchivadaRepository.buscarDTOPorId(id)));
+    }
+
+    /**
+     * Obtiene el sello de versión de una labor, para su ETag.
+     * 
+     * @param id ID de la labor
+     * @return Optional con el sello si la labor existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<SelloVersion> obtenerSelloLabor(Long id) {
+        directorioShards.usarShardDeLabor(id);
+        return laborRepository.buscarSelloPorId(id).or(() -> enArchivo(() -> laborArchivadaRepository.buscarSelloPorId(id)));
+    }
+
+    /**
+     * Obtiene el sello de versión de las labores de un vivero, para el ETag de sus páginas.
+     * 
+     * @param viveroId ID del vivero
+     * @return Sello con la cantidad, la suma de IDs y la suma de versiones de sus labores
+     */
+    @Transactional(readOnly = true)
+    public SelloVersion obtenerSelloLaboresPorVivero(Long viveroId) {
+        directorioShards.usarShardDeVivero(viveroId);
+        return laborRepository.selloPorVivero(viveroId);
     }
 
     /**
@@ -137,15 +421,51 @@ public class LaborService {
      * @param laborActualizada Datos actualizados
      * @return La labor actualizada
      * @throws IllegalArgumentException si la labor no existe
+     * @throws LaborArchivadaException si la labor está archivada
+     * @throws OptimisticLockingFailureException si otra transacción la modifica antes de confirmar esta
      */
     public LaborModel actualizarLabor(Long id, LaborModel laborActualizada) {
-        LaborModel labor = laborRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Labor no encontrada con ID: " + id));
+        return actualizarLabor(id, laborActualizada, null);
+    }
+
+    /**
+     * Actualiza una labor solo si sigue en la versión que leyó el cliente.
+     * 
+     * La comparación con versionEsperada descarta lo que cambió antes de leer la labor, y
+     * el UPDATE condicionado por la columna de versión lo que cambie después, hasta el
+     * commit. Ninguna de las dos bloquea la fila mientras el cliente edita.
+     * 
+     * @param id ID de la labor
+     * @param laborActualizada Datos actualizados
+     * @param versionEsperada Versión leída por el cliente (If-Match), o null para no exigirla
+     * @return La labor actualizada, con su nueva versión después del commit
+     * @throws IllegalArgumentException si la labor no existe
+     * @throws LaborArchivadaException si la labor está archivada
+     * @throws OptimisticLockingFailureException si la labor ya no está en la versión esperada
+     */
+    public LaborModel actualizarLabor(Long id, LaborModel laborActualizada, Long versionEsperada) {
+        directorioShards.usarShardDeLabor(id);
+        LaborModel labor = laborRepository.findById(id).orElseThrow(() -> noModificable(id));
+        if (versionEsperada != null && !versionEsperada.equals(labor.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(LaborModel.class, id);
+        }
         
+        LocalDate fechaAnterior = labor.getFecha();
+        // Versión que tendrá al confirmar: Hibernate solo la incrementa si la labor cambia. Se calcula
+        // sin vaciar la sesión para que el UPDATE, y el bloqueo de la fila, queden para el commit.
+        boolean modificada = !Objects.equals(fechaAnterior, laborActualizada.getFecha())
+                || !Objects.equals(labor.getDescripcion(), laborActualizada.getDescripcion());
+        Long version = modificada ? labor.getVersion() + 1 : labor.getVersion();
         labor.setFecha(laborActualizada.getFecha());
         labor.setDescripcion(laborActualizada.getDescripcion());
         
-        return laborRepository.save(labor);
+        LaborModel laborGuardada = laborRepository.save(labor);
+        resumenCostosService.registrarCambioFecha(laborGuardada, fechaAnterior);
+        if (laborGuardada.getProductoControl() != null && !fechaAnterior.equals(laborGuardada.getFecha())) {
+            avanzarFechaUltimaAplicacion(laborGuardada.getProductoControl().getId(), laborGuardada.getFecha());
+        }
+        publicarCambio(LaborCambiadaEvent.TipoCambio.ACTUALIZACION, laborGuardada, version);
+        return laborGuardada;
     }
 
     /**
@@ -153,12 +473,14 @@ public class LaborService {
      * 
      * @param id ID de la labor a eliminar
      * @throws IllegalArgumentException si la labor no existe
+     * @throws LaborArchivadaException si la labor está archivada
      */
     public void eliminarLabor(Long id) {
-        if (!laborRepository.existsById(id)) {
-            throw new IllegalArgumentException("Labor no encontrada con ID: " + id);
-        }
-        laborRepository.deleteById(id);
+        directorioShards.usarShardDeLabor(id);
+        LaborModel labor = laborRepository.findById(id).orElseThrow(() -> noModificable(id));
+        resumenCostosService.registrarBaja(labor);
+        laborRepository.delete(labor);
+        publicarCambio(LaborCambiadaEvent.TipoCambio.ELIMINACION, labor);
     }
 
     /**
@@ -166,7 +488,239 @@ public class LaborService {
      * 
      * @return Lista de todas las labores
      */
+    @Transactional(readOnly = true)
     public List<LaborModel> obtenerTodasLasLabores() {
-        return laborRepository.findAll();
+        return directorioShards.reunirListas(() -> conArchivadas(laborRepository.findAll(), null,
+                laborArchivadaRepository::findAll));
+    }
+
+    /**
+     * Obtiene una página de todas las labores, ordenadas por fecha e ID.
+     * 
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera página
+     * @param tamano Cantidad de labores por página, o null para el tamaño por defecto
+     * @return Página de labores
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<LaborDTO> obtenerPaginaLabores(String cursor, Integer tamano) {
+        CursorLabor desde = CursorLabor.decodificar(cursor);
+        int limite = resolverTamanoPagina(tamano);
+        return paginar(directorioShards.reunirOrdenado(() -> conArchivo(desde.fecha(),
+                laborRepository.buscarPaginaDesde(desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                () -> laborArchivadaRepository.buscarPaginaDesde(desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                ORDEN_CURSOR, LaborDTO::id, limite + 1), ORDEN_CURSOR, limite + 1), limite);
+    }
+
+    /**
+     * Obtiene una página de las labores de un vivero, ordenadas por fecha e ID.
+     * 
+     * @param viveroId ID del vivero
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera página
+     * @param tamano Cantidad de labores por página, o null para el tamaño por defecto
+     * @return Página de labores del vivero
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<LaborDTO> obtenerPaginaLaboresPorVivero(Long viveroId, String cursor, Integer tamano) {
+        CursorLabor desde = CursorLabor.decodificar(cursor);
+        int limite = resolverTamanoPagina(tamano);
+        directorioShards.usarShardDeVivero(viveroId);
+        return paginar(conArchivo(desde.fecha(),
+                laborRepository.buscarPaginaPorViveroDesde(viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                () -> laborArchivadaRepository.buscarPaginaPorViveroDesde(
+                        viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                ORDEN_CURSOR, LaborDTO::id, limite + 1), limite);
+    }
+
+    /**
+     * Obtiene una página de las labores realizadas en un rango de fechas.
+     * 
+     * @param fechaInicio Fecha de inicio del rango
+     * @param fechaFin Fecha de fin del rango
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera página
+     * @param tamano Cantidad de labores por página, o null para el tamaño por defecto
+     * @return Página de labores en el rango
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<LaborDTO> obtenerPaginaLaboresPorRangoFechas(LocalDate fechaInicio, LocalDate fechaFin,
+                                                                       String cursor, Integer tamano) {
+        CursorLabor desde = CursorLabor.decodificar(cursor);
+        int limite = resolverTamanoPagina(tamano);
+        return paginar(directorioShards.reunirOrdenado(() -> paginaPorRango(fechaInicio, fechaFin, desde, limite + 1),
+                ORDEN_CURSOR, limite + 1), limite);
+    }
+
+    /**
+     * Obtiene una página de las labores que utilizaron un producto de control.
+     * 
+     * @param productoControlId ID del producto de control
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera página
+     * @param tamano Cantidad de labores por página, o null para el tamaño por defecto
+     * @return Página de labores que usaron el producto
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<LaborDTO> obtenerPaginaLaboresPorProductoControl(Long productoControlId,
+                                                                           String cursor, Integer tamano) {
+        CursorLabor desde = CursorLabor.decodificar(cursor);
+        int limite = resolverTamanoPagina(tamano);
+        return paginar(directorioShards.reunirOrdenado(() -> conArchivo(desde.fecha(),
+                laborRepository.buscarPaginaPorProductoDesde(productoControlId, desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                () -> laborArchivadaRepository.buscarPaginaPorProductoDesde(
+                        productoControlId, desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                ORDEN_CURSOR, LaborDTO::id, limite + 1), ORDEN_CURSOR, limite + 1), limite);
+    }
+
+    /**
+     * Obtiene una página de las labores de un vivero que usaron un producto de control,
+     * con los datos del producto. Si el modelo de lectura del catálogo está habilitado,
+     * el producto se lee de productos_control_lectura en lugar de la jerarquía JOINED.
+     * 
+     * @param viveroId ID del vivero
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera página
+     * @param tamano Cantidad de labores por página, o null para el tamaño por defecto
+     * @return Página de labores con su producto
+     * @throws IllegalArgumentException si el cursor o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursor<LaborConProductoDTO> obtenerPaginaLaboresConProductoPorVivero(Long viveroId,
+                                                                                     String cursor, Integer tamano) {
+        CursorLabor desde = CursorLabor.decodificar(cursor);
+        int limite = resolverTamanoPagina(tamano);
+        directorioShards.usarShardDeVivero(viveroId);
+        List<LaborConProductoDTO> filas = modeloLecturaHabilitado
+                ? laborRepository.buscarPaginaConProductoLecturaPorViveroDesde(
+                        viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1))
+                : laborRepository.buscarPaginaConProductoPorViveroDesde(
+                        viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1));
+        filas = conArchivo(desde.fecha(), filas, () -> modeloLecturaHabilitado
+                        ? laborArchivadaRepository.buscarPaginaConProductoLecturaPorViveroDesde(
+                                viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1))
+                        : laborArchivadaRepository.buscarPaginaConProductoPorViveroDesde(
+                                viveroId, desde.fecha(), desde.id(), Limit.of(limite + 1)),
+                Comparator.comparing(LaborConProductoDTO::fecha).thenComparing(LaborConProductoDTO::id),
+                LaborConProductoDTO::id, limite + 1);
+        return paginar(filas, limite, labor -> new CursorLabor(labor.fecha(), labor.id()));
+    }
+
+    /**
+     * Página de un rango de fechas desde una posición, con el archivo si el rango o el cursor
+     * empiezan antes de la frontera.
+     */
+    private List<LaborDTO> paginaPorRango(LocalDate fechaInicio, LocalDate fechaFin, CursorLabor desde, int limite) {
+        LocalDate primera = desde.fecha().isAfter(fechaInicio) ? desde.fecha() : fechaInicio;
+        return conArchivo(primera,
+                laborRepository.buscarPaginaPorRangoDesde(fechaInicio, fechaFin, desde.fecha(), desde.id(), Limit.of(limite)),
+                () -> laborArchivadaRepository.buscarPaginaPorRangoDesde(
+                        fechaInicio, fechaFin, desde.fecha(), desde.id(), Limit.of(limite)),
+                ORDEN_CURSOR, LaborDTO::id, limite);
+    }
+
+    /**
+     * Mezcla una página de labores con la misma página del archivo, si la posición desde la que
+     * empieza está antes de la frontera. Una labor que se movió entre las dos lecturas llega
+     * en ambas, con la misma fecha e ID, así que queda junto a su copia y se descarta.
+     */
+    private <T> List<T> conArchivo(LocalDate desde, List<T> activas, Supplier<List<T>> archivadas,
+                                   Comparator<? super T> orden, Function<T, Long> idDe, int limite) {
+        if (!particionesLabores.incluyeArchivo(desde)) {
+            return activas;
+        }
+        List<T> mezcladas = DirectorioShards.mezclar(List.of(activas, archivadas.get()), orden, Integer.MAX_VALUE);
+        List<T> resultado = new ArrayList<>(Math.min(mezcladas.size(), limite));
+        for (T fila : mezcladas) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            if (resultado.isEmpty() || !idDe.apply(resultado.get(resultado.size() - 1)).equals(idDe.apply(fila))) {
+                resultado.add(fila);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrega a una lista de labores las archivadas, si la consulta empieza antes de la frontera.
+     */
+    private List<LaborModel> conArchivadas(List<LaborModel> activas, LocalDate desde,
+                                           Supplier<List<LaborArchivadaModel>> archivadas) {
+        if (!particionesLabores.incluyeArchivo(desde)) {
+            return activas;
+        }
+        Set<Long> ids = activas.stream().map(LaborModel::getId).collect(Collectors.toSet());
+        List<LaborModel> resultado = new ArrayList<>(activas);
+        archivadas.get().stream()
+                .filter(archivada -> !ids.contains(archivada.getId()))
+                .map(LaborArchivadaModel::comoLabor)
+                .forEach(resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Error para una labor que no está entre las activas: archivada (de solo lectura) o inexistente.
+     */
+    private RuntimeException noModificable(Long id) {
+        if (enArchivo(() -> laborArchivadaRepository.buscarSelloPorId(id)).isPresent()) {
+            return new LaborArchivadaException(id);
+        }
+        return new IllegalArgumentException("Labor no encontrada con ID: " + id);
+    }
+
+    /**
+     * Consulta el archivo solo si hay meses archivados.
+     */
+    private <T> Optional<T> enArchivo(Supplier<Optional<T>> consulta) {
+        return particionesLabores.incluyeArchivo(null) ? consulta.get() : Optional.empty();
+    }
+
+    /**
+     * Si el producto es un fertilizante y la aplicación es posterior a su última
+     * aplicación registrada, la adelanta. La comparación usa el catálogo en caché,
+     * así que las labores que no la cambian no escriben en la base de datos.
+     */
+    private void avanzarFechaUltimaAplicacion(Long productoControlId, LocalDate fecha) {
+        productoControlService.obtenerProductoPorId(productoControlId)
+                .filter(producto -> ProductoControlDTO.TIPO_FERTILIZANTE.equals(producto.tipo()))
+                .filter(producto -> fecha.isAfter(producto.fechaUltimaAplicacion()))
+                .ifPresent(producto -> productoControlService.avanzarFechaUltimaAplicacion(productoControlId, fecha));
+    }
+
+    private void publicarCambio(LaborCambiadaEvent.TipoCambio tipo, LaborModel labor) {
+        publicarCambio(tipo, labor, labor.getVersion());
+    }
+
+    private void publicarCambio(LaborCambiadaEvent.TipoCambio tipo, LaborModel labor, Long version) {
+        LaborDTO vista = LaborDTO.desde(labor);
+        cambiosService.registrar(EntidadCambio.LABOR, vista.id(), version, OperacionCambio.valueOf(tipo.name()), vista);
+        eventPublisher.publishEvent(new LaborCambiadaEvent(tipo, List.of(vista)));
+    }
+
+    private int resolverTamanoPagina(Integer tamano) {
+        if (tamano == null) {
+            return tamanoPaginaDefecto;
+        }
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        return Math.min(tamano, tamanoPaginaMaximo);
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió un elemento de más:
+     * si llegó, hay más páginas y el cursor apunta al último elemento devuelto.
+     */
+    private PaginaCursor<LaborDTO> paginar(List<LaborDTO> filas, int limite) {
+        return paginar(filas, limite, labor -> new CursorLabor(labor.fecha(), labor.id()));
+    }
+
+    private <T> PaginaCursor<T> paginar(List<T> filas, int limite, Function<T, CursorLabor> cursorDe) {
+        if (filas.size() <= limite) {
+            return new PaginaCursor<>(filas, null, false);
+        }
+        List<T> contenido = filas.subList(0, limite);
+        String siguiente = cursorDe.apply(contenido.get(limite - 1)).codificar();
+        return new PaginaCursor<>(contenido, siguiente, true);
     }
 }
@@ -0,0 +1,319 @@
+package com.angie.vivero.services;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Lista de labores que contienen un término del índice de búsqueda, comprimida en un
+ * arreglo de bytes.
+ *
+ * Cada labor se guarda como la diferencia entre su ID y el anterior seguida de la cantidad
+ * de veces que aparece el término, ambas en varint (7 bits por byte). Como los IDs están
+ * ordenados las diferencias son pequeñas y casi siempre ocupan uno o dos bytes.
+ *
+ * La lista se divide en bloques de hasta BLOQUE labores, cada uno codificado por separado.
+ * Agregar un ID mayor que el último escribe al final del último bloque; cualquier otro cambio
+ * busca el bloque por su primer ID y vuelve a codificar solo ese bloque, así que actualizar una
+ * labor cuesta lo mismo en un término que aparece en diez labores que en uno que aparece en un
+ * millón. Para construir muchas listas de una vez se usa un Acumulador, que las codifica una
+ * sola vez.
+ */
+final class ListaPostings {
+
+    /**
+     * Reúne las labores de un término mientras se reconstruye el índice y codifica la lista al
+     * final. Las labores llegan en tramos ordenados por ID (uno por shard y por tabla); al
+     * construir la lista los tramos se mezclan tomando siempre el menor ID, como
+     * DirectorioShards.mezclar, en O(n log tramos) y sin volver a codificar.
+     */
+    static final class Acumulador {
+
+        private long[] ids = new long[4];
+        private int[] frecuencias = new int[4];
+        private int cantidad;
+        private int[] inicios = new int[4];
+        private int tramos;
+
+        void agregar(long laborId, int frecuencia) {
+            if (cantidad == 0 || laborId <= ids[cantidad - 1]) {
+                if (tramos == inicios.length) {
+                    inicios = Arrays.copyOf(inicios, tramos * 2);
+                }
+                inicios[tramos++] = cantidad;
+            }
+            if (cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, cantidad * 2);
+                frecuencias = Arrays.copyOf(frecuencias, cantidad * 2);
+            }
+            ids[cantidad] = laborId;
+            frecuencias[cantidad++] = frecuencia;
+        }
+
+        ListaPostings construir() {
+            ListaPostings lista = new ListaPostings();
+            if (tramos <= 1) {
+                for (int i = 0; i < cantidad; i++) {
+                    lista.agregar(ids[i], frecuencias[i]);
+                }
+                return lista;
+            }
+            // Cada cabeza es {posición, fin} de un tramo, ordenadas por el ID en su posición
+            PriorityQueue<int[]> cabezas = new PriorityQueue<>(tramos,
+                    (una, otra) -> Long.compare(ids[una[0]], ids[otra[0]]));
+            for (int tramo = 0; tramo < tramos; tramo++) {
+                cabezas.add(new int[]{inicios[tramo], tramo + 1 < tramos ? inicios[tramo + 1] : cantidad});
+            }
+            while (!cabezas.isEmpty()) {
+                int[] menor = cabezas.poll();
+                lista.agregar(ids[menor[0]], frecuencias[menor[0]]);
+                if (++menor[0] < menor[1]) {
+                    cabezas.add(menor);
+                }
+            }
+            return lista;
+        }
+    }
+
+    /**
+     * Recibe cada labor de la lista, en orden de ID.
+     */
+    @FunctionalInterface
+    interface Visitante {
+        void visitar(long laborId, int frecuencia);
+    }
+
+    /**
+     * Labores por bloque al agregar al final. Un bloque que crece al doble por inserciones en
+     * el medio se parte en dos.
+     */
+    static final int BLOQUE = 128;
+
+    private Bloque[] bloques = new Bloque[1];
+    private int cantidadBloques;
+    private int cantidad;
+
+    /**
+     * Agrega una labor a la lista, o reemplaza su frecuencia si ya estaba.
+     */
+    void agregar(long laborId, int frecuencia) {
+        if (cantidadBloques == 0 || laborId > bloques[cantidadBloques - 1].ultimoId) {
+            if (cantidadBloques == 0 || bloques[cantidadBloques - 1].cantidad >= BLOQUE) {
+                insertarBloque(cantidadBloques, new Bloque());
+            }
+            bloques[cantidadBloques - 1].agregar(laborId, frecuencia);
+            cantidad++;
+            return;
+        }
+        int indice = buscarBloque(laborId);
+        Bloque bloque = bloques[indice];
+        int antes = bloque.cantidad;
+        bloque.reescribir(laborId, frecuencia);
+        cantidad += bloque.cantidad - antes;
+        if (bloque.cantidad > 2 * BLOQUE) {
+            partir(indice);
+        }
+    }
+
+    /**
+     * Quita una labor de la lista si estaba.
+     */
+    void quitar(long laborId) {
+        if (cantidadBloques == 0 || laborId > bloques[cantidadBloques - 1].ultimoId) {
+            return;
+        }
+        int indice = buscarBloque(laborId);
+        Bloque bloque = bloques[indice];
+        int antes = bloque.cantidad;
+        bloque.reescribir(laborId, 0);
+        cantidad += bloque.cantidad - antes;
+        if (bloque.cantidad == 0) {
+            System.arraycopy(bloques, indice + 1, bloques, indice, cantidadBloques - indice - 1);
+            bloques[--cantidadBloques] = null;
+        }
+    }
+
+    /**
+     * Frecuencia de una labor en la lista, o 0 si no está.
+     */
+    int frecuencia(long laborId) {
+        if (cantidadBloques == 0 || laborId > bloques[cantidadBloques - 1].ultimoId) {
+            return 0;
+        }
+        int[] encontrada = {0};
+        bloques[buscarBloque(laborId)].recorrer((id, f) -> {
+            if (id == laborId) {
+                encontrada[0] = f;
+            }
+        });
+        return encontrada[0];
+    }
+
+    void recorrer(Visitante visitante) {
+        for (int i = 0; i < cantidadBloques; i++) {
+            bloques[i].recorrer(visitante);
+        }
+    }
+
+    /**
+     * Cantidad de labores en la lista (la frecuencia de documento del término).
+     */
+    int cantidad() {
+        return cantidad;
+    }
+
+    int tamanoEnBytes() {
+        int total = 0;
+        for (int i = 0; i < cantidadBloques; i++) {
+            total += bloques[i].longitud;
+        }
+        return total;
+    }
+
+    /**
+     * Último bloque cuyo primer ID es menor o igual al buscado; el primero si el ID es menor
+     * que todos.
+     */
+    private int buscarBloque(long laborId) {
+        int desde = 0;
+        int hasta = cantidadBloques - 1;
+        while (desde < hasta) {
+            int medio = (desde + hasta + 1) >>> 1;
+            if (bloques[medio].primerId() <= laborId) {
+                desde = medio;
+            } else {
+                hasta = medio - 1;
+            }
+        }
+        return desde;
+    }
+
+    private void insertarBloque(int indice, Bloque bloque) {
+        if (cantidadBloques == bloques.length) {
+            bloques = Arrays.copyOf(bloques, cantidadBloques * 2);
+        }
+        System.arraycopy(bloques, indice, bloques, indice + 1, cantidadBloques - indice);
+        bloques[indice] = bloque;
+        cantidadBloques++;
+    }
+
+    private void partir(int indice) {
+        Bloque original = bloques[indice];
+        Bloque primera = new Bloque();
+        Bloque segunda = new Bloque();
+        int mitad = original.cantidad / 2;
+        int[] posicion = {0};
+        original.recorrer((id, f) -> (posicion[0]++ < mitad ? primera : segunda).agregar(id, f));
+        bloques[indice] = primera;
+        insertarBloque(indice + 1, segunda);
+    }
+
+    /**
+     * Tramo de la lista codificado por separado: diferencias de ID desde 0 y frecuencias, en varint.
+     */
+    private static final class Bloque {
+
+        private byte[] datos = new byte[8];
+        private int longitud;
+        private int cantidad;
+        private long ultimoId;
+
+        long primerId() {
+            long id = 0;
+            int desplazamiento = 0;
+            int posicion = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                id |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return id;
+        }
+
+        /**
+         * Escribe una labor de ID mayor que el último al final del bloque.
+         */
+        void agregar(long laborId, int frecuencia) {
+            escribir(laborId - ultimoId);
+            escribir(frecuencia);
+            ultimoId = laborId;
+            cantidad++;
+        }
+
+        void recorrer(Visitante visitante) {
+            int posicion = 0;
+            long id = 0;
+            while (posicion < longitud) {
+                long delta = 0;
+                int desplazamiento = 0;
+                byte b;
+                do {
+                    b = datos[posicion++];
+                    delta |= (long) (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while (b < 0);
+                int frecuencia = 0;
+                desplazamiento = 0;
+                do {
+                    b = datos[posicion++];
+                    frecuencia |= (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while (b < 0);
+                id += delta;
+                visitante.visitar(id, frecuencia);
+            }
+        }
+
+        /**
+         * Vuelve a codificar el bloque insertando, reemplazando o quitando (frecuencia 0) una labor.
+         */
+        void reescribir(long laborId, int frecuencia) {
+            long[] ids = new long[cantidad + 1];
+            int[] frecuencias = new int[cantidad + 1];
+            int[] total = {0};
+            boolean[] ubicada = {frecuencia == 0};
+            recorrer((id, f) -> {
+                if (!ubicada[0] && laborId < id) {
+                    ids[total[0]] = laborId;
+                    frecuencias[total[0]++] = frecuencia;
+                    ubicada[0] = true;
+                }
+                if (id == laborId) {
+                    if (!ubicada[0]) {
+                        ids[total[0]] = laborId;
+                        frecuencias[total[0]++] = frecuencia;
+                        ubicada[0] = true;
+                    }
+                    return;
+                }
+                ids[total[0]] = id;
+                frecuencias[total[0]++] = f;
+            });
+            if (!ubicada[0]) {
+                ids[total[0]] = laborId;
+                frecuencias[total[0]++] = frecuencia;
+            }
+
+            longitud = 0;
+            cantidad = 0;
+            ultimoId = 0;
+            for (int i = 0; i < total[0]; i++) {
+                agregar(ids[i], frecuencias[i]);
+            }
+            if (datos.length > 16 && longitud < datos.length / 4) {
+                datos = Arrays.copyOf(datos, Math.max(8, longitud * 2));
+            }
+        }
+
+        private void escribir(long valor) {
+            if (datos.length - longitud < 10) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, longitud + 10));
+            }
+            while ((valor & ~0x7FL) != 0) {
+                datos[longitud++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos[longitud++] = (byte) valor;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.models.EstadoParticion;
+import com.angie.vivero.models.ParticionLaborModel;
+import com.angie.vivero.repositories.LaborRepository;
+import com.angie.vivero.repositories.ParticionLaborRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Particiones mensuales de la tabla labores y frontera con el archivo.
+ *
+ * El catálogo particiones_labores, en el shard 0, registra cada mes como ACTIVA o ARCHIVADA.
+ * La frontera es el primer día después del último mes archivado: las labores anteriores están
+ * en labores_archivo, o se están moviendo allí, y una consulta solo lee el archivo si su rango
+ * empieza antes de la frontera. Cada instancia la guarda en memoria y la relee cada
+ * vivero.labores.archivo.intervalo-frontera, así que las consultas no agregan sentencias.
+ *
+ * En MySQL, si la migración particionó la tabla, cada mes activo es una partición nativa
+ * (modo nativo). En las demás bases el catálogo emula las particiones: fija los mismos meses y la
+ * misma frontera, y las consultas por rango usan el índice por fecha (modo emulado).
+ */
+@Service
+public class ParticionesLabores {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesLabores.class);
+
+    private static final String PARTICION_HISTORICA = "p_historico";
+    private static final String PARTICION_FUTURA = "p_futuro";
+    private static final String PARTICIONES = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION "
+            + "FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'labores' "
+            + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+
+    @Autowired
+    private ParticionLaborRepository particionLaborRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vivero.labores.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    /**
+     * LocalDate.MAX mientras no se haya leído el catálogo: hasta entonces se lee siempre el archivo.
+     */
+    private volatile LocalDate frontera = LocalDate.MAX;
+
+    private volatile Boolean nativas;
+
+    /**
+     * Indica si una consulta que empieza en una fecha debe leer también el archivo.
+     *
+     * @param desde Primera fecha del rango pedido, o null si el rango no tiene límite inferior
+     * @return true si el rango puede incluir labores archivadas
+     */
+    public boolean incluyeArchivo(LocalDate desde) {
+        LocalDate actual = frontera;
+        return desde == null ? actual.isAfter(LocalDate.MIN) : desde.isBefore(actual);
+    }
+
+    /**
+     * @return Primer día después del último mes archivado; LocalDate.MIN si no hay meses archivados
+     */
+    public LocalDate frontera() {
+        return frontera;
+    }
+
+    /**
+     * @return true si la tabla labores tiene particiones nativas de MySQL
+     */
+    public boolean nativas() {
+        if (nativas == null) {
+            nativas = detectarNativas();
+        }
+        return nativas;
+    }
+
+    /**
+     * Lee la frontera y registra los meses próximos al terminar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparar() {
+        actualizarFrontera();
+        prepararMeses();
+        log.info("Particiones de labores en modo {}, archivo desde {}", nativas() ? "nativo" : "emulado",
+                frontera.isAfter(LocalDate.MIN) ? frontera : "ningún mes");
+    }
+
+    /**
+     * Relee la frontera del catálogo, para ver los meses que archivó otra instancia.
+     */
+    @Scheduled(initialDelayString = "${vivero.labores.archivo.intervalo-frontera:30s}",
+            fixedDelayString = "${vivero.labores.archivo.intervalo-frontera:30s}")
+    public void actualizarFrontera() {
+        try {
+            // Sin solo lectura: con réplicas tiene que ver los meses que acaba de archivar ArchivoLabores
+            frontera = new TransactionTemplate(transactionManager).execute(estado ->
+                    particionLaborRepository.buscarUltimoMes(EstadoParticion.ARCHIVADA)
+                            .map(mes -> mes.plusMonths(1))
+                            .orElse(LocalDate.MIN));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer la frontera del archivo de labores: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra como activos los meses desde la labor activa más antigua (o el mes en curso) hasta
+     * vivero.labores.particiones.meses-adelante meses después del actual. En modo nativo crea
+     * además sus particiones en cada shard, dividiendo p_futuro.
+     */
+    public void prepararMeses() {
+        YearMonth hasta = YearMonth.now().plusMonths(mesesAdelante);
+        YearMonth desde = fechaMinimaActiva()
+                .map(YearMonth::from)
+                .filter(mes -> mes.isBefore(YearMonth.now()))
+                .orElse(YearMonth.now());
+        if (frontera.isAfter(LocalDate.MIN) && frontera.isBefore(LocalDate.MAX)
+                && desde.isBefore(YearMonth.from(frontera))) {
+            desde = YearMonth.from(frontera);
+        }
+
+        Map<LocalDate, ParticionLaborModel> registrados = particionLaborRepository.findAllByOrderByMes().stream()
+                .collect(Collectors.toMap(ParticionLaborModel::getMes, Function.identity()));
+        List<ParticionLaborModel> nuevos = new ArrayList<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            if (!registrados.containsKey(mes.atDay(1))) {
+                nuevos.add(new ParticionLaborModel(mes.atDay(1), EstadoParticion.ACTIVA, LocalDateTime.now()));
+            }
+        }
+        particionLaborRepository.saveAll(nuevos);
+
+        if (nativas()) {
+            List<LocalDate> activos = particionLaborRepository.findAllByOrderByMes().stream()
+                    .filter(particion -> particion.getEstado() == EstadoParticion.ACTIVA)
+                    .map(ParticionLaborModel::getMes)
+                    .toList();
+            directorioShards.enCadaShard(() -> dividirFutura(activos));
+        }
+    }
+
+    /**
+     * Marca como archivados los meses anteriores al límite, desde el de la labor activa más
+     * antigua, y adelanta la frontera de esta instancia. Las demás la ven al releerla.
+     * Un límite anterior a la frontera (un horizonte más largo) no la retrocede.
+     *
+     * @param minima Fecha de la labor activa más antigua
+     * @param limite Primer día del primer mes que sigue activo
+     */
+    void archivarMeses(LocalDate minima, LocalDate limite) {
+        Map<LocalDate, ParticionLaborModel> registrados = particionLaborRepository.findAllByOrderByMes().stream()
+                .collect(Collectors.toMap(ParticionLaborModel::getMes, Function.identity()));
+        List<ParticionLaborModel> archivados = new ArrayList<>();
+        for (YearMonth mes = YearMonth.from(minima); mes.atDay(1).isBefore(limite); mes = mes.plusMonths(1)) {
+            ParticionLaborModel particion = registrados.get(mes.atDay(1));
+            if (particion == null) {
+                archivados.add(new ParticionLaborModel(mes.atDay(1), EstadoParticion.ARCHIVADA, LocalDateTime.now()));
+            } else if (particion.getEstado() != EstadoParticion.ARCHIVADA) {
+                particion.setEstado(EstadoParticion.ARCHIVADA);
+                particion.setActualizada(LocalDateTime.now());
+                archivados.add(particion);
+            }
+        }
+        particionLaborRepository.saveAll(archivados);
+        LocalDate actual = frontera;
+        if (actual.equals(LocalDate.MAX) || actual.isBefore(limite)) {
+            frontera = limite;
+        }
+    }
+
+    /**
+     * En modo nativo, une en p_historico las particiones de los meses anteriores a la frontera,
+     * que ArchivoLabores ya vació. Reorganizar particiones vacías no copia filas.
+     */
+    void fusionarArchivadas() {
+        if (!nativas() || !frontera.isAfter(LocalDate.MIN) || frontera.equals(LocalDate.MAX)) {
+            return;
+        }
+        LocalDate hasta = frontera;
+        directorioShards.enCadaShard(() -> {
+            List<String> anteriores = new ArrayList<>();
+            for (Map<String, Object> particion : jdbcTemplate.queryForList(PARTICIONES)) {
+                String nombre = (String) particion.get("PARTITION_NAME");
+                LocalDate limite = limiteDe(particion);
+                if (!nombre.equals(PARTICION_HISTORICA) && limite != null && !limite.isAfter(hasta)) {
+                    anteriores.add(nombre);
+                }
+            }
+            if (!anteriores.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE labores REORGANIZE PARTITION " + PARTICION_HISTORICA + ", "
+                        + String.join(", ", anteriores) + " INTO (PARTITION " + PARTICION_HISTORICA
+                        + " VALUES LESS THAN ('" + hasta + "'))");
+                log.info("Particiones {} unidas en {}", anteriores, PARTICION_HISTORICA);
+            }
+        });
+    }
+
+    /**
+     * @return La fecha de la labor activa más antigua de todos los shards
+     */
+    Optional<LocalDate> fechaMinimaActiva() {
+        return directorioShards.reunir(() -> laborRepository.buscarFechaMinima().orElse(null)).stream()
+                .filter(Objects::nonNull)
+                .min(LocalDate::compareTo);
+    }
+
+    /**
+     * Divide p_futuro en una partición por cada mes activo posterior a la última partición
+     * mensual del shard. Los meses anteriores a ella ya tienen la suya o caen en p_historico.
+     */
+    private void dividirFutura(List<LocalDate> activos) {
+        LocalDate ultimoLimite = jdbcTemplate.queryForList(PARTICIONES).stream()
+                .map(ParticionesLabores::limiteDe)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .orElseThrow(() -> new IllegalStateException("La tabla labores no está particionada"));
+        List<String> nuevas = activos.stream()
+                .filter(mes -> !mes.isBefore(ultimoLimite))
+                .map(mes -> "PARTITION p" + YearMonth.from(mes).toString().replace("-", "")
+                        + " VALUES LESS THAN ('" + mes.plusMonths(1) + "')")
+                .toList();
+        if (nuevas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE labores REORGANIZE PARTITION " + PARTICION_FUTURA + " INTO ("
+                + String.join(", ", nuevas) + ", PARTITION " + PARTICION_FUTURA + " VALUES LESS THAN (MAXVALUE))");
+        log.info("{} particiones mensuales creadas en labores", nuevas.size());
+    }
+
+    /**
+     * Límite superior de una partición RANGE COLUMNS ('2025-01-01', con comillas), o null para MAXVALUE.
+     */
+    private static LocalDate limiteDe(Map<String, Object> particion) {
+        String descripcion = String.valueOf(particion.get("PARTITION_DESCRIPTION")).replace("'", "");
+        return descripcion.equals("MAXVALUE") ? null : LocalDate.parse(descripcion);
+    }
+
+    private boolean detectarNativas() {
+        String producto = jdbcTemplate.execute((ConnectionCallback<String>) conexion ->
+                conexion.getMetaData().getDatabaseProductName());
+        if (producto == null || !producto.toLowerCase().contains("mysql")) {
+            return false;
+        }
+        return !jdbcTemplate.queryForList(PARTICIONES).isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.angie.vivero.services;
+
+import java.util.Set;
+
+/**
+ * Niveles de la jerarquía productor → fincas → viveros que trae la lectura de un productor,
+ * elegidos con el parámetro expand.
+ *
+ * Cada nivel se lee con su propia consulta de proyección filtrada por el productor, no con
+ * un JOIN entre las dos colecciones: el número de consultas depende de los niveles pedidos
+ * y no de cuántas fincas o viveros haya, y las filas no se multiplican entre sí.
+ */
+public enum PlanLecturaProductor {
+
+    /**
+     * El productor y sus fincas: una consulta (LEFT JOIN productor-fincas).
+     */
+    FINCAS,
+
+    /**
+     * Además, los viveros de todas sus fincas: una consulta más.
+     */
+    FINCAS_VIVEROS;
+
+    private static final Set<String> NIVELES = Set.of("fincas", "fincas.viveros");
+
+    /**
+     * Interpreta el parámetro expand, una lista separada por comas de "fincas" y
+     * "fincas.viveros". Sin parámetro se leen las fincas, como antes de existir expand.
+     *
+     * @throws IllegalArgumentException si pide un nivel que no existe
+     */
+    public static PlanLecturaProductor desde(String expand) {
+        PlanLecturaProductor plan = FINCAS;
+        if (expand == null) {
+            return plan;
+        }
+        for (String nivel : expand.split(",")) {
+            String nombre = nivel.trim();
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            if (!NIVELES.contains(nombre)) {
+                throw new IllegalArgumentException("Nivel de expand no soportado: " + nombre);
+            }
+            if (nombre.equals("fincas.viveros")) {
+                plan = FINCAS_VIVEROS;
+            }
+        }
+        return plan;
+    }
+}
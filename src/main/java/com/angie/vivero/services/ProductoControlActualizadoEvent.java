@@ -0,0 +1,33 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ProductoControlDTO;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Evento publicado dentro de la transacción en que se actualiza un producto de control,
+ * con el producto antes y después del cambio.
+ */
+public record ProductoControlActualizadoEvent(ProductoControlDTO anterior, ProductoControlDTO actual) {
+
+    public Long productoControlId() {
+        return actual.id();
+    }
+
+    public boolean cambioValor() {
+        return anterior.valor().compareTo(actual.valor()) != 0;
+    }
+
+    public boolean cambioFrecuencia() {
+        return !Objects.equals(anterior.frecuenciaAplicacion(), actual.frecuenciaAplicacion());
+    }
+
+    public boolean cambioPeriodoCarencia() {
+        return !Objects.equals(anterior.periodoCarencia(), actual.periodoCarencia());
+    }
+
+    public BigDecimal diferenciaValor() {
+        return actual.valor().subtract(anterior.valor());
+    }
+}
@@ -0,0 +1,268 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.config.CacheConfig;
+import com.angie.vivero.dto.EstadisticasCacheDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.ProductoControlFertilizanteModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductoControlLecturaModel;
+import com.angie.vivero.models.ProductoControlModel;
+import com.angie.vivero.models.ProductoControlPlagaModel;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import com.angie.vivero.repositories.LaborRepository;
+import com.angie.vivero.repositories.ProductoControlFertilizanteRepository;
+import com.angie.vivero.repositories.ProductoControlLecturaRepository;
+import com.angie.vivero.repositories.ProductoControlRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio para el catálogo de productos de control.
+ * 
+ * El catálogo es pequeño y cambia poco, así que las consultas por ID y por registro ICA
+ * se sirven desde una caché en memoria (ver CacheConfig). Toda escritura del catálogo
+ * debe pasar por este servicio para que la caché se invalide.
+ * 
+ * Con vivero.catalogo.modelo-lectura.habilitado=true, cada escritura también actualiza
+ * la tabla desnormalizada productos_control_lectura y las lecturas se hacen sobre ella.
+ * 
+ * Con shards el catálogo se escribe en el shard 0 y DirectorioShards lo copia a los demás
+ * al confirmarse, porque las labores de cada shard lo referencian.
+ */
+@Service
+@Transactional
+public class ProductoControlService {
+
+    @Autowired
+    private ProductoControlRepository productoControlRepository;
+
+    @Autowired
+    private ProductoControlLecturaRepository productoControlLecturaRepository;
+
+    @Autowired
+    private ProductoControlFertilizanteRepository productoControlFertilizanteRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${vivero.catalogo.modelo-lectura.habilitado:false}")
+    private boolean modeloLecturaHabilitado;
+
+    /**
+     * Busca un producto de control por su ID, primero en la caché.
+     * Los productos inexistentes no se cachean.
+     * 
+     * @param id ID del producto
+     * @return El producto si existe
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS_POR_ID, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<ProductoControlDTO> obtenerProductoPorId(Long id) {
+        if (modeloLecturaHabilitado) {
+            return productoControlLecturaRepository.buscarDTOPorId(id);
+        }
+        return productoControlRepository.findById(id).map(ProductoControlDTO::desde);
+    }
+
+    /**
+     * Busca un producto de control por su registro ICA, primero en la caché.
+     * 
+     * @param registroICA Registro ICA del producto
+     * @return El producto si existe
+     */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS_POR_REGISTRO, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<ProductoControlDTO> obtenerProductoPorRegistroICA(String registroICA) {
+        if (modeloLecturaHabilitado) {
+            return productoControlLecturaRepository.buscarDTOPorRegistroICA(registroICA);
+        }
+        return productoControlRepository.findByRegistroICA(registroICA).map(ProductoControlDTO::desde);
+    }
+
+    /**
+     * Obtiene todos los productos de control del catálogo.
+     * 
+     * @return Lista de productos
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoControlDTO> obtenerTodosLosProductos() {
+        if (modeloLecturaHabilitado) {
+            return productoControlLecturaRepository.listarDTO();
+        }
+        return productoControlRepository.findAll().stream().map(ProductoControlDTO::desde).toList();
+    }
+
+    /**
+     * Registra un nuevo producto de control de cualquier subtipo.
+     * 
+     * @param producto Producto a registrar
+     * @return El producto registrado
+     */
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_REGISTRO, key = "#producto.registroICA")
+    public ProductoControlDTO registrarProducto(ProductoControlModel producto) {
+        producto.setId(null);
+        ProductoControlDTO registrado = sincronizarModeloLectura(ProductoControlDTO.desde(productoControlRepository.save(producto)));
+        directorioShards.replicarProductoAlConfirmar(registrado.id());
+        return registrado;
+    }
+
+    /**
+     * Actualiza un producto de control existente. El subtipo no puede cambiar.
+     * 
+     * @param id ID del producto
+     * @param datos Datos actualizados
+     * @return El producto actualizado
+     * @throws IllegalArgumentException si el producto no existe o el subtipo no coincide
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_REGISTRO, allEntries = true)
+    })
+    public ProductoControlDTO actualizarProducto(Long id, ProductoControlModel datos) {
+        ProductoControlModel producto = productoControlRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Producto de control no encontrado con ID: " + id));
+        if (producto.getClass() != datos.getClass()) {
+            throw new IllegalArgumentException("El tipo del producto de control no se puede cambiar");
+        }
+
+        ProductoControlDTO anterior = ProductoControlDTO.desde(producto);
+        producto.setRegistroICA(datos.getRegistroICA());
+        producto.setNombreProducto(datos.getNombreProducto());
+        producto.setFrecuenciaAplicacion(datos.getFrecuenciaAplicacion());
+        producto.setValor(datos.getValor());
+        if (producto instanceof ProductoControlHongoModel hongo) {
+            ProductoControlHongoModel nuevo = (ProductoControlHongoModel) datos;
+            hongo.setPeriodoCarencia(nuevo.getPeriodoCarencia());
+            hongo.setNombreHongo(nuevo.getNombreHongo());
+        } else if (producto instanceof ProductoControlPlagaModel plaga) {
+            plaga.setPeriodoCarencia(((ProductoControlPlagaModel) datos).getPeriodoCarencia());
+        } else if (producto instanceof ProductoControlFertilizanteModel fertilizante) {
+            fertilizante.setFechaUltimaAplicacion(((ProductoControlFertilizanteModel) datos).getFechaUltimaAplicacion());
+        }
+
+        ProductoControlDTO actualizado = sincronizarModeloLectura(
+                ProductoControlDTO.desde(productoControlRepository.save(producto)));
+        eventPublisher.publishEvent(new ProductoControlActualizadoEvent(anterior, actualizado));
+        directorioShards.replicarProductoAlConfirmar(id);
+        return actualizado;
+    }
+
+    /**
+     * Adelanta la fecha de última aplicación de un fertilizante cuando se registra
+     * una aplicación posterior. No cambia nada si la fecha no es posterior a la guardada.
+     * 
+     * @param id ID del fertilizante
+     * @param fecha Fecha de la aplicación registrada
+     * @return true si la fecha se adelantó
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_REGISTRO, allEntries = true)
+    })
+    public boolean avanzarFechaUltimaAplicacion(Long id, LocalDate fecha) {
+        boolean avanzada = productoControlFertilizanteRepository.avanzarFechaUltimaAplicacion(id, fecha) > 0;
+        if (avanzada && modeloLecturaHabilitado) {
+            productoControlLecturaRepository.avanzarFechaUltimaAplicacion(id, fecha);
+        }
+        if (avanzada) {
+            directorioShards.propagarFechaUltimaAplicacionAlConfirmar(id, fecha);
+        }
+        return avanzada;
+    }
+
+    /**
+     * Elimina un producto de control.
+     * 
+     * La verificación de uso reemplaza la clave foránea de labores, que MySQL no admite en la
+     * tabla particionada (en H2 y en una base sin V12 la clave se conserva), y cubre también las
+     * labores archivadas. Se hace en cada shard con la fila del producto bloqueada, el mismo
+     * bloqueo que toman las altas de labores con el producto, así que una labor registrada a la
+     * vez en cualquier shard no puede quedar con el producto eliminado.
+     * 
+     * @param id ID del producto
+     * @throws IllegalArgumentException si el producto no existe
+     * @throws DataIntegrityViolationException si alguna labor usa el producto
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTOS_POR_REGISTRO, allEntries = true)
+    })
+    public void eliminarProducto(Long id) {
+        if (productoControlRepository.bloquearParaEliminar(id).isEmpty()) {
+            throw new IllegalArgumentException("Producto de control no encontrado con ID: " + id);
+        }
+        if (laborRepository.existsByProductoControlId(id) || laborArchivadaRepository.existsByProductoControlId(id)) {
+            throw new DataIntegrityViolationException("El producto de control " + id + " está en uso por labores");
+        }
+        directorioShards.quitarProductoDeLosDemasShards(id);
+        if (modeloLecturaHabilitado) {
+            productoControlLecturaRepository.deleteById(id);
+        }
+        productoControlRepository.deleteById(id);
+        directorioShards.replicarProductoAlConfirmar(id);
+    }
+
+    /**
+     * Reconstruye por completo el modelo de lectura a partir de las tablas JOINED.
+     * Corrige cualquier diferencia causada por escrituras que no pasaron por este servicio.
+     * 
+     * @return Cantidad de productos copiados
+     */
+    public int reconstruirModeloLectura() {
+        productoControlLecturaRepository.vaciar();
+        return productoControlLecturaRepository.poblarDesdeCatalogo();
+    }
+
+    private ProductoControlDTO sincronizarModeloLectura(ProductoControlDTO producto) {
+        if (modeloLecturaHabilitado) {
+            productoControlLecturaRepository.save(ProductoControlLecturaModel.desde(producto));
+        }
+        return producto;
+    }
+
+    /**
+     * Obtiene los contadores de aciertos, fallos y desalojos de las cachés del catálogo.
+     * 
+     * @return Estadísticas por caché
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<EstadisticasCacheDTO> obtenerEstadisticasCache() {
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativa) {
+                var stats = nativa.stats();
+                estadisticas.add(new EstadisticasCacheDTO(nombre, nativa.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return estadisticas;
+    }
+}
@@ -0,0 +1,14 @@
+package com.angie.vivero.services;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Se rechaza una escritura en un productor mientras se traslada a otro shard.
+ * Es transitoria: la misma operación se acepta al terminar el traslado.
+ */
+public class ProductorEnTrasladoException extends TransientDataAccessResourceException {
+
+    public ProductorEnTrasladoException(Long productorId) {
+        super("El productor " + productorId + " se está trasladando de shard");
+    }
+}
@@ -1,19 +1,41 @@
 package com.angie.vivero.services;
 
+import com.angie.vivero.dto.FincaDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.ProductorConFincasDTO;
+import com.angie.vivero.dto.ProductorDTO;
+import com.angie.vivero.dto.SelloVersion;
+import com.angie.vivero.dto.ViveroDTO;
+import com.angie.vivero.models.EntidadCambio;
 import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.OperacionCambio;
 import com.angie.vivero.models.ProductorModel;
 import com.angie.vivero.repositories.FincaRepository;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import com.angie.vivero.repositories.LaborRepository;
 import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.repositories.ViveroRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Servicio para gestionar operaciones relacionadas con Productores.
  * Historia de Usuario HU-1: Registrar Productor con sus Fincas
+ * 
+ * Con shards (DirectorioShards) cada productor se registra en un shard con todas sus fincas,
+ * las operaciones sobre un productor van a su shard y los listados se reúnen de todos.
+ * 
+ * Cada escritura agrega sus eventos a la bandeja de cambios (CambiosService) en la misma transacción.
  */
 @Service
 @Transactional
@@ -25,6 +47,30 @@ public class ProductorService {
     @Autowired
     private FincaRepository fincaRepository;
 
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Registra un nuevo productor en el sistema.
      * 
@@ -36,13 +82,24 @@ public class ProductorService {
      * @throws IllegalArgumentException si el documento ya existe
      */
     public ProductorModel registrarProductor(ProductorModel productor) {
+        // Con shards el documento y los números de catastro se reservan en el directorio, que los
+        // hace únicos en todos ellos
+        directorioShards.reservarDocumento(productor.getDocumento());
+        productor.getFincas().forEach(finca ->
+                directorioShards.reservarCatastro(finca.getNumeroCatastro(), productor.getDocumento()));
+
         // Verificar que no exista un productor con el mismo documento
         Optional<ProductorModel> existente = productorRepository.findByDocumento(productor.getDocumento());
         if (existente.isPresent()) {
             throw new IllegalArgumentException("Ya existe un productor con el documento: " + productor.getDocumento());
         }
         
-        return productorRepository.save(productor);
+        ProductorModel productorGuardado = productorRepository.save(productor);
+        directorioShards.activarProductor(productorGuardado.getDocumento(), productorGuardado.getId());
+        registrarCambio(productorGuardado, OperacionCambio.REGISTRO);
+        // La cascada ya asignó el ID de las fincas registradas junto con el productor
+        productorGuardado.getFincas().forEach(finca -> registrarCambio(finca));
+        return productorGuardado;
     }
 
     /**
@@ -56,18 +113,14 @@ public class ProductorService {
      * @return El productor registrado con sus fincas
      */
     public ProductorModel registrarProductorConFincas(ProductorModel productor, List<FincaModel> fincas) {
-        // Registrar el productor
-        ProductorModel productorGuardado = registrarProductor(productor);
-        
-        // Asociar y guardar las fincas
-        if (fincas != null && !fincas.isEmpty()) {
+        // Asociar las fincas antes de guardar: la cascada las inserta junto con el productor
+        if (fincas != null) {
             for (FincaModel finca : fincas) {
-                productorGuardado.addFinca(finca);
+                productor.addFinca(finca);
             }
-            productorRepository.save(productorGuardado);
         }
         
-        return productorGuardado;
+        return registrarProductor(productor);
     }
 
     /**
@@ -79,7 +132,9 @@ public class ProductorService {
      * @param documento Documento del productor
      * @return Optional con el productor si existe
      */
+    @Transactional(readOnly = true)
     public Optional<ProductorModel> buscarPorDocumento(String documento) {
+        directorioShards.usarShardDeDocumento(documento);
         return productorRepository.findByDocumento(documento);
     }
 
@@ -88,8 +143,104 @@ public class ProductorService {
      * 
      * @return Lista de todos los productores
      */
+    @Transactional(readOnly = true)
     public List<ProductorModel> obtenerTodosLosProductores() {
-        return productorRepository.findAll();
+        return directorioShards.reunirListas(productorRepository::findAll);
+    }
+
+    /**
+     * Obtiene la vista de lectura de todos los productores, sin sus fincas.
+     * 
+     * @return Lista de productores
+     */
+    @Transactional(readOnly = true)
+    public List<ProductorDTO> obtenerTodosLosProductoresDTO() {
+        return directorioShards.reunirOrdenado(productorRepository::listarDTO,
+                Comparator.comparing(ProductorDTO::id), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene el sello de versión del listado de productores, para su ETag.
+     * 
+     * @return Sello con la cantidad, la suma de IDs y la suma de versiones de los productores
+     */
+    @Transactional(readOnly = true)
+    public SelloVersion obtenerSelloProductores() {
+        return directorioShards.reunir(productorRepository::selloListado).stream()
+                .reduce((uno, otro) -> new SelloVersion(0L, uno.cantidad() + otro.cantidad(),
+                        uno.sumaIds() + otro.sumaIds(), uno.sumaVersiones() + otro.sumaVersiones()))
+                .orElseThrow();
+    }
+
+    /**
+     * Obtiene el sello de versión de un productor y sus fincas, para su ETag.
+     * 
+     * @param id ID del productor
+     * @return Optional con el sello si el productor existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<SelloVersion> obtenerSelloProductorConFincas(Long id) {
+        return obtenerSelloProductorConFincas(id, PlanLecturaProductor.FINCAS);
+    }
+
+    /**
+     * Obtiene el sello de versión de un productor con los niveles del plan, para su ETag.
+     * 
+     * @param id ID del productor
+     * @param plan Niveles que incluye la respuesta
+     * @return Optional con el sello si el productor existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<SelloVersion> obtenerSelloProductorConFincas(Long id, PlanLecturaProductor plan) {
+        directorioShards.usarShardDeProductor(id);
+        return plan == PlanLecturaProductor.FINCAS_VIVEROS
+                ? productorRepository.buscarSelloConFincasYViverosPorId(id)
+                : productorRepository.buscarSelloConFincasPorId(id);
+    }
+
+    /**
+     * Obtiene la vista de lectura de un productor y sus fincas con una sola consulta.
+     * 
+     * @param id ID del productor
+     * @return Optional con el productor y sus fincas si existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductorConFincasDTO> obtenerProductorConFincasDTO(Long id) {
+        return obtenerProductorConFincasDTO(id, PlanLecturaProductor.FINCAS);
+    }
+
+    /**
+     * Obtiene la vista de lectura de un productor con los niveles del plan: una consulta para
+     * el productor y sus fincas, y otra para los viveros de todas ellas si el plan los incluye.
+     * 
+     * @param id ID del productor
+     * @param plan Niveles que incluye la respuesta
+     * @return Optional con el productor, sus fincas y, según el plan, sus viveros
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductorConFincasDTO> obtenerProductorConFincasDTO(Long id, PlanLecturaProductor plan) {
+        directorioShards.usarShardDeProductor(id);
+        Optional<ProductorConFincasDTO> productor =
+                ProductorConFincasDTO.desdeFilas(productorRepository.buscarFilasConFincasPorId(id));
+        if (plan != PlanLecturaProductor.FINCAS_VIVEROS || productor.isEmpty()) {
+            return productor;
+        }
+        List<ViveroDTO> viveros = productor.get().fincas().isEmpty()
+                ? List.of()
+                : viveroRepository.listarDTOPorProductor(id);
+        return productor.map(p -> p.conViveros(viveros));
+    }
+
+    /**
+     * Busca la vista de lectura de un productor y sus fincas por su documento.
+     * 
+     * @param documento Documento del productor
+     * @return Optional con el productor y sus fincas si existe
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductorConFincasDTO> buscarPorDocumentoDTO(String documento) {
+        directorioShards.usarShardDeDocumento(documento);
+        return ProductorConFincasDTO.desdeFilas(productorRepository.buscarFilasConFincasPorDocumento(documento));
     }
 
     /**
@@ -101,7 +252,9 @@ public class ProductorService {
      * @param id ID del productor
      * @return Optional con el productor si existe
      */
+    @Transactional(readOnly = true)
     public Optional<ProductorModel> obtenerProductorConFincas(Long id) {
+        directorioShards.usarShardDeProductor(id);
         return productorRepository.findById(id);
     }
 
@@ -112,17 +265,47 @@ public class ProductorService {
      * @param productorActualizado Datos actualizados del productor
      * @return El productor actualizado
      * @throws IllegalArgumentException si el productor no existe
+     * @throws OptimisticLockingFailureException si otra transacción lo modifica antes de confirmar esta
      */
     public ProductorModel actualizarProductor(Long id, ProductorModel productorActualizado) {
+        return actualizarProductor(id, productorActualizado, null);
+    }
+
+    /**
+     * Actualiza los datos de un productor solo si sigue en la versión que leyó el cliente.
+     * Agregar o modificar sus fincas no cambia la versión del productor.
+     * 
+     * @param id ID del productor
+     * @param productorActualizado Datos actualizados del productor
+     * @param versionEsperada Versión leída por el cliente (If-Match), o null para no exigirla
+     * @return El productor actualizado, con su nueva versión después del commit
+     * @throws IllegalArgumentException si el productor no existe
+     * @throws OptimisticLockingFailureException si el productor ya no está en la versión esperada
+     */
+    public ProductorModel actualizarProductor(Long id, ProductorModel productorActualizado, Long versionEsperada) {
+        directorioShards.usarShardDeProductor(id);
         ProductorModel productor = productorRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Productor no encontrado con ID: " + id));
+        if (versionEsperada != null && !versionEsperada.equals(productor.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(ProductorModel.class, id);
+        }
         
+        // Versión que tendrá al confirmar: Hibernate solo la incrementa si los datos cambian. Se calcula
+        // sin vaciar la sesión para que el UPDATE, y el bloqueo de la fila, queden para el commit.
+        boolean modificado = !Objects.equals(productor.getNombre(), productorActualizado.getNombre())
+                || !Objects.equals(productor.getApellido(), productorActualizado.getApellido())
+                || !Objects.equals(productor.getTelefono(), productorActualizado.getTelefono())
+                || !Objects.equals(productor.getCorreo(), productorActualizado.getCorreo());
+        Long version = modificado ? productor.getVersion() + 1 : productor.getVersion();
         productor.setNombre(productorActualizado.getNombre());
         productor.setApellido(productorActualizado.getApellido());
         productor.setTelefono(productorActualizado.getTelefono());
         productor.setCorreo(productorActualizado.getCorreo());
         
-        return productorRepository.save(productor);
+        ProductorModel productorGuardado = productorRepository.save(productor);
+        cambiosService.registrar(EntidadCambio.PRODUCTOR, productorGuardado.getId(), version,
+                OperacionCambio.ACTUALIZACION, ProductorDTO.desde(productorGuardado));
+        return productorGuardado;
     }
 
     /**
@@ -137,10 +320,12 @@ public class ProductorService {
      * @throws IllegalArgumentException si el productor no existe
      */
     public FincaModel agregarFincaAProductor(Long productorId, FincaModel finca) {
+        directorioShards.usarShardDeProductor(productorId);
         ProductorModel productor = productorRepository.findById(productorId)
                 .orElseThrow(() -> new IllegalArgumentException("Productor no encontrado con ID: " + productorId));
         
-        // Verificar que no exista una finca con el mismo número de catastro
+        // Verificar que no exista una finca con el mismo número de catastro, en ningún shard
+        directorioShards.reservarCatastro(finca.getNumeroCatastro(), productor.getDocumento());
         Optional<FincaModel> fincaExistente = fincaRepository.findByNumeroCatastro(finca.getNumeroCatastro());
         if (fincaExistente.isPresent()) {
             throw new IllegalArgumentException("Ya existe una finca con el número de catastro: " + finca.getNumeroCatastro());
@@ -149,23 +334,49 @@ public class ProductorService {
         // Establecer la relación bidireccional usando el método helper
         productor.addFinca(finca);
         
-        // Guardar el productor (cascada guardará la finca)
-        productorRepository.save(productor);
-        
-        // Retornar la finca que ahora tiene ID asignado
-        return fincaRepository.findByNumeroCatastro(finca.getNumeroCatastro()).get();
+        // Persistir la finca asigna su ID sobre la misma instancia, sin volver a consultarla
+        FincaModel fincaGuardada = fincaRepository.save(finca);
+        registrarCambio(fincaGuardada);
+        return fincaGuardada;
     }
 
     /**
-     * Elimina un productor del sistema.
+     * Elimina un productor del sistema. La bandeja de cambios recibe un solo evento: sus
+     * fincas, viveros y labores, también las archivadas, se eliminan con él.
+     * Sus labores se publican en un LaborCambiadaEvent de eliminación, para que salgan de la
+     * agenda, del índice de carencias y del índice de búsqueda, y se descuentan de los costos
+     * acumulados en la misma transacción.
      * 
      * @param id ID del productor a eliminar
      * @throws IllegalArgumentException si el productor no existe
      */
     public void eliminarProductor(Long id) {
-        if (!productorRepository.existsById(id)) {
-            throw new IllegalArgumentException("Productor no encontrado con ID: " + id);
+        directorioShards.usarShardDeProductor(id);
+        ProductorModel productor = productorRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Productor no encontrado con ID: " + id));
+        // Las labores se leen antes de la cascada para quitarlas de los índices en memoria
+        List<LaborDTO> labores = new ArrayList<>(laborRepository.buscarDTOPorProductor(id));
+        if (particionesLabores.incluyeArchivo(null)) {
+            labores.addAll(laborArchivadaRepository.buscarDTOPorProductor(id));
+        }
+        // Las bajas se aplican mientras existen sus viveros, de los que se lee la jerarquía
+        resumenCostosService.aplicar(labores.stream().map(ResumenCostosService.Movimiento::baja).toList());
+        laborArchivadaRepository.eliminarPorProductor(id);
+        productorRepository.delete(productor);
+        directorioShards.quitarProductor(id);
+        registrarCambio(productor, OperacionCambio.ELIMINACION);
+        if (!labores.isEmpty()) {
+            eventPublisher.publishEvent(new LaborCambiadaEvent(LaborCambiadaEvent.TipoCambio.ELIMINACION, labores));
         }
-        productorRepository.deleteById(id);
+    }
+
+    private void registrarCambio(ProductorModel productor, OperacionCambio operacion) {
+        cambiosService.registrar(EntidadCambio.PRODUCTOR, productor.getId(), productor.getVersion(), operacion,
+                ProductorDTO.desde(productor));
+    }
+
+    private void registrarCambio(FincaModel finca) {
+        cambiosService.registrar(EntidadCambio.FINCA, finca.getId(), finca.getVersion(), OperacionCambio.REGISTRO,
+                FincaDTO.desde(finca));
     }
 }
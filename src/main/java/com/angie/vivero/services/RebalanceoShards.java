@@ -0,0 +1,181 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.DistribucionShardDTO;
+import com.angie.vivero.dto.TrasladoProductorDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traslado en línea de productores entre shards y rebalanceo de las labores.
+ *
+ * Un traslado no detiene la aplicación. Marca al productor en el directorio, con lo que sus
+ * escrituras se rechazan con 503 y Retry-After, y espera a que terminen las que ya habían
+ * leído el directorio. Copia su subárbol al destino en una transacción y lo activa allí.
+ * Vuelve a esperar a que venzan las ubicaciones en caché de las lecturas y borra el origen.
+ * Las lecturas no se interrumpen.
+ */
+@Service
+public class RebalanceoShards {
+
+    private static final Logger log = LoggerFactory.getLogger(RebalanceoShards.class);
+
+    private static final String FINCAS_DEL_PRODUCTOR = "SELECT id FROM fincas WHERE productor_id = ?";
+    private static final String VIVEROS_DEL_PRODUCTOR =
+            "SELECT v.id FROM viveros v JOIN fincas f ON f.id = v.finca_id WHERE f.productor_id = ?";
+
+    /**
+     * Tablas del subárbol de un productor en orden de sus claves foráneas, con la condición
+     * que selecciona sus filas. Todas reciben el ID del productor como único parámetro.
+     */
+    private static final List<Map.Entry<String, String>> SUBARBOL = List.of(
+            Map.entry("productores", "id = ?"),
+            Map.entry("fincas", "productor_id = ?"),
+            Map.entry("viveros", "finca_id IN (" + FINCAS_DEL_PRODUCTOR + ")"),
+            Map.entry("labores", "vivero_id IN (" + VIVEROS_DEL_PRODUCTOR + ")"),
+            Map.entry("labores_archivo", "vivero_id IN (" + VIVEROS_DEL_PRODUCTOR + ")"),
+            Map.entry("resumen_costos", "(ambito = 'PRODUCTOR' AND ambito_id = ?)"),
+            Map.entry("resumen_costos", "(ambito = 'FINCA' AND ambito_id IN (" + FINCAS_DEL_PRODUCTOR + "))"),
+            Map.entry("resumen_costos", "(ambito = 'VIVERO' AND ambito_id IN (" + VIVEROS_DEL_PRODUCTOR + "))"));
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Value("${vivero.shards.espera-traslado:2s}")
+    private Duration esperaTraslado;
+
+    @Value("${vivero.shards.rebalanceo.maximo-traslados:100}")
+    private int maximoTraslados;
+
+    /**
+     * Cantidad de productores y de labores en cada shard.
+     *
+     * @return Una fila por shard
+     */
+    public List<DistribucionShardDTO> distribucion() {
+        exigirShards();
+        List<DistribucionShardDTO> distribucion = new ArrayList<>();
+        for (int shard = 0; shard < directorioShards.cantidadShards(); shard++) {
+            JdbcTemplate jdbc = directorioShards.jdbc(shard);
+            distribucion.add(new DistribucionShardDTO(shard,
+                    jdbc.queryForObject("SELECT COUNT(*) FROM productores", Long.class),
+                    jdbc.queryForObject("SELECT COUNT(*) FROM labores", Long.class)));
+        }
+        return distribucion;
+    }
+
+    /**
+     * Traslada un productor con su subárbol a otro shard.
+     *
+     * @param productorId ID del productor
+     * @param destino Shard de destino
+     * @return El traslado realizado
+     * @throws IllegalArgumentException si el productor no existe, el shard no existe o ya está en él
+     * @throws ProductorEnTrasladoException si el productor ya se está trasladando
+     */
+    public TrasladoProductorDTO trasladar(Long productorId, int destino) {
+        exigirShards();
+        if (destino < 0 || destino >= directorioShards.cantidadShards()) {
+            throw new IllegalArgumentException("No existe el shard " + destino);
+        }
+        int origen = directorioShards.ubicacion(productorId).shard();
+        if (origen == destino) {
+            throw new IllegalArgumentException("El productor " + productorId + " ya está en el shard " + destino);
+        }
+        JdbcTemplate jdbcOrigen = directorioShards.jdbc(origen);
+        List<String> documento = jdbcOrigen.queryForList(
+                "SELECT documento FROM productores WHERE id = ?", String.class, productorId);
+        if (documento.isEmpty()) {
+            throw new IllegalArgumentException("Productor no encontrado con ID: " + productorId);
+        }
+        if (!directorioShards.marcarTraslado(productorId, documento.get(0), origen)) {
+            throw new ProductorEnTrasladoException(productorId);
+        }
+
+        long labores;
+        try {
+            directorioShards.reservarCatastrosTrasladados(documento.get(0), jdbcOrigen.queryForList(
+                    "SELECT numero_catastro FROM fincas WHERE productor_id = ?", String.class, productorId));
+            // Las escrituras que leyeron el directorio antes de la marca terminan en el origen
+            esperar();
+            JdbcTemplate jdbcDestino = directorioShards.jdbc(destino);
+            labores = directorioShards.transaccion(destino).execute(estado -> {
+                long copiadas = 0;
+                for (Map.Entry<String, String> tabla : SUBARBOL) {
+                    long filas = CopiaFilas.copiar(jdbcOrigen, jdbcDestino, tabla.getKey(), tabla.getValue(), productorId);
+                    copiadas += tabla.getKey().equals("labores") ? filas : 0;
+                }
+                return copiadas;
+            });
+            directorioShards.terminarTraslado(productorId, destino);
+        } catch (RuntimeException e) {
+            directorioShards.terminarTraslado(productorId, origen);
+            throw e;
+        }
+
+        // Las lecturas con la ubicación anterior en caché siguen en el origen hasta que vence
+        esperar();
+        directorioShards.transaccion(origen).executeWithoutResult(estado -> {
+            // Del final al comienzo, para que las claves foráneas no lo impidan
+            for (int i = SUBARBOL.size() - 1; i >= 0; i--) {
+                jdbcOrigen.update("DELETE FROM " + SUBARBOL.get(i).getKey() + " WHERE " + SUBARBOL.get(i).getValue(), productorId);
+            }
+        });
+        log.info("Productor {} trasladado del shard {} al shard {} con {} labores", productorId, origen, destino, labores);
+        return new TrasladoProductorDTO(productorId, origen, destino, labores);
+    }
+
+    /**
+     * Reparte las labores entre los shards trasladando productores del shard que más tiene al
+     * que menos tiene. En cada paso elige el productor más grande que reduce la diferencia, y
+     * termina cuando ninguno la reduce o al llegar a vivero.shards.rebalanceo.maximo-traslados.
+     *
+     * @return Los traslados realizados, en orden
+     */
+    public List<TrasladoProductorDTO> rebalancear() {
+        exigirShards();
+        List<TrasladoProductorDTO> traslados = new ArrayList<>();
+        while (traslados.size() < maximoTraslados) {
+            List<DistribucionShardDTO> distribucion = distribucion();
+            DistribucionShardDTO mayor = distribucion.stream().max(Comparator.comparingLong(DistribucionShardDTO::labores)).orElseThrow();
+            DistribucionShardDTO menor = distribucion.stream().min(Comparator.comparingLong(DistribucionShardDTO::labores)).orElseThrow();
+            long diferencia = mayor.labores() - menor.labores();
+            // Trasladar n labores deja una diferencia de |diferencia - 2n|, menor solo si n < diferencia
+            List<Map<String, Object>> candidato = directorioShards.jdbc(mayor.shard()).queryForList(
+                    "SELECT f.productor_id, COUNT(*) AS labores FROM labores l "
+                            + "JOIN viveros v ON v.id = l.vivero_id JOIN fincas f ON f.id = v.finca_id "
+                            + "GROUP BY f.productor_id HAVING COUNT(*) < ? ORDER BY labores DESC, f.productor_id LIMIT 1",
+                    diferencia);
+            if (candidato.isEmpty()) {
+                break;
+            }
+            Long productorId = ((Number) candidato.get(0).get("productor_id")).longValue();
+            traslados.add(trasladar(productorId, menor.shard()));
+        }
+        return traslados;
+    }
+
+    private void exigirShards() {
+        if (!directorioShards.habilitado()) {
+            throw new IllegalStateException("Los shards no están habilitados (vivero.shards.habilitado)");
+        }
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(esperaTraslado.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Traslado interrumpido", e);
+        }
+    }
+}
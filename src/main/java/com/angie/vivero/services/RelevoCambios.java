@@ -0,0 +1,213 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.config.ContextoShard;
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.models.CambioModel;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.repositories.CambioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relevo de la bandeja de cambios: numera los eventos confirmados y los publica por lotes en
+ * el DestinoCambios configurado.
+ *
+ * Las posiciones no se asignan al escribir el evento sino aquí, con el contador de la tabla
+ * secuencias bloqueado: una transacción de escritura lenta que confirma tarde recibe una
+ * posición posterior a las ya entregadas, así que un consumidor que avanza por posición
+ * (GET /api/cambios?desde=...) nunca se salta un evento. La publicación es al menos una vez:
+ * un lote se marca publicado después de que el destino lo acepta, y si falla se reintenta.
+ *
+ * Dentro de un lote, los eventos de una misma entidad se numeran en orden de versión: el orden
+ * de los IDs depende de los bloques que reservó cada instancia, no del orden de confirmación.
+ *
+ * Con shards, cada escritura deja su evento en el shard de su productor; el relevo los mueve
+ * primero al shard 0, que es el único que numera y sirve el flujo.
+ */
+@Service
+public class RelevoCambios {
+
+    private static final Logger log = LoggerFactory.getLogger(RelevoCambios.class);
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    @Autowired(required = false)
+    private DestinoCambios destino;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vivero.cambios.tamano-lote:500}")
+    private int tamanoLote;
+
+    /**
+     * Antigüedad desde su publicación a partir de la cual se eliminan los eventos; 0 los conserva.
+     */
+    @Value("${vivero.cambios.retencion:7d}")
+    private Duration retencion;
+
+    /**
+     * Ciclo programado del relevo. Un error se registra y el ciclo siguiente retoma lo pendiente.
+     */
+    @Scheduled(initialDelayString = "${vivero.cambios.intervalo-relevo:1s}",
+            fixedDelayString = "${vivero.cambios.intervalo-relevo:1s}")
+    public void relevar() {
+        try {
+            relevarPendientes();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron relevar los cambios: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reúne, numera y publica todos los eventos pendientes, y elimina los publicados que
+     * superan la retención.
+     *
+     * @return Cantidad de eventos numerados
+     * @throws RuntimeException si el destino rechaza un lote; los eventos numerados siguen pendientes de publicar
+     */
+    public int relevarPendientes() {
+        reunirDeLosShards();
+        int numerados = 0;
+        int lote;
+        do {
+            lote = numerar();
+            numerados += lote;
+        } while (lote == tamanoLote);
+        if (destino != null) {
+            do {
+                lote = publicar();
+            } while (lote == tamanoLote);
+        }
+        if (!retencion.isZero()) {
+            LocalDateTime limite = LocalDateTime.now().minus(retencion);
+            transaccion().executeWithoutResult(estado -> cambioRepository.eliminarPublicadosAntesDe(limite));
+        }
+        return numerados;
+    }
+
+    /**
+     * Mueve los eventos sin numerar de los demás shards al shard 0. Se insertan solo si faltan
+     * y después se borran del origen, así que repetir un movimiento interrumpido no los duplica.
+     */
+    private void reunirDeLosShards() {
+        if (!directorioShards.habilitado()) {
+            return;
+        }
+        JdbcTemplate directorio = directorioShards.jdbc(ContextoShard.DIRECTORIO);
+        for (int shard = 1; shard < directorioShards.cantidadShards(); shard++) {
+            JdbcTemplate origen = directorioShards.jdbc(shard);
+            List<Map<String, Object>> filas;
+            do {
+                filas = origen.queryForList("SELECT * FROM cambios WHERE posicion IS NULL ORDER BY id LIMIT ?", tamanoLote);
+                List<Map<String, Object>> movidas = filas;
+                if (movidas.isEmpty()) {
+                    break;
+                }
+                directorioShards.transaccion(ContextoShard.DIRECTORIO).executeWithoutResult(estado ->
+                        movidas.forEach(fila -> CopiaFilas.insertarSiFalta(directorio, "cambios", fila)));
+                origen.update("DELETE FROM cambios WHERE id IN ("
+                                + String.join(", ", Collections.nCopies(movidas.size(), "?")) + ")",
+                        movidas.stream().map(fila -> fila.get("id")).toArray());
+            } while (filas.size() == tamanoLote);
+        }
+    }
+
+    /**
+     * Asigna posiciones consecutivas a un lote de eventos confirmados. Sin destino quedan
+     * publicados al numerarse: el flujo de GET /api/cambios es su única salida.
+     *
+     * @return Cantidad de eventos numerados
+     */
+    private int numerar() {
+        return transaccion().execute(estado -> {
+            long ultima = cambioRepository.bloquearUltimaPosicion().orElseGet(() -> {
+                cambioRepository.crearContadorPosiciones();
+                return cambioRepository.bloquearUltimaPosicion().orElseThrow();
+            });
+            // Se leen con el contador ya bloqueado: otro relevo no puede numerarlos a la vez
+            List<CambioModel> pendientes = enOrdenDeVersion(cambioRepository.buscarSinNumerar(Limit.of(tamanoLote)));
+            LocalDateTime ahora = LocalDateTime.now();
+            for (CambioModel cambio : pendientes) {
+                cambio.setPosicion(++ultima);
+                if (destino == null) {
+                    cambio.setPublicado(ahora);
+                }
+            }
+            if (!pendientes.isEmpty()) {
+                cambioRepository.guardarUltimaPosicion(ultima);
+            }
+            return pendientes.size();
+        });
+    }
+
+    /**
+     * Ordena por versión los eventos de cada entidad sin mover los de las demás: cada entidad
+     * conserva los lugares que ocupaban sus eventos en el orden por ID. Los eventos sin versión,
+     * anteriores a que se registrara, van primero.
+     */
+    static List<CambioModel> enOrdenDeVersion(List<CambioModel> pendientes) {
+        record Clave(EntidadCambio entidad, Long entidadId) {
+        }
+        Map<Clave, List<CambioModel>> porEntidad = new HashMap<>();
+        for (CambioModel cambio : pendientes) {
+            porEntidad.computeIfAbsent(new Clave(cambio.getEntidad(), cambio.getEntidadId()), c -> new ArrayList<>())
+                    .add(cambio);
+        }
+        Map<Clave, Iterator<CambioModel>> siguientes = new HashMap<>();
+        porEntidad.forEach((clave, cambios) -> {
+            cambios.sort(Comparator.comparing(CambioModel::getVersion, Comparator.nullsFirst(Comparator.naturalOrder())));
+            siguientes.put(clave, cambios.iterator());
+        });
+        List<CambioModel> ordenados = new ArrayList<>(pendientes.size());
+        for (CambioModel cambio : pendientes) {
+            ordenados.add(siguientes.get(new Clave(cambio.getEntidad(), cambio.getEntidadId())).next());
+        }
+        return ordenados;
+    }
+
+    /**
+     * Publica el siguiente lote de eventos numerados y lo marca publicado.
+     *
+     * @return Cantidad de eventos publicados
+     */
+    private int publicar() {
+        List<CambioDTO> lote = transaccion().execute(estado -> cambioRepository.buscarSinPublicar(Limit.of(tamanoLote)));
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        destino.publicar(lote);
+        List<Long> ids = lote.stream().map(CambioDTO::id).toList();
+        LocalDateTime ahora = LocalDateTime.now();
+        transaccion().executeWithoutResult(estado -> cambioRepository.marcarPublicados(ids, ahora));
+        log.debug("Publicados {} cambios hasta la posición {}", lote.size(), lote.get(lote.size() - 1).posicion());
+        return lote.size();
+    }
+
+    // Sin solo lectura: con réplicas las lecturas del relevo tienen que ver lo que acaba de confirmar
+    private TransactionTemplate transaccion() {
+        return new TransactionTemplate(transactionManager);
+    }
+}
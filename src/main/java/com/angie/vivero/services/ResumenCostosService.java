@@ -0,0 +1,291 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ConteoLaboresMes;
+import com.angie.vivero.dto.JerarquiaVivero;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.dto.ResumenCostoDTO;
+import com.angie.vivero.models.AmbitoCosto;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.repositories.LaborArchivadaRepository;
+import com.angie.vivero.repositories.LaborRepository;
+import com.angie.vivero.repositories.ResumenCostoRepository;
+import com.angie.vivero.repositories.ViveroRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene los costos acumulados de las labores (cantidad y suma del valor del producto
+ * de control) por vivero, finca y productor en cada mes.
+ *
+ * Cada alta, cambio o baja de una labor se traduce en diferencias que se suman a los
+ * acumulados dentro de la misma transacción, así que un reporte lee una fila por mes
+ * en lugar de recorrer las labores. Una reconciliación periódica los recalcula desde cero,
+ * con las labores archivadas (ArchivoLabores) incluidas.
+ *
+ * Con shards cada acumulado está en el shard de su productor, junto con sus labores.
+ */
+@Service
+@Transactional
+public class ResumenCostosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenCostosService.class);
+
+    /**
+     * Cambio de una labor que afecta los acumulados: signo +1 para un alta y -1 para una baja.
+     */
+    public record Movimiento(Long viveroId, Long productoControlId, LocalDate fecha, int signo) {
+
+        public static Movimiento alta(LaborModel labor) {
+            return de(labor, 1);
+        }
+
+        public static Movimiento baja(LaborModel labor) {
+            return de(labor, -1);
+        }
+
+        /**
+         * Baja de una labor leída como DTO, activa o archivada, sin cargar la entidad.
+         */
+        public static Movimiento baja(LaborDTO labor) {
+            return new Movimiento(labor.viveroId(), labor.productoControlId(), labor.fecha(), -1);
+        }
+
+        private static Movimiento de(LaborModel labor, int signo) {
+            // Leer el ID de un proxy perezoso no lo inicializa
+            return new Movimiento(
+                    labor.getVivero().getId(),
+                    labor.getProductoControl() != null ? labor.getProductoControl().getId() : null,
+                    labor.getFecha(),
+                    signo);
+        }
+    }
+
+    private record Clave(AmbitoCosto ambito, Long ambitoId, int periodo) {
+    }
+
+    private static final Comparator<Clave> ORDEN_CLAVES = Comparator.comparing(Clave::ambito)
+            .thenComparing(Clave::ambitoId)
+            .thenComparingInt(Clave::periodo);
+
+    private record Diferencia(long cantidad, BigDecimal total) {
+
+        Diferencia sumar(long otraCantidad, BigDecimal otroTotal) {
+            return new Diferencia(cantidad + otraCantidad, total.add(otroTotal));
+        }
+    }
+
+    @Autowired
+    private ResumenCostoRepository resumenCostoRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private LaborArchivadaRepository laborArchivadaRepository;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private DirectorioShards directorioShards;
+
+    /**
+     * Aplica a los acumulados un conjunto de movimientos de labores.
+     *
+     * Los movimientos se agrupan por ámbito y mes antes de escribir, de modo que una
+     * carga masiva hace una sentencia por acumulado afectado y no una por labor.
+     *
+     * @param movimientos Altas y bajas de labores
+     */
+    public void aplicar(Collection<Movimiento> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        Map<Long, JerarquiaVivero> jerarquias = viveroRepository.buscarJerarquias(
+                        movimientos.stream().map(Movimiento::viveroId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(JerarquiaVivero::viveroId, Function.identity()));
+
+        // Orden fijo de las claves: dos transacciones concurrentes bloquean las filas en el mismo orden
+        Map<Clave, Diferencia> diferencias = new TreeMap<>(ORDEN_CLAVES);
+        for (Movimiento movimiento : movimientos) {
+            JerarquiaVivero jerarquia = jerarquias.get(movimiento.viveroId());
+            if (jerarquia == null) {
+                continue;
+            }
+            int periodo = periodo(movimiento.fecha());
+            BigDecimal valor = valorProducto(movimiento.productoControlId())
+                    .multiply(BigDecimal.valueOf(movimiento.signo()));
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.VIVERO, jerarquia.viveroId(), periodo), movimiento.signo(), valor);
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.FINCA, jerarquia.fincaId(), periodo), movimiento.signo(), valor);
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.PRODUCTOR, jerarquia.productorId(), periodo), movimiento.signo(), valor);
+        }
+        escribir(diferencias);
+    }
+
+    /**
+     * Registra en los acumulados el alta de una labor.
+     *
+     * @param labor Labor registrada
+     */
+    public void registrarAlta(LaborModel labor) {
+        aplicar(List.of(Movimiento.alta(labor)));
+    }
+
+    /**
+     * Registra en los acumulados la baja de una labor.
+     *
+     * @param labor Labor eliminada
+     */
+    public void registrarBaja(LaborModel labor) {
+        aplicar(List.of(Movimiento.baja(labor)));
+    }
+
+    /**
+     * Registra en los acumulados el cambio de fecha de una labor.
+     * No hace nada si la labor sigue en el mismo mes.
+     *
+     * @param labor Labor con la fecha nueva
+     * @param fechaAnterior Fecha que tenía antes del cambio
+     */
+    public void registrarCambioFecha(LaborModel labor, LocalDate fechaAnterior) {
+        if (periodo(fechaAnterior) == periodo(labor.getFecha())) {
+            return;
+        }
+        Movimiento alta = Movimiento.alta(labor);
+        aplicar(List.of(
+                new Movimiento(alta.viveroId(), alta.productoControlId(), fechaAnterior, -1),
+                alta));
+    }
+
+    /**
+     * Ajusta los acumulados cuando cambia el valor de un producto de control,
+     * sumando la diferencia por cada labor que lo usó. Corre en la misma transacción
+     * que la actualización del producto; con shards, los de los demás shards se ajustan
+     * al confirmarse, cada uno en su propia transacción.
+     *
+     * @param evento Producto antes y después del cambio
+     */
+    @EventListener
+    public void registrarCambioValor(ProductoControlActualizadoEvent evento) {
+        if (!evento.cambioValor()) {
+            return;
+        }
+        aplicarCambioValor(evento);
+        directorioShards.enLosDemasShardsAlConfirmar(() -> aplicarCambioValor(evento));
+    }
+
+    private void aplicarCambioValor(ProductoControlActualizadoEvent evento) {
+        BigDecimal diferenciaUnitaria = evento.diferenciaValor();
+        Map<Clave, Diferencia> diferencias = new TreeMap<>(ORDEN_CLAVES);
+        List<ConteoLaboresMes> conteos = new ArrayList<>(laborRepository.contarPorViveroYMesConProducto(evento.productoControlId()));
+        if (particionesLabores.incluyeArchivo(null)) {
+            // Las labores archivadas siguen en los acumulados de sus meses
+            conteos.addAll(laborArchivadaRepository.contarPorViveroYMesConProducto(evento.productoControlId()));
+        }
+        for (ConteoLaboresMes conteo : conteos) {
+            int periodo = conteo.anio() * 100 + conteo.mes();
+            BigDecimal total = diferenciaUnitaria.multiply(BigDecimal.valueOf(conteo.cantidad()));
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.VIVERO, conteo.viveroId(), periodo), 0, total);
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.FINCA, conteo.fincaId(), periodo), 0, total);
+            acumularDiferencia(diferencias, new Clave(AmbitoCosto.PRODUCTOR, conteo.productorId(), periodo), 0, total);
+        }
+        escribir(diferencias);
+    }
+
+    /**
+     * Obtiene los costos mensuales de un vivero, finca o productor en un rango de meses.
+     *
+     * @param ambito Nivel de agregación
+     * @param ambitoId ID del vivero, finca o productor
+     * @param desde Primer mes del rango, o null para no limitarlo
+     * @param hasta Último mes del rango, o null para no limitarlo
+     * @return Un elemento por mes con labores, en orden cronológico
+     */
+    @Transactional(readOnly = true)
+    public List<ResumenCostoDTO> obtenerCostos(AmbitoCosto ambito, Long ambitoId, YearMonth desde, YearMonth hasta) {
+        switch (ambito) {
+            case VIVERO -> directorioShards.usarShardDeVivero(ambitoId);
+            case FINCA -> directorioShards.usarShardDeFinca(ambitoId);
+            case PRODUCTOR -> directorioShards.usarShardDeProductor(ambitoId);
+        }
+        int periodoDesde = desde != null ? periodo(desde.atDay(1)) : 0;
+        int periodoHasta = hasta != null ? periodo(hasta.atDay(1)) : Integer.MAX_VALUE;
+        return resumenCostoRepository.buscarPorAmbito(ambito, ambitoId, periodoDesde, periodoHasta);
+    }
+
+    /**
+     * Recalcula todos los acumulados desde las labores, corrigiendo cualquier diferencia
+     * acumulada por escrituras que no pasaron por los servicios. Con shards recalcula cada
+     * shard en su propia transacción.
+     *
+     * @return Cantidad de acumulados resultantes
+     */
+    @Scheduled(cron = "${vivero.reportes.costos.reconciliacion-cron:0 30 3 * * *}")
+    public int reconciliar() {
+        int[] recalculados = {0};
+        directorioShards.enCadaShard(() -> {
+            resumenCostoRepository.vaciar();
+            recalculados[0] += resumenCostoRepository.recalcularPorVivero()
+                    + resumenCostoRepository.recalcularPorFinca()
+                    + resumenCostoRepository.recalcularPorProductor();
+        });
+        int acumulados = recalculados[0];
+        log.info("Costos acumulados reconciliados: {} filas", acumulados);
+        return acumulados;
+    }
+
+    private void escribir(Map<Clave, Diferencia> diferencias) {
+        diferencias.forEach((clave, diferencia) -> {
+            if (diferencia.cantidad() != 0 || diferencia.total().signum() != 0) {
+                resumenCostoRepository.acumular(clave.ambito().name(), clave.ambitoId(), clave.periodo(),
+                        diferencia.cantidad(), diferencia.total());
+            }
+        });
+    }
+
+    private static void acumularDiferencia(Map<Clave, Diferencia> diferencias, Clave clave,
+                                           long cantidad, BigDecimal total) {
+        diferencias.merge(clave, new Diferencia(cantidad, total),
+                (actual, nueva) -> actual.sumar(nueva.cantidad(), nueva.total()));
+    }
+
+    private BigDecimal valorProducto(Long productoControlId) {
+        if (productoControlId == null) {
+            return BigDecimal.ZERO;
+        }
+        return productoControlService.obtenerProductoPorId(productoControlId)
+                .map(ProductoControlDTO::valor)
+                .filter(Objects::nonNull)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private static int periodo(LocalDate fecha) {
+        return fecha.getYear() * 100 + fecha.getMonthValue();
+    }
+}
@@ -0,0 +1,146 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.PaginaCambiosDTO;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.OperacionCambio;
+import com.angie.vivero.repositories.CambioRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantiene los índices en memoria (carencias, agenda de aplicaciones y búsqueda) al día con
+ * las escrituras de las demás instancias, siguiendo el flujo de cambios.
+ *
+ * Cada índice se actualiza con los LaborCambiadaEvent de su propia instancia, que no llegan a
+ * las demás. Este seguidor lee el flujo desde la posición en que estaba al arrancar, antes de
+ * que los índices se construyan, y por cada evento de labor vuelve a leer de la base lo que
+ * ese evento toca: los viveros y pares vivero-producto afectados y la labor misma para la
+ * búsqueda. Aplicar así también los eventos de la propia instancia no cambia nada, y como cada
+ * escritura produce un evento que se aplica después de confirmada, una lectura que se cruce
+ * con otra escritura se corrige con el evento siguiente.
+ *
+ * La eliminación de un productor deja un solo evento, sin sus labores, y una retención que ya
+ * descartó eventos pendientes impide saber qué cambió: en los dos casos se reconstruyen los
+ * tres índices. Una escritura de otra instancia llega a los índices con un retraso de hasta
+ * vivero.cambios.intervalo-relevo (su numeración) más vivero.indices.intervalo-cambios.
+ */
+@Service
+public class SincronizacionIndices {
+
+    private static final Logger log = LoggerFactory.getLogger(SincronizacionIndices.class);
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vivero.cambios.tamano-lote:500}")
+    private int tamanoLote;
+
+    /**
+     * Última posición del flujo ya aplicada; null hasta que termina el arranque.
+     */
+    private volatile Long posicion;
+
+    /**
+     * Toma la posición actual del flujo antes de que los índices se construyan, para que los
+     * eventos que se numeren durante la construcción se apliquen después.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void iniciar() {
+        posicion = cambioRepository.buscarUltimaPosicion().orElse(0L);
+    }
+
+    /**
+     * Ciclo programado. Un error se registra y el ciclo siguiente retoma desde la misma posición.
+     */
+    @Scheduled(initialDelayString = "${vivero.indices.intervalo-cambios:2s}",
+            fixedDelayString = "${vivero.indices.intervalo-cambios:2s}")
+    public void seguir() {
+        if (posicion == null) {
+            return;
+        }
+        try {
+            seguirPendientes();
+        } catch (CambiosDescartadosException e) {
+            log.warn("{}; se reconstruyen los índices en memoria", e.getMessage());
+            reconstruirIndices();
+            posicion = e.getPosicionRetenida();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron aplicar los cambios a los índices en memoria: {}", e.getMessage());
+        }
+    }
+
+    private void seguirPendientes() {
+        PaginaCambiosDTO pagina;
+        do {
+            pagina = cambiosService.obtenerCambios(posicion, tamanoLote);
+            aplicar(pagina.cambios());
+            posicion = pagina.cursor();
+        } while (pagina.hayMas());
+    }
+
+    private void aplicar(List<CambioDTO> cambios) {
+        List<LaborDTO> labores = new ArrayList<>();
+        for (CambioDTO cambio : cambios) {
+            if (cambio.entidad() == EntidadCambio.PRODUCTOR && cambio.operacion() == OperacionCambio.ELIMINACION) {
+                reconstruirIndices();
+                return;
+            }
+            if (cambio.entidad() == EntidadCambio.LABOR) {
+                labores.add(leerLabor(cambio));
+            }
+        }
+        if (labores.isEmpty()) {
+            return;
+        }
+        // Fuera de REGISTRO los dos índices vuelven a leer de la base lo que el evento toca
+        LaborCambiadaEvent evento = new LaborCambiadaEvent(LaborCambiadaEvent.TipoCambio.ACTUALIZACION, labores);
+        indiceCarenciaService.alCambiarLabores(evento);
+        agendaAplicacionesService.alCambiarLabores(evento);
+        busquedaLaboresService.resincronizar(labores.stream().map(LaborDTO::id).toList());
+    }
+
+    private LaborDTO leerLabor(CambioDTO cambio) {
+        try {
+            return objectMapper.readValue(cambio.datos(), LaborDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer el cambio en la posición " + cambio.posicion(), e);
+        }
+    }
+
+    private void reconstruirIndices() {
+        indiceCarenciaService.reconstruir();
+        agendaAplicacionesService.reconstruir();
+        busquedaLaboresService.reconstruir();
+    }
+}
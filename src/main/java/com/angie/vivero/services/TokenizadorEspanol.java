@@ -0,0 +1,72 @@
+package com.angie.vivero.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte un texto en español en los términos que usa el índice de búsqueda de labores.
+ *
+ * El texto se pasa a minúsculas y se le quitan las tildes (la ñ queda como n), se parte en
+ * letras y dígitos, se descartan las palabras vacías y cada palabra se reduce a una raíz
+ * liviana: sin plural y sin la vocal final de género, así "Fumigaciones", "fumigación" y
+ * "fumigacion" dan el mismo término.
+ */
+final class TokenizadorEspanol {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Ya sin tildes, porque se comparan después de normalizar
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "ante", "bajo", "con", "contra", "de", "del", "desde", "durante", "e", "el",
+            "en", "entre", "es", "esa", "ese", "esta", "este", "hacia", "hasta", "la", "las", "le",
+            "les", "lo", "los", "mas", "mediante", "ni", "o", "para", "por", "que", "se", "segun",
+            "sin", "sobre", "su", "sus", "tras", "u", "un", "una", "unas", "unos", "y", "ya");
+
+    private TokenizadorEspanol() {
+    }
+
+    /**
+     * Obtiene los términos de un texto, en el orden en que aparecen y con repeticiones.
+     *
+     * @param texto Texto libre; null se trata como vacío
+     * @return Términos normalizados
+     */
+    static List<String> tokenizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        String normalizado = MARCAS_DIACRITICAS.matcher(
+                Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        for (String palabra : SEPARADORES.split(normalizado)) {
+            if (!palabra.isEmpty() && !PALABRAS_VACIAS.contains(palabra)) {
+                terminos.add(raiz(palabra));
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Quita el plural y la vocal final de género de una palabra ya normalizada.
+     * Las palabras cortas y las que tienen dígitos no se modifican.
+     */
+    static String raiz(String palabra) {
+        if (palabra.length() <= 3 || palabra.chars().anyMatch(Character::isDigit)) {
+            return palabra;
+        }
+        if (palabra.length() > 4 && palabra.endsWith("ces")) {
+            return palabra.substring(0, palabra.length() - 3) + "z";
+        }
+        String raiz = palabra.endsWith("s") ? palabra.substring(0, palabra.length() - 1) : palabra;
+        if (raiz.length() > 3 && "aeo".indexOf(raiz.charAt(raiz.length() - 1)) >= 0) {
+            raiz = raiz.substring(0, raiz.length() - 1);
+        }
+        return raiz;
+    }
+}
@@ -0,0 +1,27 @@
+-- Bandeja de salida de cambios: LaborService y ProductorService agregan un evento por cada
+-- escritura en su misma transacción. RelevoCambios numera los eventos confirmados con una
+-- posición consecutiva, que es el cursor de GET /api/cambios, y los publica en el destino
+-- configurado. La posición de la última numeración se guarda en secuencias.
+
+CREATE TABLE cambios (
+    id BIGINT NOT NULL,
+    posicion BIGINT,
+    entidad VARCHAR(20) NOT NULL,
+    entidad_id BIGINT NOT NULL,
+    operacion VARCHAR(20) NOT NULL,
+    datos VARCHAR(4000) NOT NULL,
+    registrado DATETIME(6) NOT NULL,
+    publicado DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cambios_posicion UNIQUE (posicion)
+);
+
+CREATE INDEX idx_cambios_publicado ON cambios (publicado, posicion);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'cambios', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'cambios');
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'posiciones_cambios', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'posiciones_cambios');
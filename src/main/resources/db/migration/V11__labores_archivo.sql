@@ -0,0 +1,28 @@
+-- Archivo de labores antiguas y catálogo de particiones mensuales de labores.
+-- ArchivoLabores mueve a labores_archivo las labores anteriores al horizonte configurado
+-- (vivero.labores.archivo.horizonte-meses); particiones_labores registra cada mes como ACTIVA
+-- (sus labores están en labores) o ARCHIVADA (ya se movieron o se están moviendo). LaborService
+-- lee el archivo solo cuando el rango pedido empieza antes del primer mes activo.
+-- El archivo no tiene claves foráneas: es historia de solo lectura que no impide eliminar un vivero.
+
+CREATE TABLE labores_archivo (
+    id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    descripcion VARCHAR(255) NOT NULL,
+    vivero_id BIGINT NOT NULL,
+    producto_control_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
+    archivada DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_labores_archivo_fecha ON labores_archivo (fecha, id);
+CREATE INDEX idx_labores_archivo_vivero_fecha ON labores_archivo (vivero_id, fecha, id);
+CREATE INDEX idx_labores_archivo_producto_fecha ON labores_archivo (producto_control_id, fecha, id);
+
+CREATE TABLE particiones_labores (
+    mes DATE NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    actualizada DATETIME(6) NOT NULL,
+    PRIMARY KEY (mes)
+);
@@ -0,0 +1,12 @@
+-- Números de catastro de las fincas registradas con shards: uk_fincas_numero_catastro solo
+-- los hace únicos dentro de cada base. Como directorio_productores, solo se usa en el shard 0;
+-- las fincas que no figuran están en el shard 0 y allí las protege la restricción de fincas.
+-- documento es el del productor, para liberar sus números al eliminarlo.
+
+CREATE TABLE directorio_catastros (
+    numero_catastro VARCHAR(255) NOT NULL,
+    documento VARCHAR(255) NOT NULL,
+    PRIMARY KEY (numero_catastro)
+);
+
+CREATE INDEX idx_directorio_catastros_documento ON directorio_catastros (documento);
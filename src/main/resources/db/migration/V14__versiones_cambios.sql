@@ -0,0 +1,5 @@
+-- Versión de la entidad (@Version) después de cada escritura registrada en la bandeja de cambios.
+-- RelevoCambios numera por versión los eventos pendientes de una misma entidad, y un consumidor
+-- puede descartar los de una versión que ya aplicó. Los eventos anteriores quedan sin versión.
+
+ALTER TABLE cambios ADD COLUMN version BIGINT;
@@ -0,0 +1,80 @@
+-- Esquema inicial del sistema de gestión de vivero.
+-- Las migraciones usan DDL portable para poder validarse también en H2 (modo MySQL).
+
+CREATE TABLE productores (
+    id BIGINT NOT NULL,
+    documento VARCHAR(255) NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    apellido VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255) NOT NULL,
+    correo VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_productores_documento UNIQUE (documento)
+);
+
+CREATE TABLE fincas (
+    id BIGINT NOT NULL,
+    numero_catastro VARCHAR(255) NOT NULL,
+    municipio VARCHAR(255) NOT NULL,
+    productor_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_fincas_numero_catastro UNIQUE (numero_catastro),
+    CONSTRAINT fk_fincas_productor FOREIGN KEY (productor_id) REFERENCES productores (id)
+);
+
+CREATE TABLE viveros (
+    id BIGINT NOT NULL,
+    codigo VARCHAR(255) NOT NULL,
+    tipo_cultivo VARCHAR(255) NOT NULL,
+    finca_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_viveros_finca FOREIGN KEY (finca_id) REFERENCES fincas (id)
+);
+
+CREATE TABLE productos_control (
+    id BIGINT NOT NULL,
+    registroica VARCHAR(255) NOT NULL,
+    nombre_producto VARCHAR(255) NOT NULL,
+    frecuencia_aplicacion INTEGER NOT NULL,
+    valor DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE productos_control_hongo (
+    id BIGINT NOT NULL,
+    periodo_carencia INTEGER NOT NULL,
+    nombre_hongo VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_productos_control_hongo FOREIGN KEY (id) REFERENCES productos_control (id)
+);
+
+CREATE TABLE productos_control_plaga (
+    id BIGINT NOT NULL,
+    periodo_carencia INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_productos_control_plaga FOREIGN KEY (id) REFERENCES productos_control (id)
+);
+
+CREATE TABLE productos_control_fertilizante (
+    id BIGINT NOT NULL,
+    fecha_ultima_aplicacion DATE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_productos_control_fertilizante FOREIGN KEY (id) REFERENCES productos_control (id)
+);
+
+CREATE TABLE labores (
+    id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    descripcion VARCHAR(255) NOT NULL,
+    vivero_id BIGINT NOT NULL,
+    producto_control_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_labores_vivero FOREIGN KEY (vivero_id) REFERENCES viveros (id),
+    CONSTRAINT fk_labores_producto_control FOREIGN KEY (producto_control_id) REFERENCES productos_control (id)
+);
+
+CREATE TABLE secuencias (
+    entidad VARCHAR(255) NOT NULL,
+    ultimo_valor BIGINT,
+    PRIMARY KEY (entidad)
+);
@@ -0,0 +1,40 @@
+-- Alinea la tabla de secuencias con los IDs ya existentes.
+-- En una base creada antes de Flyway (ddl-auto=update, claves AUTO_INCREMENT) esta
+-- migración corre después del baseline y evita que el generador por bloques
+-- entregue IDs ya usados. Nunca retrocede un valor ya reservado.
+
+CREATE TABLE IF NOT EXISTS secuencias (
+    entidad VARCHAR(255) NOT NULL,
+    ultimo_valor BIGINT,
+    PRIMARY KEY (entidad)
+);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'productores', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'productores');
+UPDATE secuencias SET ultimo_valor = (SELECT COALESCE(MAX(id), 0) FROM productores)
+WHERE entidad = 'productores' AND COALESCE(ultimo_valor, 0) < (SELECT COALESCE(MAX(id), 0) FROM productores);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'fincas', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'fincas');
+UPDATE secuencias SET ultimo_valor = (SELECT COALESCE(MAX(id), 0) FROM fincas)
+WHERE entidad = 'fincas' AND COALESCE(ultimo_valor, 0) < (SELECT COALESCE(MAX(id), 0) FROM fincas);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'viveros', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'viveros');
+UPDATE secuencias SET ultimo_valor = (SELECT COALESCE(MAX(id), 0) FROM viveros)
+WHERE entidad = 'viveros' AND COALESCE(ultimo_valor, 0) < (SELECT COALESCE(MAX(id), 0) FROM viveros);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'productos_control', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'productos_control');
+UPDATE secuencias SET ultimo_valor = (SELECT COALESCE(MAX(id), 0) FROM productos_control)
+WHERE entidad = 'productos_control' AND COALESCE(ultimo_valor, 0) < (SELECT COALESCE(MAX(id), 0) FROM productos_control);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'labores', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'labores');
+UPDATE secuencias SET ultimo_valor = (SELECT COALESCE(MAX(id), 0) FROM labores)
+WHERE entidad = 'labores' AND COALESCE(ultimo_valor, 0) < (SELECT COALESCE(MAX(id), 0) FROM labores);
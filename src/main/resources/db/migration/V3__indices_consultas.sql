@@ -0,0 +1,22 @@
+-- Índices derivados de las consultas de los repositorios.
+-- Los listados de labores se paginan por (fecha, id), así que cada índice de labores
+-- termina en esas columnas para que la búsqueda por cursor sea un recorrido de rango
+-- ya ordenado, sin ordenamiento en memoria.
+
+-- LaborRepository.findByViveroId / buscarPaginaPorViveroDesde y conteos por vivero.
+-- Índice de cobertura: incluye todas las columnas de LaborDTO, por lo que la página
+-- de un vivero se resuelve sin leer la tabla.
+CREATE INDEX idx_labores_vivero_fecha ON labores (vivero_id, fecha, id, producto_control_id, descripcion);
+
+-- LaborRepository.findByProductoControlId / buscarPaginaPorProductoDesde
+CREATE INDEX idx_labores_producto_fecha ON labores (producto_control_id, fecha, id);
+
+-- LaborRepository.findByFechaBetween / buscarPaginaPorRangoDesde / buscarPaginaDesde
+CREATE INDEX idx_labores_fecha ON labores (fecha, id);
+
+-- ViveroRepository.findByTipoCultivo y findByFincaId
+CREATE INDEX idx_viveros_tipo_cultivo ON viveros (tipo_cultivo);
+CREATE INDEX idx_viveros_finca ON viveros (finca_id);
+
+-- FincaRepository.findByProductorId
+CREATE INDEX idx_fincas_productor ON fincas (productor_id);
@@ -0,0 +1,30 @@
+-- Modelo de lectura del catálogo de productos de control: una fila por producto
+-- con el subtipo como discriminador, para leer el catálogo sin unir las tablas JOINED.
+-- Se mantiene desde ProductoControlService cuando vivero.catalogo.modelo-lectura.habilitado=true
+-- y se reconstruye al arrancar, así que esta carga inicial solo adelanta trabajo.
+
+CREATE TABLE productos_control_lectura (
+    id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    registroica VARCHAR(255) NOT NULL,
+    nombre_producto VARCHAR(255) NOT NULL,
+    frecuencia_aplicacion INTEGER NOT NULL,
+    valor DECIMAL(38,2) NOT NULL,
+    periodo_carencia INTEGER,
+    nombre_hongo VARCHAR(255),
+    fecha_ultima_aplicacion DATE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_productos_control_lectura_registro ON productos_control_lectura (registroica);
+
+INSERT INTO productos_control_lectura (id, tipo, registroica, nombre_producto, frecuencia_aplicacion, valor,
+                                       periodo_carencia, nombre_hongo, fecha_ultima_aplicacion)
+SELECT p.id,
+       CASE WHEN h.id IS NOT NULL THEN 'HONGO' WHEN pl.id IS NOT NULL THEN 'PLAGA' ELSE 'FERTILIZANTE' END,
+       p.registroica, p.nombre_producto, p.frecuencia_aplicacion, p.valor,
+       COALESCE(h.periodo_carencia, pl.periodo_carencia), h.nombre_hongo, f.fecha_ultima_aplicacion
+FROM productos_control p
+LEFT JOIN productos_control_hongo h ON h.id = p.id
+LEFT JOIN productos_control_plaga pl ON pl.id = p.id
+LEFT JOIN productos_control_fertilizante f ON f.id = p.id;
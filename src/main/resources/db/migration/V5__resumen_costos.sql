@@ -0,0 +1,33 @@
+-- Costos acumulados de las labores por vivero, finca y productor en cada mes (periodo AAAAMM).
+-- La clave primaria sirve también para el reporte: ámbito e ID fijos y rango de periodos.
+-- ResumenCostosService las mantiene con sumas atómicas y las reconcilia periódicamente.
+
+CREATE TABLE resumen_costos (
+    ambito VARCHAR(20) NOT NULL,
+    ambito_id BIGINT NOT NULL,
+    periodo INTEGER NOT NULL,
+    cantidad_labores BIGINT NOT NULL,
+    total_valor DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (ambito, ambito_id, periodo)
+);
+
+INSERT INTO resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor)
+SELECT 'VIVERO', l.vivero_id, YEAR(l.fecha) * 100 + MONTH(l.fecha), COUNT(*), COALESCE(SUM(p.valor), 0)
+FROM labores l
+LEFT JOIN productos_control p ON p.id = l.producto_control_id
+GROUP BY l.vivero_id, YEAR(l.fecha) * 100 + MONTH(l.fecha);
+
+INSERT INTO resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor)
+SELECT 'FINCA', v.finca_id, YEAR(l.fecha) * 100 + MONTH(l.fecha), COUNT(*), COALESCE(SUM(p.valor), 0)
+FROM labores l
+JOIN viveros v ON v.id = l.vivero_id
+LEFT JOIN productos_control p ON p.id = l.producto_control_id
+GROUP BY v.finca_id, YEAR(l.fecha) * 100 + MONTH(l.fecha);
+
+INSERT INTO resumen_costos (ambito, ambito_id, periodo, cantidad_labores, total_valor)
+SELECT 'PRODUCTOR', f.productor_id, YEAR(l.fecha) * 100 + MONTH(l.fecha), COUNT(*), COALESCE(SUM(p.valor), 0)
+FROM labores l
+JOIN viveros v ON v.id = l.vivero_id
+JOIN fincas f ON f.id = v.finca_id
+LEFT JOIN productos_control p ON p.id = l.producto_control_id
+GROUP BY f.productor_id, YEAR(l.fecha) * 100 + MONTH(l.fecha);
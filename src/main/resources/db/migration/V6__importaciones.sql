@@ -0,0 +1,31 @@
+-- Importaciones masivas de productores con sus fincas: avance por importación
+-- (última línea confirmada y conteos) y líneas rechazadas con su motivo.
+-- ImportacionProductoresService confirma cada bloque del archivo junto con su avance,
+-- así que una importación interrumpida se retoma desde lineas_procesadas.
+
+CREATE TABLE importaciones (
+    id VARCHAR(36) NOT NULL,
+    formato VARCHAR(10) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    lineas_procesadas BIGINT NOT NULL,
+    registrados BIGINT NOT NULL,
+    rechazados BIGINT NOT NULL,
+    creada DATETIME(6) NOT NULL,
+    actualizada DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE importacion_errores (
+    id BIGINT NOT NULL,
+    importacion_id VARCHAR(36) NOT NULL,
+    linea BIGINT NOT NULL,
+    mensaje VARCHAR(500) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_importacion_errores_importacion FOREIGN KEY (importacion_id) REFERENCES importaciones (id)
+);
+
+CREATE INDEX idx_importacion_errores_importacion ON importacion_errores (importacion_id, linea);
+
+INSERT INTO secuencias (entidad, ultimo_valor)
+SELECT 'importacion_errores', 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM secuencias WHERE entidad = 'importacion_errores');
@@ -0,0 +1,13 @@
+-- Columna de versión (bloqueo optimista de Hibernate) en productores, fincas, viveros y labores.
+-- Las lecturas la usan para sus ETag: un sello por entidad, o cantidad, suma de IDs y suma de
+-- versiones por colección, calculado con una consulta de agregados antes de leer los datos.
+-- El valor por defecto cubre los INSERT que no la nombran (generador de datos, data.sql).
+
+ALTER TABLE productores ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE fincas ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE viveros ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE labores ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- LaborRepository.selloPorVivero: conteo, suma de IDs y suma de versiones de un vivero
+-- recorriendo solo el índice.
+CREATE INDEX idx_labores_vivero_version ON labores (vivero_id, version);
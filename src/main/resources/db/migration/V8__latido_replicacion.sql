@@ -0,0 +1,8 @@
+-- Latido de replicación: EnrutadorReplicas escribe la hora en el primario y la lee en cada
+-- réplica para medir su retraso. La fila se crea con el primer latido.
+
+CREATE TABLE latido_replicacion (
+    id INT NOT NULL,
+    instante DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+-- Directorio de shards: en qué base está cada productor con sus fincas, viveros, labores y
+-- costos acumulados. Solo se usa en el shard 0 (vivero.shards.habilitado=true); un productor
+-- que no figura está en el shard 0. El documento es la clave para que sea único entre shards;
+-- productor_id queda NULL mientras el registro del productor no se confirma.
+
+CREATE TABLE directorio_productores (
+    documento VARCHAR(255) NOT NULL,
+    productor_id BIGINT,
+    shard INTEGER NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    PRIMARY KEY (documento),
+    CONSTRAINT uk_directorio_productores_productor UNIQUE (productor_id)
+);
@@ -0,0 +1,65 @@
+package com.angie.vivero;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aplica las migraciones de Flyway sobre una base vacía (H2 en modo MySQL) y
+ * deja que Hibernate valide que el esquema resultante coincide con las entidades.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migraciones;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MigracionesEsquemaTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMigraciones_AplicadasSinPendientes() {
+        assertTrue(flyway.info().applied().length > 0);
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void testMigraciones_CreanLosIndicesDeConsulta() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "select lower(index_name) from information_schema.indexes where lower(table_schema) = 'public'",
+                String.class);
+
+        assertTrue(indices.containsAll(List.of(
+                "idx_labores_vivero_fecha",
+                "idx_labores_producto_fecha",
+                "idx_labores_fecha",
+                "idx_labores_vivero_version",
+                "idx_viveros_tipo_cultivo",
+                "idx_viveros_finca",
+                "idx_fincas_productor",
+                "idx_productos_control_lectura_registro",
+                "idx_importacion_errores_importacion",
+                "idx_cambios_publicado",
+                "idx_labores_archivo_fecha",
+                "idx_labores_archivo_vivero_fecha",
+                "idx_labores_archivo_producto_fecha")), "Índices encontrados: " + indices);
+    }
+
+    @Test
+    void testMigraciones_InicializanLasSecuencias() {
+        List<String> entidades = jdbcTemplate.queryForList("select entidad from secuencias", String.class);
+
+        assertTrue(entidades.containsAll(List.of("productores", "fincas", "viveros", "productos_control", "labores",
+                "cambios", "posiciones_cambios")));
+    }
+}
@@ -0,0 +1,163 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.services.ProductorService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del enrutamiento a réplicas con dos bases H2: el primario y una réplica que se
+ * pone al día copiando el primario con SCRIPT / RUNSCRIPT. El latido no se programa
+ * (intervalo de una hora); cada prueba lo dispara con verificar().
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicas-primario;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "vivero.replicas.habilitado=true",
+        "vivero.replicas.urls=" + EnrutadorReplicasTest.URL_REPLICA,
+        "vivero.replicas.retraso-maximo=30s",
+        "vivero.replicas.intervalo-latido=1h"
+})
+class EnrutadorReplicasTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replicas-copia;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String COPIA = "target/replica-prueba.sql";
+
+    @Autowired
+    private EnrutadorReplicas enrutadorReplicas;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        productorRepository.deleteAll();
+        enrutadorReplicas.verificar();
+    }
+
+    private JdbcTemplate jdbcReplica() {
+        return new JdbcTemplate(new SingleConnectionDataSource(URL_REPLICA, "sa", "", true));
+    }
+
+    /**
+     * Pone la réplica al día: escribe un latido en el primario y copia la base completa.
+     */
+    private void replicar() {
+        enrutadorReplicas.verificar();
+        new JdbcTemplate(enrutadorReplicas.primario()).execute("SCRIPT TO '" + COPIA + "'");
+        JdbcTemplate replica = jdbcReplica();
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM '" + COPIA + "'");
+        enrutadorReplicas.verificar();
+    }
+
+    private ProductorModel registrar(String documento) {
+        return productorService.registrarProductor(
+                new ProductorModel(documento, "Libia", "Zuluaga", "3007070707", "libia@email.com"));
+    }
+
+    /**
+     * Con la réplica al día, las lecturas de solo lectura van a ella: no ven lo registrado
+     * después de la copia hasta la siguiente, aunque el registro quedó en el primario.
+     */
+    @Test
+    void testLecturaSoloLectura_ConReplicaAlDia_DebeLeerDeLaReplica() {
+        // Arrange
+        replicar();
+        assertEquals(List.of("replica-1"), enrutadorReplicas.replicasDisponibles());
+
+        // Act
+        registrar("7070707070");
+
+        // Assert
+        assertTrue(productorService.buscarPorDocumentoDTO("7070707070").isEmpty());
+        assertTrue(productorService.buscarPorDocumento("7070707070").isEmpty());
+        assertEquals(1, new JdbcTemplate(enrutadorReplicas.primario()).queryForObject(
+                "SELECT COUNT(*) FROM productores WHERE documento = '7070707070'", Integer.class));
+        replicar();
+        assertTrue(productorService.buscarPorDocumentoDTO("7070707070").isPresent());
+    }
+
+    /**
+     * Una réplica con más retraso que el máximo, o que deja de responder, sale del reparto y
+     * las lecturas de solo lectura van al primario.
+     */
+    @Test
+    void testLecturaSoloLectura_ConReplicaAtrasadaOCaida_DebeLeerDelPrimario() {
+        // Arrange
+        replicar();
+        registrar("7171717171");
+        jdbcReplica().update("UPDATE latido_replicacion SET instante = ? WHERE id = 1",
+                LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+
+        // Act
+        enrutadorReplicas.verificar();
+
+        // Assert
+        assertTrue(enrutadorReplicas.replicasDisponibles().isEmpty());
+        assertTrue(productorService.buscarPorDocumentoDTO("7171717171").isPresent());
+
+        // Act
+        replicar();
+        registrar("7272727272");
+        jdbcReplica().execute("DROP ALL OBJECTS");
+        enrutadorReplicas.verificar();
+
+        // Assert
+        assertTrue(enrutadorReplicas.replicasDisponibles().isEmpty());
+        assertTrue(productorService.buscarPorDocumentoDTO("7272727272").isPresent());
+    }
+
+    /**
+     * La sesión de una transacción de solo lectura carga las entidades en modo de solo lectura
+     * (sin copia para el dirty checking) y no hace flush; la de lectura y escritura, sí.
+     */
+    @Test
+    void testSesion_EnTransaccionDeSoloLectura_DebeSerDeSoloLecturaSinFlush() {
+        // Arrange
+        Long id = registrar("7373737373").getId();
+        replicar();
+        TransactionTemplate soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+        TransactionTemplate lecturaEscritura = new TransactionTemplate(transactionManager);
+
+        // Act & Assert
+        soloLectura.executeWithoutResult(estado -> {
+            Session sesion = entityManager.unwrap(Session.class);
+            ProductorModel productor = sesion.get(ProductorModel.class, id);
+            assertTrue(sesion.isDefaultReadOnly());
+            assertTrue(sesion.isReadOnly(productor));
+            assertEquals(FlushMode.MANUAL, sesion.getHibernateFlushMode());
+        });
+        lecturaEscritura.executeWithoutResult(estado -> {
+            Session sesion = entityManager.unwrap(Session.class);
+            ProductorModel productor = sesion.get(ProductorModel.class, id);
+            assertFalse(sesion.isReadOnly(productor));
+            assertEquals(FlushMode.AUTO, sesion.getHibernateFlushMode());
+        });
+    }
+}
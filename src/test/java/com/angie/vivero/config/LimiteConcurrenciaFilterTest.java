@@ -0,0 +1,165 @@
+package com.angie.vivero.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del límite de solicitudes concurrentes.
+ */
+class LimiteConcurrenciaFilterTest {
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    private static MockHttpServletRequest solicitud() {
+        return new MockHttpServletRequest("GET", "/api/labores/vivero/1");
+    }
+
+    /**
+     * Con todos los permisos ocupados, la solicitud espera el máximo y recibe 503 con Retry-After.
+     */
+    @Test
+    void testFiltrar_ConPermisosOcupados_DebeResponder503() throws Exception {
+        // Arrange
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(1, 1, Duration.ofMillis(50), registro);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> ocupada = CompletableFuture.runAsync(() -> {
+            try {
+                filtro.doFilter(solicitud(), new MockHttpServletResponse(), (req, res) -> {
+                    enCurso.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(solicitud(), respuesta, cadena);
+
+        // Assert
+        assertEquals(503, respuesta.getStatus());
+        assertEquals("1", respuesta.getHeader("Retry-After"));
+        assertNull(cadena.getRequest());
+        assertEquals(1.0, registro.get("vivero.solicitudes.rechazadas").tag("grupo", "general").counter().count());
+        assertEquals(1.0, registro.get("vivero.solicitudes.en.curso").tag("grupo", "general").gauge().value());
+
+        liberar.countDown();
+        ocupada.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * El permiso se libera al terminar cada solicitud, aunque la cadena lance una excepción.
+     */
+    @Test
+    void testFiltrar_DespuesDeUnaExcepcion_DebeLiberarElPermiso() throws Exception {
+        // Arrange
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(1, 1, Duration.ofMillis(50), registro);
+        assertThrows(IllegalStateException.class, () -> filtro.doFilter(solicitud(), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("Falla del controlador");
+                }));
+
+        // Act
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(solicitud(), respuesta, cadena);
+
+        // Assert
+        assertEquals(200, respuesta.getStatus());
+        assertNotNull(cadena.getRequest());
+        assertEquals(0.0, registro.get("vivero.solicitudes.en.curso").tag("grupo", "general").gauge().value());
+    }
+
+    /**
+     * Una solicitud asíncrona conserva el permiso hasta completarse, no hasta terminar el despacho inicial.
+     */
+    @Test
+    void testFiltrar_ConSolicitudAsincrona_DebeLiberarElPermisoAlCompletarse() throws Exception {
+        // Arrange
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(1, 1, Duration.ofMillis(50), registro);
+        MockHttpServletRequest exportacion = solicitud();
+        exportacion.setAsyncSupported(true);
+
+        // Act
+        filtro.doFilter(exportacion, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        double durante = registro.get("vivero.solicitudes.en.curso").tag("grupo", "general").gauge().value();
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(solicitud(), rechazada, new MockFilterChain());
+        exportacion.getAsyncContext().complete();
+        MockHttpServletResponse atendida = new MockHttpServletResponse();
+        filtro.doFilter(solicitud(), atendida, new MockFilterChain());
+
+        // Assert
+        assertEquals(1.0, durante);
+        assertEquals(503, rechazada.getStatus());
+        assertEquals(200, atendida.getStatus());
+        assertEquals(0.0, registro.get("vivero.solicitudes.en.curso").tag("grupo", "general").gauge().value());
+    }
+
+    /**
+     * Las exportaciones toman permisos de su propio grupo: una exportación en curso no ocupa
+     * los de las demás solicitudes, y una segunda exportación sí espera.
+     */
+    @Test
+    void testFiltrar_ConExportacionEnCurso_NoDebeOcuparPermisosGenerales() throws Exception {
+        // Arrange
+        LimiteConcurrenciaFilter filtro = new LimiteConcurrenciaFilter(1, 1, Duration.ofMillis(50), registro);
+        MockHttpServletRequest exportacion = new MockHttpServletRequest("GET", "/api/labores/exportar");
+        exportacion.setAsyncSupported(true);
+        filtro.doFilter(exportacion, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // Act
+        MockHttpServletResponse consulta = new MockHttpServletResponse();
+        filtro.doFilter(solicitud(), consulta, new MockFilterChain());
+        MockHttpServletResponse otraExportacion = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/labores/exportar"), otraExportacion,
+                new MockFilterChain());
+        exportacion.getAsyncContext().complete();
+
+        // Assert
+        assertEquals(200, consulta.getStatus());
+        assertEquals(503, otraExportacion.getStatus());
+        assertEquals(1.0, registro.get("vivero.solicitudes.rechazadas").tag("grupo", "exportacion").counter().count());
+        assertEquals(0.0, registro.get("vivero.solicitudes.en.curso").tag("grupo", "exportacion").gauge().value());
+    }
+
+    /**
+     * El filtro se registra solo con hilos virtuales; con hilos de plataforma limita el pool de Tomcat.
+     */
+    @Test
+    void testConfiguracion_SegunHilosVirtuales_DebeRegistrarFiltroSoloConEllos() {
+        // Arrange
+        ApplicationContextRunner contexto = new ApplicationContextRunner()
+                .withInitializer(ctx -> ctx.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(ConcurrenciaConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+        // Act & Assert
+        contexto.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(ctx -> assertFalse(ctx.containsBean("limiteConcurrenciaFilter")));
+        contexto.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(ctx -> assertTrue(ctx.containsBean("limiteConcurrenciaFilter")));
+    }
+}
@@ -0,0 +1,301 @@
+package com.angie.vivero.config;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.PaginaCambiosDTO;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.dto.TrasladoProductorDTO;
+import com.angie.vivero.models.AmbitoCosto;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.services.CambiosService;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductoControlService;
+import com.angie.vivero.services.ProductorService;
+import com.angie.vivero.services.RebalanceoShards;
+import com.angie.vivero.services.RelevoCambios;
+import com.angie.vivero.services.ResumenCostosService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los shards por productor con tres bases H2 en memoria, cada una migrada por Flyway.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shards-0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "vivero.shards.habilitado=true",
+        "vivero.shards.urls=jdbc:h2:mem:shards-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shards-2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "vivero.shards.espera-traslado=0s"
+})
+class ShardsTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private PoolsShards poolsShards;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private RebalanceoShards rebalanceoShards;
+
+    @Autowired
+    private RelevoCambios relevoCambios;
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    private int secuencia;
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (String tabla : List.of("cambios", "labores", "labores_archivo", "resumen_costos", "viveros", "fincas", "productores",
+                    "productos_control_lectura", "productos_control_hongo", "productos_control")) {
+                poolsShards.jdbc(shard).update("DELETE FROM " + tabla);
+            }
+        }
+        poolsShards.jdbc(ContextoShard.DIRECTORIO).update("DELETE FROM directorio_catastros");
+        poolsShards.jdbc(ContextoShard.DIRECTORIO).update("DELETE FROM directorio_productores");
+    }
+
+    /**
+     * Documento cuyo hash ubica al productor en un shard.
+     */
+    private String documentoEnShard(int shard) {
+        String documento;
+        do {
+            documento = "SH-" + (++secuencia);
+        } while (Math.floorMod(documento.hashCode(), SHARDS) != shard);
+        return documento;
+    }
+
+    private ProductorModel registrar(String documento) {
+        ProductorModel productor = new ProductorModel(documento, "Nora", "Henao", "3001231234", "nora@email.com");
+        FincaModel finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-" + documento);
+        finca.setMunicipio("Manizales");
+        finca.addVivero(new ViveroModel("VIV-" + documento, "Café", null));
+        return productorService.registrarProductorConFincas(productor, List.of(finca));
+    }
+
+    private Long viveroDe(ProductorModel productor) {
+        return productor.getFincas().get(0).getViveros().get(0).getId();
+    }
+
+    private long contar(int shard, String tabla, Long productorId) {
+        String condicion = tabla.equals("productores") ? "id = ?"
+                : "vivero_id IN (SELECT v.id FROM viveros v JOIN fincas f ON f.id = v.finca_id WHERE f.productor_id = ?)";
+        return poolsShards.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM " + tabla + " WHERE " + condicion, Long.class, productorId);
+    }
+
+    /**
+     * Prueba: un productor se registra con su subárbol en el shard de su documento y se lee por ID y documento
+     */
+    @Test
+    void testRegistrarProductor_ConShards_DebeUbicarloEnElShardDeSuDocumento() {
+        // Arrange
+        String documento = documentoEnShard(2);
+
+        // Act
+        ProductorModel productor = registrar(documento);
+        laborService.registrarLabor(new LaborModel(LocalDate.of(2024, 3, 1), "Poda de formación", null), viveroDe(productor));
+
+        // Assert
+        assertEquals(1, contar(2, "productores", productor.getId()));
+        assertEquals(1, contar(2, "labores", productor.getId()));
+        assertEquals(0, contar(0, "productores", productor.getId()));
+        assertEquals(0, contar(1, "productores", productor.getId()));
+        assertTrue(productorService.obtenerProductorConFincasDTO(productor.getId()).isPresent());
+        assertTrue(productorService.buscarPorDocumento(documento).isPresent());
+        assertEquals(1, laborService.obtenerLaboresPorVivero(viveroDe(productor)).size());
+    }
+
+    /**
+     * Prueba: un documento ya registrado en cualquier shard se rechaza
+     */
+    @Test
+    void testRegistrarProductor_ConDocumentoRepetido_DebeRechazarlo() {
+        // Arrange
+        String documento = documentoEnShard(1);
+        registrar(documento);
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> registrar(documento));
+        assertTrue(error.getMessage().contains(documento));
+        assertEquals(1, productorService.obtenerTodosLosProductoresDTO().size());
+    }
+
+    /**
+     * Prueba: un número de catastro registrado en un shard se rechaza en otro, hasta que se elimina su productor
+     */
+    @Test
+    void testRegistrarFinca_ConCatastroDeOtroShard_DebeRechazarla() {
+        // Arrange
+        ProductorModel primero = registrar(documentoEnShard(1));
+        String catastro = primero.getFincas().get(0).getNumeroCatastro();
+        ProductorModel segundo = registrar(documentoEnShard(2));
+        ProductorModel nuevo = new ProductorModel(documentoEnShard(2), "Iván", "Mejía", "3004564567", "ivan@email.com");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productorService.registrarProductorConFincas(
+                nuevo, List.of(new FincaModel(catastro, "Chinchiná", null))));
+        assertThrows(IllegalArgumentException.class, () -> productorService.agregarFincaAProductor(
+                segundo.getId(), new FincaModel(catastro, "Chinchiná", null)));
+        productorService.eliminarProductor(primero.getId());
+        assertNotNull(productorService.agregarFincaAProductor(
+                segundo.getId(), new FincaModel(catastro, "Chinchiná", null)).getId());
+        assertEquals(1, productorService.obtenerTodosLosProductoresDTO().size());
+    }
+
+    /**
+     * Prueba: las labores de un rango se reúnen de todos los shards en orden de fecha e ID, también por páginas
+     */
+    @Test
+    void testObtenerLaboresPorRangoFechas_ConShards_DebeReunirlasEnOrden() {
+        // Arrange
+        List<Long> viveros = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            viveros.add(viveroDe(registrar(documentoEnShard(shard))));
+        }
+        for (int dia = 1; dia <= 9; dia++) {
+            laborService.registrarLabor(new LaborModel(LocalDate.of(2024, 5, dia), "Riego " + dia, null),
+                    viveros.get(dia % SHARDS));
+        }
+        laborService.registrarLabor(new LaborModel(LocalDate.of(2024, 6, 1), "Fuera del rango", null), viveros.get(0));
+
+        // Act
+        List<LaborModel> todas = laborService.obtenerLaboresPorRangoFechas(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
+        List<LaborDTO> paginadas = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorRangoFechas(
+                    LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), cursor, 4);
+            paginadas.addAll(pagina.contenido());
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(9, todas.size());
+        assertEquals(9, paginadas.size());
+        assertEquals(paginadas.stream().sorted(Comparator.comparing(LaborDTO::fecha).thenComparing(LaborDTO::id)).toList(),
+                paginadas);
+        Set<Long> viverosConLabores = paginadas.stream().map(LaborDTO::viveroId).collect(Collectors.toSet());
+        assertEquals(Set.copyOf(viveros), viverosConLabores);
+    }
+
+    /**
+     * Prueba: un traslado copia el subárbol al destino, vacía el origen y las lecturas y escrituras siguen
+     */
+    @Test
+    void testTrasladar_ProductorConLabores_DebeMoverloAlShardDestino() {
+        // Arrange
+        ProductoControlDTO producto = productoControlService.registrarProducto(new ProductoControlHongoModel(
+                "ICA-SH-1", "Fungicida", 15, new BigDecimal("25000.00"), 10, "Roya"));
+        ProductorModel productor = registrar(documentoEnShard(1));
+        Long viveroId = viveroDe(productor);
+        LaborModel labor = laborService.registrarLaborConProducto(
+                new LaborModel(LocalDate.of(2024, 7, 1), "Aspersión", null), viveroId, producto.id());
+
+        // Act
+        TrasladoProductorDTO traslado = rebalanceoShards.trasladar(productor.getId(), 2);
+        laborService.registrarLabor(new LaborModel(LocalDate.of(2024, 7, 2), "Deshierbe", null), viveroId);
+
+        // Assert
+        assertEquals(1, traslado.origen());
+        assertEquals(1, traslado.labores());
+        assertEquals(0, contar(1, "productores", productor.getId()));
+        assertEquals(0, contar(1, "labores", productor.getId()));
+        assertEquals(1, contar(2, "productores", productor.getId()));
+        assertEquals(2, contar(2, "labores", productor.getId()));
+        assertTrue(laborService.obtenerLaborDTOPorId(labor.getId()).isPresent());
+        assertEquals(2, resumenCostosService.obtenerCostos(AmbitoCosto.PRODUCTOR, productor.getId(), null, null)
+                .get(0).cantidadLabores());
+        assertThrows(IllegalArgumentException.class, () -> rebalanceoShards.trasladar(productor.getId(), 2));
+    }
+
+    /**
+     * Prueba: un producto usado solo por labores de otro shard no se elimina de ningún shard,
+     * y sin labores se elimina de todos
+     */
+    @Test
+    void testEliminarProducto_ConLaboresEnOtroShard_DebeRechazarloEnTodos() {
+        // Arrange
+        ProductoControlDTO producto = productoControlService.registrarProducto(new ProductoControlHongoModel(
+                "ICA-SH-2", "Fungicida", 15, new BigDecimal("25000.00"), 10, "Roya"));
+        LaborModel labor = laborService.registrarLaborConProducto(new LaborModel(LocalDate.of(2024, 7, 1), "Aspersión", null),
+                viveroDe(registrar(documentoEnShard(2))), producto.id());
+
+        // Act
+        assertThrows(DataIntegrityViolationException.class, () -> productoControlService.eliminarProducto(producto.id()));
+        List<Long> conProducto = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            conProducto.add(poolsShards.jdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM productos_control WHERE id = ?", Long.class, producto.id()));
+        }
+        laborService.eliminarLabor(labor.getId());
+        productoControlService.eliminarProducto(producto.id());
+
+        // Assert
+        assertEquals(List.of(1L, 1L, 1L), conProducto);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(0, poolsShards.jdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM productos_control WHERE id = ?", Long.class, producto.id()));
+        }
+    }
+
+    /**
+     * Prueba: los eventos de cambios de cada shard se reúnen y se numeran en el shard 0
+     */
+    @Test
+    void testRelevarPendientes_ConShards_DebeReunirLosCambiosEnElShard0() {
+        // Arrange
+        ProductorModel enShard0 = registrar(documentoEnShard(0));
+        ProductorModel enShard2 = registrar(documentoEnShard(2));
+
+        // Act
+        int numerados = relevoCambios.relevarPendientes();
+        PaginaCambiosDTO pagina = cambiosService.obtenerCambios(0, 10);
+
+        // Assert
+        assertEquals(4, numerados);
+        assertEquals(0, poolsShards.jdbc(2).queryForObject("SELECT COUNT(*) FROM cambios", Long.class));
+        assertEquals(Set.of(enShard0.getId(), enShard2.getId()), pagina.cambios().stream()
+                .filter(cambio -> cambio.entidad() == EntidadCambio.PRODUCTOR)
+                .map(CambioDTO::entidadId).collect(Collectors.toSet()));
+        assertEquals(pagina.cambios().get(3).posicion(), pagina.cursor());
+        assertEquals(0, relevoCambios.relevarPendientes());
+    }
+}
@@ -0,0 +1,303 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.LaborRepository;
+import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.repositories.ViveroRepository;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductorService;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del control de concurrencia optimista en las actualizaciones de labores y productores.
+ * Sin @Transactional: cada petición confirma su propia transacción, como en producción.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrenciaOptimistaTest {
+
+    private static final int CLIENTES = 6;
+    private static final int RONDAS = 10;
+    private static final LocalDate FECHA = LocalDate.of(2025, 9, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ProductorModel productor;
+    private ViveroModel vivero;
+    private List<Long> laborIds;
+
+    @BeforeEach
+    void setUp() {
+        productor = productorService.registrarProductorConFincas(
+                new ProductorModel("7070707070", "Elena", "Giraldo", "3007070707", "elena@email.com"),
+                List.of(new FincaModel("CAT-OPT-1", "Riosucio", null)));
+        vivero = viveroRepository.save(new ViveroModel("VIV-OPT", "Café", productor.getFincas().get(0)));
+        laborIds = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            laborIds.add(laborService.registrarLabor(new LaborModel(FECHA, "Conteo 0", null), vivero.getId()).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.findByViveroId(vivero.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+        productorRepository.deleteById(productor.getId());
+    }
+
+    private String cuerpoLabor(String descripcion) {
+        return "{\"fecha\":\"" + FECHA + "\",\"descripcion\":\"" + descripcion + "\",\"vivero\":{\"id\":"
+                + vivero.getId() + "}}";
+    }
+
+    private String cuerpoProductor(String nombre) {
+        return "{\"documento\":\"7070707070\",\"nombre\":\"" + nombre + "\",\"apellido\":\"Giraldo\","
+                + "\"telefono\":\"3007070707\",\"correo\":\"elena@email.com\"}";
+    }
+
+    private MvcResult leer(String url, Long id) throws Exception {
+        return mockMvc.perform(get(url, id)).andExpect(status().isOk()).andReturn();
+    }
+
+    private int actualizarLabor(Long id, String ifMatch, String descripcion) throws Exception {
+        return mockMvc.perform(put("/api/labores/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoLabor(descripcion)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    /**
+     * Con el ETag vigente se actualiza y responde el ETag de la nueva versión; repetir la
+     * actualización con el ETag anterior responde 412 con una sola consulta y no la modifica.
+     */
+    @Test
+    void testActualizarLabor_ConIfMatchVencido_DebeResponder412SinModificarla() throws Exception {
+        // Arrange
+        Long laborId = laborIds.get(0);
+        String original = leer("/api/labores/{id}", laborId).getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        MvcResult primera = mockMvc.perform(put("/api/labores/{id}", laborId)
+                        .header(HttpHeaders.IF_MATCH, original)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoLabor("Primera edición")))
+                .andExpect(status().isOk())
+                .andReturn();
+        MedicionSql medicion = RegistroSql.medir(() -> mockMvc.perform(put("/api/labores/{id}", laborId)
+                        .header(HttpHeaders.IF_MATCH, original)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoLabor("Edición sobre la versión vieja")))
+                .andExpect(status().isPreconditionFailed()));
+
+        // Assert
+        String nueva = primera.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(original, nueva);
+        assertEquals(nueva, leer("/api/labores/{id}", laborId).getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals("Primera edición", laborRepository.findById(laborId).orElseThrow().getDescripcion());
+        medicion.verificarPresupuesto(1);
+    }
+
+    /**
+     * Sin If-Match se actualiza como antes; un If-Match que no es un ETag de la API nunca coincide.
+     */
+    @Test
+    void testActualizarLabor_SinIfMatchOConUnoInvalido_DebeActualizarORechazar() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/labores/{id}", laborIds.get(0))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoLabor("Sin precondición")))
+                .andExpect(status().isOk());
+        assertEquals(412, actualizarLabor(laborIds.get(0), "W/\"0-0-0-0\"", "ETag débil"));
+        assertEquals(412, actualizarLabor(laborIds.get(0), "\"otro\"", "ETag ajeno"));
+        assertEquals(200, actualizarLabor(laborIds.get(0), "*", "Cualquier versión"));
+        assertEquals(404, actualizarLabor(999_999_999L, "\"0-0-0-0\"", "Inexistente"));
+    }
+
+    /**
+     * El If-Match de un productor solo compara su propia versión: agregarle una finca no invalida
+     * la edición, pero otra edición de sus datos sí.
+     */
+    @Test
+    void testActualizarProductor_ConIfMatch_SoloDebeChocarConCambiosDelProductor() throws Exception {
+        // Arrange
+        String leido = leer("/api/productores/{id}", productor.getId()).getResponse().getHeader(HttpHeaders.ETAG);
+        productorService.agregarFincaAProductor(productor.getId(), new FincaModel("CAT-OPT-2", "Supía", null));
+
+        // Act
+        mockMvc.perform(put("/api/productores/{id}", productor.getId())
+                        .header(HttpHeaders.IF_MATCH, leido)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoProductor("Elena María")))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(put("/api/productores/{id}", productor.getId())
+                        .header(HttpHeaders.IF_MATCH, leido)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoProductor("Elena Sofía")))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("Elena María", productorRepository.findById(productor.getId()).orElseThrow().getNombre());
+    }
+
+    /**
+     * Sin If-Match, una escritura confirmada entre la lectura y el commit de otra hace fallar a
+     * la segunda (409 en la API) en vez de sobrescribir la primera.
+     */
+    @Test
+    void testActualizarLabor_ConEscrituraConfirmadaAntesDelCommit_DebeFallarSinSobrescribirla() {
+        // Arrange
+        Long laborId = laborIds.get(0);
+
+        // Act
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(
+                estado -> {
+                    laborService.actualizarLabor(laborId, new LaborModel(FECHA, "Edición lenta", null));
+                    CompletableFuture.runAsync(() -> laborService.actualizarLabor(
+                            laborId, new LaborModel(FECHA, "Edición rápida", null))).join();
+                }));
+
+        // Assert
+        assertEquals("Edición rápida", laborRepository.findById(laborId).orElseThrow().getDescripcion());
+    }
+
+    /**
+     * Varios equipos editan a la vez la misma labor: en cada ronda todos leen la misma versión y
+     * luego guardan su incremento del contador con If-Match. Solo uno gana por ronda y los demás
+     * reciben 412, de modo que el contador final es exactamente el número de escrituras aceptadas:
+     * ninguna actualización se pierde. Sin If-Match las CLIENTES escrituras de una ronda se
+     * pisarían entre sí y el contador avanzaría uno por ronda con hasta CLIENTES respuestas 200.
+     */
+    @Test
+    void testEdicionesConcurrentes_DeLaMismaLabor_NoDebenPerderActualizaciones() throws Exception {
+        // Arrange
+        Long laborId = laborIds.get(0);
+        AtomicInteger aceptadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+
+        // Act
+        ejecutarRondas(cliente -> laborId, aceptadas, rechazadas);
+
+        // Assert
+        String descripcion = laborRepository.findById(laborId).orElseThrow().getDescripcion();
+        assertEquals("Conteo " + aceptadas.get(), descripcion, "Se perdieron actualizaciones");
+        assertEquals(RONDAS, aceptadas.get());
+        assertEquals(RONDAS * (CLIENTES - 1), rechazadas.get());
+    }
+
+    /**
+     * Los equipos que editan labores distintas no se bloquean ni chocan: todas sus escrituras se aceptan.
+     */
+    @Test
+    void testEdicionesConcurrentes_DeLaboresDistintas_DebenAceptarseTodas() throws Exception {
+        // Arrange
+        AtomicInteger aceptadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+
+        // Act
+        ejecutarRondas(laborIds::get, aceptadas, rechazadas);
+
+        // Assert
+        assertEquals(CLIENTES * RONDAS, aceptadas.get());
+        assertEquals(0, rechazadas.get());
+        for (Long laborId : laborIds) {
+            assertEquals("Conteo " + RONDAS, laborRepository.findById(laborId).orElseThrow().getDescripcion());
+        }
+    }
+
+    /**
+     * Corre RONDAS rondas con CLIENTES hilos. En cada ronda cada cliente lee su labor, espera a que
+     * todos hayan leído y guarda el contador de la descripción más uno con el ETag que leyó.
+     */
+    private void ejecutarRondas(IntFunction<Long> laborDeCliente,
+                                AtomicInteger aceptadas, AtomicInteger rechazadas) throws Exception {
+        CyclicBarrier todosLeyeron = new CyclicBarrier(CLIENTES);
+        ExecutorService hilos = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            List<Future<?>> clientes = new ArrayList<>();
+            for (int c = 0; c < CLIENTES; c++) {
+                Long laborId = laborDeCliente.apply(c);
+                clientes.add(hilos.submit(() -> {
+                    for (int ronda = 0; ronda < RONDAS; ronda++) {
+                        MvcResult lectura = leer("/api/labores/{id}", laborId);
+                        JsonNode labor = objectMapper.readTree(lectura.getResponse().getContentAsString());
+                        int conteo = Integer.parseInt(labor.get("descripcion").asText().substring("Conteo ".length()));
+                        todosLeyeron.await(30, TimeUnit.SECONDS);
+                        int estado = actualizarLabor(laborId, lectura.getResponse().getHeader(HttpHeaders.ETAG),
+                                "Conteo " + (conteo + 1));
+                        if (estado == 200) {
+                            aceptadas.incrementAndGet();
+                        } else if (estado == 412) {
+                            rechazadas.incrementAndGet();
+                        } else {
+                            fail("Estado inesperado " + estado);
+                        }
+                        todosLeyeron.await(30, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> cliente : clientes) {
+                cliente.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.LaborRepository;
+import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.repositories.ViveroRepository;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductorService;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de las lecturas condicionales con ETag: 304 mientras nada cambie, un ETag nuevo
+ * después de cada escritura. Sin @Transactional, como en PresupuestoSentenciasEndpointsTest.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EtagLecturasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    private ProductorModel productor;
+    private ViveroModel vivero;
+
+    @BeforeEach
+    void setUp() {
+        productor = productorService.registrarProductorConFincas(
+                new ProductorModel("6060606060", "Rosa", "Quintero", "3006060606", "rosa@email.com"),
+                List.of(new FincaModel("CAT-ETAG-1", "Salento", null)));
+        vivero = viveroRepository.save(new ViveroModel("VIV-ETAG", "Café", productor.getFincas().get(0)));
+        for (int i = 1; i <= 2; i++) {
+            laborService.registrarLabor(new LaborModel(LocalDate.of(2025, 10, i), "Riego " + i, null), vivero.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.findByViveroId(vivero.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+        productorRepository.deleteById(productor.getId());
+    }
+
+    private String etag(String url, Object... variables) throws Exception {
+        String etag = mockMvc.perform(get(url, variables))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, "Falta el ETag de " + url);
+        return etag;
+    }
+
+    /**
+     * Con el ETag vigente, cada lectura responde 304 sin cuerpo y con una sola consulta: el sello.
+     */
+    @Test
+    void testLecturas_ConEtagVigente_DebenResponder304ConUnaConsulta() throws Exception {
+        // Arrange
+        Long laborId = laborRepository.findByViveroId(vivero.getId()).get(0).getId();
+        String[][] lecturas = {
+                {"/api/productores", null},
+                {"/api/productores/{id}", productor.getId().toString()},
+                {"/api/labores/{id}", laborId.toString()},
+                {"/api/labores/vivero/{viveroId}", vivero.getId().toString()}
+        };
+
+        for (String[] lectura : lecturas) {
+            Object[] variables = lectura[1] == null ? new Object[0] : new Object[]{lectura[1]};
+            String etag = etag(lectura[0], variables);
+
+            // Act
+            MedicionSql medicion = RegistroSql.medir(() -> mockMvc.perform(
+                            get(lectura[0], variables).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string("")));
+
+            // Assert
+            medicion.verificarPresupuesto(1);
+        }
+    }
+
+    /**
+     * El ETag de un productor cambia al actualizarlo y al agregarle una finca.
+     */
+    @Test
+    void testObtenerProductor_DespuesDeActualizarloOAgregarFinca_DebeCambiarEtag() throws Exception {
+        // Arrange
+        String original = etag("/api/productores/{id}", productor.getId());
+
+        // Act
+        productorService.actualizarProductor(productor.getId(),
+                new ProductorModel("6060606060", "Rosa Elena", "Quintero", "3006060606", "rosa@email.com"));
+        String actualizado = etag("/api/productores/{id}", productor.getId());
+        productorService.agregarFincaAProductor(productor.getId(), new FincaModel("CAT-ETAG-2", "Filandia", null));
+        String conFinca = etag("/api/productores/{id}", productor.getId());
+
+        // Assert
+        assertNotEquals(original, actualizado);
+        assertNotEquals(actualizado, conFinca);
+        mockMvc.perform(get("/api/productores/{id}", productor.getId()).header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * El ETag de las labores de un vivero cambia al registrar, actualizar o eliminar una labor,
+     * incluso si se elimina una y se registra otra entre dos lecturas.
+     */
+    @Test
+    void testLaboresPorVivero_DespuesDeCadaEscritura_DebeCambiarEtag() throws Exception {
+        // Arrange
+        List<LaborModel> labores = laborRepository.findByViveroId(vivero.getId());
+        String inicial = etag("/api/labores/vivero/{viveroId}", vivero.getId());
+
+        // Act
+        laborService.actualizarLabor(labores.get(0).getId(),
+                new LaborModel(LocalDate.of(2025, 10, 5), "Riego corregido", null));
+        String actualizado = etag("/api/labores/vivero/{viveroId}", vivero.getId());
+        laborService.eliminarLabor(labores.get(1).getId());
+        laborService.registrarLabor(new LaborModel(LocalDate.of(2025, 10, 6), "Riego 3", null), vivero.getId());
+        String reemplazado = etag("/api/labores/vivero/{viveroId}", vivero.getId());
+
+        // Assert
+        assertNotEquals(inicial, actualizado);
+        assertNotEquals(actualizado, reemplazado);
+    }
+
+    /**
+     * Una labor o un productor inexistente sigue respondiendo 404.
+     */
+    @Test
+    void testLecturaPorId_ConIdInexistente_DebeResponder404() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/labores/{id}", 999_999_999L)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/productores/{id}", 999_999_999L)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,144 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.repositories.ViveroRepository;
+import com.angie.vivero.services.ProductorService;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de los niveles de expand en la lectura de un productor: cada nivel es una consulta,
+ * sin importar cuántas fincas y viveros tenga.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpansionProductorTest {
+
+    private static final int FINCAS = 50;
+    private static final int VIVEROS_POR_FINCA = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    private ProductorModel productor;
+
+    @BeforeEach
+    void setUp() {
+        List<FincaModel> fincas = new ArrayList<>();
+        for (int f = 0; f < FINCAS; f++) {
+            fincas.add(new FincaModel("CAT-EXP-" + f, "Pijao", null));
+        }
+        productor = productorService.registrarProductorConFincas(
+                new ProductorModel("8080808080", "Jairo", "Montoya", "3008080808", "jairo@email.com"), fincas);
+        List<ViveroModel> viveros = new ArrayList<>();
+        for (FincaModel finca : productor.getFincas()) {
+            for (int v = 0; v < VIVEROS_POR_FINCA; v++) {
+                viveros.add(new ViveroModel("VIV-EXP-" + finca.getId() + "-" + v, "Aguacate", finca));
+            }
+        }
+        viveroRepository.saveAll(viveros);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productorRepository.deleteById(productor.getId());
+    }
+
+    /**
+     * Un productor con 50 fincas y 500 viveros se lee con tres consultas: el sello del ETag,
+     * el productor con sus fincas y los viveros de todas ellas.
+     */
+    @Test
+    void testObtenerProductor_ConViverosExpandidos_DebeLeerseConTresConsultas() throws Exception {
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> mockMvc.perform(get("/api/productores/{id}", productor.getId())
+                        .param("expand", "fincas,fincas.viveros"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fincas.length()").value(FINCAS))
+                .andExpect(jsonPath("$.fincas[0].viveros.length()").value(VIVEROS_POR_FINCA))
+                .andExpect(jsonPath("$.fincas[49].viveros.length()").value(VIVEROS_POR_FINCA))
+                .andExpect(jsonPath("$.fincas[0].viveros[0].tipoCultivo").value("Aguacate")));
+
+        // Assert
+        medicion.verificarPresupuesto(3);
+    }
+
+    /**
+     * Sin expand la respuesta es la de siempre: las fincas, sin el campo viveros.
+     */
+    @Test
+    void testObtenerProductor_SinExpand_NoDebeIncluirViveros() throws Exception {
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> mockMvc.perform(get("/api/productores/{id}", productor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fincas.length()").value(FINCAS))
+                .andExpect(jsonPath("$.fincas[0].viveros").doesNotExist()));
+
+        // Assert
+        medicion.verificarPresupuesto(2);
+    }
+
+    /**
+     * Un nivel que no existe responde 400.
+     */
+    @Test
+    void testObtenerProductor_ConExpandDesconocido_DebeResponder400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/productores/{id}", productor.getId()).param("expand", "fincas.labores"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Con los viveros expandidos, el ETag cambia al registrar un vivero; sin expandirlos, no.
+     */
+    @Test
+    void testObtenerProductor_DespuesDeRegistrarVivero_SoloDebeCambiarEtagExpandido() throws Exception {
+        // Arrange
+        String conViveros = mockMvc.perform(get("/api/productores/{id}", productor.getId())
+                        .param("expand", "fincas.viveros"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String sinViveros = mockMvc.perform(get("/api/productores/{id}", productor.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        viveroRepository.save(new ViveroModel("VIV-EXP-NUEVO", "Aguacate", productor.getFincas().get(0)));
+
+        // Assert
+        mockMvc.perform(get("/api/productores/{id}", productor.getId())
+                        .param("expand", "fincas.viveros")
+                        .header(HttpHeaders.IF_NONE_MATCH, conViveros))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fincas[0].viveros.length()").value(VIVEROS_POR_FINCA + 1));
+        mockMvc.perform(get("/api/productores/{id}", productor.getId()).header(HttpHeaders.IF_NONE_MATCH, sinViveros))
+                .andExpect(status().isNotModified());
+        assertNotEquals(conViveros, sinViveros);
+    }
+}
@@ -0,0 +1,270 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.dto.CambioDTO;
+import com.angie.vivero.models.CambioModel;
+import com.angie.vivero.models.EntidadCambio;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.OperacionCambio;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.CambioRepository;
+import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.repositories.ViveroRepository;
+import com.angie.vivero.services.DestinoCambios;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductorService;
+import com.angie.vivero.services.RelevoCambios;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de la bandeja de cambios: cada escritura deja su evento, RelevoCambios los numera y
+ * los publica en el destino, y GET /api/cambios entrega el mismo flujo por cursor.
+ * Sin @Transactional: los eventos solo existen después de confirmar cada escritura.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlujoCambiosTest {
+
+    /**
+     * Destino que guarda lo publicado y puede simular una caída.
+     */
+    static class DestinoEnMemoria implements DestinoCambios {
+
+        final List<CambioDTO> publicados = new ArrayList<>();
+        boolean caido;
+
+        @Override
+        public void publicar(List<CambioDTO> cambios) {
+            if (caido) {
+                throw new IllegalStateException("Destino no disponible");
+            }
+            publicados.addAll(cambios);
+        }
+    }
+
+    @TestConfiguration
+    static class ConfiguracionDestino {
+
+        @Bean
+        DestinoEnMemoria destinoEnMemoria() {
+            return new DestinoEnMemoria();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private RelevoCambios relevoCambios;
+
+    @Autowired
+    private DestinoEnMemoria destino;
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductorModel productor;
+
+    @BeforeEach
+    void setUp() {
+        // Sin los eventos que dejaron otras pruebas en la misma base; el contador se vuelve a crear desde 0
+        cambioRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM secuencias WHERE entidad = 'posiciones_cambios'");
+        destino.publicados.clear();
+        destino.caido = false;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (productor != null) {
+            productorRepository.findById(productor.getId()).ifPresent(productorRepository::delete);
+        }
+        cambioRepository.deleteAll();
+    }
+
+    private ProductorModel registrarProductor() {
+        return productorService.registrarProductorConFincas(
+                new ProductorModel("7070707070", "Elena", "Arango", "3007070707", "elena@email.com"),
+                List.of(new FincaModel("CAT-CAMBIOS-1", "Jardín", null)));
+    }
+
+    private JsonNode pagina(long desde, int tamano) throws Exception {
+        String cuerpo = mockMvc.perform(get("/api/cambios").param("desde", String.valueOf(desde))
+                        .param("tamano", String.valueOf(tamano)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(cuerpo);
+    }
+
+    /**
+     * Prueba: las escrituras aparecen en el flujo en orden y se recorren por cursor sin repetirse
+     */
+    @Test
+    void testObtenerCambios_DespuesDeEscrituras_DebeEntregarlasEnOrdenPorCursor() throws Exception {
+        // Arrange
+        productor = registrarProductor();
+        ViveroModel vivero = viveroRepository.save(new ViveroModel("VIV-CAMBIOS-1", "Café", productor.getFincas().get(0)));
+        LaborModel labor = laborService.registrarLabor(new LaborModel(LocalDate.of(2025, 9, 1), "Siembra", null), vivero.getId());
+        laborService.actualizarLabor(labor.getId(), new LaborModel(LocalDate.of(2025, 9, 2), "Siembra tardía", null));
+        laborService.eliminarLabor(labor.getId());
+
+        // Act
+        int numerados = relevoCambios.relevarPendientes();
+        JsonNode primera = pagina(0, 3);
+        JsonNode segunda = pagina(primera.get("cursor").asLong(), 3);
+        JsonNode vacia = pagina(segunda.get("cursor").asLong(), 3);
+
+        // Assert
+        assertEquals(5, numerados);
+        assertEquals(3, primera.get("cambios").size());
+        assertTrue(primera.get("hayMas").asBoolean());
+        assertEquals(2, segunda.get("cambios").size());
+        assertFalse(segunda.get("hayMas").asBoolean());
+        assertEquals(0, vacia.get("cambios").size());
+        assertEquals(segunda.get("cursor").asLong(), vacia.get("cursor").asLong());
+
+        List<JsonNode> cambios = new ArrayList<>();
+        primera.get("cambios").forEach(cambios::add);
+        segunda.get("cambios").forEach(cambios::add);
+        assertEquals(List.of("PRODUCTOR:REGISTRO", "FINCA:REGISTRO", "LABOR:REGISTRO", "LABOR:ACTUALIZACION",
+                "LABOR:ELIMINACION"), cambios.stream()
+                .map(cambio -> cambio.get("entidad").asText() + ":" + cambio.get("operacion").asText()).toList());
+        for (int i = 1; i < cambios.size(); i++) {
+            assertEquals(cambios.get(i - 1).get("posicion").asLong() + 1, cambios.get(i).get("posicion").asLong());
+        }
+        assertEquals("7070707070", cambios.get(0).get("datos").get("documento").asText());
+        assertEquals("Siembra tardía", cambios.get(3).get("datos").get("descripcion").asText());
+        assertEquals(List.of(0L, 1L, 2L), cambios.subList(2, 5).stream().map(cambio -> cambio.get("version").asLong()).toList());
+        assertEquals(5, destino.publicados.size());
+    }
+
+    /**
+     * Prueba: si el destino falla, los eventos siguen en el flujo y se publican en el ciclo siguiente
+     */
+    @Test
+    void testRelevarPendientes_ConDestinoCaido_DebeReintentarLaPublicacion() throws Exception {
+        // Arrange
+        productor = registrarProductor();
+        destino.caido = true;
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> relevoCambios.relevarPendientes());
+        JsonNode flujo = pagina(0, 10);
+        destino.caido = false;
+        relevoCambios.relevarPendientes();
+
+        // Assert
+        assertEquals(2, flujo.get("cambios").size());
+        assertEquals(2, destino.publicados.size());
+        assertEquals(flujo.get("cambios").get(0).get("id").asLong(), destino.publicados.get(0).id());
+        assertTrue(cambioRepository.findAll().stream().allMatch(cambio -> cambio.getPublicado() != null));
+    }
+
+    /**
+     * Prueba: una escritura revertida no deja eventos en la bandeja
+     */
+    @Test
+    void testRegistrarProductor_Revertido_NoDebeDejarEventos() {
+        // Arrange
+        productor = registrarProductor();
+
+        // Act
+        assertThrows(IllegalArgumentException.class, this::registrarProductor);
+        assertThrows(IllegalArgumentException.class, () -> laborService.registrarLabor(
+                new LaborModel(LocalDate.of(2025, 9, 1), "Sin vivero", null), 999999L));
+
+        // Assert
+        assertEquals(2, cambioRepository.count());
+    }
+
+    /**
+     * Prueba: los eventos de una entidad se numeran por versión aunque el de la versión mayor tenga un ID menor
+     */
+    @Test
+    void testRelevarPendientes_ConVersionesFueraDeOrdenDeId_DebeNumerarlasPorVersion() throws Exception {
+        // Arrange: IDs crecientes en el orden de guardado, como dos instancias con bloques distintos
+        LocalDateTime ahora = LocalDateTime.now();
+        cambioRepository.save(new CambioModel(EntidadCambio.LABOR, 41L, 1L, OperacionCambio.ACTUALIZACION, "{}", ahora));
+        cambioRepository.save(new CambioModel(EntidadCambio.FINCA, 7L, 0L, OperacionCambio.REGISTRO, "{}", ahora));
+        cambioRepository.save(new CambioModel(EntidadCambio.LABOR, 41L, 0L, OperacionCambio.REGISTRO, "{}", ahora));
+
+        // Act
+        relevoCambios.relevarPendientes();
+        JsonNode flujo = pagina(0, 10);
+
+        // Assert
+        List<String> orden = new ArrayList<>();
+        flujo.get("cambios").forEach(cambio -> orden.add(cambio.get("entidad").asText() + ":" + cambio.get("version").asLong()));
+        assertEquals(List.of("LABOR:0", "FINCA:0", "LABOR:1"), orden);
+    }
+
+    /**
+     * Prueba: un cursor anterior a los eventos que conserva la retención responde 410 con la
+     * posición desde la que seguir, en vez de saltar los eliminados
+     */
+    @Test
+    void testObtenerCambios_ConCursorAnteriorALaRetencion_DebeResponderGone() throws Exception {
+        // Arrange: productor y finca en las posiciones 1 y 2
+        productor = registrarProductor();
+        relevoCambios.relevarPendientes();
+        jdbcTemplate.update("DELETE FROM cambios WHERE posicion = 1");
+
+        // Act
+        String cuerpo = mockMvc.perform(get("/api/cambios").param("desde", "0"))
+                .andExpect(status().isGone())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode siguiente = pagina(1, 10);
+        jdbcTemplate.update("DELETE FROM cambios WHERE publicado IS NOT NULL");
+
+        // Assert
+        assertEquals(1, objectMapper.readTree(cuerpo).get("cursor").asLong());
+        assertEquals(List.of("FINCA"), nombresDeEntidades(siguiente));
+        assertEquals(0, pagina(2, 10).get("cambios").size());
+        mockMvc.perform(get("/api/cambios").param("desde", "1")).andExpect(status().isGone());
+    }
+
+    private static List<String> nombresDeEntidades(JsonNode pagina) {
+        List<String> entidades = new ArrayList<>();
+        pagina.get("cambios").forEach(cambio -> entidades.add(cambio.get("entidad").asText()));
+        return entidades;
+    }
+}
@@ -0,0 +1,68 @@
+package com.angie.vivero.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del endpoint de métricas en formato Prometheus.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricasPrometheusTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String metricas() throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Cada endpoint atendido tiene su histograma de latencia, etiquetado con el patrón de la ruta,
+     * del que Prometheus calcula los percentiles.
+     */
+    @Test
+    void testPrometheus_DespuesDeLlamarEndpoints_DebeExponerHistogramaPorEndpoint() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/productores")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/labores/vivero/{viveroId}", 999_999L));
+
+        // Act
+        String metricas = metricas();
+
+        // Assert
+        assertTrue(metricas.contains("http_server_requests_seconds_bucket{error=\"none\",exception=\"none\","
+                + "method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/productores\",le=\"+Inf\"}"),
+                "Falta el histograma de GET /api/productores");
+        assertTrue(metricas.contains("uri=\"/api/labores/vivero/{viveroId}\""),
+                "Falta la latencia de GET /api/labores/vivero/{viveroId}");
+    }
+
+    /**
+     * Se exponen las estadísticas de Hibernate, el pool de conexiones y la JVM.
+     */
+    @Test
+    void testPrometheus_DebeExponerHibernatePoolYJvm() throws Exception {
+        // Act
+        String metricas = metricas();
+
+        // Assert
+        for (String metrica : new String[]{"hibernate_query_executions_total", "hibernate_entities_loads_total",
+                "hibernate_flushes_total", "hikaricp_connections_active",
+                "hikaricp_connections_acquire_seconds_bucket",
+                "jvm_gc_memory_allocated_bytes_total", "cache_gets_total"}) {
+            assertTrue(metricas.contains(metrica), "Falta la métrica " + metrica);
+        }
+    }
+}
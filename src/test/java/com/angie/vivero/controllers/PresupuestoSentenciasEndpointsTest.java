@@ -0,0 +1,168 @@
+package com.angie.vivero.controllers;
+
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import com.angie.vivero.services.LaborService;
+import com.angie.vivero.services.ProductoControlService;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuesto de sentencias SQL de los endpoints más usados.
+ *
+ * Cada petición pasa además por el filtro de medición, que alimenta el reporte
+ * target/reporte-sentencias-sql.md. Sin @Transactional: cada petición confirma su
+ * propia transacción, como en producción.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PresupuestoSentenciasEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ProductoControlHongoRepository productoControlHongoRepository;
+
+    private ProductorModel productor;
+    private FincaModel finca;
+    private ViveroModel vivero;
+    private ProductoControlHongoModel hongo;
+
+    @BeforeEach
+    void setUp() {
+        productor = productorRepository.save(
+                new ProductorModel("5050505050", "Marta", "Arango", "3005050505", "marta@email.com"));
+
+        finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-SQL");
+        finca.setMunicipio("Jardín");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-SQL");
+        vivero.setTipoCultivo("Café");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+
+        hongo = new ProductoControlHongoModel();
+        hongo.setRegistroICA("ICA-SQL-H");
+        hongo.setNombreProducto("Fungicida Presupuesto");
+        hongo.setFrecuenciaAplicacion(15);
+        hongo.setValor(new BigDecimal("50000"));
+        hongo.setNombreHongo("Roya");
+        hongo.setPeriodoCarencia(7);
+        hongo = productoControlHongoRepository.save(hongo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.findByViveroId(vivero.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+        viveroRepository.deleteById(vivero.getId());
+        fincaRepository.findAll().stream()
+                .filter(f -> f.getNumeroCatastro().startsWith("CAT-SQL"))
+                .forEach(f -> fincaRepository.deleteById(f.getId()));
+        productorRepository.deleteById(productor.getId());
+        productoControlService.eliminarProducto(hongo.getId());
+    }
+
+    private MedicionSql medir(RequestBuilder peticion, ResultMatcher estadoEsperado, int presupuesto) throws Exception {
+        MedicionSql medicion = RegistroSql.medir(() -> mockMvc.perform(peticion).andExpect(estadoEsperado));
+        medicion.verificarPresupuesto(presupuesto);
+        return medicion;
+    }
+
+    /**
+     * Las escrituras: un productor con sus fincas y una carga de labores por lotes.
+     */
+    @Test
+    void testEndpointsDeEscritura_DebenRespetarSuPresupuesto() throws Exception {
+        // Verificación del documento, insert del productor, las dos fincas en un lote y sus tres eventos de cambios
+        medir(post("/api/productores/con-fincas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"documento\":\"5151515151\",\"nombre\":\"Iván\",\"apellido\":\"Ossa\","
+                                + "\"telefono\":\"3005151515\",\"correo\":\"ivan@email.com\",\"fincas\":["
+                                + "{\"numeroCatastro\":\"CAT-SQL-2\",\"municipio\":\"Andes\"},"
+                                + "{\"numeroCatastro\":\"CAT-SQL-3\",\"municipio\":\"Betania\"}]}"),
+                status().isCreated(), 7);
+        productorRepository.findByDocumento("5151515151").ifPresent(productorRepository::delete);
+
+        // Validación de viveros, bloqueo compartido de los productos, tres inserts en un lote con sus eventos
+        // de cambios, lectura de fincas y acumulados de costos
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 1; i <= 3; i++) {
+            lote.append(i > 1 ? "," : "").append("{\"fecha\":\"2025-11-0").append(i)
+                    .append("\",\"descripcion\":\"Aplicación de fungicida ").append(i)
+                    .append("\",\"viveroId\":").append(vivero.getId())
+                    .append(",\"productoControlId\":").append(hongo.getId()).append('}');
+        }
+        medir(post("/api/labores/batch").contentType(MediaType.APPLICATION_JSON).content(lote.append(']').toString()),
+                status().isOk(), 14);
+    }
+
+    /**
+     * Las lecturas por ID, las páginas por cursor y el catálogo son una sola consulta, más la
+     * del sello de versión en las que responden con ETag; la agenda y la elegibilidad de
+     * cosecha se responden desde memoria.
+     */
+    @Test
+    void testEndpointsDeLectura_DebenRespetarSuPresupuesto() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 3; i++) {
+            LaborModel labor = new LaborModel();
+            labor.setFecha(LocalDate.of(2025, 11, i));
+            labor.setDescripcion("Aplicación de fungicida " + i);
+            laborService.registrarLaborConProducto(labor, vivero.getId(), hongo.getId());
+        }
+        Long laborId = laborRepository.findByViveroId(vivero.getId()).get(0).getId();
+
+        // Act & Assert
+        medir(get("/api/productores/{id}", productor.getId()), status().isOk(), 2);
+        medir(get("/api/productores/documento/{documento}", productor.getDocumento()), status().isOk(), 1);
+        medir(get("/api/labores/{id}", laborId), status().isOk(), 2);
+        medir(get("/api/labores/vivero/{viveroId}", vivero.getId()), status().isOk(), 2);
+        medir(get("/api/labores/vivero/{viveroId}/con-producto", vivero.getId()), status().isOk(), 1);
+        medir(get("/api/labores/buscar").param("q", "fungicida"), status().isOk(), 1);
+        medir(get("/api/productos-control"), status().isOk(), 1);
+        medir(get("/api/aplicaciones/proximas").param("fecha", "2025-11-10"), status().isOk(), 0);
+        medir(post("/api/cosecha/elegibilidad")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fecha\":\"2025-11-05\",\"viveroIds\":[" + vivero.getId() + "]}"),
+                status().isOk(), 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.angie.vivero.models;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class GeneradorIdsPorBloquesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testPersistir_AsignaIdAntesDelInsert() {
+        ProductorModel productor = new ProductorModel("123456789", "Juan", "Perez", "3001234567", "juan@email.com");
+
+        entityManager.persist(productor);
+
+        // Con IDENTITY el ID solo existiría tras ejecutar el INSERT; aquí viene del bloque reservado
+        assertNotNull(productor.getId());
+        assertEquals(0L, contarProductores(), "El INSERT debe esperar al flush para poder agruparse en lote");
+    }
+
+    @Test
+    void testPersistirVarios_ReservaUnBloquePorCadaTamanoDeBloque() {
+        long reservadoAntes = ultimoValorReservado("productores");
+        Long primerId = null;
+        Long ultimoId = null;
+
+        for (int i = 0; i < GeneradorIdsPorBloques.TAMANO_BLOQUE_DEFECTO; i++) {
+            ProductorModel productor = new ProductorModel("DOC-" + i, "Juan", "Perez", "3001234567", "juan@email.com");
+            entityManager.persist(productor);
+            if (primerId == null) {
+                primerId = productor.getId();
+            }
+            ultimoId = productor.getId();
+        }
+
+        assertEquals(GeneradorIdsPorBloques.TAMANO_BLOQUE_DEFECTO - 1, ultimoId - primerId, "Los IDs de un bloque son consecutivos");
+        assertEquals(reservadoAntes + GeneradorIdsPorBloques.TAMANO_BLOQUE_DEFECTO, ultimoValorReservado("productores"));
+    }
+
+    @Test
+    void testSubclasesJoined_CompartenLaSecuenciaDeLaRaiz() {
+        ProductoControlHongoModel hongo = new ProductoControlHongoModel();
+        hongo.setRegistroICA("ICA-001");
+        hongo.setNombreProducto("Fungicida");
+        hongo.setFrecuenciaAplicacion(15);
+        hongo.setValor(new BigDecimal("50000"));
+        hongo.setPeriodoCarencia(7);
+        hongo.setNombreHongo("Roya");
+
+        entityManager.persist(hongo);
+
+        assertNotNull(hongo.getId());
+        assertTrue(ultimoValorReservado("productos_control") >= hongo.getId());
+    }
+
+    private long contarProductores() {
+        return jdbcTemplate.queryForObject("select count(*) from productores", Long.class);
+    }
+
+    private long ultimoValorReservado(String entidad) {
+        return jdbcTemplate.queryForObject(
+                "select ultimo_valor from secuencias where entidad = ?", Long.class, entidad);
+    }
+}
@@ -0,0 +1,191 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.AplicacionProgramadaDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la agenda de aplicaciones.
+ * 
+ * Sin @Transactional: la agenda se actualiza al confirmarse cada cambio de labores.
+ */
+@SpringBootTest
+class AgendaAplicacionesServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 11, 1);
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ProductoControlHongoRepository productoControlHongoRepository;
+
+    @Autowired
+    private ProductoControlFertilizanteRepository productoControlFertilizanteRepository;
+
+    private ProductorModel productor;
+    private FincaModel finca;
+    private ViveroModel vivero;
+    private ProductoControlHongoModel hongo;
+    private ProductoControlFertilizanteModel fertilizante;
+
+    @BeforeEach
+    void setUp() {
+        productor = new ProductorModel();
+        productor.setDocumento("8888888888");
+        productor.setNombre("Marta");
+        productor.setApellido("Ríos");
+        productor.setTelefono("3008888888");
+        productor.setCorreo("marta@email.com");
+        productor = productorRepository.save(productor);
+
+        finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-AGE");
+        finca.setMunicipio("Fredonia");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-AGE");
+        vivero.setTipoCultivo("Café");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+
+        hongo = new ProductoControlHongoModel();
+        hongo.setRegistroICA("ICA-AGE-H");
+        hongo.setNombreProducto("Fungicida Agenda");
+        hongo.setFrecuenciaAplicacion(15);
+        hongo.setValor(new BigDecimal("50000"));
+        hongo.setNombreHongo("Roya");
+        hongo.setPeriodoCarencia(7);
+        hongo = productoControlHongoRepository.save(hongo);
+
+        fertilizante = new ProductoControlFertilizanteModel();
+        fertilizante.setRegistroICA("ICA-AGE-F");
+        fertilizante.setNombreProducto("Fertilizante Agenda");
+        fertilizante.setFrecuenciaAplicacion(30);
+        fertilizante.setValor(new BigDecimal("80000"));
+        fertilizante.setFechaUltimaAplicacion(LocalDate.of(2025, 1, 1));
+        fertilizante = productoControlFertilizanteRepository.save(fertilizante);
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.findByViveroId(vivero.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+        viveroRepository.deleteById(vivero.getId());
+        fincaRepository.deleteById(finca.getId());
+        productorRepository.deleteById(productor.getId());
+        productoControlService.eliminarProducto(hongo.getId());
+        productoControlService.eliminarProducto(fertilizante.getId());
+    }
+
+    private LaborModel registrar(LocalDate fecha, Long productoControlId) {
+        LaborModel labor = new LaborModel();
+        labor.setFecha(fecha);
+        labor.setDescripcion("Aplicación " + fecha);
+        return laborService.registrarLaborConProducto(labor, vivero.getId(), productoControlId);
+    }
+
+    private boolean contiene(List<AplicacionProgramadaDTO> aplicaciones, Long productoControlId) {
+        return aplicaciones.stream().anyMatch(a ->
+                a.viveroId().equals(vivero.getId()) && a.productoControlId().equals(productoControlId));
+    }
+
+    /**
+     * Registrar una labor con producto programa la próxima aplicación según la frecuencia.
+     */
+    @Test
+    void testRegistrarLabor_ConProducto_DebeProgramarProximaAplicacion() {
+        // Act
+        registrar(FECHA, hongo.getId());
+
+        // Assert
+        assertTrue(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(15)), hongo.getId()));
+        assertTrue(contiene(agendaAplicacionesService.obtenerVencidas(FECHA.plusDays(16)), hongo.getId()));
+        assertTrue(contiene(agendaAplicacionesService.obtenerProximas(FECHA, 15), hongo.getId()));
+        assertFalse(contiene(agendaAplicacionesService.obtenerProximas(FECHA, 14), hongo.getId()));
+    }
+
+    /**
+     * Eliminar la última aplicación devuelve la agenda a la aplicación anterior.
+     */
+    @Test
+    void testEliminarLabor_UltimaAplicacion_DebeRecalcularDesdeLaAnterior() {
+        // Arrange
+        registrar(FECHA, hongo.getId());
+        LaborModel posterior = registrar(FECHA.plusDays(10), hongo.getId());
+
+        // Act
+        laborService.eliminarLabor(posterior.getId());
+
+        // Assert
+        assertTrue(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(15)), hongo.getId()));
+        assertFalse(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(25)), hongo.getId()));
+    }
+
+    /**
+     * Aplicar un fertilizante adelanta su fecha de última aplicación.
+     */
+    @Test
+    void testRegistrarLabor_ConFertilizante_DebeAdelantarFechaUltimaAplicacion() {
+        // Act
+        registrar(FECHA, fertilizante.getId());
+
+        // Assert
+        assertEquals(FECHA, productoControlService.obtenerProductoPorId(fertilizante.getId())
+                .orElseThrow().fechaUltimaAplicacion());
+        assertTrue(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(30)), fertilizante.getId()));
+    }
+
+    /**
+     * Cambiar la frecuencia de un producto reprograma sus aplicaciones.
+     */
+    @Test
+    void testActualizarFrecuencia_DebeReprogramarAplicaciones() {
+        // Arrange
+        registrar(FECHA, hongo.getId());
+        ProductoControlHongoModel datos = new ProductoControlHongoModel();
+        datos.setRegistroICA("ICA-AGE-H");
+        datos.setNombreProducto("Fungicida Agenda");
+        datos.setFrecuenciaAplicacion(20);
+        datos.setValor(new BigDecimal("50000"));
+        datos.setNombreHongo("Roya");
+        datos.setPeriodoCarencia(7);
+
+        // Act
+        productoControlService.actualizarProducto(hongo.getId(), datos);
+
+        // Assert
+        assertTrue(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(20)), hongo.getId()));
+        assertFalse(contiene(agendaAplicacionesService.obtenerDelDia(FECHA.plusDays(15)), hongo.getId()));
+    }
+}
@@ -0,0 +1,194 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.AplicacionProgramadaDTO;
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.dto.ResumenCostoDTO;
+import com.angie.vivero.models.AmbitoCosto;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import com.angie.vivero.repositories.ParticionLaborRepository;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del archivo de labores en modo emulado (H2): ArchivoLabores mueve a labores_archivo
+ * las labores anteriores al horizonte, y las consultas leen el archivo solo si lo necesitan.
+ * Sin @Transactional: el archivo mueve las labores en transacciones propias.
+ */
+@SpringBootTest
+class ArchivoLaboresTest {
+
+    @Autowired
+    private ArchivoLabores archivoLabores;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private ParticionLaborRepository particionLaborRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductorModel productor;
+    private Long viveroId;
+    private ProductoControlDTO producto;
+    private LaborModel antigua;
+    private LaborModel masAntigua;
+    private LaborModel reciente;
+
+    @BeforeEach
+    void setUp() {
+        FincaModel finca = new FincaModel("CAT-ARCHIVO-1", "Salento", null);
+        finca.addVivero(new ViveroModel("VIV-ARCHIVO-1", "Café", null));
+        productor = productorService.registrarProductorConFincas(
+                new ProductorModel("8080808080", "Rosa", "Cardona", "3008080808", "rosa@email.com"), List.of(finca));
+        viveroId = productor.getFincas().get(0).getViveros().get(0).getId();
+        producto = productoControlService.registrarProducto(new ProductoControlHongoModel(
+                "ICA-ARCHIVO-1", "Fungicida", 15, new BigDecimal("25000.00"), 10, "Roya"));
+
+        // El horizonte por defecto es de 24 meses
+        masAntigua = laborService.registrarLaborConProducto(new LaborModel(
+                YearMonth.now().minusMonths(30).atDay(5), "Aspersión contra roya", null), viveroId, producto.id());
+        antigua = laborService.registrarLabor(new LaborModel(
+                YearMonth.now().minusMonths(28).atDay(10), "Poda de formación", null), viveroId);
+        reciente = laborService.registrarLabor(new LaborModel(
+                YearMonth.now().minusMonths(1).atDay(3), "Deshierbe", null), viveroId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productorService.eliminarProductor(productor.getId());
+        productoControlService.eliminarProducto(producto.id());
+        particionLaborRepository.deleteAll();
+        particionesLabores.actualizarFrontera();
+    }
+
+    private long contar(String tabla) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla + " WHERE vivero_id = ?", Long.class, viveroId);
+    }
+
+    /**
+     * Prueba: las labores anteriores al horizonte pasan al archivo y siguen disponibles, de solo lectura
+     */
+    @Test
+    void testArchivar_LaboresAnterioresAlHorizonte_DebeMoverlasAlArchivo() {
+        // Act
+        long movidas = archivoLabores.archivar();
+        long repetido = archivoLabores.archivar();
+
+        // Assert
+        assertEquals(2, movidas);
+        assertEquals(0, repetido);
+        assertEquals(1, contar("labores"));
+        assertEquals(2, contar("labores_archivo"));
+        assertEquals(YearMonth.now().minusMonths(24).atDay(1), particionesLabores.frontera());
+        assertEquals("Poda de formación", laborService.obtenerLaborDTOPorId(antigua.getId()).orElseThrow().descripcion());
+        assertTrue(laborService.obtenerSelloLabor(antigua.getId()).isPresent());
+        assertThrows(LaborArchivadaException.class, () -> laborService.actualizarLabor(antigua.getId(),
+                new LaborModel(LocalDate.now(), "Poda tardía", null)));
+        assertThrows(LaborArchivadaException.class, () -> laborService.eliminarLabor(antigua.getId()));
+        assertThrows(IllegalArgumentException.class, () -> laborService.eliminarLabor(-1L));
+        assertThrows(DataIntegrityViolationException.class, () -> productoControlService.eliminarProducto(producto.id()));
+        assertEquals(3, laborService.obtenerLaboresPorVivero(viveroId).size());
+    }
+
+    /**
+     * Prueba: las páginas recorren el archivo y las labores activas en orden, y un rango reciente no lee el archivo
+     */
+    @Test
+    void testObtenerPaginas_ConLaboresArchivadas_DebeLeerElArchivoSoloSiElRangoLoNecesita() throws Exception {
+        // Arrange
+        archivoLabores.archivar();
+
+        // Act
+        List<LaborDTO> paginadas = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorVivero(viveroId, cursor, 1);
+            paginadas.addAll(pagina.contenido());
+            cursor = pagina.siguienteCursor();
+        } while (cursor != null);
+        MedicionSql rangoReciente = RegistroSql.medir(() -> laborService.obtenerPaginaLaboresPorRangoFechas(
+                YearMonth.now().minusMonths(2).atDay(1), LocalDate.now(), null, 10));
+        MedicionSql rangoAntiguo = RegistroSql.medir(() -> assertEquals(3, laborService.obtenerLaboresPorRangoFechas(
+                YearMonth.now().minusMonths(36).atDay(1), LocalDate.now()).size()));
+
+        // Assert
+        assertEquals(List.of(masAntigua.getId(), antigua.getId(), reciente.getId()),
+                paginadas.stream().map(LaborDTO::id).toList());
+        assertTrue(rangoReciente.sql().stream().noneMatch(sql -> sql.contains("labores_archivo")), rangoReciente.sql().toString());
+        assertTrue(rangoAntiguo.sql().stream().anyMatch(sql -> sql.contains("labores_archivo")), rangoAntiguo.sql().toString());
+    }
+
+    /**
+     * Prueba: archivar no cambia los costos acumulados, tampoco al reconciliarlos desde las labores
+     */
+    @Test
+    void testReconciliar_ConLaboresArchivadas_DebeConservarLosCostos() {
+        // Arrange
+        List<ResumenCostoDTO> antes = resumenCostosService.obtenerCostos(AmbitoCosto.VIVERO, viveroId, null, null);
+
+        // Act
+        archivoLabores.archivar();
+        resumenCostosService.reconciliar();
+        List<ResumenCostoDTO> despues = resumenCostosService.obtenerCostos(AmbitoCosto.VIVERO, viveroId, null, null);
+
+        // Assert
+        assertEquals(3, antes.size());
+        assertEquals(antes, despues);
+    }
+
+    /**
+     * Prueba: al reconstruir la agenda, un par cuya última aplicación se archivó sigue vencido
+     */
+    @Test
+    void testReconstruirAgenda_ConUltimaAplicacionArchivada_DebeConservarElPar() {
+        // Arrange
+        archivoLabores.archivar();
+
+        // Act
+        agendaAplicacionesService.reconstruir();
+        List<AplicacionProgramadaDTO> vencidas = agendaAplicacionesService.obtenerVencidas(LocalDate.now());
+
+        // Assert
+        assertTrue(vencidas.stream().anyMatch(a -> a.viveroId().equals(viveroId)
+                && a.productoControlId().equals(producto.id())
+                && a.ultimaAplicacion().equals(masAntigua.getFecha())), vencidas.toString());
+    }
+}
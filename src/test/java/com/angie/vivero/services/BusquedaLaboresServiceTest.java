@@ -0,0 +1,256 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.LaborEncontradaDTO;
+import com.angie.vivero.dto.PaginaBusquedaDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la búsqueda de texto sobre labores.
+ * 
+ * Sin @Transactional: el índice se actualiza al confirmarse cada cambio de labores.
+ */
+@SpringBootTest
+class BusquedaLaboresServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 9, 1);
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ArchivoLabores archivoLabores;
+
+    @Autowired
+    private ParticionesLabores particionesLabores;
+
+    @Autowired
+    private ParticionLaborRepository particionLaborRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductorModel productor;
+    private FincaModel finca;
+    private ViveroModel vivero;
+    private ViveroModel otroVivero;
+
+    @BeforeEach
+    void setUp() {
+        productor = new ProductorModel();
+        productor.setDocumento("6666666666");
+        productor.setNombre("Andrés");
+        productor.setApellido("Mejía");
+        productor.setTelefono("3006666666");
+        productor.setCorreo("andres@email.com");
+        productor = productorRepository.save(productor);
+
+        finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-BUS");
+        finca.setMunicipio("Andes");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = crearVivero("VIV-BUS-1");
+        otroVivero = crearVivero("VIV-BUS-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Las archivadas no pasan por LaborService: se borran aquí y se sacan del índice reconstruyéndolo
+        int archivadas = jdbcTemplate.update("DELETE FROM labores_archivo WHERE vivero_id IN (?, ?)",
+                vivero.getId(), otroVivero.getId());
+        if (archivadas > 0) {
+            particionLaborRepository.deleteAll();
+            particionesLabores.actualizarFrontera();
+        }
+        for (ViveroModel v : List.of(vivero, otroVivero)) {
+            laborRepository.findByViveroId(v.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+            viveroRepository.deleteById(v.getId());
+        }
+        fincaRepository.deleteById(finca.getId());
+        productorRepository.deleteById(productor.getId());
+        if (archivadas > 0) {
+            busquedaLaboresService.reconstruir();
+        }
+    }
+
+    private ViveroModel crearVivero(String codigo) {
+        ViveroModel nuevo = new ViveroModel();
+        nuevo.setCodigo(codigo);
+        nuevo.setTipoCultivo("Café");
+        nuevo.setFinca(finca);
+        return viveroRepository.save(nuevo);
+    }
+
+    private LaborModel registrar(ViveroModel destino, LocalDate fecha, String descripcion) {
+        LaborModel labor = new LaborModel();
+        labor.setFecha(fecha);
+        labor.setDescripcion(descripcion);
+        return laborService.registrarLabor(labor, destino.getId());
+    }
+
+    private List<Long> buscarIds(String consulta, Long viveroId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return busquedaLaboresService.buscar(consulta, viveroId, fechaInicio, fechaFin, 0, null).contenido().stream()
+                .map(encontrada -> encontrada.labor().id())
+                .toList();
+    }
+
+    /**
+     * La búsqueda ignora mayúsculas, tildes y plurales.
+     */
+    @Test
+    void testBuscar_SinTildesYEnPlural_DebeEncontrarLabor() {
+        // Arrange
+        LaborModel fumigacion = registrar(vivero, FECHA, "Fumigación preventiva contra roya");
+        LaborModel poda = registrar(vivero, FECHA, "Poda de formación");
+
+        // Act
+        List<Long> ids = buscarIds("FUMIGACIONES", vivero.getId(), null, null);
+
+        // Assert
+        assertEquals(List.of(fumigacion.getId()), ids);
+        assertFalse(ids.contains(poda.getId()));
+    }
+
+    /**
+     * Las labores que contienen más términos de la consulta quedan primero.
+     */
+    @Test
+    void testBuscar_VariosTerminos_DebeOrdenarPorRelevancia() {
+        // Arrange
+        LaborModel parcial = registrar(vivero, FECHA, "Fumigación del semillero");
+        LaborModel completa = registrar(vivero, FECHA, "Fumigación contra roya en el semillero");
+
+        // Act
+        PaginaBusquedaDTO pagina = busquedaLaboresService.buscar("fumigación roya", vivero.getId(), null, null, 0, 10);
+
+        // Assert
+        assertEquals(2, pagina.total());
+        List<LaborEncontradaDTO> contenido = pagina.contenido();
+        assertEquals(completa.getId(), contenido.get(0).labor().id());
+        assertEquals(parcial.getId(), contenido.get(1).labor().id());
+        assertTrue(contenido.get(0).puntaje() > contenido.get(1).puntaje());
+    }
+
+    /**
+     * Los filtros por vivero y rango de fechas se aplican sobre el índice.
+     */
+    @Test
+    void testBuscar_ConFiltros_DebeRestringirResultados() {
+        // Arrange
+        LaborModel enRango = registrar(vivero, FECHA, "Deshierbe manual");
+        registrar(vivero, FECHA.plusMonths(2), "Deshierbe manual");
+        registrar(otroVivero, FECHA, "Deshierbe manual");
+
+        // Act
+        List<Long> ids = buscarIds("deshierbe", vivero.getId(), FECHA.minusDays(1), FECHA.plusDays(1));
+
+        // Assert
+        assertEquals(List.of(enRango.getId()), ids);
+    }
+
+    /**
+     * Actualizar o eliminar una labor actualiza el índice.
+     */
+    @Test
+    void testActualizarYEliminarLabor_DebeActualizarIndice() {
+        // Arrange
+        LaborModel labor = registrar(vivero, FECHA, "Riego por goteo");
+        LaborModel datos = new LaborModel();
+        datos.setFecha(FECHA);
+        datos.setDescripcion("Abonado orgánico");
+
+        // Act
+        laborService.actualizarLabor(labor.getId(), datos);
+
+        // Assert
+        assertTrue(buscarIds("goteo", vivero.getId(), null, null).isEmpty());
+        assertEquals(List.of(labor.getId()), buscarIds("abonos orgánicos", vivero.getId(), null, null));
+
+        // Act
+        laborService.eliminarLabor(labor.getId());
+
+        // Assert
+        assertTrue(buscarIds("abonado", vivero.getId(), null, null).isEmpty());
+    }
+
+    /**
+     * Cambiar solo la fecha de una labor, sin tocar su descripción, la mueve en los filtros.
+     */
+    @Test
+    void testActualizarLabor_SoloFecha_DebeActualizarFiltros() {
+        // Arrange
+        LaborModel labor = registrar(vivero, FECHA, "Control de arvenses");
+        LaborModel datos = new LaborModel();
+        datos.setFecha(FECHA.plusMonths(1));
+        datos.setDescripcion("Control de arvenses");
+
+        // Act
+        laborService.actualizarLabor(labor.getId(), datos);
+
+        // Assert
+        assertTrue(buscarIds("arvenses", vivero.getId(), FECHA, FECHA).isEmpty());
+        assertEquals(List.of(labor.getId()),
+                buscarIds("arvenses", vivero.getId(), FECHA.plusMonths(1), FECHA.plusMonths(1)));
+    }
+
+    /**
+     * Una consulta sin términos buscables se rechaza.
+     */
+    @Test
+    void testBuscar_SoloPalabrasVacias_DebeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> busquedaLaboresService.buscar("de la con", null, null, null, 0, null));
+    }
+
+    /**
+     * Al reconstruir el índice se mezclan en orden de ID las labores archivadas y las activas,
+     * aunque una archivada tenga un ID mayor que una activa.
+     */
+    @Test
+    void testReconstruirBusqueda_ConArchivadasDeIdMayor_DebeEncontrarTodas() {
+        // Arrange: el horizonte del archivo por defecto es de 24 meses
+        LaborModel reciente = registrar(vivero, YearMonth.now().minusMonths(1).atDay(3), "Deshierbe");
+        LaborModel tardia = registrar(vivero, YearMonth.now().minusMonths(29).atDay(7), "Deshierbe manual");
+        archivoLabores.archivar();
+
+        // Act
+        busquedaLaboresService.reconstruir();
+        List<Long> encontradas = buscarIds("deshierbe", vivero.getId(), null, null).stream().sorted().toList();
+        laborService.eliminarLabor(reciente.getId());
+        List<Long> despues = buscarIds("deshierbe", vivero.getId(), null, null);
+
+        // Assert
+        assertEquals(List.of(reciente.getId(), tardia.getId()), encontradas);
+        assertEquals(List.of(tardia.getId()), despues);
+    }
+}
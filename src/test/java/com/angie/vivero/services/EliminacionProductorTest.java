@@ -0,0 +1,91 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.LaborModel;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.models.ViveroModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la eliminación de un productor sobre los índices en memoria de labores.
+ *
+ * Sin @Transactional: los índices se actualizan al confirmarse la eliminación.
+ */
+@SpringBootTest
+class EliminacionProductorTest {
+
+    @Autowired
+    private ProductorService productorService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    private ProductorModel productor;
+    private Long viveroId;
+    private ProductoControlDTO producto;
+
+    @BeforeEach
+    void setUp() {
+        FincaModel finca = new FincaModel("CAT-ELIMINACION-1", "Jardín", null);
+        finca.addVivero(new ViveroModel("VIV-ELIMINACION-1", "Café", null));
+        productor = productorService.registrarProductorConFincas(
+                new ProductorModel("9191919191", "Tomás", "Restrepo", "3009191919", "tomas@email.com"), List.of(finca));
+        viveroId = productor.getFincas().get(0).getViveros().get(0).getId();
+        producto = productoControlService.registrarProducto(new ProductoControlHongoModel(
+                "ICA-ELIMINACION-1", "Fungicida", 15, new BigDecimal("30000.00"), 20, "Roya"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoControlService.eliminarProducto(producto.id());
+    }
+
+    /**
+     * Prueba: al eliminar un productor sus labores salen de la agenda, de las carencias y de la búsqueda
+     */
+    @Test
+    void testEliminarProductor_ConLabores_DebeQuitarlasDeLosIndices() {
+        // Arrange
+        LocalDate fecha = LocalDate.now().minusDays(30);
+        laborService.registrarLaborConProducto(new LaborModel(fecha, "Aspersión zanzibarina", null), viveroId, producto.id());
+        laborService.registrarLaborConProducto(new LaborModel(LocalDate.now().minusDays(2), "Aspersión preventiva", null),
+                viveroId, producto.id());
+        assertFalse(indiceCarenciaService.consultarElegibilidad(LocalDate.now(), List.of(viveroId)).get(0).elegible());
+        assertEquals(1, busquedaLaboresService.buscar("zanzibarina", null, null, null, 0, null).total());
+        assertTrue(agendaAplicacionesService.obtenerProximas(LocalDate.now(), 30).stream()
+                .anyMatch(a -> a.viveroId().equals(viveroId)));
+
+        // Act
+        productorService.eliminarProductor(productor.getId());
+
+        // Assert
+        assertTrue(indiceCarenciaService.consultarElegibilidad(LocalDate.now(), List.of(viveroId)).get(0).elegible());
+        assertEquals(0, busquedaLaboresService.buscar("zanzibarina", null, null, null, 0, null).total());
+        assertTrue(agendaAplicacionesService.obtenerProximas(LocalDate.now(), 30).stream()
+                .noneMatch(a -> a.viveroId().equals(viveroId)));
+    }
+}
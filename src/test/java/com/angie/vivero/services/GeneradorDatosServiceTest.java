@@ -0,0 +1,161 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ParametrosGeneracion;
+import com.angie.vivero.dto.ResultadoGeneracion;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.repositories.ProductorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del generador de datos sintéticos.
+ *
+ * Sin @Transactional: el generador confirma sus inserciones en conexiones propias,
+ * así que los datos generados se borran al terminar cada prueba.
+ */
+@SpringBootTest
+class GeneradorDatosServiceTest {
+
+    private static final String PRODUCTORES_GENERADOS = "select id from productores where correo like '%@correo.co'";
+    private static final String FINCAS_GENERADAS = "select id from fincas where productor_id in (" + PRODUCTORES_GENERADOS + ")";
+    private static final String VIVEROS_GENERADOS = "select id from viveros where finca_id in (" + FINCAS_GENERADAS + ")";
+
+    private static final String DOCUMENTO_NUEVOS = "GEN-NUEVO-";
+
+    @Autowired
+    private GeneradorDatosService generadorDatosService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private AgendaAplicacionesService agendaAplicacionesService;
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ResultadoGeneracion resultado;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from productores where documento like '" + DOCUMENTO_NUEVOS + "%'");
+        jdbcTemplate.update("delete from labores where vivero_id in (" + VIVEROS_GENERADOS + ")");
+        jdbcTemplate.update("delete from viveros where id in (" + VIVEROS_GENERADOS + ")");
+        jdbcTemplate.update("delete from fincas where id in (" + FINCAS_GENERADAS + ")");
+        jdbcTemplate.update("delete from productores where correo like '%@correo.co'");
+        if (resultado != null) {
+            resultado.productoIds().forEach(productoControlService::eliminarProducto);
+        }
+        resumenCostosService.reconciliar();
+        agendaAplicacionesService.reconstruir();
+        indiceCarenciaService.reconstruir();
+        busquedaLaboresService.reconstruir();
+    }
+
+    private static ParametrosGeneracion parametros(long semilla) {
+        return new ParametrosGeneracion(40, 4, 3, 3000, 6, 0.5,
+                LocalDate.of(2024, 1, 1), 365, 1.0, semilla, 3, 100);
+    }
+
+    private long contar(String sql) {
+        return jdbcTemplate.queryForObject("select count(*) from (" + sql + ") t", Long.class);
+    }
+
+    /**
+     * Se insertan todas las filas pedidas, y cada finca, vivero y labor apunta a un padre generado.
+     */
+    @Test
+    void testGenerar_DebeInsertarDatosConsistentes() {
+        // Act
+        resultado = generadorDatosService.generar(parametros(7), true);
+
+        // Assert
+        assertEquals(40, resultado.productores());
+        assertTrue(resultado.fincas() >= 40 && resultado.fincas() <= 160);
+        assertTrue(resultado.viveros() >= resultado.fincas() && resultado.viveros() <= 3 * resultado.fincas());
+        assertEquals(6, resultado.productoIds().size());
+
+        assertEquals(40, contar(PRODUCTORES_GENERADOS));
+        assertEquals(resultado.fincas(), contar(FINCAS_GENERADAS));
+        assertEquals(resultado.viveros(), contar(VIVEROS_GENERADOS));
+        assertEquals(3000, contar("select id from labores where vivero_id in (" + VIVEROS_GENERADOS + ")"));
+
+        long conProducto = contar("select id from labores where vivero_id in (" + VIVEROS_GENERADOS + ") "
+                + "and producto_control_id is not null");
+        assertTrue(conProducto > 1200 && conProducto < 1800, "Labores con producto: " + conProducto);
+        long fueraDeRango = contar("select id from labores where vivero_id in (" + VIVEROS_GENERADOS + ") "
+                + "and (fecha < '2024-01-01' or fecha > '2024-12-30')");
+        assertEquals(0, fueraDeRango);
+    }
+
+    /**
+     * Con sesgo, unos pocos viveros concentran buena parte de las labores.
+     */
+    @Test
+    void testGenerar_ConSesgo_DebeConcentrarLaboresEnPocosViveros() {
+        // Act
+        resultado = generadorDatosService.generar(parametros(11), false);
+
+        // Assert
+        List<Long> laboresPorVivero = jdbcTemplate.queryForList(
+                "select count(*) from labores where vivero_id in (" + VIVEROS_GENERADOS + ") "
+                        + "group by vivero_id order by count(*) desc", Long.class);
+        double promedio = 3000.0 / resultado.viveros();
+        assertTrue(laboresPorVivero.get(0) > 5 * promedio,
+                "El vivero más activo tiene " + laboresPorVivero.get(0) + " labores; promedio " + promedio);
+    }
+
+    /**
+     * Los IDs quedan reservados en la tabla secuencias: lo que se registre después por JPA,
+     * aunque tome un bloque nuevo de IDs, no choca con lo generado.
+     */
+    @Test
+    void testGenerar_DespuesDeGenerar_LosNuevosRegistrosNoDebenChocarConLosGenerados() {
+        // Arrange
+        resultado = generadorDatosService.generar(parametros(13), false);
+        List<Long> generados = jdbcTemplate.queryForList(PRODUCTORES_GENERADOS, Long.class);
+        List<ProductorModel> nuevos = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            nuevos.add(new ProductorModel(DOCUMENTO_NUEVOS + i, "Eva", "Mejía", "3009999999", "eva" + i + "@email.com"));
+        }
+
+        // Act
+        List<ProductorModel> guardados = productorRepository.saveAll(nuevos);
+
+        // Assert
+        assertEquals(60, guardados.size());
+        assertTrue(guardados.stream().noneMatch(productor -> generados.contains(productor.getId())));
+        assertEquals(40, contar(PRODUCTORES_GENERADOS));
+    }
+
+    /**
+     * Parámetros imposibles se rechazan antes de insertar nada.
+     */
+    @Test
+    void testParametros_ConProporcionSinProductos_DebeLanzarExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ParametrosGeneracion(10, 4, 3, 100, 0, 0.5,
+                LocalDate.of(2024, 1, 1), 365, 0.8, 1L, 1, 100));
+    }
+}
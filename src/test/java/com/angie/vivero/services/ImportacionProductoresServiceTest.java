@@ -0,0 +1,130 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.EstadoImportacionDTO;
+import com.angie.vivero.dto.FilaImportacionProductor;
+import com.angie.vivero.models.FincaModel;
+import com.angie.vivero.models.ProductorModel;
+import com.angie.vivero.repositories.FincaRepository;
+import com.angie.vivero.repositories.ProductorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la importación masiva de productores con fincas.
+ */
+@SpringBootTest
+@Transactional
+class ImportacionProductoresServiceTest {
+
+    @Autowired
+    private ImportacionProductoresService importacionProductoresService;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    private String importacionId;
+
+    @BeforeEach
+    void setUp() {
+        ProductorModel existente = new ProductorModel("IMP-EXISTE", "Rosa", "Vélez", "3001111111", "rosa@email.com");
+        FincaModel finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-IMP-EXISTE");
+        finca.setMunicipio("Jardín");
+        existente.addFinca(finca);
+        productorRepository.save(existente);
+
+        importacionId = importacionProductoresService.iniciar("ndjson").getId();
+    }
+
+    private static FilaImportacionProductor fila(long linea, String documento, String nombre,
+                                                 FilaImportacionProductor.Finca... fincas) {
+        return new FilaImportacionProductor(linea, documento, nombre, "Apellido", "3000000000",
+                documento + "@email.com", List.of(fincas), null);
+    }
+
+    private static FilaImportacionProductor.Finca finca(String numeroCatastro) {
+        return new FilaImportacionProductor.Finca(numeroCatastro, "Urrao");
+    }
+
+    private EstadoImportacionDTO estado() {
+        return importacionProductoresService.obtenerEstado(importacionId, 100).orElseThrow();
+    }
+
+    /**
+     * Un bloque registra las filas válidas y guarda el motivo de cada fila rechazada.
+     */
+    @Test
+    void testProcesarBloque_ConFilasInvalidas_DebeRegistrarValidasYReportarErrores() {
+        // Arrange
+        List<FilaImportacionProductor> filas = List.of(
+                fila(1, "IMP-1", "Ana", finca("CAT-IMP-1"), finca("CAT-IMP-2")),
+                fila(2, "IMP-1", "Ana"),
+                fila(3, "IMP-EXISTE", "Rosa"),
+                fila(4, "IMP-2", "Luis", finca("CAT-IMP-EXISTE")),
+                fila(5, "IMP-3", ""),
+                FilaImportacionProductor.malformada(6, "JSON mal formado"),
+                fila(7, "IMP-4", "Eva"));
+
+        // Act
+        importacionProductoresService.procesarBloque(importacionId, filas, 7);
+
+        // Assert
+        EstadoImportacionDTO estado = estado();
+        assertEquals(7, estado.lineasProcesadas());
+        assertEquals(2, estado.registrados());
+        assertEquals(5, estado.rechazados());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), estado.errores().stream()
+                .map(EstadoImportacionDTO.ErrorImportacionDTO::linea).toList());
+        assertEquals("Ya existe una finca con el número de catastro: CAT-IMP-EXISTE", estado.errores().get(2).mensaje());
+        assertTrue(productorRepository.findByDocumento("IMP-1").isPresent());
+        assertTrue(fincaRepository.findByNumeroCatastro("CAT-IMP-2").isPresent());
+        assertTrue(productorRepository.findByDocumento("IMP-2").isEmpty());
+    }
+
+    /**
+     * Reenviar un bloque ya confirmado no vuelve a registrar sus filas.
+     */
+    @Test
+    void testProcesarBloque_YaConfirmado_NoDebeRegistrarDeNuevo() {
+        // Arrange
+        List<FilaImportacionProductor> filas = List.of(fila(1, "IMP-5", "Olga"), fila(2, "IMP-6", "Raúl"));
+        importacionProductoresService.procesarBloque(importacionId, filas, 2);
+
+        // Act
+        importacionProductoresService.procesarBloque(importacionId, filas, 2);
+
+        // Assert
+        EstadoImportacionDTO estado = estado();
+        assertEquals(2, estado.registrados());
+        assertEquals(0, estado.rechazados());
+    }
+
+    /**
+     * Al retomar, las filas anteriores a la última línea confirmada se omiten.
+     */
+    @Test
+    void testProcesarBloque_AlRetomar_DebeOmitirLineasConfirmadas() {
+        // Arrange
+        importacionProductoresService.procesarBloque(importacionId, List.of(fila(1, "IMP-7", "Iván")), 1);
+
+        // Act
+        importacionProductoresService.procesarBloque(importacionId,
+                List.of(fila(1, "IMP-7", "Iván"), fila(2, "IMP-8", "Sara")), 2);
+
+        // Assert
+        EstadoImportacionDTO estado = estado();
+        assertEquals(2, estado.lineasProcesadas());
+        assertEquals(2, estado.registrados());
+        assertEquals(0, estado.rechazados());
+    }
+}
@@ -0,0 +1,183 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.ElegibilidadCosechaDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del índice de periodos de carencia.
+ * 
+ * Sin @Transactional: el índice se actualiza al confirmarse cada cambio de labores.
+ */
+@SpringBootTest
+class IndiceCarenciaServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 11, 1);
+
+    @Autowired
+    private IndiceCarenciaService indiceCarenciaService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ProductoControlHongoRepository productoControlHongoRepository;
+
+    @Autowired
+    private ProductoControlFertilizanteRepository productoControlFertilizanteRepository;
+
+    private ProductorModel productor;
+    private FincaModel finca;
+    private ViveroModel vivero;
+    private ProductoControlHongoModel hongo;
+    private ProductoControlFertilizanteModel fertilizante;
+
+    @BeforeEach
+    void setUp() {
+        productor = new ProductorModel();
+        productor.setDocumento("7777777777");
+        productor.setNombre("Lucía");
+        productor.setApellido("Gómez");
+        productor.setTelefono("3007777777");
+        productor.setCorreo("lucia@email.com");
+        productor = productorRepository.save(productor);
+
+        finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-CAR");
+        finca.setMunicipio("Fredonia");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-CAR");
+        vivero.setTipoCultivo("Café");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+
+        hongo = new ProductoControlHongoModel();
+        hongo.setRegistroICA("ICA-CAR-H");
+        hongo.setNombreProducto("Fungicida Carencia");
+        hongo.setFrecuenciaAplicacion(15);
+        hongo.setValor(new BigDecimal("50000"));
+        hongo.setNombreHongo("Roya");
+        hongo.setPeriodoCarencia(7);
+        hongo = productoControlHongoRepository.save(hongo);
+
+        fertilizante = new ProductoControlFertilizanteModel();
+        fertilizante.setRegistroICA("ICA-CAR-F");
+        fertilizante.setNombreProducto("Fertilizante Carencia");
+        fertilizante.setFrecuenciaAplicacion(30);
+        fertilizante.setValor(new BigDecimal("80000"));
+        fertilizante.setFechaUltimaAplicacion(LocalDate.of(2025, 1, 1));
+        fertilizante = productoControlFertilizanteRepository.save(fertilizante);
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.findByViveroId(vivero.getId()).forEach(labor -> laborService.eliminarLabor(labor.getId()));
+        viveroRepository.deleteById(vivero.getId());
+        fincaRepository.deleteById(finca.getId());
+        productorRepository.deleteById(productor.getId());
+        productoControlService.eliminarProducto(hongo.getId());
+        productoControlService.eliminarProducto(fertilizante.getId());
+    }
+
+    private LaborModel registrar(LocalDate fecha, Long productoControlId) {
+        LaborModel labor = new LaborModel();
+        labor.setFecha(fecha);
+        labor.setDescripcion("Aplicación " + fecha);
+        return laborService.registrarLaborConProducto(labor, vivero.getId(), productoControlId);
+    }
+
+    private ElegibilidadCosechaDTO consultar(LocalDate fecha) {
+        return indiceCarenciaService.consultarElegibilidad(fecha, List.of(vivero.getId())).get(0);
+    }
+
+    /**
+     * Una aplicación con periodo de carencia bloquea la cosecha hasta que el periodo termina.
+     */
+    @Test
+    void testConsultarElegibilidad_DentroDelPeriodoDeCarencia_NoDebeSerElegible() {
+        // Act
+        registrar(FECHA, hongo.getId());
+
+        // Assert
+        assertTrue(consultar(FECHA.minusDays(1)).elegible());
+        ElegibilidadCosechaDTO bloqueado = consultar(FECHA.plusDays(3));
+        assertFalse(bloqueado.elegible());
+        assertEquals(FECHA.plusDays(7), bloqueado.fechaCosechaPermitida());
+        assertTrue(consultar(FECHA.plusDays(7)).elegible());
+    }
+
+    /**
+     * Aplicaciones con periodos que se solapan se fusionan en un solo intervalo.
+     */
+    @Test
+    void testConsultarElegibilidad_ConPeriodosSolapados_DebeEsperarAlUltimoFin() {
+        // Arrange
+        registrar(FECHA, hongo.getId());
+
+        // Act
+        registrar(FECHA.plusDays(5), hongo.getId());
+
+        // Assert
+        ElegibilidadCosechaDTO bloqueado = consultar(FECHA.plusDays(1));
+        assertFalse(bloqueado.elegible());
+        assertEquals(FECHA.plusDays(12), bloqueado.fechaCosechaPermitida());
+    }
+
+    /**
+     * Eliminar una labor libera el periodo de carencia que generaba.
+     */
+    @Test
+    void testEliminarLabor_ConPeriodoDeCarencia_DebeLiberarVivero() {
+        // Arrange
+        registrar(FECHA, hongo.getId());
+        LaborModel posterior = registrar(FECHA.plusDays(5), hongo.getId());
+
+        // Act
+        laborService.eliminarLabor(posterior.getId());
+
+        // Assert
+        assertEquals(FECHA.plusDays(7), consultar(FECHA.plusDays(1)).fechaCosechaPermitida());
+        assertTrue(consultar(FECHA.plusDays(8)).elegible());
+    }
+
+    /**
+     * Los fertilizantes no tienen periodo de carencia y no bloquean la cosecha.
+     */
+    @Test
+    void testConsultarElegibilidad_ConFertilizante_DebeSerElegible() {
+        // Act
+        registrar(FECHA, fertilizante.getId());
+
+        // Assert
+        assertTrue(consultar(FECHA).elegible());
+    }
+}
@@ -1,7 +1,15 @@
 package com.angie.vivero.services;
 
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.dto.LaborLoteItem;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ResultadoItemLote;
 import com.angie.vivero.models.*;
 import com.angie.vivero.repositories.*;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +52,9 @@ class LaborServiceTest {
     @Autowired
     private LaborRepository laborRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private ViveroModel vivero;
     private ProductoControlHongoModel productoControl;
 
@@ -329,4 +341,201 @@ class LaborServiceTest {
         // Assert
         assertTrue(laborService.obtenerLaborPorId(laborGuardada.getId()).isEmpty());
     }
+
+    /**
+     * Paginación por cursor: recorrer todas las páginas devuelve cada labor
+     * una sola vez, ordenadas por fecha e ID.
+     */
+    @Test
+    void testObtenerPaginaLaboresPorVivero_RecorriendoCursores_DebeDevolverTodasEnOrden() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            LaborModel labor = new LaborModel();
+            labor.setFecha(LocalDate.of(2025, 11, 1).plusDays(i % 3));
+            labor.setDescripcion("Labor " + i);
+            laborService.registrarLabor(labor, vivero.getId());
+        }
+
+        // Act
+        List<LaborDTO> recorridas = new ArrayList<>();
+        PaginaCursor<LaborDTO> pagina = laborService.obtenerPaginaLaboresPorVivero(vivero.getId(), null, 2);
+        recorridas.addAll(pagina.contenido());
+        while (pagina.hayMas()) {
+            pagina = laborService.obtenerPaginaLaboresPorVivero(vivero.getId(), pagina.siguienteCursor(), 2);
+            recorridas.addAll(pagina.contenido());
+        }
+
+        // Assert
+        assertEquals(5, recorridas.size());
+        assertNull(pagina.siguienteCursor());
+        for (int i = 1; i < recorridas.size(); i++) {
+            LaborDTO anterior = recorridas.get(i - 1);
+            LaborDTO actual = recorridas.get(i);
+            assertTrue(anterior.fecha().isBefore(actual.fecha())
+                    || (anterior.fecha().equals(actual.fecha()) && anterior.id() < actual.id()));
+        }
+    }
+
+    /**
+     * Paginación por cursor: un cursor alterado debe rechazarse.
+     */
+    @Test
+    void testObtenerPaginaLabores_ConCursorInvalido_DebeLanzarExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            laborService.obtenerPaginaLabores("no-es-un-cursor", 10);
+        });
+    }
+
+    /**
+     * Exportación: el recorrido por streaming entrega solo las labores del rango,
+     * en orden de fecha.
+     */
+    @Test
+    void testRecorrerLaboresPorRangoFechas_ConLaboresEnRango_DebeEntregarlasEnOrden() {
+        // Arrange
+        for (int dia : new int[] {15, 5, 10, 20}) {
+            LaborModel labor = new LaborModel();
+            labor.setFecha(LocalDate.of(2025, 11, dia));
+            labor.setDescripcion("Labor del " + dia);
+            laborService.registrarLabor(labor, vivero.getId());
+        }
+
+        // Act
+        List<LaborDTO> recorridas = new ArrayList<>();
+        laborService.recorrerLaboresPorRangoFechas(
+                LocalDate.of(2025, 11, 5), LocalDate.of(2025, 11, 15), recorridas::add);
+
+        // Assert
+        assertEquals(List.of("Labor del 5", "Labor del 10", "Labor del 15"),
+                recorridas.stream().map(LaborDTO::descripcion).toList());
+    }
+
+    /**
+     * Proyección de lectura: la labor se expone con los IDs de vivero y producto.
+     */
+    @Test
+    void testObtenerLaborDTOPorId_ConProducto_DebeExponerIdsDeAsociaciones() {
+        // Arrange
+        LaborModel labor = new LaborModel();
+        labor.setFecha(LocalDate.of(2025, 11, 10));
+        labor.setDescripcion("Aplicación de fungicida");
+        LaborModel laborGuardada = laborService.registrarLaborConProducto(
+                labor, vivero.getId(), productoControl.getId());
+
+        // Act
+        LaborDTO dto = laborService.obtenerLaborDTOPorId(laborGuardada.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("Aplicación de fungicida", dto.descripcion());
+        assertEquals(vivero.getId(), dto.viveroId());
+        assertEquals(productoControl.getId(), dto.productoControlId());
+    }
+
+    /**
+     * Carga masiva: las labores válidas se registran y las inválidas se informan
+     * en su posición sin detener el resto de la carga.
+     */
+    @Test
+    void testRegistrarLaboresEnLote_ConElementosInvalidos_DebeRegistrarLosValidos() {
+        // Arrange
+        List<LaborLoteItem> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new LaborLoteItem(LocalDate.of(2025, 10, 1).plusDays(i % 30), "Labor de lote " + i,
+                    vivero.getId(), i % 2 == 0 ? productoControl.getId() : null));
+        }
+        items.add(new LaborLoteItem(LocalDate.now(), "Vivero inexistente", 999L, null));
+        items.add(new LaborLoteItem(LocalDate.now(), "Producto inexistente", vivero.getId(), 999L));
+        items.add(new LaborLoteItem(null, "Sin fecha", vivero.getId(), null));
+        items.add(null);
+
+        // Act
+        List<ResultadoItemLote> resultados = laborService.registrarLaboresEnLote(items, 10);
+
+        // Assert
+        assertEquals(124, resultados.size());
+        assertEquals(120, resultados.stream().filter(ResultadoItemLote::registrado).count());
+        assertEquals(10, resultados.get(0).indice());
+        assertEquals("Vivero no encontrado con ID: 999", resultados.get(120).error());
+        assertEquals("Producto de control no encontrado con ID: 999", resultados.get(121).error());
+        assertEquals("La fecha de la labor es obligatoria", resultados.get(122).error());
+        assertNotNull(resultados.get(123).error());
+        assertEquals(120, laborRepository.findByViveroId(vivero.getId()).size());
+        assertEquals(60, laborRepository.findByProductoControlId(productoControl.getId()).size());
+    }
+
+    /**
+     * Presupuesto de sentencias: registrar una labor con producto lee el vivero, inserta la
+     * labor, ajusta los costos acumulados y avanza la última aplicación del producto; la
+     * existencia del producto se valida contra la caché del catálogo y al bloquear su fila,
+     * para que no se elimine a la vez.
+     */
+    @Test
+    void testRegistrarLaborConProducto_PresupuestoDeSentencias_NoDebeSuperarlo() throws Exception {
+        // Arrange
+        entityManager.flush();
+        entityManager.clear();
+        LaborModel labor = new LaborModel();
+        labor.setFecha(LocalDate.of(2025, 11, 20));
+        labor.setDescripcion("Aplicación de fungicida");
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> {
+            laborService.registrarLaborConProducto(labor, vivero.getId(), productoControl.getId());
+            entityManager.flush();
+        });
+
+        // Assert
+        // Incluye el insert del evento en la bandeja de cambios
+        medicion.verificarPresupuesto(9);
+    }
+
+    /**
+     * Presupuesto de sentencias: la carga masiva valida los viveros con una consulta y
+     * envía las labores en lotes JDBC, así que las idas y vueltas no crecen con cada labor.
+     */
+    @Test
+    void testRegistrarLaboresEnLote_PresupuestoDeSentencias_DebeAgruparInserts() throws Exception {
+        // Arrange
+        entityManager.flush();
+        entityManager.clear();
+        List<LaborLoteItem> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new LaborLoteItem(LocalDate.of(2025, 10, 1).plusDays(i % 30), "Labor de lote " + i,
+                    vivero.getId(), null));
+        }
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> {
+            laborService.registrarLaboresEnLote(items, 0);
+            entityManager.flush();
+        });
+
+        // Assert
+        // 120 inserts de labores y 120 de sus eventos de cambios, más la validación de viveros y los acumulados de costos
+        medicion.verificarPresupuesto(245);
+        // Tres lotes de labores y tres de eventos
+        assertTrue(medicion.idasYVueltas() <= 11,
+                "Las labores deben viajar en lotes JDBC, no una por una: " + medicion.idasYVueltas());
+    }
+
+    /**
+     * Presupuesto de sentencias: cada página por cursor es una sola consulta.
+     */
+    @Test
+    void testObtenerPaginaLaboresPorVivero_PresupuestoDeSentencias_DebeEjecutarUnaConsulta() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            LaborModel labor = new LaborModel();
+            labor.setFecha(LocalDate.of(2025, 11, 1).plusDays(i));
+            labor.setDescripcion("Labor " + i);
+            laborService.registrarLabor(labor, vivero.getId());
+        }
+        entityManager.flush();
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> laborService.obtenerPaginaLaboresPorVivero(vivero.getId(), null, 3));
+
+        // Assert
+        medicion.verificarPresupuesto(1);
+    }
 }
@@ -0,0 +1,77 @@
+package com.angie.vivero.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la lista comprimida de labores de un término.
+ */
+class ListaPostingsTest {
+
+    private static List<Long> ids(ListaPostings lista) {
+        List<Long> ids = new ArrayList<>();
+        lista.recorrer((laborId, frecuencia) -> ids.add(laborId));
+        return ids;
+    }
+
+    /**
+     * Prueba: insertar y quitar labores en medio de una lista de varios bloques la mantiene
+     * ordenada, con la cantidad y las frecuencias correctas
+     */
+    @Test
+    void testAgregarYQuitar_EnMedioDeVariosBloques_DebeMantenerOrden() {
+        // Arrange: solo IDs pares, en unos ocho bloques
+        ListaPostings lista = new ListaPostings();
+        List<Long> esperados = new ArrayList<>();
+        for (long id = 2; id <= 2L * ListaPostings.BLOQUE * 8; id += 2) {
+            lista.agregar(id, 1);
+            esperados.add(id);
+        }
+
+        // Act: los impares de la mitad inferior parten bloques; se quita un tercio de los pares
+        for (long id = 1; id < ListaPostings.BLOQUE * 8; id += 2) {
+            lista.agregar(id, 3);
+            esperados.add(id);
+        }
+        for (long id = 6; id <= 2L * ListaPostings.BLOQUE * 8; id += 6) {
+            lista.quitar(id);
+            esperados.remove(id);
+        }
+        lista.quitar(100_000);
+        lista.agregar(4, 5);
+
+        // Assert
+        esperados.sort(null);
+        assertEquals(esperados, ids(lista));
+        assertEquals(esperados.size(), lista.cantidad());
+        assertEquals(3, lista.frecuencia(1));
+        assertEquals(5, lista.frecuencia(4));
+        assertEquals(0, lista.frecuencia(6));
+    }
+
+    /**
+     * Prueba: quitar todas las labores deja la lista vacía y se puede volver a llenar
+     */
+    @Test
+    void testQuitar_TodasLasLabores_DebeDejarListaVacia() {
+        // Arrange
+        ListaPostings lista = new ListaPostings();
+        for (long id = 1; id <= ListaPostings.BLOQUE * 3; id++) {
+            lista.agregar(id, 1);
+        }
+
+        // Act
+        for (long id = ListaPostings.BLOQUE * 3; id >= 1; id--) {
+            lista.quitar(id);
+        }
+        lista.agregar(7, 2);
+
+        // Assert
+        assertEquals(List.of(7L), ids(lista));
+        assertEquals(1, lista.cantidad());
+    }
+}
@@ -0,0 +1,184 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.LaborConProductoDTO;
+import com.angie.vivero.dto.PaginaCursor;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del modelo de lectura del catálogo de productos de control
+ * (tabla productos_control_lectura) con la opción habilitada.
+ * Usa una base propia: con create-drop, su contexto recrearía las tablas de testdb, incluida
+ * secuencias, mientras el contexto compartido sigue entregando IDs de bloques ya reservados.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:modelo-lectura;MODE=MySQL",
+        "vivero.catalogo.modelo-lectura.habilitado=true"
+})
+@Transactional
+class ModeloLecturaCatalogoTest {
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlLecturaRepository productoControlLecturaRepository;
+
+    @Autowired
+    private ProductoControlPlagaRepository productoControlPlagaRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    private ViveroModel vivero;
+
+    @BeforeEach
+    void setUp() {
+        ProductorModel productor = new ProductorModel();
+        productor.setDocumento("5555555555");
+        productor.setNombre("Ana");
+        productor.setApellido("Gómez");
+        productor.setTelefono("3005555555");
+        productor.setCorreo("ana@email.com");
+        productor = productorRepository.save(productor);
+
+        FincaModel finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-LEC");
+        finca.setMunicipio("Rionegro");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-LEC");
+        vivero.setTipoCultivo("Aguacate");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+    }
+
+    private ProductoControlHongoModel nuevoHongo(String registroICA) {
+        ProductoControlHongoModel hongo = new ProductoControlHongoModel();
+        hongo.setRegistroICA(registroICA);
+        hongo.setNombreProducto("Fungicida " + registroICA);
+        hongo.setFrecuenciaAplicacion(15);
+        hongo.setValor(new BigDecimal("50000"));
+        hongo.setNombreHongo("Roya");
+        hongo.setPeriodoCarencia(7);
+        return hongo;
+    }
+
+    /**
+     * Registrar un producto por el servicio crea su fila en el modelo de lectura,
+     * con el subtipo y sus campos propios.
+     */
+    @Test
+    void testRegistrarProducto_ConModeloLectura_DebeCrearFilaDesnormalizada() {
+        // Act
+        ProductoControlDTO producto = productoControlService.registrarProducto(nuevoHongo("ICA-L01"));
+
+        // Assert
+        ProductoControlDTO leido = productoControlLecturaRepository.buscarDTOPorRegistroICA("ICA-L01").orElseThrow();
+        assertEquals(producto.id(), leido.id());
+        assertEquals(0, producto.valor().compareTo(leido.valor()));
+        assertEquals(ProductoControlDTO.TIPO_HONGO, leido.tipo());
+        assertEquals("Roya", leido.nombreHongo());
+    }
+
+    /**
+     * Eliminar un producto por el servicio también elimina su fila de lectura.
+     */
+    @Test
+    void testEliminarProducto_ConModeloLectura_DebeEliminarFilaDesnormalizada() {
+        // Arrange
+        ProductoControlDTO producto = productoControlService.registrarProducto(nuevoHongo("ICA-L02"));
+
+        // Act
+        productoControlService.eliminarProducto(producto.id());
+
+        // Assert
+        assertFalse(productoControlLecturaRepository.existsById(producto.id()));
+    }
+
+    /**
+     * La reconstrucción recupera productos escritos sin pasar por el servicio.
+     */
+    @Test
+    void testReconstruirModeloLectura_ConEscrituraDirecta_DebeIncluirElProducto() {
+        // Arrange
+        ProductoControlPlagaModel plaga = new ProductoControlPlagaModel();
+        plaga.setRegistroICA("ICA-L03");
+        plaga.setNombreProducto("Insecticida");
+        plaga.setFrecuenciaAplicacion(30);
+        plaga.setValor(new BigDecimal("42000"));
+        plaga.setPeriodoCarencia(14);
+        plaga = productoControlPlagaRepository.saveAndFlush(plaga);
+
+        // Act
+        productoControlService.reconstruirModeloLectura();
+
+        // Assert
+        ProductoControlDTO leido = productoControlLecturaRepository.buscarDTOPorId(plaga.getId()).orElseThrow();
+        assertEquals(ProductoControlDTO.TIPO_PLAGA, leido.tipo());
+        assertEquals(14, leido.periodoCarencia());
+    }
+
+    /**
+     * Las dos variantes del listado de labores con producto devuelven lo mismo,
+     * y el servicio pagina sobre el modelo de lectura.
+     */
+    @Test
+    void testLaboresConProducto_EnAmbosModelos_DebenCoincidir() {
+        // Arrange
+        ProductoControlDTO producto = productoControlService.registrarProducto(nuevoHongo("ICA-L04"));
+        for (int i = 0; i < 3; i++) {
+            LaborModel labor = new LaborModel();
+            labor.setFecha(LocalDate.of(2025, 11, 1).plusDays(i));
+            labor.setDescripcion("Fumigación " + i);
+            laborService.registrarLaborConProducto(labor, vivero.getId(), producto.id());
+        }
+        LaborModel sinProducto = new LaborModel();
+        sinProducto.setFecha(LocalDate.of(2025, 11, 2));
+        sinProducto.setDescripcion("Riego");
+        laborService.registrarLabor(sinProducto, vivero.getId());
+        laborRepository.flush();
+
+        // Act
+        List<LaborConProductoDTO> joined = laborRepository.buscarPaginaConProductoPorViveroDesde(
+                vivero.getId(), LocalDate.of(1000, 1, 1), 0L, Limit.of(10));
+        List<LaborConProductoDTO> lectura = laborRepository.buscarPaginaConProductoLecturaPorViveroDesde(
+                vivero.getId(), LocalDate.of(1000, 1, 1), 0L, Limit.of(10));
+        PaginaCursor<LaborConProductoDTO> pagina = laborService.obtenerPaginaLaboresConProductoPorVivero(
+                vivero.getId(), null, 2);
+
+        // Assert
+        assertEquals(3, joined.size());
+        assertEquals(joined, lectura);
+        assertEquals(ProductoControlDTO.TIPO_HONGO, lectura.get(0).tipoProducto());
+        assertEquals(joined.subList(0, 2), pagina.contenido());
+        assertTrue(pagina.hayMas());
+    }
+}
@@ -0,0 +1,128 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.config.CacheConfig;
+import com.angie.vivero.dto.EstadisticasCacheDTO;
+import com.angie.vivero.dto.ProductoControlDTO;
+import com.angie.vivero.models.ProductoControlHongoModel;
+import com.angie.vivero.repositories.ProductoControlRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la caché del catálogo de productos de control.
+ * 
+ * Sin @Transactional: la caché solo se llena e invalida al confirmar cada transacción.
+ */
+@SpringBootTest
+class ProductoControlServiceTest {
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ProductoControlRepository productoControlRepository;
+
+    private final List<Long> creados = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        creados.forEach(id -> {
+            if (productoControlRepository.existsById(id)) {
+                productoControlService.eliminarProducto(id);
+            }
+        });
+    }
+
+    private ProductoControlDTO registrarHongo(String registroICA, String nombre) {
+        ProductoControlHongoModel producto = new ProductoControlHongoModel();
+        producto.setRegistroICA(registroICA);
+        producto.setNombreProducto(nombre);
+        producto.setFrecuenciaAplicacion(15);
+        producto.setValor(new BigDecimal("50000"));
+        producto.setNombreHongo("Roya");
+        producto.setPeriodoCarencia(7);
+        ProductoControlDTO registrado = productoControlService.registrarProducto(producto);
+        creados.add(registrado.id());
+        return registrado;
+    }
+
+    private long aciertos(String cache) {
+        return productoControlService.obtenerEstadisticasCache().stream()
+                .filter(e -> e.nombre().equals(cache))
+                .mapToLong(EstadisticasCacheDTO::aciertos)
+                .sum();
+    }
+
+    /**
+     * La segunda consulta del mismo producto se sirve desde la caché.
+     */
+    @Test
+    void testObtenerProductoPorId_ConsultadoDosVeces_DebeServirseDesdeCache() {
+        // Arrange
+        ProductoControlDTO producto = registrarHongo("ICA-C01", "Fungicida Caché");
+        long aciertosIniciales = aciertos(CacheConfig.PRODUCTOS_POR_ID);
+
+        // Act
+        ProductoControlDTO primera = productoControlService.obtenerProductoPorId(producto.id()).orElseThrow();
+        ProductoControlDTO segunda = productoControlService.obtenerProductoPorId(producto.id()).orElseThrow();
+
+        // Assert
+        assertEquals(primera, segunda);
+        assertEquals(ProductoControlDTO.TIPO_HONGO, segunda.tipo());
+        assertEquals(7, segunda.periodoCarencia());
+        assertEquals(aciertosIniciales + 1, aciertos(CacheConfig.PRODUCTOS_POR_ID));
+    }
+
+    /**
+     * Actualizar un producto invalida las entradas por ID y por registro ICA.
+     */
+    @Test
+    void testActualizarProducto_ConProductoEnCache_DebeInvalidarLaCache() {
+        // Arrange
+        ProductoControlDTO producto = registrarHongo("ICA-C02", "Nombre Anterior");
+        productoControlService.obtenerProductoPorId(producto.id());
+        productoControlService.obtenerProductoPorRegistroICA("ICA-C02");
+
+        ProductoControlHongoModel datos = new ProductoControlHongoModel();
+        datos.setRegistroICA("ICA-C03");
+        datos.setNombreProducto("Nombre Nuevo");
+        datos.setFrecuenciaAplicacion(20);
+        datos.setValor(new BigDecimal("60000"));
+        datos.setNombreHongo("Roya");
+        datos.setPeriodoCarencia(10);
+
+        // Act
+        productoControlService.actualizarProducto(producto.id(), datos);
+
+        // Assert
+        assertEquals("Nombre Nuevo",
+                productoControlService.obtenerProductoPorId(producto.id()).orElseThrow().nombreProducto());
+        assertTrue(productoControlService.obtenerProductoPorRegistroICA("ICA-C02").isEmpty());
+        assertEquals(producto.id(),
+                productoControlService.obtenerProductoPorRegistroICA("ICA-C03").orElseThrow().id());
+    }
+
+    /**
+     * Un producto eliminado deja de encontrarse aunque estuviera en la caché.
+     */
+    @Test
+    void testEliminarProducto_ConProductoEnCache_DebeDejarDeEncontrarse() {
+        // Arrange
+        ProductoControlDTO producto = registrarHongo("ICA-C04", "Fungicida Temporal");
+        productoControlService.obtenerProductoPorId(producto.id());
+
+        // Act
+        productoControlService.eliminarProducto(producto.id());
+
+        // Assert
+        assertTrue(productoControlService.obtenerProductoPorId(producto.id()).isEmpty());
+    }
+}
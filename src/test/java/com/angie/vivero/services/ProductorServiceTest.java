@@ -1,9 +1,14 @@
 package com.angie.vivero.services;
 
+import com.angie.vivero.dto.ProductorConFincasDTO;
 import com.angie.vivero.models.FincaModel;
 import com.angie.vivero.models.ProductorModel;
 import com.angie.vivero.repositories.FincaRepository;
 import com.angie.vivero.repositories.ProductorRepository;
+import com.angie.vivero.soporte.MedicionSql;
+import com.angie.vivero.soporte.RegistroSql;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +38,9 @@ class ProductorServiceTest {
     @Autowired
     private FincaRepository fincaRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         // Limpiar la base de datos antes de cada prueba
@@ -355,4 +363,105 @@ class ProductorServiceTest {
         // El documento no debe cambiar
         assertEquals("6666666666", productorActualizado.getDocumento());
     }
+
+    /**
+     * Proyección de lectura: el productor se obtiene con sus fincas en una sola consulta,
+     * y un productor sin fincas devuelve la lista vacía.
+     */
+    @Test
+    void testObtenerProductorConFincasDTO_ConYSinFincas_DebeArmarLaVista() {
+        // Arrange
+        ProductorModel conFincas = new ProductorModel("7777777777", "Rosa", "Díaz", "3007777777", "rosa@email.com");
+        List<FincaModel> fincas = new ArrayList<>();
+        fincas.add(new FincaModel("CAT-DTO-001", "Rionegro", null));
+        fincas.add(new FincaModel("CAT-DTO-002", "Marinilla", null));
+        ProductorModel guardado = productorService.registrarProductorConFincas(conFincas, fincas);
+
+        ProductorModel sinFincas = new ProductorModel("8888888888", "Hugo", "Ríos", "3008888888", "hugo@email.com");
+        ProductorModel guardadoSinFincas = productorService.registrarProductor(sinFincas);
+
+        // Act
+        ProductorConFincasDTO dto = productorService.obtenerProductorConFincasDTO(guardado.getId()).orElseThrow();
+        ProductorConFincasDTO dtoSinFincas = productorService.buscarPorDocumentoDTO("8888888888").orElseThrow();
+
+        // Assert
+        assertEquals("Rosa", dto.nombre());
+        assertEquals(2, dto.fincas().size());
+        assertTrue(dto.fincas().stream().allMatch(f -> f.productorId().equals(guardado.getId())));
+        assertEquals(guardadoSinFincas.getId(), dtoSinFincas.id());
+        assertTrue(dtoSinFincas.fincas().isEmpty());
+        assertTrue(productorService.obtenerProductorConFincasDTO(-1L).isEmpty());
+    }
+
+    /**
+     * Presupuesto de sentencias: agregar una finca busca el productor, verifica el
+     * número de catastro e inserta la finca, sin volver a consultarla para devolver su ID.
+     */
+    @Test
+    void testAgregarFincaAProductor_PresupuestoDeSentencias_DebeEjecutarCuatroSentencias() throws Exception {
+        // Arrange
+        ProductorModel productor = productorService.registrarProductor(
+                new ProductorModel("9999999999", "Luis", "Mejía", "3009999999", "luis@email.com"));
+        entityManager.flush();
+        entityManager.clear();
+        FincaModel finca = new FincaModel("CAT-PRESUPUESTO-001", "Guarne", null);
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> {
+            productorService.agregarFincaAProductor(productor.getId(), finca);
+            entityManager.flush();
+        });
+
+        // Assert
+        assertNotNull(finca.getId());
+        // Lectura del productor, verificación del catastro, insert de la finca y de su evento de cambios
+        medicion.verificarPresupuesto(4);
+    }
+
+    /**
+     * Presupuesto de sentencias: un productor con sus fincas se registra con la verificación
+     * del documento y los inserts, y las fincas viajan juntas en un lote JDBC.
+     */
+    @Test
+    void testRegistrarProductorConFincas_PresupuestoDeSentencias_DebeInsertarFincasEnLote() throws Exception {
+        // Arrange
+        ProductorModel productor = new ProductorModel("1010101010", "Ana", "Vélez", "3001010101", "ana@email.com");
+        List<FincaModel> fincas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            fincas.add(new FincaModel("CAT-LOTE-00" + i, "Rionegro", null));
+        }
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> {
+            productorService.registrarProductorConFincas(productor, fincas);
+            entityManager.flush();
+        });
+
+        // Assert
+        // Los eventos de cambios del productor y de las fincas viajan en un lote aparte
+        medicion.verificarPresupuesto(13);
+        assertEquals(4, medicion.idasYVueltas(), "Las cinco fincas deben insertarse en un solo lote");
+    }
+
+    /**
+     * Presupuesto de sentencias: la vista de lectura del productor con sus fincas es una sola consulta.
+     */
+    @Test
+    void testObtenerProductorConFincasDTO_PresupuestoDeSentencias_DebeEjecutarUnaConsulta() throws Exception {
+        // Arrange
+        List<FincaModel> fincas = new ArrayList<>();
+        fincas.add(new FincaModel("CAT-VISTA-001", "Rionegro", null));
+        fincas.add(new FincaModel("CAT-VISTA-002", "Marinilla", null));
+        ProductorModel guardado = productorService.registrarProductorConFincas(
+                new ProductorModel("1212121212", "Eva", "Cano", "3001212121", "eva@email.com"), fincas);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        MedicionSql medicion = RegistroSql.medir(() -> productorService.obtenerProductorConFincasDTO(guardado.getId()));
+
+        // Assert
+        medicion.verificarPresupuesto(1);
+        assertEquals(2, medicion.filasLeidas());
+    }
 }
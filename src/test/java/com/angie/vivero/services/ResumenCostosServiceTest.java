@@ -0,0 +1,230 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.LaborLoteItem;
+import com.angie.vivero.dto.ResumenCostoDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los costos acumulados por vivero, finca y productor.
+ */
+@SpringBootTest
+@Transactional
+class ResumenCostosServiceTest {
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private LaborService laborService;
+
+    @Autowired
+    private ProductoControlService productoControlService;
+
+    @Autowired
+    private ProductorService productorService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private ProductoControlHongoRepository productoControlHongoRepository;
+
+    private ProductorModel productor;
+    private ViveroModel vivero;
+    private ProductoControlHongoModel productoControl;
+
+    @BeforeEach
+    void setUp() {
+        productor = new ProductorModel();
+        productor.setDocumento("7777777777");
+        productor.setNombre("Luis");
+        productor.setApellido("Mejía");
+        productor.setTelefono("3007777777");
+        productor.setCorreo("luis@email.com");
+        productor = productorRepository.save(productor);
+
+        FincaModel finca = new FincaModel();
+        finca.setNumeroCatastro("CAT-COS");
+        finca.setMunicipio("Jardín");
+        finca.setProductor(productor);
+        finca = fincaRepository.save(finca);
+
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-COS");
+        vivero.setTipoCultivo("Café");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+
+        productoControl = new ProductoControlHongoModel();
+        productoControl.setRegistroICA("ICA-COS");
+        productoControl.setNombreProducto("Fungicida Costos");
+        productoControl.setFrecuenciaAplicacion(15);
+        productoControl.setValor(new BigDecimal("50000"));
+        productoControl.setNombreHongo("Roya");
+        productoControl.setPeriodoCarencia(7);
+        productoControl = productoControlHongoRepository.save(productoControl);
+    }
+
+    private LaborModel registrar(LocalDate fecha, boolean conProducto) {
+        LaborModel labor = new LaborModel();
+        labor.setFecha(fecha);
+        labor.setDescripcion("Labor " + fecha);
+        return laborService.registrarLaborConProducto(labor, vivero.getId(),
+                conProducto ? productoControl.getId() : null);
+    }
+
+    private List<ResumenCostoDTO> costosDelProductor() {
+        return resumenCostosService.obtenerCostos(AmbitoCosto.PRODUCTOR, productor.getId(), null, null);
+    }
+
+    /**
+     * Registrar labores actualiza los acumulados del mes correspondiente,
+     * contando todas las labores y sumando solo el valor de los productos.
+     */
+    @Test
+    void testRegistrarLabores_EnDosMeses_DebeAcumularPorMes() {
+        // Act
+        registrar(LocalDate.of(2025, 10, 5), true);
+        registrar(LocalDate.of(2025, 10, 20), false);
+        registrar(LocalDate.of(2025, 11, 3), true);
+
+        // Assert
+        List<ResumenCostoDTO> costos = costosDelProductor();
+        assertEquals(2, costos.size());
+        assertEquals(10, costos.get(0).mes());
+        assertEquals(2, costos.get(0).cantidadLabores());
+        assertEquals(0, new BigDecimal("50000").compareTo(costos.get(0).totalValor()));
+        assertEquals(11, costos.get(1).mes());
+        assertEquals(1, costos.get(1).cantidadLabores());
+
+        List<ResumenCostoDTO> soloNoviembre = resumenCostosService.obtenerCostos(
+                AmbitoCosto.VIVERO, vivero.getId(), YearMonth.of(2025, 11), YearMonth.of(2025, 11));
+        assertEquals(1, soloNoviembre.size());
+    }
+
+    /**
+     * Cambiar de mes una labor la mueve entre acumulados, y eliminarla la descuenta.
+     */
+    @Test
+    void testActualizarYEliminarLabor_DebeMoverYDescontarAcumulados() {
+        // Arrange
+        LaborModel labor = registrar(LocalDate.of(2025, 10, 5), true);
+
+        // Act
+        LaborModel cambio = new LaborModel();
+        cambio.setFecha(LocalDate.of(2025, 12, 1));
+        cambio.setDescripcion("Labor movida");
+        laborService.actualizarLabor(labor.getId(), cambio);
+        List<ResumenCostoDTO> despuesDeMover = costosDelProductor();
+        laborService.eliminarLabor(labor.getId());
+
+        // Assert
+        assertEquals(1, despuesDeMover.size());
+        assertEquals(12, despuesDeMover.get(0).mes());
+        assertTrue(costosDelProductor().isEmpty());
+    }
+
+    /**
+     * Eliminar un productor descuenta sus labores de los acumulados en la misma transacción,
+     * sin esperar a la reconciliación.
+     */
+    @Test
+    void testEliminarProductor_ConLabores_DebeDescontarAcumulados() {
+        // Arrange: un productor con su finca y su vivero en cascada, como los crea la API
+        FincaModel finca = new FincaModel("CAT-COS-BAJA", "Jardín", null);
+        finca.addVivero(new ViveroModel("VIV-COS-BAJA", "Café", null));
+        ProductorModel otro = productorService.registrarProductorConFincas(
+                new ProductorModel("7777777770", "Marta", "Mejía", "3007777770", "marta@email.com"), List.of(finca));
+        Long viveroId = otro.getFincas().get(0).getViveros().get(0).getId();
+        laborService.registrarLaborConProducto(new LaborModel(LocalDate.of(2025, 10, 5), "Aspersión", null),
+                viveroId, productoControl.getId());
+        laborService.registrarLabor(new LaborModel(LocalDate.of(2025, 11, 3), "Poda", null), viveroId);
+        assertEquals(2, resumenCostosService.obtenerCostos(AmbitoCosto.PRODUCTOR, otro.getId(), null, null).size());
+        // Como en otra solicitud: las labores registradas no están en la colección del vivero
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        productorService.eliminarProductor(otro.getId());
+
+        // Assert
+        assertTrue(resumenCostosService.obtenerCostos(AmbitoCosto.PRODUCTOR, otro.getId(), null, null).isEmpty());
+        assertTrue(resumenCostosService.obtenerCostos(AmbitoCosto.VIVERO, viveroId, null, null).isEmpty());
+    }
+
+    /**
+     * La carga masiva deja los mismos acumulados que la reconciliación desde las labores.
+     */
+    @Test
+    void testRegistrarLaboresEnLote_DebeCoincidirConReconciliacion() {
+        // Arrange
+        List<LaborLoteItem> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(new LaborLoteItem(LocalDate.of(2025, 9, 1).plusDays(i * 3L), "Lote " + i,
+                    vivero.getId(), i % 2 == 0 ? productoControl.getId() : null));
+        }
+
+        // Act
+        laborService.registrarLaboresEnLote(items, 0);
+        List<ResumenCostoDTO> incrementales = costosDelProductor();
+        resumenCostosService.reconciliar();
+        List<ResumenCostoDTO> reconciliados = costosDelProductor();
+
+        // Assert
+        assertEquals(30, incrementales.stream().mapToLong(ResumenCostoDTO::cantidadLabores).sum());
+        assertEquals(reconciliados.size(), incrementales.size());
+        for (int i = 0; i < incrementales.size(); i++) {
+            assertEquals(reconciliados.get(i).cantidadLabores(), incrementales.get(i).cantidadLabores());
+            assertEquals(0, reconciliados.get(i).totalValor().compareTo(incrementales.get(i).totalValor()));
+        }
+    }
+
+    /**
+     * Cambiar el valor de un producto ajusta el total de los meses en que se usó.
+     */
+    @Test
+    void testActualizarValorProducto_DebeAjustarTotales() {
+        // Arrange
+        registrar(LocalDate.of(2025, 10, 5), true);
+        registrar(LocalDate.of(2025, 10, 6), true);
+
+        ProductoControlHongoModel datos = new ProductoControlHongoModel();
+        datos.setRegistroICA("ICA-COS");
+        datos.setNombreProducto("Fungicida Costos");
+        datos.setFrecuenciaAplicacion(15);
+        datos.setValor(new BigDecimal("60000"));
+        datos.setNombreHongo("Roya");
+        datos.setPeriodoCarencia(7);
+
+        // Act
+        productoControlService.actualizarProducto(productoControl.getId(), datos);
+
+        // Assert
+        assertEquals(0, new BigDecimal("120000").compareTo(costosDelProductor().get(0).totalValor()));
+    }
+}
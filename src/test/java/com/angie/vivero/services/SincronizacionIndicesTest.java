@@ -0,0 +1,128 @@
+package com.angie.vivero.services;
+
+import com.angie.vivero.dto.LaborDTO;
+import com.angie.vivero.models.*;
+import com.angie.vivero.repositories.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del seguimiento del flujo de cambios por los índices en memoria.
+ *
+ * Las escrituras de "otra instancia" se simulan guardando con el repositorio, sin
+ * LaborCambiadaEvent, y dejando en la bandeja el evento que esa instancia habría registrado.
+ */
+@SpringBootTest
+class SincronizacionIndicesTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 9, 1);
+
+    @Autowired
+    private SincronizacionIndices sincronizacionIndices;
+
+    @Autowired
+    private RelevoCambios relevoCambios;
+
+    @Autowired
+    private BusquedaLaboresService busquedaLaboresService;
+
+    @Autowired
+    private CambioRepository cambioRepository;
+
+    @Autowired
+    private LaborRepository laborRepository;
+
+    @Autowired
+    private ViveroRepository viveroRepository;
+
+    @Autowired
+    private FincaRepository fincaRepository;
+
+    @Autowired
+    private ProductorRepository productorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ProductorModel productor;
+    private FincaModel finca;
+    private ViveroModel vivero;
+
+    @BeforeEach
+    void setUp() {
+        productor = productorRepository.save(
+                new ProductorModel("7171717171", "Rosa", "Gil", "3007171717", "rosa@email.com"));
+        finca = fincaRepository.save(new FincaModel("CAT-SINC-1", "Urrao", productor));
+        vivero = new ViveroModel();
+        vivero.setCodigo("VIV-SINC-1");
+        vivero.setTipoCultivo("Café");
+        vivero.setFinca(finca);
+        vivero = viveroRepository.save(vivero);
+        // El flujo se sigue desde aquí, sin los eventos que dejaron otras pruebas
+        relevoCambios.relevarPendientes();
+        sincronizacionIndices.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        laborRepository.deleteAll(laborRepository.findByViveroId(vivero.getId()));
+        viveroRepository.deleteById(vivero.getId());
+        fincaRepository.deleteById(finca.getId());
+        productorRepository.deleteById(productor.getId());
+    }
+
+    private void registrarCambioDeOtraInstancia(LaborModel labor, OperacionCambio operacion) throws Exception {
+        cambioRepository.save(new CambioModel(EntidadCambio.LABOR, labor.getId(), labor.getVersion(), operacion,
+                objectMapper.writeValueAsString(LaborDTO.desde(labor)), LocalDateTime.now()));
+    }
+
+    private List<Long> buscarIds(String consulta) {
+        return busquedaLaboresService.buscar(consulta, vivero.getId(), null, null, 0, null).contenido().stream()
+                .map(encontrada -> encontrada.labor().id())
+                .toList();
+    }
+
+    /**
+     * Prueba: una labor registrada y luego eliminada por otra instancia entra y sale del índice
+     * de búsqueda al seguir el flujo, aunque esta instancia no recibió ningún LaborCambiadaEvent
+     */
+    @Test
+    void testSeguir_ConLaborDeOtraInstancia_DebeActualizarBusqueda() throws Exception {
+        // Arrange
+        LaborModel labor = new LaborModel();
+        labor.setFecha(FECHA);
+        labor.setDescripcion("Trasplante de chapolas");
+        labor.setVivero(vivero);
+        labor = laborRepository.save(labor);
+        registrarCambioDeOtraInstancia(labor, OperacionCambio.REGISTRO);
+        relevoCambios.relevarPendientes();
+        assertTrue(buscarIds("chapolas").isEmpty());
+
+        // Act
+        sincronizacionIndices.seguir();
+
+        // Assert
+        assertEquals(List.of(labor.getId()), buscarIds("chapolas"));
+
+        // Arrange
+        laborRepository.delete(labor);
+        registrarCambioDeOtraInstancia(labor, OperacionCambio.ELIMINACION);
+        relevoCambios.relevarPendientes();
+
+        // Act
+        sincronizacionIndices.seguir();
+
+        // Assert
+        assertTrue(buscarIds("chapolas").isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+package com.angie.vivero.soporte;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Intercepta el DataSource de las pruebas para que RegistroSql pueda medir el SQL ejecutado,
+ * y mide cada petición HTTP para el reporte por endpoint.
+ *
+ * Solo existe en el classpath de pruebas; el escaneo de componentes de la aplicación la
+ * incluye en todos los contextos de @SpringBootTest. Los benchmarks la desactivan con
+ * vivero.pruebas.medicion-sql=false para no medir el costo del proxy.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vivero.pruebas.medicion-sql", havingValue = "true", matchIfMissing = true)
+public class ConfiguracionMedicionSql {
+
+    @Bean
+    static BeanPostProcessor dataSourceMedido() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(nombre)
+                            .listener(new EscuchaSentencias())
+                            .proxyResultSet()
+                            .methodListener(new EscuchaFilas())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FiltroSentenciasPorEndpoint filtroSentenciasPorEndpoint() {
+        return new FiltroSentenciasPorEndpoint();
+    }
+
+    private static final class EscuchaSentencias implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo ejecucion, List<QueryInfo> consultas) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo ejecucion, List<QueryInfo> consultas) {
+            // Un lote de PreparedStatement trae una consulta con un juego de parámetros por sentencia
+            int sentencias = ejecucion.isBatch()
+                    ? consultas.stream().mapToInt(c -> Math.max(1, c.getParametersList().size())).sum()
+                    : 1;
+            String sql = consultas.size() == 1
+                    ? consultas.get(0).getQuery()
+                    : String.join("; ", consultas.stream().map(QueryInfo::getQuery).toList());
+            RegistroSql.registrarEjecucion(sql, sentencias);
+        }
+    }
+
+    private static final class EscuchaFilas implements MethodExecutionListener {
+
+        @Override
+        public void beforeMethod(MethodExecutionContext contexto) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext contexto) {
+            if (contexto.getTarget() instanceof ResultSet
+                    && "next".equals(contexto.getMethod().getName())
+                    && Boolean.TRUE.equals(contexto.getResult())) {
+                RegistroSql.registrarFila();
+            }
+        }
+    }
+
+    /**
+     * Mide cada petición y la acumula en ReporteSentenciasSql bajo su método y patrón de ruta.
+     */
+    static class FiltroSentenciasPorEndpoint extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            MedicionSql medicion = RegistroSql.iniciar();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                RegistroSql.terminar(medicion);
+            }
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (patron != null) {
+                ReporteSentenciasSql.registrar(request.getMethod() + " " + patron, medicion);
+            }
+        }
+    }
+}
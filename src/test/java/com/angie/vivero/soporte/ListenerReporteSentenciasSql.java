@@ -0,0 +1,30 @@
+package com.angie.vivero.soporte;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Escribe target/reporte-sentencias-sql.md al terminar las pruebas, si alguna petición HTTP
+ * pasó por FiltroSentenciasPorEndpoint. Se registra en
+ * META-INF/services/org.junit.platform.launcher.TestExecutionListener.
+ */
+public class ListenerReporteSentenciasSql implements TestExecutionListener {
+
+    static final Path ARCHIVO = Path.of("target", "reporte-sentencias-sql.md");
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (ReporteSentenciasSql.vacio()) {
+            return;
+        }
+        try {
+            ReporteSentenciasSql.escribir(ARCHIVO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
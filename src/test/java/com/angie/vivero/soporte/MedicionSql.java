@@ -0,0 +1,90 @@
+package com.angie.vivero.soporte;
+
+import com.angie.vivero.models.GeneradorIdsPorBloques;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sentencias SQL, idas y vueltas a la base de datos y filas leídas durante una medición.
+ *
+ * Las reservas de bloques de IDs en la tabla secuencias se cuentan aparte: dependen de
+ * cuántos IDs quedan en el bloque actual y no del código que se mide.
+ */
+public final class MedicionSql {
+
+    private record Ejecucion(String sql, int sentencias, boolean reservaIds) {
+    }
+
+    private final List<Ejecucion> ejecuciones = new ArrayList<>();
+
+    private long filasLeidas;
+
+    MedicionSql() {
+    }
+
+    /**
+     * Registra una ida y vuelta: una sentencia, o un lote de sentencias enviado de una vez.
+     */
+    void registrarEjecucion(String sql, int sentencias) {
+        boolean reservaIds = sql.toLowerCase(Locale.ROOT).contains(GeneradorIdsPorBloques.TABLA);
+        ejecuciones.add(new Ejecucion(sql, sentencias, reservaIds));
+    }
+
+    void registrarFila() {
+        filasLeidas++;
+    }
+
+    /**
+     * @return Sentencias ejecutadas, contando cada elemento de un lote JDBC
+     */
+    public int sentencias() {
+        return ejecuciones.stream().filter(e -> !e.reservaIds()).mapToInt(Ejecucion::sentencias).sum();
+    }
+
+    /**
+     * @return Viajes a la base de datos: un lote JDBC cuenta como uno solo
+     */
+    public int idasYVueltas() {
+        return (int) ejecuciones.stream().filter(e -> !e.reservaIds()).count();
+    }
+
+    /**
+     * @return Filas recorridas en los ResultSet
+     */
+    public long filasLeidas() {
+        return filasLeidas;
+    }
+
+    /**
+     * @return Sentencias ejecutadas sobre la tabla secuencias para reservar bloques de IDs
+     */
+    public int reservasIds() {
+        return (int) ejecuciones.stream().filter(Ejecucion::reservaIds).count();
+    }
+
+    /**
+     * @return El SQL de cada ida y vuelta, sin las reservas de IDs, en orden de ejecución
+     */
+    public List<String> sql() {
+        return ejecuciones.stream().filter(e -> !e.reservaIds()).map(Ejecucion::sql).toList();
+    }
+
+    /**
+     * Falla si se ejecutaron más sentencias que las permitidas, listando el SQL ejecutado.
+     *
+     * @param maximoSentencias Cantidad máxima de sentencias permitidas
+     * @throws AssertionError si se supera el presupuesto
+     */
+    public void verificarPresupuesto(int maximoSentencias) {
+        if (sentencias() > maximoSentencias) {
+            StringBuilder mensaje = new StringBuilder()
+                    .append("Se esperaban a lo sumo ").append(maximoSentencias)
+                    .append(" sentencias SQL y se ejecutaron ").append(sentencias()).append(':');
+            ejecuciones.stream().filter(e -> !e.reservaIds()).forEach(e -> mensaje
+                    .append(System.lineSeparator()).append("  [").append(e.sentencias()).append("] ").append(e.sql()));
+            throw new AssertionError(mensaje.toString());
+        }
+    }
+}
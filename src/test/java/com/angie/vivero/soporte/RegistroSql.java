@@ -0,0 +1,67 @@
+package com.angie.vivero.soporte;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Punto de entrada para medir el SQL que ejecuta un bloque de código en las pruebas.
+ *
+ * Las mediciones activas se guardan por hilo, así que solo cuentan las sentencias que
+ * ejecuta el hilo que mide; las mediciones pueden anidarse y cada sentencia cuenta en todas.
+ * El DataSource se intercepta en ConfiguracionMedicionSql.
+ */
+public final class RegistroSql {
+
+    /**
+     * Bloque de código a medir.
+     */
+    @FunctionalInterface
+    public interface Operacion {
+        void ejecutar() throws Exception;
+    }
+
+    private static final ThreadLocal<Deque<MedicionSql>> ACTIVAS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private RegistroSql() {
+    }
+
+    /**
+     * Ejecuta la operación y devuelve el SQL que ejecutó. Para incluir las escrituras
+     * pendientes del contexto de persistencia, la operación debe terminar con un flush.
+     *
+     * @param operacion Código a medir
+     * @return La medición
+     * @throws Exception la que lance la operación
+     */
+    public static MedicionSql medir(Operacion operacion) throws Exception {
+        MedicionSql medicion = iniciar();
+        try {
+            operacion.ejecutar();
+        } finally {
+            terminar(medicion);
+        }
+        return medicion;
+    }
+
+    static MedicionSql iniciar() {
+        MedicionSql medicion = new MedicionSql();
+        ACTIVAS.get().push(medicion);
+        return medicion;
+    }
+
+    static void terminar(MedicionSql medicion) {
+        ACTIVAS.get().remove(medicion);
+    }
+
+    static void registrarEjecucion(String sql, int sentencias) {
+        for (MedicionSql medicion : ACTIVAS.get()) {
+            medicion.registrarEjecucion(sql, sentencias);
+        }
+    }
+
+    static void registrarFila() {
+        for (MedicionSql medicion : ACTIVAS.get()) {
+            medicion.registrarFila();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.angie.vivero.soporte;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Acumula el SQL medido por endpoint durante toda la ejecución de las pruebas
+ * y lo escribe como una tabla Markdown al terminar (ver ListenerReporteSentenciasSql).
+ */
+public final class ReporteSentenciasSql {
+
+    private static final class Acumulado {
+        private int peticiones;
+        private int minimoSentencias = Integer.MAX_VALUE;
+        private int maximoSentencias;
+        private long idasYVueltas;
+        private long filasLeidas;
+        private long reservasIds;
+
+        private synchronized void agregar(MedicionSql medicion) {
+            peticiones++;
+            minimoSentencias = Math.min(minimoSentencias, medicion.sentencias());
+            maximoSentencias = Math.max(maximoSentencias, medicion.sentencias());
+            idasYVueltas += medicion.idasYVueltas();
+            filasLeidas += medicion.filasLeidas();
+            reservasIds += medicion.reservasIds();
+        }
+
+        private synchronized String fila(String endpoint) {
+            String sentencias = minimoSentencias == maximoSentencias
+                    ? String.valueOf(maximoSentencias) : minimoSentencias + "–" + maximoSentencias;
+            return "| `" + endpoint + "` | " + peticiones + " | " + sentencias + " | "
+                    + idasYVueltas + " | " + filasLeidas + " | " + reservasIds + " |";
+        }
+    }
+
+    private static final Map<String, Acumulado> POR_ENDPOINT = new ConcurrentSkipListMap<>();
+
+    private ReporteSentenciasSql() {
+    }
+
+    static void registrar(String endpoint, MedicionSql medicion) {
+        POR_ENDPOINT.computeIfAbsent(endpoint, e -> new Acumulado()).agregar(medicion);
+    }
+
+    static boolean vacio() {
+        return POR_ENDPOINT.isEmpty();
+    }
+
+    static void escribir(Path archivo) throws IOException {
+        StringBuilder reporte = new StringBuilder()
+                .append("# Sentencias SQL por endpoint\n\n")
+                .append("Medidas sobre H2 durante las pruebas. Idas y vueltas, filas y reservas de IDs ")
+                .append("son totales de todas las peticiones.\n\n")
+                .append("| Endpoint | Peticiones | Sentencias por petición | Idas y vueltas | Filas leídas | Reservas de IDs |\n")
+                .append("|---|---|---|---|---|---|\n");
+        POR_ENDPOINT.forEach((endpoint, acumulado) -> reporte.append(acumulado.fila(endpoint)).append('\n'));
+        Files.createDirectories(archivo.getParent());
+        Files.writeString(archivo, reporte);
+    }
+}